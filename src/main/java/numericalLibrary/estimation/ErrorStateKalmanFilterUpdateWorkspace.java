@@ -0,0 +1,63 @@
+package numericalLibrary.estimation;
+
+
+import numericalLibrary.types.MatrixReal;
+
+
+
+/**
+ * Holds the preallocated {@link MatrixReal}s used by {@link UnitQuaternionErrorStateKalmanFilter} to process measurements of a given dimension.
+ */
+class ErrorStateKalmanFilterUpdateWorkspace
+{
+    ////////////////////////////////////////////////////////////////
+    // PACKAGE-PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Product  P H^T , of size N x r.
+     */
+    final MatrixReal PHt;
+    
+    /**
+     * Innovation covariance  S = H P H^T + R , of size r x r.
+     */
+    final MatrixReal S;
+    
+    /**
+     * Cholesky decomposition of the innovation covariance, of size r x r.
+     */
+    final MatrixReal L;
+    
+    /**
+     * Kalman gain  K = P H^T S^{-1} , of size N x r.
+     */
+    final MatrixReal K;
+    
+    /**
+     * Workspace of size N x r holding  K R  in the sandwich product  K R K^T .
+     */
+    final MatrixReal KR;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PACKAGE-PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link ErrorStateKalmanFilterUpdateWorkspace}.
+     * 
+     * @param stateDimension    dimension N of the error state.
+     * @param measurementDimension  dimension r of the measurements.
+     */
+    ErrorStateKalmanFilterUpdateWorkspace( int stateDimension , int measurementDimension )
+    {
+        this.PHt = MatrixReal.empty( stateDimension , measurementDimension );
+        this.S = MatrixReal.empty( measurementDimension , measurementDimension );
+        this.L = MatrixReal.empty( measurementDimension , measurementDimension );
+        this.K = MatrixReal.empty( stateDimension , measurementDimension );
+        this.KR = MatrixReal.empty( stateDimension , measurementDimension );
+    }
+    
+}
@@ -0,0 +1,354 @@
+package numericalLibrary.estimation;
+
+
+import java.util.Arrays;
+
+import numericalLibrary.manifolds.unitQuaternions.atlases.UnitQuaternionDifferentiableAtlas;
+import numericalLibrary.types.Matrix3;
+import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * Implements an error-state extended Kalman filter whose state is an attitude {@link UnitQuaternion} together with a Euclidean vector.
+ * <p>
+ * The nominal state is composed of the attitude  q  and the Euclidean vector  x  of dimension m.
+ * The error state has dimension  N = 3 + m : its first 3 components are the attitude error expressed in the chart of a {@link UnitQuaternionDifferentiableAtlas} centered at  q ,
+ * and the remaining m components are the error of  x .
+ * The covariance matrix  P  of the error state is propagated with
+ * <br>
+ * P  <-  F P F^T + Q
+ * <br>
+ * and updated with the Joseph form
+ * <br>
+ * P  <-  ( I - K H ) P ( I - K H )^T + K R K^T
+ * <br>
+ * which keeps  P  symmetric and positive-definite in presence of rounding errors.
+ * After each update, the attitude error is injected in the nominal attitude through the chart,
+ * and the covariance matrix is reset to the chart centered at the new attitude using the Jacobian of the transition map.
+ * <p>
+ * Every intermediate {@link MatrixReal} is preallocated; the workspaces for each measurement dimension are created the first time such dimension is used.
+ * Hence, once every measurement dimension has been seen, {@link #predict(UnitQuaternion, MatrixReal, MatrixReal, MatrixReal)} and {@link #update(MatrixReal, MatrixReal, MatrixReal)} do not allocate new objects.
+ * 
+ * @see "Kalman Filtering for Attitude Estimation with Quaternions and Concepts from Manifold Theory" (<a href="https://www.mdpi.com/1424-8220/19/1/149">https://www.mdpi.com/1424-8220/19/1/149</a>)
+ */
+public class UnitQuaternionErrorStateKalmanFilter
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * {@link UnitQuaternionDifferentiableAtlas} that defines the attitude error.
+     */
+    private final UnitQuaternionDifferentiableAtlas atlas;
+    
+    /**
+     * Nominal attitude.
+     */
+    private final UnitQuaternion attitude;
+    
+    /**
+     * Nominal Euclidean state, as a column {@link MatrixReal} of size m x 1.
+     */
+    private final MatrixReal euclideanState;
+    
+    /**
+     * Covariance matrix of the error state, of size N x N.
+     */
+    private final MatrixReal covariance;
+    
+    /**
+     * Workspace of size N x N holding  F P  in the prediction, and  ( I - K H ) P  in the update.
+     */
+    private final MatrixReal leftProduct;
+    
+    /**
+     * Workspace of size N x N holding  I - K H .
+     */
+    private final MatrixReal josephFactor;
+    
+    /**
+     * Workspace of size N x 1 holding the estimated error state.
+     */
+    private final MatrixReal errorState;
+    
+    /**
+     * Workspace holding the attitude error.
+     */
+    private final Vector3 attitudeError;
+    
+    /**
+     * Workspace holding the attitude before the injection of the error state.
+     */
+    private final UnitQuaternion previousAttitude;
+    
+    /**
+     * Workspace holding the Jacobian of the transition map used to reset the covariance matrix.
+     */
+    private final Matrix3 transitionMapJacobian;
+    
+    /**
+     * Workspaces used by the update, indexed by the measurement dimension.
+     */
+    private ErrorStateKalmanFilterUpdateWorkspace[] updateWorkspaces;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link UnitQuaternionErrorStateKalmanFilter}.
+     * <p>
+     * The inputs are copied.
+     * 
+     * @param atlas     {@link UnitQuaternionDifferentiableAtlas} that defines the attitude error.
+     * @param initialAttitude   initial nominal attitude.
+     * @param initialEuclideanState     initial nominal Euclidean state, as a column {@link MatrixReal} of size m x 1.
+     * @param initialCovariance     initial covariance matrix of the error state, of size (3+m) x (3+m).
+     * @throws IllegalArgumentException if the sizes of the {@link MatrixReal}s are not consistent.
+     */
+    public UnitQuaternionErrorStateKalmanFilter( UnitQuaternionDifferentiableAtlas atlas , UnitQuaternion initialAttitude , MatrixReal initialEuclideanState , MatrixReal initialCovariance )
+    {
+        if( initialEuclideanState.columns() != 1 ) {
+            throw new IllegalArgumentException( "The Euclidean state must be a column matrix; found size " + initialEuclideanState.size() + "." );
+        }
+        int N = 3 + initialEuclideanState.rows();
+        assertSize( initialCovariance , N , N , "covariance" );
+        this.atlas = atlas;
+        this.attitude = initialAttitude.copy();
+        this.euclideanState = initialEuclideanState.copy();
+        this.covariance = initialCovariance.copy();
+        this.leftProduct = MatrixReal.empty( N , N );
+        this.josephFactor = MatrixReal.empty( N , N );
+        this.errorState = MatrixReal.empty( N , 1 );
+        this.attitudeError = Vector3.zero();
+        this.previousAttitude = UnitQuaternion.one();
+        this.transitionMapJacobian = Matrix3.zero();
+        this.updateWorkspaces = new ErrorStateKalmanFilterUpdateWorkspace[ N + 1 ];
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the dimension N of the error state.
+     * 
+     * @return  dimension of the error state.
+     */
+    public int getErrorStateDimension()
+    {
+        return this.covariance.rows();
+    }
+    
+    
+    /**
+     * Returns the nominal attitude.
+     * <p>
+     * The returned {@link UnitQuaternion} is the one used internally; it must not be modified.
+     * 
+     * @return  nominal attitude.
+     */
+    public UnitQuaternion getAttitude()
+    {
+        return this.attitude;
+    }
+    
+    
+    /**
+     * Returns the nominal Euclidean state.
+     * <p>
+     * The returned {@link MatrixReal} is the one used internally; it must not be modified.
+     * 
+     * @return  nominal Euclidean state, as a column {@link MatrixReal} of size m x 1.
+     */
+    public MatrixReal getEuclideanState()
+    {
+        return this.euclideanState;
+    }
+    
+    
+    /**
+     * Returns the covariance matrix of the error state, expressed in the chart centered at the nominal attitude.
+     * <p>
+     * The returned {@link MatrixReal} is the one used internally; it must not be modified.
+     * 
+     * @return  covariance matrix of the error state, of size N x N.
+     */
+    public MatrixReal getCovariance()
+    {
+        return this.covariance;
+    }
+    
+    
+    /**
+     * Performs the prediction step.
+     * <p>
+     * The nominal state is set to the propagated one, and the covariance matrix is propagated with the fused sandwich  P <- F P F^T + Q ,
+     * which only computes the lower triangular part of  F P F^T  and mirrors it.
+     * 
+     * @param propagatedAttitude    nominal attitude propagated to the new time step. It is copied.
+     * @param propagatedEuclideanState  nominal Euclidean state propagated to the new time step, of size m x 1. It is copied.
+     * @param F     Jacobian of the propagation of the error state, of size N x N.
+     * @param Q     symmetric covariance matrix of the process noise, of size N x N.
+     * @throws IllegalArgumentException if the sizes of the {@link MatrixReal}s are not consistent.
+     */
+    public void predict( UnitQuaternion propagatedAttitude , MatrixReal propagatedEuclideanState , MatrixReal F , MatrixReal Q )
+    {
+        int N = this.getErrorStateDimension();
+        assertSize( F , N , N , "F" );
+        assertSize( Q , N , N , "Q" );
+        this.attitude.setTo( propagatedAttitude );
+        this.euclideanState.setTo( propagatedEuclideanState );
+        this.covariance.setToSandwich( F , this.covariance , this.leftProduct , true ).addInplace( Q );
+    }
+    
+    
+    /**
+     * Performs the update step with a measurement.
+     * <p>
+     * The innovation is the difference between the measurement and its prediction from the nominal state.
+     * The error state is estimated with the Kalman gain, injected in the nominal state,
+     * and the covariance matrix is updated with the Joseph form and reset to the chart centered at the new nominal attitude.
+     * 
+     * @param innovation    innovation of the measurement, as a column {@link MatrixReal} of size r x 1.
+     * @param H     Jacobian of the measurement with respect to the error state, of size r x N.
+     * @param R     covariance matrix of the measurement noise, of size r x r.
+     * @throws IllegalArgumentException if the sizes of the {@link MatrixReal}s are not consistent.
+     * @throws IllegalStateException if the innovation covariance matrix is not positive-definite.
+     */
+    public void update( MatrixReal innovation , MatrixReal H , MatrixReal R )
+    {
+        int N = this.getErrorStateDimension();
+        int r = innovation.rows();
+        assertSize( innovation , r , 1 , "innovation" );
+        assertSize( H , r , N , "H" );
+        assertSize( R , r , r , "R" );
+        ErrorStateKalmanFilterUpdateWorkspace workspace = this.updateWorkspace( r );
+        // K = P H^T ( H P H^T + R )^{-1}
+        workspace.PHt.setToLeftTimesRightTranspose( this.covariance , H );
+        workspace.S.setTo( R ).addLeftTimesRight( H , workspace.PHt );
+        try {
+            workspace.L.setTo( workspace.S ).choleskyDecompositionInplace();
+        } catch( IllegalArgumentException e ) {
+            throw new IllegalStateException( "Cholesky decomposition applied to non positive definite innovation covariance matrix." );
+        }
+        workspace.K.setTo( workspace.PHt ).divideRightByPositiveDefiniteUsingItsCholeskyDecompositionInplace( workspace.L );
+        // Joseph form: P = ( I - K H ) P ( I - K H )^T + K R K^T
+        this.josephFactor.setToLeftTimesRight( workspace.K , H ).inverseAdditiveInplace();
+        for( int i=0; i<N; i++ ) {
+            this.josephFactor.setEntry( i , i , 1.0 + this.josephFactor.entry( i , i ) );
+        }
+        this.covariance.setToSandwich( this.josephFactor , this.covariance , this.leftProduct , false ).addSandwich( workspace.K , R , workspace.KR , true );
+        // Estimate the error state and inject it in the nominal state.
+        this.errorState.setToLeftTimesRight( workspace.K , innovation );
+        this.injectErrorState();
+        this.symmetrizeCovariance();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Throws an {@link IllegalArgumentException} if a {@link MatrixReal} does not have the expected size.
+     * 
+     * @param matrix    {@link MatrixReal} to be checked.
+     * @param rows  expected number of rows.
+     * @param columns   expected number of columns.
+     * @param name  name of the {@link MatrixReal} in the error message.
+     */
+    private static void assertSize( MatrixReal matrix , int rows , int columns , String name )
+    {
+        if(  matrix.rows() != rows  ||  matrix.columns() != columns  ) {
+            throw new IllegalArgumentException( "Size of " + name + " must be " + rows + "x" + columns + "; found " + matrix.size() + "." );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the workspace for the given measurement dimension, creating it if it does not exist yet.
+     * 
+     * @param measurementDimension  dimension of the measurement.
+     * @return  workspace for the given measurement dimension.
+     */
+    private ErrorStateKalmanFilterUpdateWorkspace updateWorkspace( int measurementDimension )
+    {
+        if( measurementDimension >= this.updateWorkspaces.length ) {
+            this.updateWorkspaces = Arrays.copyOf( this.updateWorkspaces , measurementDimension + 1 );
+        }
+        if( this.updateWorkspaces[ measurementDimension ] == null ) {
+            this.updateWorkspaces[ measurementDimension ] = new ErrorStateKalmanFilterUpdateWorkspace( this.getErrorStateDimension() , measurementDimension );
+        }
+        return this.updateWorkspaces[ measurementDimension ];
+    }
+    
+    
+    /**
+     * Injects the estimated error state in the nominal state, and resets the covariance matrix to the chart centered at the new nominal attitude.
+     * <p>
+     * The reset transforms the covariance matrix as  P <- G P G^T , where  G  is block-diagonal with the Jacobian of the transition map  T  in the attitude block, and the identity in the Euclidean block.
+     */
+    private void injectErrorState()
+    {
+        int N = this.getErrorStateDimension();
+        // Inject the attitude error through the chart centered at the current attitude.
+        this.attitudeError.setComponents( this.errorState.entry( 0 , 0 ) , this.errorState.entry( 1 , 0 ) , this.errorState.entry( 2 , 0 ) );
+        this.previousAttitude.setTo( this.attitude );
+        this.atlas.setChartSelector( this.previousAttitude );
+        this.atlas.toManifold( this.attitudeError , this.attitude );
+        // Inject the Euclidean error.
+        for( int i=3; i<N; i++ ) {
+            this.euclideanState.setEntry( i-3 , 0 , this.euclideanState.entry( i-3 , 0 ) + this.errorState.entry( i , 0 ) );
+        }
+        // Reset the covariance matrix: rows of the attitude block first ( T P ), then columns ( P T^T ).
+        Matrix3 T = this.atlas.jacobianOfTransitionMap( this.previousAttitude , this.attitude , this.transitionMapJacobian );
+        for( int j=0; j<N; j++ ) {
+            double p0 = this.covariance.entry( 0 , j );
+            double p1 = this.covariance.entry( 1 , j );
+            double p2 = this.covariance.entry( 2 , j );
+            for( int i=0; i<3; i++ ) {
+                this.covariance.setEntry( i , j , T.entry( i , 0 ) * p0 + T.entry( i , 1 ) * p1 + T.entry( i , 2 ) * p2 );
+            }
+        }
+        for( int i=0; i<N; i++ ) {
+            double p0 = this.covariance.entry( i , 0 );
+            double p1 = this.covariance.entry( i , 1 );
+            double p2 = this.covariance.entry( i , 2 );
+            for( int j=0; j<3; j++ ) {
+                this.covariance.setEntry( i , j , p0 * T.entry( j , 0 ) + p1 * T.entry( j , 1 ) + p2 * T.entry( j , 2 ) );
+            }
+        }
+    }
+    
+    
+    /**
+     * Removes the asymmetry of the covariance matrix introduced by rounding errors, replacing it by  ( P + P^T ) / 2 .
+     */
+    private void symmetrizeCovariance()
+    {
+        int N = this.getErrorStateDimension();
+        for( int i=0; i<N; i++ ) {
+            for( int j=i+1; j<N; j++ ) {
+                double average = 0.5 * ( this.covariance.entry( i , j ) + this.covariance.entry( j , i ) );
+                this.covariance.setEntry( i , j , average );
+                this.covariance.setEntry( j , i , average );
+            }
+        }
+    }
+    
+}
@@ -25,6 +25,30 @@ package numericalLibrary.functions;
  */
 abstract class GeneralizedAssociatedLegendrePolynomialEvaluator
 {
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE STATIC CONSTANTS
+	////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Radix  B = 2^960  of the extended-range numbers  v B^e  used by {@link #evaluateExtendedRange(double)}, and its inverse.
+	 */
+	private static final double EXTENDED_RANGE_RADIX = 0x1p960;
+	private static final double EXTENDED_RANGE_RADIX_INVERSE = 0x1p-960;
+	
+	/**
+	 * Bounds  B^{1/2}  and  B^{-1/2}  of the interval where extended-range values are kept.
+	 */
+	private static final double EXTENDED_RANGE_UPPER_BOUND = 0x1p480;
+	private static final double EXTENDED_RANGE_LOWER_BOUND = 0x1p-480;
+	
+	/**
+	 * Exponent given to zero extended-range values by {@link #evaluateSeriesByOrderExtendedRange(double, double[], double[])},
+	 * so that they never dominate a sum.
+	 */
+	private static final int ZERO_EXPONENT = Integer.MIN_VALUE / 4;
+	
+	
+	
 	////////////////////////////////////////////////////////////////
 	/// PROTECTED VARIABLES
 	////////////////////////////////////////////////////////////////
@@ -84,6 +108,27 @@ abstract class GeneralizedAssociatedLegendrePolynomialEvaluator
 
 
 
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE VARIABLES
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Whether {@link #evaluate(double)} uses extended-range arithmetic.
+	 */
+	private boolean extendedRange = false;
+
+	/**
+	 * Extended-range values  v B^e  of the last three degrees, used by {@link #evaluateExtendedRange(double)}.
+	 * The scaled values  v  are stored in {@link #rowValues} and the exponents  e  in the parallel {@link #rowExponents}.
+	 * First index cycles over the degrees  l , l-1 , l-2 .
+	 * Second index is the polynomial order m.
+	 * They are only allocated when the extended-range mode is enabled.
+	 */
+	private double[][] rowValues;
+	private int[][] rowExponents;
+
+
+
 	////////////////////////////////////////////////////////////////
 	/// PROTECTED CONSTRUCTORS
 	////////////////////////////////////////////////////////////////
@@ -153,6 +198,10 @@ abstract class GeneralizedAssociatedLegendrePolynomialEvaluator
 			throw new IllegalArgumentException( "x must be in [-1, 1]" );
 		}
 		this.x = x;
+		if( this.extendedRange ) {
+			this.evaluateExtendedRange( x );
+			return;
+		}
 
 		// Cache field references locally.
 		final double[][] alpha = this.alpha;
@@ -202,6 +251,42 @@ abstract class GeneralizedAssociatedLegendrePolynomialEvaluator
 	}
 	
 	
+	/**
+	 * Enables or disables the extended-range mode of {@link #evaluate(double)}.
+	 * <p>
+	 * Near the poles the sectoral terms  P_m^m(x) , proportional to  ( 1 - x^2 )^{m/2} , fall below the smallest double
+	 * for orders in the high hundreds, even though the  P_l^m(x)  obtained from them by recurrence on the degree can be
+	 * of order 1 again. When this happens, the plain evaluation returns zeros for those terms.
+	 * In extended-range mode the intermediate values are kept as  v B^e , with  B = 2^960 , a double  v  and an int exponent  e ,
+	 * so that every representable  P_l^m(x)  is computed accurately even for degrees in the thousands.
+	 * Values whose magnitude is genuinely below the double range are returned as zero.
+	 * <p>
+	 * The extended-range mode is a constant factor slower than the plain one, since every recurrence step checks the
+	 * range of its result; it is disabled by default.
+	 * 
+	 * @param extendedRange		true to enable the extended-range mode; false to disable it.
+	 */
+	public void setExtendedRange( boolean extendedRange )
+	{
+		this.extendedRange = extendedRange;
+		if(  extendedRange  &&  this.rowValues == null  ) {
+			this.rowValues = new double[3][ this.p.length ];
+			this.rowExponents = new int[3][ this.p.length ];
+		}
+	}
+	
+	
+	/**
+	 * Returns whether the extended-range mode of {@link #evaluate(double)} is enabled.
+	 * 
+	 * @return	true if the extended-range mode is enabled; false otherwise.
+	 */
+	public boolean isExtendedRange()
+	{
+		return this.extendedRange;
+	}
+	
+	
 	/**
 	 * Returns the value of the Legendre polynomial P_l^m(x).
 	 * <p>
@@ -267,4 +352,350 @@ abstract class GeneralizedAssociatedLegendrePolynomialEvaluator
 		return this.dp[ l ][ m ];
 	}
 
+
+	/**
+	 * Evaluates, for every order  m , the series  S_m(x) = sum_{l=m}^{lMaximum} c_l^m P_l^m(x)  using Clenshaw's recurrence.
+	 * <p>
+	 * The sectoral terms  P_m^m  and  P_{m+1}^m  are obtained with the {@link #mu} and {@link #nu} recurrences, and the sum over the
+	 * degree is accumulated backwards over the {@link #alpha} and {@link #beta} coefficients:
+	 * <br>
+	 * y_l = c_l^m + alpha_{l-1}^m x y_{l+1} - beta_l^m y_{l+2}
+	 * <br>
+	 * so the table of polynomial values is never materialized.
+	 * This method does not modify the values returned by {@link #getPolynomialValue(int, int)}.
+	 * <p>
+	 * In extended-range mode (see {@link #setExtendedRange(boolean)}) the sectoral terms and the Clenshaw sums are kept as extended-range values,
+	 * so the series do not lose the terms whose sectoral factor underflows near the poles.
+	 * <p>
+	 * Coefficients are packed by degree, and by order within each degree (as in {@link SphericalHarmonicTransform#coefficientIndex(int, int)}):
+	 * c_0^0 , c_1^0 , c_1^1 , c_2^0 , ...
+	 *
+	 * @param x				evaluation point. It must be in the interval [-1,1].
+	 * @param coefficients	packed coefficients  c_l^m  for  l = 0 , 1 , ... , lMaximum  and  m = 0 , 1 , ... , l .
+	 * @param series		output array of length  lMaximum + 1  where  S_m(x)  is written at position  m .
+	 * @throws IllegalArgumentException if x is not in the interval [-1,1], or if the array lengths do not match lMaximum.
+	 */
+	public void evaluateSeriesByOrder( double x , double[] coefficients , double[] series )
+	{
+		if(  x < -1.0  ||  1.0 < x  ) {
+			throw new IllegalArgumentException( "x must be in [-1, 1]" );
+		}
+		final int lMaximum = this.p.length - 1;
+		if( coefficients.length != ( ( lMaximum + 1 ) * ( lMaximum + 2 ) ) / 2 ) {
+			throw new IllegalArgumentException( "Coefficient array must have length " + ( ( lMaximum + 1 ) * ( lMaximum + 2 ) ) / 2 + "; found " + coefficients.length );
+		}
+		if( series.length != lMaximum + 1 ) {
+			throw new IllegalArgumentException( "Series array must have length " + ( lMaximum + 1 ) + "; found " + series.length );
+		}
+
+		if( this.extendedRange ) {
+			this.evaluateSeriesByOrderExtendedRange( x , coefficients , series );
+			return;
+		}
+
+		// Cache field references locally.
+		final double[][] alpha = this.alpha;
+		final double[][] beta = this.beta;
+		final double[] mu = this.mu;
+		final double[] nu = this.nu;
+
+		final double one_minus_x2 = ( 1.0 + x ) * ( 1.0 - x );
+		final double sqrt_one_minus_x2 = Math.sqrt( one_minus_x2 );
+
+		// Last even sectoral term  P_{2k}^{2k} , and current sectoral term  P_m^m .
+		double pEven = this.p[0][0];
+		double pmm = pEven;
+		for( int m=0; m<=lMaximum; m++ ) {
+			// Apply  P_m^m = mu_{m-1} mu_{m-2} ( 1 - x^2 ) P_{m-2}^{m-2}  for even m, and  P_m^m = - mu_{m-1} sqrt( 1 - x^2 ) P_{m-1}^{m-1}  for odd m.
+			if( m > 0 ) {
+				if( ( m & 1 ) == 0 ) {
+					pEven = mu[m-1] * one_minus_x2 * pEven;
+					pmm = pEven;
+				} else {
+					pmm = - mu[m-1] * sqrt_one_minus_x2 * pEven;
+				}
+			}
+			// Index of  c_m^m .
+			final int indexMM = ( m * ( m + 3 ) ) / 2;
+			if( m == lMaximum ) {
+				series[m] = coefficients[indexMM] * pmm;
+				continue;
+			}
+			// y_l = c_l^m + alpha_{l-1}^m x y_{l+1} - beta_l^m y_{l+2} , for  l = lMaximum , ... , m+1 ,  with  y_{lMaximum+1} = y_{lMaximum+2} = 0 .
+			double yl1 = 0.0;
+			double yl2 = 0.0;
+			int index = ( lMaximum * ( lMaximum + 1 ) ) / 2 + m;
+			for( int l=lMaximum; l>m; index-=l, l-- ) {
+				double a = ( l < lMaximum )?  alpha[l-1][m] * x  :  0.0;
+				double b = ( l+1 < lMaximum )?  beta[l][m]  :  0.0;
+				double yl = coefficients[index] + a * yl1 - b * yl2;
+				yl2 = yl1;
+				yl1 = yl;
+			}
+			// S_m = c_m^m P_m^m + y_{m+1} P_{m+1}^m - beta_m^m y_{m+2} P_m^m , with  P_{m+1}^m = nu_m x P_m^m .
+			double b = ( m+2 <= lMaximum )?  beta[m][m]  :  0.0;
+			series[m] = ( coefficients[indexMM] - b * yl2 ) * pmm + yl1 * nu[m] * x * pmm;
+		}
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Evaluates the Legendre polynomials at x using extended-range arithmetic.
+	 * <p>
+	 * It applies the same recurrence relations as {@link #evaluate(double)}, degree by degree,
+	 * but keeps the last rows as extended-range values  v B^e  (see {@link #setExtendedRange(boolean)}).
+	 * When both operands of a step have zero exponent (the usual case away from the poles) the step costs
+	 * the same as in plain arithmetic, plus a range check.
+	 * 
+	 * @param x		evaluation point. It must be in the interval [-1,1].
+	 */
+	private void evaluateExtendedRange( double x )
+	{
+		// Cache field references locally.
+		final double[][] alpha = this.alpha;
+		final double[][] beta = this.beta;
+		final double[][] p = this.p;
+		final double[] mu = this.mu;
+		final double[] nu = this.nu;
+
+		final double one_minus_x2 = ( 1.0 + x ) * ( 1.0 - x );
+		final double sqrt_one_minus_x2 = Math.sqrt( one_minus_x2 );
+
+		// Rows  l , l-1  and  l-2 .
+		double[] v0 = this.rowValues[0];
+		double[] v1 = this.rowValues[1];
+		double[] v2 = this.rowValues[2];
+		int[] e0 = this.rowExponents[0];
+		int[] e1 = this.rowExponents[1];
+		int[] e2 = this.rowExponents[2];
+
+		v1[0] = p[0][0];
+		e1[0] = 0;
+		for( int l=1; l<p.length; l++ ) {
+			final double[] p_l = p[l];
+			// Apply  P_l^m(x) = alpha_{l-2}^m x P_{l-1}^m(x) - beta_{l-2}^m P_{l-2}^m(x) .
+			if( l > 1 ) {
+				final double[] alpha_lMinus2 = alpha[l-2];
+				final double[] beta_lMinus2 = beta[l-2];
+				for( int m=0; m<l-1; m++ ) {
+					final double a = alpha_lMinus2[m] * x * v1[m];
+					final double b = beta_lMinus2[m] * v2[m];
+					final int exponentDifference = e1[m] - e2[m];
+					if( exponentDifference == 0 ) {
+						v0[m] = a - b;
+						e0[m] = e1[m];
+					} else if( exponentDifference == 1 ) {
+						v0[m] = a - b * EXTENDED_RANGE_RADIX_INVERSE;
+						e0[m] = e1[m];
+					} else if( exponentDifference == -1 ) {
+						v0[m] = a * EXTENDED_RANGE_RADIX_INVERSE - b;
+						e0[m] = e2[m];
+					} else if( exponentDifference > 1 ) {
+						v0[m] = a;
+						e0[m] = e1[m];
+					} else {
+						v0[m] = -b;
+						e0[m] = e2[m];
+					}
+					normalizeExtendedRange( v0 , e0 , m );
+					p_l[m] = extendedRangeToDouble( v0[m] , e0[m] );
+				}
+			}
+			// Apply  P_l^{l-1}(x) = nu_{l-1} x P_{l-1}^{l-1}(x) .
+			v0[l-1] = nu[l-1] * x * v1[l-1];
+			e0[l-1] = e1[l-1];
+			normalizeExtendedRange( v0 , e0 , l-1 );
+			p_l[l-1] = extendedRangeToDouble( v0[l-1] , e0[l-1] );
+			// Apply  P_l^l(x) = mu_{l-1} mu_{l-2} ( 1 - x^2 ) P_{l-2}^{l-2}(x)  for even l, and  P_l^l(x) = - mu_{l-1} sqrt( 1 - x^2 ) P_{l-1}^{l-1}(x)  for odd l.
+			if( ( l & 1 ) == 0 ) {
+				v0[l] = mu[l-1] * one_minus_x2 * v2[l-2];
+				e0[l] = e2[l-2];
+			} else {
+				v0[l] = - mu[l-1] * sqrt_one_minus_x2 * v1[l-1];
+				e0[l] = e1[l-1];
+			}
+			normalizeExtendedRange( v0 , e0 , l );
+			p_l[l] = extendedRangeToDouble( v0[l] , e0[l] );
+			// Rotate the rows.
+			double[] vTmp = v2;  v2 = v1;  v1 = v0;  v0 = vTmp;
+			int[] eTmp = e2;  e2 = e1;  e1 = e0;  e0 = eTmp;
+		}
+	}
+
+
+	/**
+	 * Evaluates the series of {@link #evaluateSeriesByOrder(double, double[], double[])} using extended-range arithmetic.
+	 * <p>
+	 * The sectoral terms  P_m^m  and the Clenshaw sums  y_l  are kept as extended-range values  v B^e :
+	 * near the poles the former underflow and the latter, which behave as  S_m / P_m^m , overflow.
+	 * Zero values are given the exponent {@link #ZERO_EXPONENT}.
+	 * 
+	 * @param x				evaluation point. It must be in the interval [-1,1].
+	 * @param coefficients	packed coefficients  c_l^m  for  l = 0 , 1 , ... , lMaximum  and  m = 0 , 1 , ... , l .
+	 * @param series		output array of length  lMaximum + 1  where  S_m(x)  is written at position  m .
+	 */
+	private void evaluateSeriesByOrderExtendedRange( double x , double[] coefficients , double[] series )
+	{
+		// Cache field references locally.
+		final double[][] alpha = this.alpha;
+		final double[][] beta = this.beta;
+		final double[] mu = this.mu;
+		final double[] nu = this.nu;
+		final int lMaximum = this.p.length - 1;
+
+		final double one_minus_x2 = ( 1.0 + x ) * ( 1.0 - x );
+		final double sqrt_one_minus_x2 = Math.sqrt( one_minus_x2 );
+
+		// Last even sectoral term  P_{2k}^{2k} , and current sectoral term  P_m^m .
+		double pEvenValue = this.p[0][0];
+		int pEvenExponent = 0;
+		double pmmValue = pEvenValue;
+		int pmmExponent = 0;
+		for( int m=0; m<=lMaximum; m++ ) {
+			// Apply  P_m^m = mu_{m-1} mu_{m-2} ( 1 - x^2 ) P_{m-2}^{m-2}  for even m, and  P_m^m = - mu_{m-1} sqrt( 1 - x^2 ) P_{m-1}^{m-1}  for odd m.
+			if( m > 0 ) {
+				if( ( m & 1 ) == 0 ) {
+					pEvenValue = mu[m-1] * one_minus_x2 * pEvenValue;
+					int shift = extendedRangeShift( pEvenValue );
+					pEvenValue *= radixPower( -shift );
+					pEvenExponent += shift;
+					pmmValue = pEvenValue;
+					pmmExponent = pEvenExponent;
+				} else {
+					pmmValue = - mu[m-1] * sqrt_one_minus_x2 * pEvenValue;
+					int shift = extendedRangeShift( pmmValue );
+					pmmValue *= radixPower( -shift );
+					pmmExponent = pEvenExponent + shift;
+				}
+			}
+			if( pmmValue == 0.0 ) {
+				series[m] = 0.0;
+				continue;
+			}
+			// y_l = c_l^m + alpha_{l-1}^m x y_{l+1} - beta_l^m y_{l+2} , for  l = lMaximum , ... , m+1 ,  with  y_{lMaximum+1} = y_{lMaximum+2} = 0 ;
+			// the last step, with  alpha_{m-1}^m x  replaced by  nu_m x , gives  S_m / P_m^m .
+			double y1Value = 0.0;
+			int y1Exponent = ZERO_EXPONENT;
+			double y2Value = 0.0;
+			int y2Exponent = ZERO_EXPONENT;
+			int index = ( lMaximum * ( lMaximum + 1 ) ) / 2 + m;
+			for( int l=lMaximum; l>=m; index-=l, l-- ) {
+				final double c = coefficients[index];
+				final double a = ( l == lMaximum )?  0.0  :  ( ( l == m )?  nu[m] * x  :  alpha[l-1][m] * x );
+				final double b = ( l+1 < lMaximum )?  beta[l][m]  :  0.0;
+				final int cExponent = ( c == 0.0 )?  ZERO_EXPONENT  :  0;
+				int exponent = Math.max( cExponent , Math.max( y1Exponent , y2Exponent ) );
+				double value = c * radixPower( cExponent - exponent ) + a * y1Value * radixPower( y1Exponent - exponent ) - b * y2Value * radixPower( y2Exponent - exponent );
+				int shift = extendedRangeShift( value );
+				value *= radixPower( -shift );
+				exponent = ( value == 0.0 )?  ZERO_EXPONENT  :  exponent + shift;
+				y2Value = y1Value;
+				y2Exponent = y1Exponent;
+				y1Value = value;
+				y1Exponent = exponent;
+			}
+			// S_m = ( S_m / P_m^m ) P_m^m .
+			if( y1Value == 0.0 ) {
+				series[m] = 0.0;
+				continue;
+			}
+			double value = y1Value * pmmValue;
+			int shift = extendedRangeShift( value );
+			series[m] = extendedRangeToDouble( value * radixPower( -shift ) , y1Exponent + pmmExponent + shift );
+		}
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE STATIC METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Brings the extended-range value  value[i] B^{exponent[i]}  back to the interval  [ B^{-1/2} , B^{1/2} ) , if needed.
+	 * <p>
+	 * A single step is enough because every recurrence step changes the magnitude by much less than  B^{1/2} .
+	 * 
+	 * @param value		scaled values.
+	 * @param exponent	exponents.
+	 * @param i			position of the value to be normalized.
+	 */
+	private static void normalizeExtendedRange( double[] value , int[] exponent , int i )
+	{
+		final double absoluteValue = Math.abs( value[i] );
+		if( absoluteValue >= EXTENDED_RANGE_UPPER_BOUND ) {
+			value[i] *= EXTENDED_RANGE_RADIX_INVERSE;
+			exponent[i]++;
+		} else if(  absoluteValue < EXTENDED_RANGE_LOWER_BOUND  &&  absoluteValue != 0.0  ) {
+			value[i] *= EXTENDED_RANGE_RADIX;
+			exponent[i]--;
+		}
+	}
+
+
+	/**
+	 * Returns the power of the radix  B^shift  that brings  value  back to the interval  [ B^{-1/2} , B^{1/2} )  when dividing by it.
+	 * 
+	 * @param value		value obtained by a recurrence step from values in the interval  [ B^{-1/2} , B^{1/2} ) .
+	 * @return	1 if  value  is above the interval, -1 if it is below the interval and not zero, 0 otherwise.
+	 */
+	private static int extendedRangeShift( double value )
+	{
+		final double absoluteValue = Math.abs( value );
+		if( absoluteValue >= EXTENDED_RANGE_UPPER_BOUND ) {
+			return 1;
+		} else if(  absoluteValue < EXTENDED_RANGE_LOWER_BOUND  &&  absoluteValue != 0.0  ) {
+			return -1;
+		}
+		return 0;
+	}
+
+
+	/**
+	 * Returns the power of the radix  B^exponent  used to align extended-range values before adding them.
+	 * <p>
+	 * Exponents below  -1  give zero, since the aligned value is negligible against a value in  [ B^{-1/2} , B^{1/2} ) .
+	 * 
+	 * @param exponent	exponent, at most  1 .
+	 * @return	B^exponent , or zero if  exponent  is below  -1 .
+	 */
+	private static double radixPower( int exponent )
+	{
+		if( exponent == 0 ) {
+			return 1.0;
+		} else if( exponent == -1 ) {
+			return EXTENDED_RANGE_RADIX_INVERSE;
+		} else if( exponent == 1 ) {
+			return EXTENDED_RANGE_RADIX;
+		}
+		return 0.0;
+	}
+
+
+	/**
+	 * Converts the extended-range value  value B^exponent  to a double.
+	 * 
+	 * @param value		scaled value in the interval  [ B^{-1/2} , B^{1/2} ) .
+	 * @param exponent	exponent.
+	 * @return	nearest double to  value B^exponent ; zero or infinity if it is outside the double range.
+	 */
+	private static double extendedRangeToDouble( double value , int exponent )
+	{
+		if( exponent == 0 ) {
+			return value;
+		} else if( exponent == -1 ) {
+			return value * EXTENDED_RANGE_RADIX_INVERSE;
+		} else if( exponent < -1 ) {
+			return 0.0 * value;
+		} else if( exponent == 1 ) {
+			return value * EXTENDED_RANGE_RADIX;
+		}
+		return Double.POSITIVE_INFINITY * value;
+	}
+
 }
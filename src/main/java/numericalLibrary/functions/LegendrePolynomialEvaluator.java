@@ -120,4 +120,41 @@ public class LegendrePolynomialEvaluator
 		return this.pn[ n ];
 	}
 	
+	
+	/**
+	 * Evaluates the Legendre series  sum_n c_n P_n(x)  using Clenshaw's recurrence.
+	 * <p>
+	 * The polynomial values are not stored: the series is accumulated backwards through
+	 * y_k = c_k + a_k x y_{k+1} - b_{k+1} y_{k+2} , so only the coefficients are read.
+	 * This method does not modify the values returned by {@link #getPnValue(int)}.
+	 * 
+	 * @param x				evaluation point.
+	 * @param coefficients	coefficients  c_n  of the series, for  n = 0 , 1 , ... , coefficients.length - 1 .
+	 * @return	value of the series at x.
+	 * @throws IllegalArgumentException if there are more coefficients than polynomials this evaluator can compute.
+	 */
+	public double evaluateSeries( double x , double[] coefficients )
+	{
+		if( coefficients.length > this.pn.length ) {
+			throw new IllegalArgumentException( "Found more coefficients than polynomials: " + coefficients.length + " > " + this.pn.length );
+		}
+		if( coefficients.length < 2 ) {
+			return ( coefficients.length == 0 )?  0.0  :  coefficients[0];
+		}
+		final double[] a = this.an;
+		final double[] b = this.bn;
+		
+		// y_k = c_k + a_k x y_{k+1} - b_{k+1} y_{k+2} , with  y_{N+1} = y_{N+2} = 0 .
+		double yk1 = 0.0;
+		double yk2 = 0.0;
+		for( int k=coefficients.length-1; k>0; k-- ) {
+			double bk1 = ( k+1 < b.length )?  b[k+1]  :  0.0;
+			double yk = coefficients[k] + a[k] * x * yk1 - bk1 * yk2;
+			yk2 = yk1;
+			yk1 = yk;
+		}
+		// S = c_0 P_0(x) + y_1 P_1(x) - b_1 y_2 P_0(x) , with  P_0(x) = 1  and  P_1(x) = x .
+		return coefficients[0] + x * yk1 - b[1] * yk2;
+	}
+	
 }
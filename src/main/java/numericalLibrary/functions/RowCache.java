@@ -0,0 +1,164 @@
+package numericalLibrary.functions;
+
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+
+
+/**
+ * Bounded least-recently-used cache of evaluated rows keyed by a double (an angle or its cosine).
+ * <p>
+ * Each entry is a fixed set of rows of fixed length, allocated once and recycled when the entry is evicted,
+ * so a warm cache does not allocate new rows.
+ * Keys are compared by their exact bit pattern: the cache is meant for workloads that revisit exactly the same points.
+ * <p>
+ * The number of hits and misses of {@link #get(double)} is recorded.
+ */
+class RowCache
+{
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE VARIABLES
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Entries in access order: the eldest is the least recently used.
+	 */
+	private final LinkedHashMap<Long,double[][]> entries;
+
+	/**
+	 * Maximum number of entries.
+	 */
+	private final int capacity;
+
+	/**
+	 * Number of rows in each entry.
+	 */
+	private final int numberOfRows;
+
+	/**
+	 * Length of each row.
+	 */
+	private final int rowLength;
+
+	/**
+	 * Entry removed by the last eviction, reused by the next {@link #put(double)}.
+	 */
+	private double[][] spare;
+
+	/**
+	 * Number of {@link #get(double)} calls that found the key, and that did not.
+	 */
+	private long hits;
+	private long misses;
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PACKAGE-PRIVATE CONSTRUCTORS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructs a {@link RowCache}.
+	 *
+	 * @param capacity		maximum number of entries. It must be positive.
+	 * @param numberOfRows	number of rows in each entry.
+	 * @param rowLength		length of each row.
+	 * @throws IllegalArgumentException if capacity is not positive.
+	 */
+	RowCache( int capacity , int numberOfRows , int rowLength )
+	{
+		if( capacity < 1 ) {
+			throw new IllegalArgumentException( "Cache capacity must be positive; found " + capacity );
+		}
+		this.entries = new LinkedHashMap<Long,double[][]>( 2 * capacity , 0.75f , true );
+		this.capacity = capacity;
+		this.numberOfRows = numberOfRows;
+		this.rowLength = rowLength;
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PACKAGE-PRIVATE METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the rows stored for a key, marking them as the most recently used.
+	 *
+	 * @param key	key of the rows.
+	 * @return	rows stored for the key, or null if there are none.
+	 */
+	double[][] get( double key )
+	{
+		double[][] rows = this.entries.get( Double.doubleToLongBits( key ) );
+		if( rows == null ) {
+			this.misses++;
+		} else {
+			this.hits++;
+		}
+		return rows;
+	}
+
+
+	/**
+	 * Inserts a key, evicting the least recently used entry if the cache is full.
+	 * <p>
+	 * The returned rows must be filled by the caller. Their previous content is undefined.
+	 * The key must not be already in the cache.
+	 *
+	 * @param key	key of the rows.
+	 * @return	rows associated to the key, to be filled by the caller.
+	 */
+	double[][] put( double key )
+	{
+		if( this.entries.size() >= this.capacity ) {
+			Iterator<double[][]> iterator = this.entries.values().iterator();
+			this.spare = iterator.next();
+			iterator.remove();
+		}
+		double[][] rows = this.spare;
+		this.spare = null;
+		if( rows == null ) {
+			rows = new double[ this.numberOfRows ][ this.rowLength ];
+		}
+		this.entries.put( Double.doubleToLongBits( key ) , rows );
+		return rows;
+	}
+
+
+	/**
+	 * Removes every entry and resets the hit and miss counters.
+	 */
+	void clear()
+	{
+		this.entries.clear();
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+
+	/**
+	 * Returns the number of {@link #get(double)} calls that found the key.
+	 *
+	 * @return	number of cache hits.
+	 */
+	long hits()
+	{
+		return this.hits;
+	}
+
+
+	/**
+	 * Returns the number of {@link #get(double)} calls that did not find the key.
+	 *
+	 * @return	number of cache misses.
+	 */
+	long misses()
+	{
+		return this.misses;
+	}
+
+}
@@ -0,0 +1,444 @@
+package numericalLibrary.functions;
+
+
+import java.util.Arrays;
+
+
+
+/**
+ * Computes forward (analysis) and inverse (synthesis) spherical harmonic transforms of real fields
+ * sampled on a Gauss-Legendre grid.
+ * <p>
+ * The grid is made of  lMaximum + 1  rings of constant colatitude placed at the Gauss-Legendre nodes  x_j = cos( theta_j ) ,
+ * each ring holding  nPhi  equiangular samples  phi_k = 2 pi k / nPhi , where  nPhi  is the smallest power of two
+ * greater than  2 lMaximum .
+ * With this grid, analysis followed by synthesis is exact (up to round-off) for fields band-limited to  lMaximum .
+ * <p>
+ * The harmonics follow the same conventions as {@link SphericalHarmonicsEvaluator}:
+ * Y_l^m( theta , phi ) = P_l^m( cos( theta ) ) e^{ i m phi } , orthonormal, with the Condon-Shortley phase.
+ * Since the fields are real, only the coefficients with  m = 0 , 1 , ... , l  are stored;
+ * the negative orders follow from  a_l^{-m} = (-1)^m conjugate( a_l^m ) , so that:
+ * <br>
+ *   f( theta , phi ) = sum_l [ a_l^0 Y_l^0 + 2 sum_{m>0} Re( a_l^m Y_l^m ) ]
+ * <p>
+ * Coefficients are stored in packed arrays of length {@link #getNumberOfCoefficients()},
+ * with  a_l^m  at {@link #coefficientIndex(int, int)}.
+ * Grid samples are stored ring after ring: the sample at ring  j  and azimuth  k  is at  j * nPhi + k .
+ * <p>
+ * Both transforms are separable: the Legendre part is evaluated once per ring (O(lMaximum^2) each),
+ * and the azimuth part is computed with a fast Fourier transform per ring,
+ * so a full transform costs O(lMaximum^3) instead of the O(lMaximum^4) of evaluating every harmonic at every grid point.
+ */
+public class SphericalHarmonicTransform
+{
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE VARIABLES
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Maximum degree  l  of the transform.
+	 */
+	private final int lMaximum;
+
+	/**
+	 * Number of samples per ring.
+	 */
+	private final int nPhi;
+
+	/**
+	 * Gauss-Legendre nodes  x_j = cos( theta_j ) , sorted from the north pole to the south pole.
+	 */
+	private final double[] ringCosTheta;
+
+	/**
+	 * Gauss-Legendre weights associated to {@link #ringCosTheta}.
+	 */
+	private final double[] ringWeight;
+
+	/**
+	 * {@link PreNormalizedAssociatedLegendrePolynomialEvaluator} used to compute the colatitude part on each ring.
+	 */
+	private final PreNormalizedAssociatedLegendrePolynomialEvaluator legendre;
+
+	/**
+	 * Twiddle factors  cos( 2 pi k / nPhi )  and  sin( 2 pi k / nPhi )  for  k = 0 , 1 , ... , nPhi/2 - 1 .
+	 */
+	private final double[] twiddleCos;
+	private final double[] twiddleSin;
+
+	/**
+	 * Work buffers holding the real and imaginary parts of one ring in the azimuth-frequency domain.
+	 */
+	private final double[] ringRe;
+	private final double[] ringIm;
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PUBLIC CONSTRUCTORS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructs a {@link SphericalHarmonicTransform}.
+	 *
+	 * @param lMaximum	maximum degree  l  of the transform. The degree  l  will range in  l = 0 , 1 , ... , lMaximum
+	 * @throws IllegalArgumentException if lMaximum is smaller than 1.
+	 */
+	public SphericalHarmonicTransform( int lMaximum )
+	{
+		if( lMaximum < 1 ) {
+			throw new IllegalArgumentException( "lMaximum must be at least 1; found " + lMaximum );
+		}
+		this.lMaximum = lMaximum;
+		this.legendre = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
+		// Gauss-Legendre quadrature with  lMaximum + 1  nodes is exact for products of two band-limited fields.
+		int nTheta = lMaximum + 1;
+		this.ringCosTheta = new double[ nTheta ];
+		this.ringWeight = new double[ nTheta ];
+		gaussLegendreNodesAndWeights( this.ringCosTheta , this.ringWeight );
+		// Smallest power of two that resolves azimuth frequencies  -lMaximum , ... , lMaximum  without aliasing.
+		int n = 1;
+		while( n <= 2 * lMaximum ) {
+			n <<= 1;
+		}
+		this.nPhi = n;
+		this.twiddleCos = new double[ n / 2 ];
+		this.twiddleSin = new double[ n / 2 ];
+		for( int k=0; k<this.twiddleCos.length; k++ ) {
+			double angle = 2.0 * Math.PI * k / n;
+			this.twiddleCos[k] = Math.cos( angle );
+			this.twiddleSin[k] = Math.sin( angle );
+		}
+		this.ringRe = new double[ n ];
+		this.ringIm = new double[ n ];
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PUBLIC METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the maximum degree  l  of the transform.
+	 *
+	 * @return	maximum degree  l  of the transform.
+	 */
+	public int getLMaximum()
+	{
+		return this.lMaximum;
+	}
+
+
+	/**
+	 * Returns the number of rings of constant colatitude in the grid.
+	 *
+	 * @return	number of rings of constant colatitude in the grid.
+	 */
+	public int getNumberOfRings()
+	{
+		return this.ringCosTheta.length;
+	}
+
+
+	/**
+	 * Returns the number of equiangular samples in each ring.
+	 *
+	 * @return	number of equiangular samples in each ring.
+	 */
+	public int getNumberOfSamplesPerRing()
+	{
+		return this.nPhi;
+	}
+
+
+	/**
+	 * Returns the number of grid samples, i.e. the length of the grid arrays.
+	 *
+	 * @return	number of grid samples.
+	 */
+	public int getNumberOfGridSamples()
+	{
+		return this.ringCosTheta.length * this.nPhi;
+	}
+
+
+	/**
+	 * Returns the number of stored coefficients, i.e. the length of the coefficient arrays.
+	 *
+	 * @return	number of stored coefficients.
+	 */
+	public int getNumberOfCoefficients()
+	{
+		return coefficientIndex( this.lMaximum + 1 , 0 );
+	}
+
+
+	/**
+	 * Returns the cosine of the colatitude of a ring (a Gauss-Legendre node).
+	 *
+	 * @param j		ring index in the range  j = 0 , 1 , ... , lMaximum  (from north to south).
+	 * @return	cosine of the colatitude of the ring.
+	 */
+	public double getRingCosTheta( int j )
+	{
+		return this.ringCosTheta[ j ];
+	}
+
+
+	/**
+	 * Returns the Gauss-Legendre weight of a ring.
+	 *
+	 * @param j		ring index in the range  j = 0 , 1 , ... , lMaximum  (from north to south).
+	 * @return	Gauss-Legendre weight of the ring.
+	 */
+	public double getRingWeight( int j )
+	{
+		return this.ringWeight[ j ];
+	}
+
+
+	/**
+	 * Returns the azimuth of the samples with index  k  in every ring.
+	 *
+	 * @param k		sample index in the range  k = 0 , 1 , ... , nPhi - 1 .
+	 * @return	azimuth  2 pi k / nPhi .
+	 */
+	public double getPhi( int k )
+	{
+		return 2.0 * Math.PI * k / this.nPhi;
+	}
+
+
+	/**
+	 * Synthesizes a real field on the grid from its spherical harmonic coefficients.
+	 *
+	 * @param coefficientsRe	real parts of the coefficients  a_l^m , packed as given by {@link #coefficientIndex(int, int)}.
+	 * @param coefficientsIm	imaginary parts of the coefficients  a_l^m , packed as given by {@link #coefficientIndex(int, int)}.
+	 * 							The imaginary parts of the  m = 0  coefficients are ignored.
+	 * @param grid				output array where the field samples are written.
+	 * @throws IllegalArgumentException if the array lengths do not match the transform size.
+	 */
+	public void synthesize( double[] coefficientsRe , double[] coefficientsIm , double[] grid )
+	{
+		this.assertCoefficientsLength( coefficientsRe );
+		this.assertCoefficientsLength( coefficientsIm );
+		this.assertGridLength( grid );
+
+		// Cache field references locally.
+		final double[] re = this.ringRe;
+		final double[] im = this.ringIm;
+		final int nPhi = this.nPhi;
+		final int lMaximum = this.lMaximum;
+		final PreNormalizedAssociatedLegendrePolynomialEvaluator legendre = this.legendre;
+
+		for( int j=0; j<this.ringCosTheta.length; j++ ) {
+			legendre.evaluate( this.ringCosTheta[j] );
+			// Compute the azimuth spectrum of the ring:  F_m = sum_l a_l^m P_l^m( x_j ) .
+			Arrays.fill( re , 0.0 );
+			Arrays.fill( im , 0.0 );
+			for( int m=0; m<=lMaximum; m++ ) {
+				double sumRe = 0.0;
+				double sumIm = 0.0;
+				for( int l=m, index=coefficientIndex(m,m); l<=lMaximum; index+=l+1, l++ ) {
+					double plm = legendre.getPolynomialValue( l , m );
+					sumRe += coefficientsRe[index] * plm;
+					sumIm += coefficientsIm[index] * plm;
+				}
+				// Negative orders contribute the complex conjugate, which doubles the real part of every  m > 0  term.
+				if( m == 0 ) {
+					re[0] = sumRe;
+				} else {
+					re[m] = 2.0 * sumRe;
+					im[m] = 2.0 * sumIm;
+				}
+			}
+			// f( phi_k ) = Re( sum_m F_m e^{ i m phi_k } ) .
+			this.fft( re , im , 1.0 );
+			System.arraycopy( re , 0 , grid , j * nPhi , nPhi );
+		}
+	}
+
+
+	/**
+	 * Analyzes a real field sampled on the grid, computing its spherical harmonic coefficients.
+	 *
+	 * @param grid				field samples, stored ring after ring.
+	 * @param coefficientsRe	output array where the real parts of the coefficients  a_l^m  are written.
+	 * @param coefficientsIm	output array where the imaginary parts of the coefficients  a_l^m  are written.
+	 * @throws IllegalArgumentException if the array lengths do not match the transform size.
+	 */
+	public void analyze( double[] grid , double[] coefficientsRe , double[] coefficientsIm )
+	{
+		this.assertGridLength( grid );
+		this.assertCoefficientsLength( coefficientsRe );
+		this.assertCoefficientsLength( coefficientsIm );
+
+		// Cache field references locally.
+		final double[] re = this.ringRe;
+		final double[] im = this.ringIm;
+		final int nPhi = this.nPhi;
+		final int lMaximum = this.lMaximum;
+		final PreNormalizedAssociatedLegendrePolynomialEvaluator legendre = this.legendre;
+
+		Arrays.fill( coefficientsRe , 0.0 );
+		Arrays.fill( coefficientsIm , 0.0 );
+		for( int j=0; j<this.ringCosTheta.length; j++ ) {
+			// G_m = ( 2 pi / nPhi ) sum_k f( phi_k ) e^{ - i m phi_k } .
+			System.arraycopy( grid , j * nPhi , re , 0 , nPhi );
+			Arrays.fill( im , 0.0 );
+			this.fft( re , im , -1.0 );
+			// a_l^m += w_j P_l^m( x_j ) G_m .
+			legendre.evaluate( this.ringCosTheta[j] );
+			final double scale = this.ringWeight[j] * 2.0 * Math.PI / nPhi;
+			for( int m=0; m<=lMaximum; m++ ) {
+				double gRe = scale * re[m];
+				double gIm = scale * im[m];
+				for( int l=m, index=coefficientIndex(m,m); l<=lMaximum; index+=l+1, l++ ) {
+					double plm = legendre.getPolynomialValue( l , m );
+					coefficientsRe[index] += gRe * plm;
+					coefficientsIm[index] += gIm * plm;
+				}
+			}
+		}
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PUBLIC STATIC METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the position of the coefficient  a_l^m  in the packed coefficient arrays.
+	 * <p>
+	 * Coefficients are packed by degree, and by order within each degree:  a_0^0 , a_1^0 , a_1^1 , a_2^0 , ...
+	 *
+	 * @param l		polynomial degree.
+	 * @param m		polynomial order in the range m = 0 , 1 , ... , l
+	 * @return	position of the coefficient  a_l^m  in the packed coefficient arrays.
+	 */
+	public static int coefficientIndex( int l , int m )
+	{
+		return ( l * ( l + 1 ) ) / 2 + m;
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Computes in place the discrete Fourier transform  X_k = sum_n x_n e^{ sign 2 pi i n k / N }  with a radix-2 algorithm.
+	 *
+	 * @param re	real parts of the sequence; overwritten with the real parts of the transform.
+	 * @param im	imaginary parts of the sequence; overwritten with the imaginary parts of the transform.
+	 * @param sign	sign of the exponent: 1.0 for synthesis, -1.0 for analysis.
+	 */
+	private void fft( double[] re , double[] im , double sign )
+	{
+		final int n = re.length;
+		final double[] twiddleCos = this.twiddleCos;
+		final double[] twiddleSin = this.twiddleSin;
+		// Bit-reversal permutation.
+		for( int i=1, j=0; i<n; i++ ) {
+			int bit = n >> 1;
+			for( ; ( j & bit ) != 0; bit >>= 1 ) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if( i < j ) {
+				double tmp = re[i];  re[i] = re[j];  re[j] = tmp;
+				tmp = im[i];  im[i] = im[j];  im[j] = tmp;
+			}
+		}
+		// Butterflies.
+		for( int length=2; length<=n; length<<=1 ) {
+			int half = length >> 1;
+			int twiddleStep = n / length;
+			for( int start=0; start<n; start+=length ) {
+				for( int k=0, t=0; k<half; k++, t+=twiddleStep ) {
+					double wRe = twiddleCos[t];
+					double wIm = sign * twiddleSin[t];
+					int a = start + k;
+					int b = a + half;
+					double xRe = re[b] * wRe - im[b] * wIm;
+					double xIm = re[b] * wIm + im[b] * wRe;
+					re[b] = re[a] - xRe;
+					im[b] = im[a] - xIm;
+					re[a] += xRe;
+					im[a] += xIm;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Throws an {@link IllegalArgumentException} if the coefficient array does not have the expected length.
+	 *
+	 * @param coefficients	coefficient array to be checked.
+	 */
+	private void assertCoefficientsLength( double[] coefficients )
+	{
+		if( coefficients.length != this.getNumberOfCoefficients() ) {
+			throw new IllegalArgumentException( "Coefficient arrays must have length " + this.getNumberOfCoefficients() + "; found " + coefficients.length );
+		}
+	}
+
+
+	/**
+	 * Throws an {@link IllegalArgumentException} if the grid array does not have the expected length.
+	 *
+	 * @param grid	grid array to be checked.
+	 */
+	private void assertGridLength( double[] grid )
+	{
+		if( grid.length != this.getNumberOfGridSamples() ) {
+			throw new IllegalArgumentException( "Grid arrays must have length " + this.getNumberOfGridSamples() + "; found " + grid.length );
+		}
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE STATIC METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Computes the Gauss-Legendre nodes and weights.
+	 * <p>
+	 * The nodes are the roots of  P_n , found with Newton iterations where  P_n  and  P_{n-1}  are given by a
+	 * {@link LegendrePolynomialEvaluator}, and the derivative is obtained from  ( x^2 - 1 ) P_n'(x) = n ( x P_n(x) - P_{n-1}(x) ) .
+	 * The weights are  w_j = 2 / [ ( 1 - x_j^2 ) P_n'(x_j)^2 ] .
+	 *
+	 * @param nodes		output array where the nodes are written, sorted in decreasing order. Its length is the number of nodes  n .
+	 * @param weights	output array where the weights are written.
+	 */
+	private static void gaussLegendreNodesAndWeights( double[] nodes , double[] weights )
+	{
+		final int n = nodes.length;
+		LegendrePolynomialEvaluator evaluator = new LegendrePolynomialEvaluator( n );
+		for( int j=0; j<n; j++ ) {
+			// Initial guess close to the j-th root.
+			double x = Math.cos( Math.PI * ( j + 0.75 ) / ( n + 0.5 ) );
+			double dpn = 1.0;
+			for( int iteration=0; iteration<100; iteration++ ) {
+				evaluator.evaluate( x );
+				double pn = evaluator.getPnValue( n );
+				dpn = n * ( x * pn - evaluator.getPnValue( n-1 ) ) / ( x * x - 1.0 );
+				double dx = pn / dpn;
+				x -= dx;
+				if( Math.abs( dx ) <= 1.0e-15 ) {
+					break;
+				}
+			}
+			evaluator.evaluate( x );
+			dpn = n * ( x * evaluator.getPnValue( n ) - evaluator.getPnValue( n-1 ) ) / ( x * x - 1.0 );
+			nodes[j] = x;
+			weights[j] = 2.0 / ( ( 1.0 - x ) * ( 1.0 + x ) * dpn * dpn );
+		}
+	}
+
+}
@@ -37,6 +37,11 @@ package numericalLibrary.functions;
  * The colatitude (theta) and azimuth (phi) parts are cached and recomputed lazily, so sweeping a row at constant
  * colatitude while varying the azimuth only re-evaluates the inexpensive azimuth part. {@link #evaluate()} and
  * {@link #evaluateDerivatives()} are idempotent until the point changes.
+ * <p>
+ * Workloads that revisit a finite set of directions (for example, the rings and pixels of a fixed grid) can enable
+ * bounded least-recently-used caches with {@link #setCacheCapacities(int, int)}: the Legendre rows are then memoized
+ * by  cos( theta )  and the azimuth exponentials by  ( cos( phi ) , sin( phi ) ) , so returning to a cached ring
+ * skips the O(lMaximum^2) recurrence.
  */
 public class SphericalHarmonicsEvaluator
 {
@@ -52,12 +57,12 @@ public class SphericalHarmonicsEvaluator
 	/**
 	 * Real part of the complex exponential  e^{ i m phi } , i.e.  cos( m phi ) , for the current azimuth.
 	 */
-	private final double[] cos_mPhi;
+	private double[] cos_mPhi;
 
 	/**
 	 * Imaginary part of the complex exponential  e^{ i m phi } , i.e.  sin( m phi ) , for the current azimuth.
 	 */
-	private final double[] sin_mPhi;
+	private double[] sin_mPhi;
 
 	/**
 	 * Cosine of the current polar angle.
@@ -85,6 +90,31 @@ public class SphericalHarmonicsEvaluator
 	 */
 	private boolean exponentialsDirty = true;
 
+	/**
+	 * Work buffers holding, for each order  m , the Legendre series of the real and imaginary parts of the coefficients.
+	 */
+	private final double[] seriesRe;
+	private final double[] seriesIm;
+
+	/**
+	 * Caches of Legendre values, Legendre derivatives and azimuth exponentials; null when caching is disabled.
+	 */
+	private RowCache legendreValuesCache = null;
+	private RowCache legendreDerivativesCache = null;
+	private RowCache exponentialsCache = null;
+
+	/**
+	 * Packed Legendre values and derivatives for the current polar angle, when caching is enabled.
+	 * The value for degree  l  and order  m  is at  l ( l + 1 ) / 2 + m .
+	 */
+	private double[] legendreValuesRow = null;
+	private double[] legendreDerivativesRow = null;
+
+	/**
+	 * Cosine of the polar angle at which the tables of {@link #legendre} were last evaluated; NaN if they are not valid.
+	 */
+	private double legendreTablesCosTheta = Double.NaN;
+
 
 
 	////////////////////////////////////////////////////////////////
@@ -101,6 +131,8 @@ public class SphericalHarmonicsEvaluator
 		this.legendre = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
 		this.cos_mPhi = new double[ lMaximum + 1 ];
 		this.sin_mPhi = new double[ lMaximum + 1 ];
+		this.seriesRe = new double[ lMaximum + 1 ];
+		this.seriesIm = new double[ lMaximum + 1 ];
 	}
 
 
@@ -185,6 +217,133 @@ public class SphericalHarmonicsEvaluator
 	}
 
 
+	/**
+	 * Sets the capacities of the caches of Legendre rows and of azimuth exponentials, discarding their content.
+	 * <p>
+	 * Each cached Legendre row holds  ( lMaximum + 1 ) ( lMaximum + 2 ) / 2  values (plus as many derivatives, once requested),
+	 * and each cached exponential row holds  2 ( lMaximum + 1 )  values.
+	 * A capacity of zero disables the corresponding cache, which is the default.
+	 *
+	 * @param legendreCapacity		maximum number of polar angles whose Legendre rows are cached.
+	 * @param exponentialsCapacity	maximum number of azimuth angles whose exponentials are cached.
+	 * @throws IllegalArgumentException if any capacity is negative.
+	 */
+	public void setCacheCapacities( int legendreCapacity , int exponentialsCapacity )
+	{
+		if(  legendreCapacity < 0  ||  exponentialsCapacity < 0  ) {
+			throw new IllegalArgumentException( "Cache capacities must be non-negative; found " + legendreCapacity + " and " + exponentialsCapacity );
+		}
+		final int length = this.cos_mPhi.length;
+		if( legendreCapacity > 0 ) {
+			final int packedLength = ( length * ( length + 1 ) ) / 2;
+			this.legendreValuesCache = new RowCache( legendreCapacity , 1 , packedLength );
+			this.legendreDerivativesCache = new RowCache( legendreCapacity , 1 , packedLength );
+		} else {
+			this.legendreValuesCache = null;
+			this.legendreDerivativesCache = null;
+		}
+		this.exponentialsCache = ( exponentialsCapacity > 0 )?  new RowCache( exponentialsCapacity , 2 , length )  :  null;
+		// The current rows may belong to the discarded caches.
+		this.cos_mPhi = new double[ length ];
+		this.sin_mPhi = new double[ length ];
+		this.legendreValuesRow = null;
+		this.legendreDerivativesRow = null;
+		this.legendreValuesDirty = true;
+		this.legendreDerivativesDirty = true;
+		this.exponentialsDirty = true;
+	}
+
+
+	/**
+	 * Removes every cached row and resets the cache statistics, keeping the cache capacities.
+	 */
+	public void clearCache()
+	{
+		for( RowCache cache : new RowCache[] { this.legendreValuesCache , this.legendreDerivativesCache , this.exponentialsCache } ) {
+			if( cache != null ) {
+				cache.clear();
+			}
+		}
+		// The current rows are no longer owned by the caches.
+		this.cos_mPhi = new double[ this.cos_mPhi.length ];
+		this.sin_mPhi = new double[ this.sin_mPhi.length ];
+		this.legendreValuesDirty = true;
+		this.legendreDerivativesDirty = true;
+		this.exponentialsDirty = true;
+	}
+
+
+	/**
+	 * Returns the number of times the Legendre values or derivatives were found in the cache.
+	 *
+	 * @return	number of Legendre cache hits.
+	 */
+	public long getLegendreCacheHits()
+	{
+		return ( this.legendreValuesCache == null )?  0  :  this.legendreValuesCache.hits() + this.legendreDerivativesCache.hits();
+	}
+
+
+	/**
+	 * Returns the number of times the Legendre values or derivatives were not found in the cache and had to be computed.
+	 *
+	 * @return	number of Legendre cache misses.
+	 */
+	public long getLegendreCacheMisses()
+	{
+		return ( this.legendreValuesCache == null )?  0  :  this.legendreValuesCache.misses() + this.legendreDerivativesCache.misses();
+	}
+
+
+	/**
+	 * Returns the number of times the azimuth exponentials were found in the cache.
+	 *
+	 * @return	number of exponentials cache hits.
+	 */
+	public long getExponentialsCacheHits()
+	{
+		return ( this.exponentialsCache == null )?  0  :  this.exponentialsCache.hits();
+	}
+
+
+	/**
+	 * Returns the number of times the azimuth exponentials were not found in the cache and had to be computed.
+	 *
+	 * @return	number of exponentials cache misses.
+	 */
+	public long getExponentialsCacheMisses()
+	{
+		return ( this.exponentialsCache == null )?  0  :  this.exponentialsCache.misses();
+	}
+
+
+	/**
+	 * Enables or disables the extended-range evaluation of the Legendre polynomials.
+	 * <p>
+	 * It is needed for high degrees (about 2000 and above), where the plain evaluation loses the terms whose
+	 * intermediate values underflow near the poles.
+	 * See {@link GeneralizedAssociatedLegendrePolynomialEvaluator#setExtendedRange(boolean)}.
+	 *
+	 * @param extendedRange		true to enable the extended-range mode; false to disable it.
+	 */
+	public void setExtendedRange( boolean extendedRange )
+	{
+		if( extendedRange == this.legendre.isExtendedRange() ) {
+			return;
+		}
+		this.legendre.setExtendedRange( extendedRange );
+		this.legendreTablesCosTheta = Double.NaN;
+		if( this.legendreValuesCache != null ) {
+			this.legendreValuesCache.clear();
+			this.legendreDerivativesCache.clear();
+			this.legendreValuesRow = null;
+			this.legendreDerivativesRow = null;
+		}
+		this.legendreValuesDirty = true;
+		this.legendreDerivativesDirty = true;
+	}
+
+
 	/**
 	 * Evaluates the spherical harmonics at the current evaluation point.
 	 * <p>
@@ -226,7 +385,7 @@ public class SphericalHarmonicsEvaluator
 	 */
 	public double getSphericalHarmonicsRealPart( int l , int m )
 	{
-		return this.cos_mPhi[m] * this.legendre.getPolynomialValue( l , m );
+		return this.cos_mPhi[m] * this.legendreValue( l , m );
 	}
 
 
@@ -242,7 +401,7 @@ public class SphericalHarmonicsEvaluator
 	 */
 	public double getSphericalHarmonicsImaginaryPart( int l , int m )
 	{
-		return this.sin_mPhi[m] * this.legendre.getPolynomialValue( l , m );
+		return this.sin_mPhi[m] * this.legendreValue( l , m );
 	}
 
 
@@ -258,7 +417,7 @@ public class SphericalHarmonicsEvaluator
 	 */
 	public double getSphericalHarmonicsDerivativeRealPart( int l , int m )
 	{
-		return this.cos_mPhi[m] * this.legendre.getPolynomialDerivativeTimesX2Minus1( l , m );
+		return this.cos_mPhi[m] * this.legendreDerivative( l , m );
 	}
 
 
@@ -274,7 +433,42 @@ public class SphericalHarmonicsEvaluator
 	 */
 	public double getSphericalHarmonicsDerivativeImaginaryPart( int l , int m )
 	{
-		return this.sin_mPhi[m] * this.legendre.getPolynomialDerivativeTimesX2Minus1( l , m );
+		return this.sin_mPhi[m] * this.legendreDerivative( l , m );
+	}
+
+
+	/**
+	 * Evaluates the real field  f = sum_l [ a_l^0 Y_l^0 + 2 sum_{m>0} Re( a_l^m Y_l^m ) ]  at the current evaluation point.
+	 * <p>
+	 * The colatitude part is summed with Clenshaw's recurrence
+	 * (see {@link GeneralizedAssociatedLegendrePolynomialEvaluator#evaluateSeriesByOrder(double, double[], double[])}),
+	 * so the table of Legendre polynomials is neither computed nor read; only the azimuth exponentials are used.
+	 * It does not require a previous {@link #evaluate()} call, and it does not invalidate the values it computed.
+	 * <p>
+	 * Coefficients are packed as in {@link SphericalHarmonicTransform#coefficientIndex(int, int)}.
+	 * The negative orders follow from  a_l^{-m} = (-1)^m conjugate( a_l^m ) , as for any real field.
+	 *
+	 * @param coefficientsRe	real parts of the coefficients  a_l^m .
+	 * @param coefficientsIm	imaginary parts of the coefficients  a_l^m . The imaginary parts of the  m = 0  coefficients are ignored.
+	 * @return	value of the field at the current evaluation point.
+	 * @throws IllegalArgumentException if the array lengths do not match lMaximum.
+	 */
+	public double evaluateSeries( double[] coefficientsRe , double[] coefficientsIm )
+	{
+		this.cleanExponentials();
+		this.legendre.evaluateSeriesByOrder( this.cosTheta , coefficientsRe , this.seriesRe );
+		this.legendre.evaluateSeriesByOrder( this.cosTheta , coefficientsIm , this.seriesIm );
+		// Cache field references locally.
+		final double[] seriesRe = this.seriesRe;
+		final double[] seriesIm = this.seriesIm;
+		final double[] cos_mPhi = this.cos_mPhi;
+		final double[] sin_mPhi = this.sin_mPhi;
+		// Re( S_m e^{ i m phi } ) = Re( S_m ) cos( m phi ) - Im( S_m ) sin( m phi ) .
+		double sum = 0.0;
+		for( int m=1; m<seriesRe.length; m++ ) {
+			sum += seriesRe[m] * cos_mPhi[m] - seriesIm[m] * sin_mPhi[m];
+		}
+		return seriesRe[0] + 2.0 * sum;
 	}
 
 
@@ -291,7 +485,17 @@ public class SphericalHarmonicsEvaluator
 		if( !this.legendreValuesDirty ) {
 			return;
 		}
-		this.legendre.evaluate( this.cosTheta );
+		if( this.legendreValuesCache == null ) {
+			this.evaluateLegendreTables();
+		} else {
+			double[][] rows = this.legendreValuesCache.get( this.cosTheta );
+			if( rows == null ) {
+				this.evaluateLegendreTables();
+				rows = this.legendreValuesCache.put( this.cosTheta );
+				packTable( this.legendre.p , rows[0] );
+			}
+			this.legendreValuesRow = rows[0];
+		}
 		this.legendreValuesDirty = false;
 	}
 
@@ -305,11 +509,63 @@ public class SphericalHarmonicsEvaluator
 		if( !this.legendreDerivativesDirty ) {
 			return;
 		}
-		this.legendre.evaluateDerivatives();
+		if( this.legendreDerivativesCache == null ) {
+			this.legendre.evaluateDerivatives();
+		} else {
+			double[][] rows = this.legendreDerivativesCache.get( this.cosTheta );
+			if( rows == null ) {
+				// The values may have been taken from the cache, leaving the tables at another polar angle.
+				if( this.legendreTablesCosTheta != this.cosTheta ) {
+					this.evaluateLegendreTables();
+				}
+				this.legendre.evaluateDerivatives();
+				rows = this.legendreDerivativesCache.put( this.cosTheta );
+				packTable( this.legendre.dp , rows[0] );
+			}
+			this.legendreDerivativesRow = rows[0];
+		}
 		this.legendreDerivativesDirty = false;
 	}
 
 
+	/**
+	 * Evaluates the tables of {@link #legendre} at the current polar angle.
+	 */
+	private void evaluateLegendreTables()
+	{
+		this.legendre.evaluate( this.cosTheta );
+		this.legendreTablesCosTheta = this.cosTheta;
+	}
+
+
+	/**
+	 * Returns the Legendre polynomial value  P_l^m( cos theta ) , either from the cached row or from {@link #legendre}.
+	 *
+	 * @param l		polynomial degree in the range l = 0 , 1 , ... , lMaximum
+	 * @param m		polynomial order in the range m = 0 , 1 , ... , l
+	 * @return	value of  P_l^m( cos theta ) .
+	 */
+	private double legendreValue( int l , int m )
+	{
+		final double[] row = this.legendreValuesRow;
+		return ( this.legendreValuesCache == null )?  this.legendre.getPolynomialValue( l , m )  :  row[ ( l * ( l + 1 ) ) / 2 + m ];
+	}
+
+
+	/**
+	 * Returns  [ ( x^2 - 1 ) dP_l^m/dx(x) ]_{x=cos theta} , either from the cached row or from {@link #legendre}.
+	 *
+	 * @param l		polynomial degree in the range l = 0 , 1 , ... , lMaximum
+	 * @param m		polynomial order in the range m = 0 , 1 , ... , l
+	 * @return	value of  [ ( x^2 - 1 ) dP_l^m/dx(x) ]_{x=cos theta} .
+	 */
+	private double legendreDerivative( int l , int m )
+	{
+		final double[] row = this.legendreDerivativesRow;
+		return ( this.legendreDerivativesCache == null )?  this.legendre.getPolynomialDerivativeTimesX2Minus1( l , m )  :  row[ ( l * ( l + 1 ) ) / 2 + m ];
+	}
+
+
 	/**
 	 * Recomputes the azimuth exponentials  cos( m phi )  and  sin( m phi )  if the azimuth changed since the last computation.
 	 */
@@ -318,6 +574,23 @@ public class SphericalHarmonicsEvaluator
 		if( !this.exponentialsDirty ) {
 			return;
 		}
+		if( this.exponentialsCache != null ) {
+			// Key by the pseudo-angle  1 - cos( phi )  or  3 + cos( phi ) , which grows monotonically with the azimuth.
+			// Since ( cosPhi , sinPhi ) is only unit up to a tolerance, a hit is accepted only if the stored row starts with the same values.
+			final double key = ( this.sinPhi >= 0.0 )?  1.0 - this.cosPhi  :  3.0 + this.cosPhi;
+			double[][] rows = this.exponentialsCache.get( key );
+			if(  rows != null  &&  ( rows[0].length < 2  ||  ( rows[0][1] == this.cosPhi  &&  rows[1][1] == this.sinPhi ) )  ) {
+				this.cos_mPhi = rows[0];
+				this.sin_mPhi = rows[1];
+				this.exponentialsDirty = false;
+				return;
+			}
+			if( rows == null ) {
+				rows = this.exponentialsCache.put( key );
+			}
+			this.cos_mPhi = rows[0];
+			this.sin_mPhi = rows[1];
+		}
 		this.cos_mPhi[0] = 1.0;
 		this.sin_mPhi[0] = 0.0;
 		for( int m=1; m<this.cos_mPhi.length; m++ ) {
@@ -327,4 +600,23 @@ public class SphericalHarmonicsEvaluator
 		this.exponentialsDirty = false;
 	}
 
+
+
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE STATIC METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Copies a triangular table indexed by degree and order into a packed row, with  ( l , m )  at  l ( l + 1 ) / 2 + m .
+	 *
+	 * @param table		triangular table; its row  l  has length  l + 1 .
+	 * @param packed	output packed row.
+	 */
+	private static void packTable( double[][] table , double[] packed )
+	{
+		for( int l=0, offset=0; l<table.length; offset+=l+1, l++ ) {
+			System.arraycopy( table[l] , 0 , packed , offset , l+1 );
+		}
+	}
+
 }
@@ -2,6 +2,7 @@ package numericalLibrary.manifolds.unitComplexNumbers.atlases;
 
 
 import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.RealNumber;
 
 
@@ -23,7 +24,7 @@ import numericalLibrary.types.RealNumber;
  * @see <a href>https://en.wikipedia.org/wiki/Exponential_map_(Riemannian_geometry)</a>
  */
 public class ExponentialMapS1
-    extends UnitComplexNumberAtlas
+    extends UnitComplexNumberDifferentiableAtlas
 {
     ////////////////////////////////////////////////////////////////
     // PRIVATE CONSTANTS
@@ -52,7 +53,33 @@ public class ExponentialMapS1
      */
     public RealNumber toChartCenteredAtIdentity( ComplexNumber z )
     {
-        return new RealNumber( z.argument() );
+        return this.toChartCenteredAtIdentity( z , new RealNumber( 0.0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public RealNumber toChartCenteredAtIdentity( ComplexNumber z , RealNumber output )
+    {
+        return output.setValue( this.toChartCenteredAtIdentity( z.re() , z.im() ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public double toChartCenteredAtIdentity( double re , double im )
+    {
+        return Math.atan2( im , re );
     }
     
     
@@ -66,11 +93,38 @@ public class ExponentialMapS1
      */
     public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e )
     {
-        if( !this.isContainedInChartImage( e ) ) {
+        return this.toManifoldFromChartCenteredAtIdentity( e , ComplexNumber.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e , ComplexNumber output )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( e.toDouble() , output );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( double e , ComplexNumber output )
+    {
+        double eClipped = e;
+        if( !this.isContainedInImageFromValue( e ) ) {
             // Clip the norm to be in the image of the chart.
-            e.setValue( MAX_NORM );
+            eClipped = MAX_NORM;
         }
-        return ComplexNumber.fromModulusAndArgument( 1.0 , e.toDouble() );
+        return output.setRealPartAndImaginaryPart( Math.cos( eClipped ) , Math.sin( eClipped ) );
     }
     
     
@@ -93,8 +147,111 @@ public class ExponentialMapS1
      */
     public boolean isContainedInChartImage( RealNumber e )
     {
-        double eValue = e.toDouble();
-        return ( -MAX_NORM < eValue  &&  eValue <= MAX_NORM );
+        return this.isContainedInImageFromValue( e.toDouble() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart is given by:
+     * <br>
+     * d phi / d z  =  (  -Im(z)    Re(z)  ) / ||z||^2
+     */
+    public MatrixReal jacobianOfChart( ComplexNumber z )
+    {
+        return MatrixReal.fromArrayAsRow( this.jacobianOfChart( z.re() , z.im() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(ComplexNumber)
+     */
+    public double[] jacobianOfChart( double re , double im , double[] output , int offset )
+    {
+        double oneOverNormSquared = 1.0/( re * re + im * im );
+        output[ offset ] = -im * oneOverNormSquared;
+        output[ offset + 1 ] = re * oneOverNormSquared;
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart inverse is given by:
+     * <br>
+     * d phi^{-1} / d e  =  (  -sin( e )  )
+     *                      (  cos( e )   )
+     * <br>
+     * Out of the image of the chart, where the input is saturated, the Jacobian is zero.
+     */
+    public MatrixReal jacobianOfChartInverse( RealNumber e )
+    {
+        return MatrixReal.fromArrayAsColumn( this.jacobianOfChartInverse( e.toDouble() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(RealNumber)
+     */
+    public double[] jacobianOfChartInverse( double e , double[] output , int offset )
+    {
+        if( !this.isContainedInImageFromValue( e ) ) {
+            output[ offset ] = 0.0;
+            output[ offset + 1 ] = 0.0;
+            return output;
+        }
+        output[ offset ] = -Math.sin( e );
+        output[ offset + 1 ] = Math.cos( e );
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the transition map is the identity, since the exponential map is an isometry between the angle and the chart.
+     */
+    public MatrixReal jacobianOfTransitionMap( ComplexNumber delta )
+    {
+        return MatrixReal.fromArrayAsColumn( new double[] { this.jacobianOfTransitionMap( delta.re() , delta.im() ) } );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #jacobianOfTransitionMap(ComplexNumber)
+     */
+    public double jacobianOfTransitionMap( double deltaRe , double deltaIm )
+    {
+        return 1.0;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns true if the chart element is contained in the chart image.
+     * 
+     * @param e     chart element to be checked.
+     * @return  true if the chart element is contained in the chart image; false otherwise.
+     */
+    private boolean isContainedInImageFromValue( double e )
+    {
+        return ( -MAX_NORM < e  &&  e <= MAX_NORM );
     }
     
 }
@@ -2,6 +2,7 @@ package numericalLibrary.manifolds.unitComplexNumbers.atlases;
 
 
 import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.RealNumber;
 
 
@@ -23,7 +24,7 @@ import numericalLibrary.types.RealNumber;
  * @see <a href>https://en.wikipedia.org/wiki/Stereographic_projection</a>
  */
 public class ModifiedRodriguesParametersS1
-    extends UnitComplexNumberAtlas
+    extends UnitComplexNumberDifferentiableAtlas
 {
     ////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
@@ -36,7 +37,33 @@ public class ModifiedRodriguesParametersS1
      */
     public RealNumber toChartCenteredAtIdentity( ComplexNumber z )
     {
-        return new RealNumber( 2.0 * z.im() / ( 1.0 + z.re() ) );
+        return this.toChartCenteredAtIdentity( z , new RealNumber( 0.0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public RealNumber toChartCenteredAtIdentity( ComplexNumber z , RealNumber output )
+    {
+        return output.setValue( this.toChartCenteredAtIdentity( z.re() , z.im() ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public double toChartCenteredAtIdentity( double re , double im )
+    {
+        return 2.0 * im / ( 1.0 + re );
     }
     
     
@@ -47,11 +74,35 @@ public class ModifiedRodriguesParametersS1
      */
     public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e )
     {
-        double eValue = e.toDouble();
-        double eSquared = eValue * eValue;
+        return this.toManifoldFromChartCenteredAtIdentity( e , ComplexNumber.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e , ComplexNumber output )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( e.toDouble() , output );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( double e , ComplexNumber output )
+    {
+        double eSquared = e * e;
         double alpha = 1.0/( 4.0 + eSquared );
-        ComplexNumber z = ComplexNumber.fromRealPartAndImaginaryPart( 4.0 - eSquared , 4.0 * eValue ).scaleInplace( alpha );
-        return z;
+        return output.setRealPartAndImaginaryPart( ( 4.0 - eSquared ) * alpha , 4.0 * e * alpha );
     }
     
     
@@ -76,4 +127,89 @@ public class ModifiedRodriguesParametersS1
         return true;
     }
     
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart is given by:
+     * <br>
+     * d phi / d z  =  (  -2 Im(z) / ( 1 + Re(z) )^2    2 / ( 1 + Re(z) )  )
+     */
+    public MatrixReal jacobianOfChart( ComplexNumber z )
+    {
+        return MatrixReal.fromArrayAsRow( this.jacobianOfChart( z.re() , z.im() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(ComplexNumber)
+     */
+    public double[] jacobianOfChart( double re , double im , double[] output , int offset )
+    {
+        double factor = 2.0/( 1.0 + re );
+        output[ offset ] = -0.5 * factor * factor * im;
+        output[ offset + 1 ] = factor;
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart inverse is given by:
+     * <br>
+     * d phi^{-1} / d e  =  1 / ( 4 + e^2 )^2 (  -16 e        )
+     *                                        (  16 - 4 e^2   )
+     */
+    public MatrixReal jacobianOfChartInverse( RealNumber e )
+    {
+        return MatrixReal.fromArrayAsColumn( this.jacobianOfChartInverse( e.toDouble() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(RealNumber)
+     */
+    public double[] jacobianOfChartInverse( double e , double[] output , int offset )
+    {
+        double eSquared = e * e;
+        double alpha = 1.0/( 4.0 + eSquared );
+        double alpha2 = alpha * alpha;
+        output[ offset ] = -16.0 * e * alpha2;
+        output[ offset + 1 ] = ( 16.0 - 4.0 * eSquared ) * alpha2;
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the transition map is given by:
+     * <br>
+     * T( delta )  =  ( 1 + Re( delta ) ) / 2
+     */
+    public MatrixReal jacobianOfTransitionMap( ComplexNumber delta )
+    {
+        return MatrixReal.fromArrayAsColumn( new double[] { this.jacobianOfTransitionMap( delta.re() , delta.im() ) } );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #jacobianOfTransitionMap(ComplexNumber)
+     */
+    public double jacobianOfTransitionMap( double deltaRe , double deltaIm )
+    {
+        return 0.5 * ( 1.0 + deltaRe );
+    }
+    
 }
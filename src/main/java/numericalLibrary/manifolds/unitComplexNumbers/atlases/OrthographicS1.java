@@ -2,6 +2,7 @@ package numericalLibrary.manifolds.unitComplexNumbers.atlases;
 
 
 import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.RealNumber;
 
 
@@ -24,7 +25,7 @@ import numericalLibrary.types.RealNumber;
  * @see <a href>https://en.wikipedia.org/wiki/Orthographic_projection</a>
  */
 public class OrthographicS1
-    extends UnitComplexNumberAtlas
+    extends UnitComplexNumberDifferentiableAtlas
 {
     ////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
@@ -40,12 +41,37 @@ public class OrthographicS1
      */
     public RealNumber toChartCenteredAtIdentity( ComplexNumber z )
     {
-        double e = z.im();
-        if( !this.isContainedInChartCenteredAtIdentityDomain( z ) ) {
+        return this.toChartCenteredAtIdentity( z , new RealNumber( 0.0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public RealNumber toChartCenteredAtIdentity( ComplexNumber z , RealNumber output )
+    {
+        return output.setValue( this.toChartCenteredAtIdentity( z.re() , z.im() ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public double toChartCenteredAtIdentity( double re , double im )
+    {
+        if( !this.isContainedInDomainFromRealPart( re ) ) {
             // Clip z to be in the domain of the chart.
-            return new RealNumber( Math.signum( e ) );
+            return Math.signum( im );
         }
-        return new RealNumber( e );
+        return im;
     }
     
     
@@ -59,15 +85,38 @@ public class OrthographicS1
      */
     public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e )
     {
-        double eValue = e.toDouble();
-        if( !this.isContainedInChartImage( e ) ) {
+        return this.toManifoldFromChartCenteredAtIdentity( e , ComplexNumber.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e , ComplexNumber output )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( e.toDouble() , output );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( double e , ComplexNumber output )
+    {
+        double eClipped = e;
+        if( !this.isContainedInImageFromValue( e ) ) {
             // Clip e to be in the image of the chart.
-            eValue = Math.signum( eValue );
+            eClipped = Math.signum( e );
         }
-        ComplexNumber z = ComplexNumber.fromRealPartAndImaginaryPart(
-                Math.sqrt( 1.0 - eValue * eValue ) ,
-                eValue );
-        return z;
+        return output.setRealPartAndImaginaryPart( Math.sqrt( 1.0 - eClipped * eClipped ) , eClipped );
     }
     
     
@@ -78,7 +127,7 @@ public class OrthographicS1
      */
     public boolean isContainedInChartCenteredAtIdentityDomain( ComplexNumber z )
     {
-        return ( z.re() >= 0.0 );
+        return this.isContainedInDomainFromRealPart( z.re() );
     }
     
     
@@ -89,8 +138,127 @@ public class OrthographicS1
      */
     public boolean isContainedInChartImage( RealNumber e )
     {
-        double eValue = e.toDouble();
-        return (  -1.0 <= eValue  &&  eValue <= 1.0  );
+        return this.isContainedInImageFromValue( e.toDouble() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart is given by:
+     * <br>
+     * d phi / d z  =  (  0    1  )
+     * <br>
+     * Out of the domain of the chart, where the output is saturated, the Jacobian is zero.
+     */
+    public MatrixReal jacobianOfChart( ComplexNumber z )
+    {
+        return MatrixReal.fromArrayAsRow( this.jacobianOfChart( z.re() , z.im() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(ComplexNumber)
+     */
+    public double[] jacobianOfChart( double re , double im , double[] output , int offset )
+    {
+        output[ offset ] = 0.0;
+        output[ offset + 1 ] = this.isContainedInDomainFromRealPart( re )?  1.0  :  0.0;
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart inverse is given by:
+     * <br>
+     * d phi^{-1} / d e  =  (  -e / \sqrt( 1 - e^2 )  )
+     *                      (  1                      )
+     * <br>
+     * Out of the image of the chart, where the input is saturated, the Jacobian is zero.
+     */
+    public MatrixReal jacobianOfChartInverse( RealNumber e )
+    {
+        return MatrixReal.fromArrayAsColumn( this.jacobianOfChartInverse( e.toDouble() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(RealNumber)
+     */
+    public double[] jacobianOfChartInverse( double e , double[] output , int offset )
+    {
+        if( !this.isContainedInImageFromValue( e ) ) {
+            output[ offset ] = 0.0;
+            output[ offset + 1 ] = 0.0;
+            return output;
+        }
+        output[ offset ] = -e / Math.sqrt( 1.0 - e * e );
+        output[ offset + 1 ] = 1.0;
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the transition map is given by:
+     * <br>
+     * T( delta )  =  1 / Re( delta )
+     * with Re( delta ) > 0.
+     */
+    public MatrixReal jacobianOfTransitionMap( ComplexNumber delta )
+    {
+        return MatrixReal.fromArrayAsColumn( new double[] { this.jacobianOfTransitionMap( delta.re() , delta.im() ) } );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #jacobianOfTransitionMap(ComplexNumber)
+     */
+    public double jacobianOfTransitionMap( double deltaRe , double deltaIm )
+    {
+        return 1.0/deltaRe;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns true if a unit {@link ComplexNumber} with the given real part is contained in the domain of the chart centered at the identity.
+     * 
+     * @param re    real part of the unit {@link ComplexNumber} to be checked.
+     * @return  true if the unit {@link ComplexNumber} is contained in the domain of the chart; false otherwise.
+     */
+    private boolean isContainedInDomainFromRealPart( double re )
+    {
+        return ( re >= 0.0 );
+    }
+    
+    
+    /**
+     * Returns true if the chart element is contained in the chart image.
+     * 
+     * @param e     chart element to be checked.
+     * @return  true if the chart element is contained in the chart image; false otherwise.
+     */
+    private boolean isContainedInImageFromValue( double e )
+    {
+        return (  -1.0 <= e  &&  e <= 1.0  );
     }
     
 }
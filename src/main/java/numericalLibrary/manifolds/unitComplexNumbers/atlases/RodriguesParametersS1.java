@@ -2,6 +2,7 @@ package numericalLibrary.manifolds.unitComplexNumbers.atlases;
 
 
 import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.RealNumber;
 
 
@@ -23,7 +24,7 @@ import numericalLibrary.types.RealNumber;
  * @see <a href>https://en.wikipedia.org/wiki/Stereographic_projection</a>
  */
 public class RodriguesParametersS1
-    extends UnitComplexNumberAtlas
+    extends UnitComplexNumberDifferentiableAtlas
 {
     ////////////////////////////////////////////////////////////////
     // PRIVATE CONSTANTS
@@ -57,11 +58,37 @@ public class RodriguesParametersS1
      */
     public RealNumber toChartCenteredAtIdentity( ComplexNumber z )
     {
-        if( !this.isContainedInChartCenteredAtIdentityDomain( z ) ) {
+        return this.toChartCenteredAtIdentity( z , new RealNumber( 0.0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public RealNumber toChartCenteredAtIdentity( ComplexNumber z , RealNumber output )
+    {
+        return output.setValue( this.toChartCenteredAtIdentity( z.re() , z.im() ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public double toChartCenteredAtIdentity( double re , double im )
+    {
+        if( !this.isContainedInDomainFromRealPart( re ) ) {
             // Clip z to be in the domain of the chart.
-            return new RealNumber( Math.signum( z.im() ) * E_SATURATED );
+            return Math.signum( im ) * E_SATURATED;
         }
-        return new RealNumber( z.im()/z.re() );
+        return im/re;
     }
     
     
@@ -72,12 +99,34 @@ public class RodriguesParametersS1
      */
     public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e )
     {
-        double eValue = e.toDouble();
-        double alpha = 1.0/Math.sqrt( 1.0 + eValue * eValue );
-        return ComplexNumber.fromRealPartAndImaginaryPart(
-                1.0 ,
-                eValue )
-                .scaleInplace( alpha );
+        return this.toManifoldFromChartCenteredAtIdentity( e , ComplexNumber.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e , ComplexNumber output )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( e.toDouble() , output );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( double e , ComplexNumber output )
+    {
+        double alpha = 1.0/Math.sqrt( 1.0 + e * e );
+        return output.setRealPartAndImaginaryPart( alpha , e * alpha );
     }
     
     
@@ -90,7 +139,7 @@ public class RodriguesParametersS1
      */
     public boolean isContainedInChartCenteredAtIdentityDomain( ComplexNumber z )
     {
-        return ( z.re() >= EPSILON );
+        return this.isContainedInDomainFromRealPart( z.re() );
     }
     
     
@@ -104,4 +153,112 @@ public class RodriguesParametersS1
         return true;
     }
     
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart is given by:
+     * <br>
+     * d phi / d z  =  (  -Im(z) / Re(z)^2    1 / Re(z)  )
+     * <br>
+     * Out of the domain of the chart, where the output is saturated, the Jacobian is zero.
+     */
+    public MatrixReal jacobianOfChart( ComplexNumber z )
+    {
+        return MatrixReal.fromArrayAsRow( this.jacobianOfChart( z.re() , z.im() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(ComplexNumber)
+     */
+    public double[] jacobianOfChart( double re , double im , double[] output , int offset )
+    {
+        if( !this.isContainedInDomainFromRealPart( re ) ) {
+            output[ offset ] = 0.0;
+            output[ offset + 1 ] = 0.0;
+            return output;
+        }
+        double oneOverRe = 1.0/re;
+        output[ offset ] = -im * oneOverRe * oneOverRe;
+        output[ offset + 1 ] = oneOverRe;
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the chart inverse is given by:
+     * <br>
+     * d phi^{-1} / d e  =  1 / ( 1 + e^2 )^{3/2} (  -e  )
+     *                                            (   1  )
+     */
+    public MatrixReal jacobianOfChartInverse( RealNumber e )
+    {
+        return MatrixReal.fromArrayAsColumn( this.jacobianOfChartInverse( e.toDouble() , new double[ 2 ] , 0 ) );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(RealNumber)
+     */
+    public double[] jacobianOfChartInverse( double e , double[] output , int offset )
+    {
+        double alpha = 1.0/Math.sqrt( 1.0 + e * e );
+        double alpha3 = alpha * alpha * alpha;
+        output[ offset ] = -e * alpha3;
+        output[ offset + 1 ] = alpha3;
+        return output;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian of the transition map is given by:
+     * <br>
+     * T( delta )  =  Re( delta )^2
+     */
+    public MatrixReal jacobianOfTransitionMap( ComplexNumber delta )
+    {
+        return MatrixReal.fromArrayAsColumn( new double[] { this.jacobianOfTransitionMap( delta.re() , delta.im() ) } );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #jacobianOfTransitionMap(ComplexNumber)
+     */
+    public double jacobianOfTransitionMap( double deltaRe , double deltaIm )
+    {
+        return deltaRe * deltaRe;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns true if a unit {@link ComplexNumber} with the given real part is contained in the domain of the chart centered at the identity.
+     * 
+     * @param re    real part of the unit {@link ComplexNumber} to be checked.
+     * @return  true if the unit {@link ComplexNumber} is contained in the domain of the chart; false otherwise.
+     */
+    private boolean isContainedInDomainFromRealPart( double re )
+    {
+        return ( re >= EPSILON );
+    }
+    
 }
@@ -14,6 +14,11 @@ import numericalLibrary.types.RealNumber;
  * <p>
  * A chart is defined for each {@link ComplexNumber}.
  * Such chart transforms the {@link ComplexNumber} associated with the chart with the origin of the Euclidean space.
+ * <p>
+ * Instances are not thread-safe.
+ * The chart selector is mutable, and {@link #toChart(ComplexNumber, RealNumber)} uses scratch state of the atlas to avoid allocations.
+ * The remaining methods only read the chart selector,
+ * so they can be called concurrently as long as no thread changes it; otherwise, use one atlas per thread.
  * 
  * @see "Kalman Filtering for Attitude Estimation with Quaternions and Concepts from Manifold Theory" (<a href="https://www.mdpi.com/1424-8220/19/1/149">https://www.mdpi.com/1424-8220/19/1/149</a>)
  */
@@ -72,7 +77,18 @@ public abstract class UnitComplexNumberAtlas
      * {@link ComplexNumber} used to select the chart.
      * This {@link ComplexNumber} will be mapped by the chart to the origin of the Euclidean space.
      */
-    private ComplexNumber chartSelector;
+    private final ComplexNumber chartSelector;
+    
+    /**
+     * Inverse of the {@link #chartSelector}, computed once each time the chart selector is set.
+     */
+    private final ComplexNumber chartSelectorInverse;
+    
+    /**
+     * Workspace holding the {@link ComplexNumber} expressed in the perspective of the {@link #chartSelector}.
+     * It is only used by {@link #toChart(ComplexNumber, RealNumber)}.
+     */
+    private final ComplexNumber delta;
     
     
     
@@ -85,6 +101,9 @@ public abstract class UnitComplexNumberAtlas
      */
     public UnitComplexNumberAtlas()
     {
+        this.chartSelector = ComplexNumber.one();
+        this.chartSelectorInverse = ComplexNumber.one();
+        this.delta = ComplexNumber.one();
         // Default chartSelector.
         this.setChartSelector( ComplexNumber.one() );
     }
@@ -99,12 +118,87 @@ public abstract class UnitComplexNumberAtlas
      * {@inheritDoc}
      * <p>
      * Such {@link ComplexNumber} will be mapped by the chart to the origin of the Euclidean space.
+     * <p>
+     * The input is copied, and its inverse is computed here once, so later changes of the input do not affect the chart.
      * 
      * @see #chartSelector
      */
     public void setChartSelector( ComplexNumber theChartSelector )
     {
-        this.chartSelector = theChartSelector;
+        this.chartSelector.setTo( theChartSelector );
+        this.chartSelectorInverse.setTo( theChartSelector ).inverseMultiplicativeInplace();
+    }
+    
+    
+    /**
+     * Defines the map from {@link ComplexNumber}s to {@link RealNumber}s for the chart centered at the identity {@link ComplexNumber},
+     * storing the result in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #toChartCenteredAtIdentity(ComplexNumber)}.
+     * 
+     * @param z     {@link ComplexNumber} to be mapped with an element in the 1-dimensional Euclidean space.
+     * @param output    {@link RealNumber} where the result is stored.
+     * @return  {@code output}, holding the {@link RealNumber} mapped from the input {@link ComplexNumber}.
+     */
+    public RealNumber toChartCenteredAtIdentity( ComplexNumber z , RealNumber output )
+    {
+        return output.setTo( this.toChartCenteredAtIdentity( z ) );
+    }
+    
+    
+    /**
+     * Defines the map from {@link RealNumber}s to {@link ComplexNumber}s for the chart centered at the identity {@link ComplexNumber},
+     * storing the result in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #toManifoldFromChartCenteredAtIdentity(RealNumber)}.
+     * 
+     * @param e     {@link RealNumber} to be mapped with a {@link ComplexNumber}.
+     * @param output    {@link ComplexNumber} where the result is stored.
+     * @return  {@code output}, holding the {@link ComplexNumber} mapped with the input {@link RealNumber}.
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( RealNumber e , ComplexNumber output )
+    {
+        return output.setTo( this.toManifoldFromChartCenteredAtIdentity( e ) );
+    }
+    
+    
+    /**
+     * Defines the map from unit complex numbers to real numbers for the chart centered at the identity,
+     * taking and returning primitive values.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #toChartCenteredAtIdentity(ComplexNumber, RealNumber)}.
+     * 
+     * @param re    real part of the unit complex number to be mapped.
+     * @param im    imaginary part of the unit complex number to be mapped.
+     * @return  chart element mapped from the input unit complex number.
+     * 
+     * @see #toChartCenteredAtIdentity(ComplexNumber)
+     */
+    public double toChartCenteredAtIdentity( double re , double im )
+    {
+        return this.toChartCenteredAtIdentity( ComplexNumber.fromRealPartAndImaginaryPart( re , im ) , RealNumber.zero() ).toDouble();
+    }
+    
+    
+    /**
+     * Defines the map from real numbers to unit complex numbers for the chart centered at the identity,
+     * taking a primitive value and storing the result in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #toManifoldFromChartCenteredAtIdentity(RealNumber, ComplexNumber)}.
+     * 
+     * @param e     chart element to be mapped.
+     * @param output    {@link ComplexNumber} where the result is stored.
+     * @return  {@code output}, holding the unit complex number mapped with the input chart element.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(RealNumber)
+     */
+    public ComplexNumber toManifoldFromChartCenteredAtIdentity( double e , ComplexNumber output )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( new RealNumber( e ) , output );
     }
     
     
@@ -125,7 +219,23 @@ public abstract class UnitComplexNumberAtlas
     public ComplexNumber toChartSelectorPerspective( ComplexNumber z )
     {
         // delta = z0^{-1} * z
-        return this.chartSelector.inverseMultiplicative().multiply( z );
+        return this.chartSelectorInverse.multiply( z );
+    }
+    
+    
+    /**
+     * Transforms a {@link ComplexNumber} to the perspective of the {@link #chartSelector}, storing the result in {@code output}.
+     * 
+     * @param z     {@link ComplexNumber} to be transformed into the perspective of the {@link #chartSelector}.
+     * @param output    {@link ComplexNumber} where the result is stored. It can be {@code z}.
+     * @return  {@code output}, holding the input {@link ComplexNumber} expressed from the perspective of the {@link #chartSelector}.
+     * 
+     * @see #toChartSelectorPerspective(ComplexNumber)
+     */
+    public ComplexNumber toChartSelectorPerspective( ComplexNumber z , ComplexNumber output )
+    {
+        // delta = z0^{-1} * z
+        return output.setToProduct( this.chartSelectorInverse , z );
     }
     
     
@@ -134,8 +244,26 @@ public abstract class UnitComplexNumberAtlas
      */
     public RealNumber toChart( ComplexNumber z )
     {
-        ComplexNumber delta = this.toChartSelectorPerspective( z );
-        return this.toChartCenteredAtIdentity( delta );
+        return this.toChartCenteredAtIdentity( this.toChartSelectorPerspective( z ) , new RealNumber( 0.0 ) );
+    }
+    
+    
+    /**
+     * Maps a {@link ComplexNumber} to its chart element, storing the result in {@code output}.
+     * <p>
+     * It does not allocate new objects when the concrete atlas overrides {@link #toChartCenteredAtIdentity(ComplexNumber, RealNumber)}.
+     * It uses scratch state of the atlas, so it must not be called concurrently on the same instance.
+     * 
+     * @param z     {@link ComplexNumber} to be mapped.
+     * @param output    {@link RealNumber} where the result is stored.
+     * @return  {@code output}, holding the chart element mapped from the input {@link ComplexNumber}.
+     * 
+     * @see #toChart(ComplexNumber)
+     */
+    public RealNumber toChart( ComplexNumber z , RealNumber output )
+    {
+        this.toChartSelectorPerspective( z , this.delta );
+        return this.toChartCenteredAtIdentity( this.delta , output );
     }
     
     
@@ -143,10 +271,115 @@ public abstract class UnitComplexNumberAtlas
      * {@inheritDoc}
      */
     public ComplexNumber toManifold( RealNumber e )
+    {
+        return this.toManifold( e , ComplexNumber.one() );
+    }
+    
+    
+    /**
+     * Maps a chart element to its {@link ComplexNumber}, storing the result in {@code output}.
+     * <p>
+     * It does not allocate new objects when the concrete atlas overrides {@link #toManifoldFromChartCenteredAtIdentity(RealNumber, ComplexNumber)}.
+     * 
+     * @param e     chart element to be mapped.
+     * @param output    {@link ComplexNumber} where the result is stored.
+     * @return  {@code output}, holding the {@link ComplexNumber} mapped with the input chart element.
+     * 
+     * @see #toManifold(RealNumber)
+     */
+    public ComplexNumber toManifold( RealNumber e , ComplexNumber output )
     {
         // z = z0 * delta_z0_z
-        ComplexNumber delta = this.toManifoldFromChartCenteredAtIdentity( e );
-        return this.chartSelector.multiply( delta );
+        this.toManifoldFromChartCenteredAtIdentity( e , output );
+        return output.setToProduct( this.chartSelector , output );
+    }
+    
+    
+    /**
+     * Maps a unit complex number to its chart element, taking and returning primitive values.
+     * <p>
+     * It does not allocate new objects when the concrete atlas overrides {@link #toChartCenteredAtIdentity(double, double)}.
+     * 
+     * @param re    real part of the unit complex number to be mapped.
+     * @param im    imaginary part of the unit complex number to be mapped.
+     * @return  chart element mapped from the input unit complex number.
+     * 
+     * @see #toChart(ComplexNumber)
+     */
+    public double toChart( double re , double im )
+    {
+        // delta = z0^{-1} * z
+        double a = this.chartSelectorInverse.re();
+        double b = this.chartSelectorInverse.im();
+        return this.toChartCenteredAtIdentity( a * re - b * im , a * im + b * re );
+    }
+    
+    
+    /**
+     * Maps a chart element given as a primitive value to its unit complex number, storing the result in {@code output}.
+     * <p>
+     * It does not allocate new objects when the concrete atlas overrides {@link #toManifoldFromChartCenteredAtIdentity(double, ComplexNumber)}.
+     * 
+     * @param e     chart element to be mapped.
+     * @param output    {@link ComplexNumber} where the result is stored.
+     * @return  {@code output}, holding the unit complex number mapped with the input chart element.
+     * 
+     * @see #toManifold(RealNumber)
+     */
+    public ComplexNumber toManifold( double e , ComplexNumber output )
+    {
+        // z = z0 * delta_z0_z
+        this.toManifoldFromChartCenteredAtIdentity( e , output );
+        return output.setToProduct( this.chartSelector , output );
+    }
+    
+    
+    /**
+     * Maps an array of unit complex numbers to their chart elements.
+     * <p>
+     * The unit complex numbers are given by their real and imaginary parts in separate arrays.
+     * 
+     * @param res   real parts of the unit complex numbers.
+     * @param ims   imaginary parts of the unit complex numbers.
+     * @param es    array where the chart elements are stored.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have the same length.
+     * 
+     * @see #toChart(double, double)
+     */
+    public void toChart( double[] res , double[] ims , double[] es )
+    {
+        UnitComplexNumberAtlas.assertSameLength( res , ims , es );
+        double a = this.chartSelectorInverse.re();
+        double b = this.chartSelectorInverse.im();
+        for( int i=0; i<res.length; i++ ) {
+            es[i] = this.toChartCenteredAtIdentity( a * res[i] - b * ims[i] , a * ims[i] + b * res[i] );
+        }
+    }
+    
+    
+    /**
+     * Maps an array of chart elements to their unit complex numbers.
+     * <p>
+     * The unit complex numbers are stored by their real and imaginary parts in separate arrays.
+     * 
+     * @param es    chart elements.
+     * @param res   array where the real parts of the unit complex numbers are stored.
+     * @param ims   array where the imaginary parts of the unit complex numbers are stored.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have the same length.
+     * 
+     * @see #toManifold(double, ComplexNumber)
+     */
+    public void toManifold( double[] es , double[] res , double[] ims )
+    {
+        UnitComplexNumberAtlas.assertSameLength( es , res , ims );
+        ComplexNumber z = ComplexNumber.one();
+        for( int i=0; i<es.length; i++ ) {
+            this.toManifold( es[i] , z );
+            res[i] = z.re();
+            ims[i] = z.im();
+        }
     }
     
     
@@ -155,8 +388,30 @@ public abstract class UnitComplexNumberAtlas
      */
     public boolean isContainedInChartDomain( ComplexNumber z )
     {
-        ComplexNumber delta = this.toChartSelectorPerspective( z );
-        return this.isContainedInChartCenteredAtIdentityDomain( delta );
+        return this.isContainedInChartCenteredAtIdentityDomain( this.toChartSelectorPerspective( z ) );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PACKAGE-PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Throws if the arrays do not have the same length.
+     * 
+     * @param first     array whose length is expected.
+     * @param arrays    arrays to be checked.
+     * 
+     * @throws IllegalArgumentException     if any array does not have the length of {@code first}.
+     */
+    static void assertSameLength( double[] first , double[]... arrays )
+    {
+        for( double[] array : arrays ) {
+            if( array.length != first.length ) {
+                throw new IllegalArgumentException( "Arrays must have the same length; found " + array.length + " and " + first.length );
+            }
+        }
     }
     
 }
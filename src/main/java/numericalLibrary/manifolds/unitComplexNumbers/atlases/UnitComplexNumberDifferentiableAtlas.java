@@ -12,6 +12,9 @@ import numericalLibrary.types.RealNumber;
  * Base class for each {@link DifferentiableAtlas} mapping {@link ComplexNumber}s to {@link RealNumber}s.
  * <p>
  * Extends {@link UnitComplexNumberAtlas} providing the Jacobian of the transition map.
+ * <p>
+ * As {@link UnitComplexNumberAtlas}, instances are not thread-safe:
+ * the methods that take two chart selectors change the chart selector of the atlas.
  * 
  * @see "Kalman Filtering for Attitude Estimation with Quaternions and Concepts from Manifold Theory" (<a href="https://www.mdpi.com/1424-8220/19/1/149">https://www.mdpi.com/1424-8220/19/1/149</a>)
  */
@@ -59,4 +62,149 @@ public abstract class UnitComplexNumberDifferentiableAtlas
         return this.jacobianOfTransitionMap( delta );
     }
     
+    
+    /**
+     * Stores the Jacobian of the chart evaluated at a unit complex number given by primitive values.
+     * <p>
+     * The derivatives with respect to the real and imaginary parts are stored in {@code output[offset]} and {@code output[offset+1]}.
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link DifferentiableAtlas#jacobianOfChart(Object)}.
+     * 
+     * @param re    real part of the unit complex number at which the Jacobian is evaluated.
+     * @param im    imaginary part of the unit complex number at which the Jacobian is evaluated.
+     * @param output    array where the Jacobian is stored.
+     * @param offset    position of {@code output} where the first entry is stored.
+     * @return  {@code output}, holding the Jacobian of the chart.
+     */
+    public double[] jacobianOfChart( double re , double im , double[] output , int offset )
+    {
+        MatrixReal jacobian = this.jacobianOfChart( ComplexNumber.fromRealPartAndImaginaryPart( re , im ) );
+        output[ offset ] = jacobian.entry( 0 , 0 );
+        output[ offset + 1 ] = jacobian.entry( 0 , 1 );
+        return output;
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the chart inverse evaluated at a chart element given by a primitive value.
+     * <p>
+     * The derivatives of the real and imaginary parts are stored in {@code output[offset]} and {@code output[offset+1]}.
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link DifferentiableAtlas#jacobianOfChartInverse(Object)}.
+     * 
+     * @param e     chart element at which the Jacobian is evaluated.
+     * @param output    array where the Jacobian is stored.
+     * @param offset    position of {@code output} where the first entry is stored.
+     * @return  {@code output}, holding the Jacobian of the chart inverse.
+     */
+    public double[] jacobianOfChartInverse( double e , double[] output , int offset )
+    {
+        MatrixReal jacobian = this.jacobianOfChartInverse( new RealNumber( e ) );
+        output[ offset ] = jacobian.entry( 0 , 0 );
+        output[ offset + 1 ] = jacobian.entry( 1 , 0 );
+        return output;
+    }
+    
+    
+    /**
+     * Returns the Jacobian of the transition map defined by a unit complex number given by primitive values.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #jacobianOfTransitionMap(ComplexNumber)}.
+     * 
+     * @param deltaRe   real part of the unit complex number that defines the transition map.
+     * @param deltaIm   imaginary part of the unit complex number that defines the transition map.
+     * @return  Jacobian of the transition map.
+     */
+    public double jacobianOfTransitionMap( double deltaRe , double deltaIm )
+    {
+        return this.jacobianOfTransitionMap( ComplexNumber.fromRealPartAndImaginaryPart( deltaRe , deltaIm ) ).entry( 0 , 0 );
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the chart evaluated at each unit complex number of an array.
+     * <p>
+     * The Jacobian of the k-th unit complex number is stored in positions {@code 2*k} and {@code 2*k + 1} of {@code jacobians}.
+     * 
+     * @param res   real parts of the unit complex numbers.
+     * @param ims   imaginary parts of the unit complex numbers.
+     * @param jacobians     array where the Jacobians are stored.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have consistent lengths.
+     * 
+     * @see #jacobianOfChart(double, double, double[], int)
+     */
+    public void jacobianOfChart( double[] res , double[] ims , double[] jacobians )
+    {
+        UnitComplexNumberAtlas.assertSameLength( res , ims );
+        UnitComplexNumberDifferentiableAtlas.assertJacobiansLength( res.length , 2 , jacobians );
+        for( int i=0; i<res.length; i++ ) {
+            this.jacobianOfChart( res[i] , ims[i] , jacobians , 2 * i );
+        }
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the chart inverse evaluated at each chart element of an array.
+     * <p>
+     * The Jacobian of the k-th chart element is stored in positions {@code 2*k} and {@code 2*k + 1} of {@code jacobians}.
+     * 
+     * @param es    chart elements.
+     * @param jacobians     array where the Jacobians are stored.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have consistent lengths.
+     * 
+     * @see #jacobianOfChartInverse(double, double[], int)
+     */
+    public void jacobianOfChartInverse( double[] es , double[] jacobians )
+    {
+        UnitComplexNumberDifferentiableAtlas.assertJacobiansLength( es.length , 2 , jacobians );
+        for( int i=0; i<es.length; i++ ) {
+            this.jacobianOfChartInverse( es[i] , jacobians , 2 * i );
+        }
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the transition map defined by each unit complex number of an array.
+     * 
+     * @param deltaRes  real parts of the unit complex numbers that define the transition maps.
+     * @param deltaIms  imaginary parts of the unit complex numbers that define the transition maps.
+     * @param jacobians     array where the Jacobians are stored.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have the same length.
+     * 
+     * @see #jacobianOfTransitionMap(double, double)
+     */
+    public void jacobianOfTransitionMap( double[] deltaRes , double[] deltaIms , double[] jacobians )
+    {
+        UnitComplexNumberAtlas.assertSameLength( deltaRes , deltaIms , jacobians );
+        for( int i=0; i<deltaRes.length; i++ ) {
+            jacobians[i] = this.jacobianOfTransitionMap( deltaRes[i] , deltaIms[i] );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Throws if the array of Jacobians cannot hold exactly the Jacobians of {@code n} elements.
+     * 
+     * @param n     number of elements.
+     * @param entriesPerJacobian    number of entries of each Jacobian.
+     * @param jacobians     array where the Jacobians are stored.
+     * 
+     * @throws IllegalArgumentException     if {@code jacobians} does not have length  n * entriesPerJacobian .
+     */
+    private static void assertJacobiansLength( int n , int entriesPerJacobian , double[] jacobians )
+    {
+        if( jacobians.length != n * entriesPerJacobian ) {
+            throw new IllegalArgumentException( "Jacobian array must have length " + ( n * entriesPerJacobian ) + "; found " + jacobians.length );
+        }
+    }
+    
 }
@@ -0,0 +1,475 @@
+package numericalLibrary.manifolds.unitQuaternions;
+
+
+import java.util.stream.IntStream;
+
+import numericalLibrary.types.UnitQuaternion;
+
+
+
+/**
+ * Computes the mean of a stream of {@link UnitQuaternion}s using the eigenvector method by Markley et al.
+ * <p>
+ * The accumulator stores the weighted sum of outer products
+ * <br>
+ * M  =  \sum_i  w_i  q_i q_i^T
+ * <br>
+ * which is updated in constant time for each new {@link UnitQuaternion}.
+ * The mean is the eigenvector of  M  associated with its largest eigenvalue,
+ * which minimizes the weighted sum of squared Frobenius distances between the rotation matrices.
+ * Since  q q^T = (-q) (-q)^T , the mean does not depend on the sign of the accumulated {@link UnitQuaternion}s.
+ * <p>
+ * Accumulators filled independently (for example, by parallel workers) can be combined with {@link #merge(UnitQuaternionAverager)}.
+ * 
+ * @see "Averaging Quaternions" (<a href="https://doi.org/10.2514/1.28949">https://doi.org/10.2514/1.28949</a>)
+ */
+public class UnitQuaternionAverager
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of elements accumulated by each task of the parallel bulk methods.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 14;
+    
+    /**
+     * Maximum number of sweeps of the Jacobi eigenvalue algorithm.
+     */
+    private static final int MAXIMUM_JACOBI_SWEEPS = 50;
+    
+    /**
+     * Threshold for the squared norm of the off-diagonal part below which the Jacobi eigenvalue algorithm stops.
+     * <p>
+     * The accumulated matrix is normalized with the total weight, so its trace is 1.
+     */
+    private static final double JACOBI_TOLERANCE = 1.0e-30;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Upper triangular entries of the accumulated symmetric matrix  M .
+     */
+    private double mww;
+    private double mwx;
+    private double mwy;
+    private double mwz;
+    private double mxx;
+    private double mxy;
+    private double mxz;
+    private double myy;
+    private double myz;
+    private double mzz;
+    
+    /**
+     * Sum of the weights of the accumulated {@link UnitQuaternion}s.
+     */
+    private double totalWeight;
+    
+    /**
+     * Number of accumulated {@link UnitQuaternion}s.
+     */
+    private long count;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs an empty {@link UnitQuaternionAverager}.
+     */
+    public UnitQuaternionAverager()
+    {
+        this.reset();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Removes every accumulated {@link UnitQuaternion}.
+     * 
+     * @return  {@code this} empty.
+     */
+    public UnitQuaternionAverager reset()
+    {
+        this.mww = 0.0;
+        this.mwx = 0.0;
+        this.mwy = 0.0;
+        this.mwz = 0.0;
+        this.mxx = 0.0;
+        this.mxy = 0.0;
+        this.mxz = 0.0;
+        this.myy = 0.0;
+        this.myz = 0.0;
+        this.mzz = 0.0;
+        this.totalWeight = 0.0;
+        this.count = 0;
+        return this;
+    }
+    
+    
+    /**
+     * Accumulates a {@link UnitQuaternion} with unit weight.
+     * 
+     * @param q     {@link UnitQuaternion} to be accumulated.
+     * @return  {@code this} after accumulating the {@link UnitQuaternion}.
+     */
+    public UnitQuaternionAverager add( UnitQuaternion q )
+    {
+        this.accumulate( q.w() , q.x() , q.y() , q.z() , 1.0 );
+        return this;
+    }
+    
+    
+    /**
+     * Accumulates a weighted {@link UnitQuaternion}.
+     * 
+     * @param q     {@link UnitQuaternion} to be accumulated.
+     * @param weight    weight of the {@link UnitQuaternion}. It must be non-negative.
+     * @return  {@code this} after accumulating the {@link UnitQuaternion}.
+     * @throws IllegalArgumentException if the weight is negative or NaN.
+     */
+    public UnitQuaternionAverager add( UnitQuaternion q , double weight )
+    {
+        assertValidWeight( weight );
+        this.accumulate( q.w() , q.x() , q.y() , q.z() , weight );
+        return this;
+    }
+    
+    
+    /**
+     * Accumulates a batch of {@link UnitQuaternion}s stored as separate component arrays (structure of arrays), each with unit weight.
+     * <p>
+     * The components must define {@link UnitQuaternion}s with unit norm; they are not normalized.
+     * 
+     * @param ws    real parts of the {@link UnitQuaternion}s.
+     * @param xs    coefficients multiplying the imaginary unit i.
+     * @param ys    coefficients multiplying the imaginary unit j.
+     * @param zs    coefficients multiplying the imaginary unit k.
+     * @param parallel  true if the work is to be split among several threads; false otherwise.
+     * @return  {@code this} after accumulating the {@link UnitQuaternion}s.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public UnitQuaternionAverager add( double[] ws , double[] xs , double[] ys , double[] zs , boolean parallel )
+    {
+        assertSameLength( ws , xs , ys , zs );
+        return this.addArrays( ws , xs , ys , zs , null , parallel );
+    }
+    
+    
+    /**
+     * Accumulates a batch of weighted {@link UnitQuaternion}s stored as separate component arrays (structure of arrays).
+     * <p>
+     * The components must define {@link UnitQuaternion}s with unit norm; they are not normalized.
+     * 
+     * @param ws    real parts of the {@link UnitQuaternion}s.
+     * @param xs    coefficients multiplying the imaginary unit i.
+     * @param ys    coefficients multiplying the imaginary unit j.
+     * @param zs    coefficients multiplying the imaginary unit k.
+     * @param weights   weights of the {@link UnitQuaternion}s. They must be non-negative.
+     * @param parallel  true if the work is to be split among several threads; false otherwise.
+     * @return  {@code this} after accumulating the {@link UnitQuaternion}s.
+     * @throws IllegalArgumentException if the arrays do not have the same length, or if any weight is negative or NaN.
+     */
+    public UnitQuaternionAverager add( double[] ws , double[] xs , double[] ys , double[] zs , double[] weights , boolean parallel )
+    {
+        assertSameLength( ws , xs , ys , zs , weights );
+        for( double weight : weights ) {
+            assertValidWeight( weight );
+        }
+        return this.addArrays( ws , xs , ys , zs , weights , parallel );
+    }
+    
+    
+    /**
+     * Accumulates every {@link UnitQuaternion} accumulated by other {@link UnitQuaternionAverager}.
+     * <p>
+     * The result is the same as if the {@link UnitQuaternion}s accumulated by {@code other} had been accumulated by {@code this}.
+     * {@code other} is not modified.
+     * 
+     * @param other     {@link UnitQuaternionAverager} whose accumulated {@link UnitQuaternion}s are added to {@code this}.
+     * @return  {@code this} after the merge.
+     */
+    public UnitQuaternionAverager merge( UnitQuaternionAverager other )
+    {
+        this.mww += other.mww;
+        this.mwx += other.mwx;
+        this.mwy += other.mwy;
+        this.mwz += other.mwz;
+        this.mxx += other.mxx;
+        this.mxy += other.mxy;
+        this.mxz += other.mxz;
+        this.myy += other.myy;
+        this.myz += other.myz;
+        this.mzz += other.mzz;
+        this.totalWeight += other.totalWeight;
+        this.count += other.count;
+        return this;
+    }
+    
+    
+    /**
+     * Returns the number of accumulated {@link UnitQuaternion}s.
+     * 
+     * @return  number of accumulated {@link UnitQuaternion}s.
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+    
+    
+    /**
+     * Returns the sum of the weights of the accumulated {@link UnitQuaternion}s.
+     * 
+     * @return  sum of the weights of the accumulated {@link UnitQuaternion}s.
+     */
+    public double getTotalWeight()
+    {
+        return this.totalWeight;
+    }
+    
+    
+    /**
+     * Returns the mean of the accumulated {@link UnitQuaternion}s.
+     * 
+     * @return  mean of the accumulated {@link UnitQuaternion}s, with non-negative real part.
+     * @throws IllegalStateException if the total weight of the accumulated {@link UnitQuaternion}s is not positive.
+     * 
+     * @see #mean(UnitQuaternion)
+     */
+    public UnitQuaternion mean()
+    {
+        return this.mean( UnitQuaternion.one() );
+    }
+    
+    
+    /**
+     * Stores the mean of the accumulated {@link UnitQuaternion}s in {@code output}.
+     * <p>
+     * The mean is extracted with the cyclic Jacobi eigenvalue algorithm on the normalized 4x4 accumulated matrix;
+     * its cost does not depend on the number of accumulated {@link UnitQuaternion}s.
+     * 
+     * @param output    {@link UnitQuaternion} where the mean is stored.
+     * @return  {@code output} with the mean of the accumulated {@link UnitQuaternion}s, with non-negative real part.
+     * @throws IllegalStateException if the total weight of the accumulated {@link UnitQuaternion}s is not positive.
+     */
+    public UnitQuaternion mean( UnitQuaternion output )
+    {
+        if( !( this.totalWeight > 0.0 ) ) {
+            throw new IllegalStateException( "The mean is not defined: the total weight of the accumulated quaternions is " + this.totalWeight + "." );
+        }
+        double scale = 1.0/this.totalWeight;
+        double[] a = new double[] {
+                this.mww * scale , this.mwx * scale , this.mwy * scale , this.mwz * scale ,
+                this.mwx * scale , this.mxx * scale , this.mxy * scale , this.mxz * scale ,
+                this.mwy * scale , this.mxy * scale , this.myy * scale , this.myz * scale ,
+                this.mwz * scale , this.mxz * scale , this.myz * scale , this.mzz * scale };
+        double[] v = new double[] {
+                1.0 , 0.0 , 0.0 , 0.0 ,
+                0.0 , 1.0 , 0.0 , 0.0 ,
+                0.0 , 0.0 , 1.0 , 0.0 ,
+                0.0 , 0.0 , 0.0 , 1.0 };
+        jacobiEigenDecomposition( a , v );
+        // Select the eigenvector associated with the largest eigenvalue.
+        int column = 0;
+        for( int k=1; k<4; k++ ) {
+            if( a[ 5*k ] > a[ 5*column ] ) {
+                column = k;
+            }
+        }
+        double w = v[ column ];
+        double x = v[ 4 + column ];
+        double y = v[ 8 + column ];
+        double z = v[ 12 + column ];
+        double normInverse = Math.copySign( 1.0/Math.sqrt( w*w + x*x + y*y + z*z ) , w );
+        return output.setToNormalizedComponents( w * normInverse , x * normInverse , y * normInverse , z * normInverse );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Throws an {@link IllegalArgumentException} if the weight is negative or NaN.
+     * 
+     * @param weight    weight to be checked.
+     */
+    private static void assertValidWeight( double weight )
+    {
+        if( !( weight >= 0.0 ) ) {
+            throw new IllegalArgumentException( "Weights must be non-negative; found " + weight + "." );
+        }
+    }
+    
+    
+    /**
+     * Throws an {@link IllegalArgumentException} if the arrays do not have the same length.
+     * 
+     * @param first     first array.
+     * @param arrays    arrays that must have the same length as the first one.
+     */
+    private static void assertSameLength( double[] first , double[]... arrays )
+    {
+        for( double[] array : arrays ) {
+            if( array.length != first.length ) {
+                throw new IllegalArgumentException( "Arrays must have the same length: " + first.length + " != " + array.length );
+            }
+        }
+    }
+    
+    
+    /**
+     * Diagonalizes a symmetric 4x4 matrix with the cyclic Jacobi eigenvalue algorithm.
+     * <p>
+     * On return, the diagonal of {@code a} holds the eigenvalues,
+     * and the columns of {@code v} hold the corresponding eigenvectors, rotated from the initial content of {@code v}.
+     * 
+     * @param a     row-major symmetric 4x4 matrix; overwritten with its diagonalized form.
+     * @param v     row-major 4x4 matrix where the rotations are accumulated.
+     */
+    private static void jacobiEigenDecomposition( double[] a , double[] v )
+    {
+        for( int sweep=0; sweep<MAXIMUM_JACOBI_SWEEPS; sweep++ ) {
+            double offDiagonalNormSquared = 0.0;
+            for( int p=0; p<3; p++ ) {
+                for( int q=p+1; q<4; q++ ) {
+                    offDiagonalNormSquared += a[ 4*p + q ] * a[ 4*p + q ];
+                }
+            }
+            if( offDiagonalNormSquared < JACOBI_TOLERANCE ) {
+                return;
+            }
+            for( int p=0; p<3; p++ ) {
+                for( int q=p+1; q<4; q++ ) {
+                    double apq = a[ 4*p + q ];
+                    if( apq == 0.0 ) {
+                        continue;
+                    }
+                    // Rotation that annihilates a[p][q].
+                    double theta = ( a[ 5*q ] - a[ 5*p ] ) / ( 2.0 * apq );
+                    double t = Math.copySign( 1.0 , theta ) / ( Math.abs( theta ) + Math.sqrt( theta * theta + 1.0 ) );
+                    double c = 1.0/Math.sqrt( t * t + 1.0 );
+                    double s = t * c;
+                    // a <- a * P
+                    for( int k=0; k<4; k++ ) {
+                        double akp = a[ 4*k + p ];
+                        double akq = a[ 4*k + q ];
+                        a[ 4*k + p ] = c * akp - s * akq;
+                        a[ 4*k + q ] = s * akp + c * akq;
+                    }
+                    // a <- P^T * a
+                    for( int k=0; k<4; k++ ) {
+                        double apk = a[ 4*p + k ];
+                        double aqk = a[ 4*q + k ];
+                        a[ 4*p + k ] = c * apk - s * aqk;
+                        a[ 4*q + k ] = s * apk + c * aqk;
+                    }
+                    // v <- v * P
+                    for( int k=0; k<4; k++ ) {
+                        double vkp = v[ 4*k + p ];
+                        double vkq = v[ 4*k + q ];
+                        v[ 4*k + p ] = c * vkp - s * vkq;
+                        v[ 4*k + q ] = s * vkp + c * vkq;
+                    }
+                }
+            }
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Accumulates the components of a weighted {@link UnitQuaternion}.
+     * 
+     * @param w     real part.
+     * @param x     coefficient multiplying the imaginary unit i.
+     * @param y     coefficient multiplying the imaginary unit j.
+     * @param z     coefficient multiplying the imaginary unit k.
+     * @param weight    weight of the {@link UnitQuaternion}.
+     */
+    private void accumulate( double w , double x , double y , double z , double weight )
+    {
+        double ww = weight * w;
+        double wx = weight * x;
+        double wy = weight * y;
+        this.mww += ww * w;
+        this.mwx += ww * x;
+        this.mwy += ww * y;
+        this.mwz += ww * z;
+        this.mxx += wx * x;
+        this.mxy += wx * y;
+        this.mxz += wx * z;
+        this.myy += wy * y;
+        this.myz += wy * z;
+        this.mzz += weight * z * z;
+        this.totalWeight += weight;
+        this.count++;
+    }
+    
+    
+    /**
+     * Accumulates the {@link UnitQuaternion}s in the given index range of the component arrays.
+     * 
+     * @param ws    real parts of the {@link UnitQuaternion}s.
+     * @param xs    coefficients multiplying the imaginary unit i.
+     * @param ys    coefficients multiplying the imaginary unit j.
+     * @param zs    coefficients multiplying the imaginary unit k.
+     * @param weights   weights of the {@link UnitQuaternion}s, or null for unit weights.
+     * @param from  first index, inclusive.
+     * @param to    last index, exclusive.
+     * @return  {@code this} after accumulating the {@link UnitQuaternion}s.
+     */
+    private UnitQuaternionAverager addRange( double[] ws , double[] xs , double[] ys , double[] zs , double[] weights , int from , int to )
+    {
+        for( int i=from; i<to; i++ ) {
+            this.accumulate( ws[i] , xs[i] , ys[i] , zs[i] , ( weights == null )?  1.0  :  weights[i] );
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Accumulates the {@link UnitQuaternion}s in the component arrays, possibly splitting the work among several threads.
+     * <p>
+     * In parallel, each chunk is accumulated by its own {@link UnitQuaternionAverager}, and the partial results are merged.
+     * 
+     * @param ws    real parts of the {@link UnitQuaternion}s.
+     * @param xs    coefficients multiplying the imaginary unit i.
+     * @param ys    coefficients multiplying the imaginary unit j.
+     * @param zs    coefficients multiplying the imaginary unit k.
+     * @param weights   weights of the {@link UnitQuaternion}s, or null for unit weights.
+     * @param parallel  true if the work is to be split among several threads; false otherwise.
+     * @return  {@code this} after accumulating the {@link UnitQuaternion}s.
+     */
+    private UnitQuaternionAverager addArrays( double[] ws , double[] xs , double[] ys , double[] zs , double[] weights , boolean parallel )
+    {
+        int n = ws.length;
+        if( !parallel  ||  n <= PARALLEL_CHUNK_SIZE ) {
+            return this.addRange( ws , xs , ys , zs , weights , 0 , n );
+        }
+        int numberOfChunks = ( n + PARALLEL_CHUNK_SIZE - 1 ) / PARALLEL_CHUNK_SIZE;
+        UnitQuaternionAverager partial = IntStream.range( 0 , numberOfChunks ).parallel()
+                .mapToObj( chunk -> new UnitQuaternionAverager().addRange( ws , xs , ys , zs , weights , chunk * PARALLEL_CHUNK_SIZE , Math.min( n , ( chunk + 1 ) * PARALLEL_CHUNK_SIZE ) ) )
+                .reduce( new UnitQuaternionAverager() , ( first , second ) -> new UnitQuaternionAverager().merge( first ).merge( second ) );
+        return this.merge( partial );
+    }
+    
+}
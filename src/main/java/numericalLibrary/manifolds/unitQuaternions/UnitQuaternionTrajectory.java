@@ -0,0 +1,450 @@
+package numericalLibrary.manifolds.unitQuaternions;
+
+
+import java.util.Arrays;
+
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * Interpolates a sequence of time-stamped {@link UnitQuaternion} keyframes with SLERP or SQUAD.
+ * <p>
+ * Every constant that depends only on the keyframes is computed once at construction:
+ * the keyframes are aligned to the same hemisphere as their predecessor, so that each segment follows the shortest path;
+ * the angle and the inverse of its sine are stored for each segment;
+ * and the SQUAD control points
+ * <br>
+ * s_i  =  q_i exp( -( log( q_i^{-1} q_{i+1} ) + log( q_i^{-1} q_{i-1} ) ) / 4 )
+ * <br>
+ * are stored together with the constants of the segments joining them.
+ * Sampling then reduces to a segment lookup and a few trigonometric evaluations, without creating new objects.
+ * <p>
+ * The segment containing a time is found in constant time if the keyframes are uniformly spaced in time, and with a binary search otherwise.
+ * Times before the first keyframe or after the last one are clamped.
+ * 
+ * @see "Animating Rotation with Quaternion Curves" (<a href="https://doi.org/10.1145/325165.325242">https://doi.org/10.1145/325165.325242</a>)
+ */
+public class UnitQuaternionTrajectory
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Angle below which spherical interpolation is replaced by normalized linear interpolation.
+     */
+    private static final double SMALL_ANGLE = 1.0e-6;
+    
+    /**
+     * Relative tolerance used to decide if the keyframes are uniformly spaced in time.
+     */
+    private static final double UNIFORM_GRID_TOLERANCE = 1.0e-9;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Times of the keyframes, in strictly increasing order.
+     */
+    private final double[] times;
+    
+    /**
+     * Inverse of the duration of each segment.
+     */
+    private final double[] inverseDurations;
+    
+    /**
+     * Components of the keyframes, each one in the same hemisphere as the previous one.
+     */
+    private final double[] keyframes;
+    
+    /**
+     * Components of the SQUAD control points.
+     */
+    private final double[] controlPoints;
+    
+    /**
+     * Angle between consecutive keyframes, and the inverse of its sine.
+     */
+    private final double[] keyframeAngles;
+    private final double[] keyframeInverseSines;
+    
+    /**
+     * Angle between consecutive control points, and the inverse of its sine.
+     */
+    private final double[] controlPointAngles;
+    private final double[] controlPointInverseSines;
+    
+    /**
+     * Inverse of the time step if the keyframes are uniformly spaced in time; 0 otherwise.
+     */
+    private final double inverseUniformTimeStep;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link UnitQuaternionTrajectory} from its keyframes.
+     * <p>
+     * The input arrays are copied.
+     * 
+     * @param times     times of the keyframes, in strictly increasing order.
+     * @param keyframes     {@link UnitQuaternion}s at the given times.
+     * @throws IllegalArgumentException if the arrays do not have the same length, if there are less than 2 keyframes, or if the times are not strictly increasing.
+     */
+    public UnitQuaternionTrajectory( double[] times , UnitQuaternion[] keyframes )
+    {
+        int n = times.length;
+        if( keyframes.length != n ) {
+            throw new IllegalArgumentException( "Arrays must have the same length: " + n + " != " + keyframes.length );
+        }
+        if( n < 2 ) {
+            throw new IllegalArgumentException( "At least 2 keyframes are needed; found " + n + "." );
+        }
+        for( int i=1; i<n; i++ ) {
+            if( !( times[i] > times[i-1] ) ) {
+                throw new IllegalArgumentException( "Times must be strictly increasing; found " + times[i-1] + " followed by " + times[i] + "." );
+            }
+        }
+        this.times = Arrays.copyOf( times , n );
+        this.inverseDurations = new double[ n - 1 ];
+        for( int i=0; i<n-1; i++ ) {
+            this.inverseDurations[i] = 1.0/( times[i+1] - times[i] );
+        }
+        this.inverseUniformTimeStep = uniformGridInverseTimeStep( this.times );
+        // Align the keyframes so that each segment follows the shortest path.
+        UnitQuaternion[] aligned = new UnitQuaternion[ n ];
+        aligned[0] = keyframes[0].copy();
+        for( int i=1; i<n; i++ ) {
+            aligned[i] = ( aligned[i-1].dot( keyframes[i] ) < 0.0 )?  keyframes[i].opposite()  :  keyframes[i].copy();
+        }
+        this.keyframes = new double[ 4 * n ];
+        this.controlPoints = new double[ 4 * n ];
+        for( int i=0; i<n; i++ ) {
+            UnitQuaternion s = aligned[i];
+            if(  0 < i  &&  i < n-1  ) {
+                UnitQuaternion inverse = aligned[i].inverseMultiplicative();
+                // toRotationVector() returns 2 log(q); thus exp( -( log(a) + log(b) )/4 ) = fromRotationVector( -( 2 log(a) + 2 log(b) )/4 ).
+                Vector3 v = inverse.multiply( aligned[i+1] ).toRotationVector().addInplace( inverse.multiply( aligned[i-1] ).toRotationVector() );
+                s = aligned[i].multiply( UnitQuaternion.fromRotationVector( v.scaleInplace( -0.25 ) ) );
+            }
+            storeComponents( aligned[i] , this.keyframes , 4 * i );
+            storeComponents( s , this.controlPoints , 4 * i );
+        }
+        this.keyframeAngles = new double[ n - 1 ];
+        this.keyframeInverseSines = new double[ n - 1 ];
+        this.controlPointAngles = new double[ n - 1 ];
+        this.controlPointInverseSines = new double[ n - 1 ];
+        for( int i=0; i<n-1; i++ ) {
+            this.keyframeAngles[i] = angleBetween( this.keyframes , 4 * i );
+            this.keyframeInverseSines[i] = 1.0/Math.sin( this.keyframeAngles[i] );
+            this.controlPointAngles[i] = angleBetween( this.controlPoints , 4 * i );
+            this.controlPointInverseSines[i] = 1.0/Math.sin( this.controlPointAngles[i] );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of keyframes.
+     * 
+     * @return  number of keyframes.
+     */
+    public int getNumberOfKeyframes()
+    {
+        return this.times.length;
+    }
+    
+    
+    /**
+     * Returns true if the keyframes are uniformly spaced in time, so that segments are found in constant time.
+     * 
+     * @return  true if the keyframes are uniformly spaced in time; false otherwise.
+     */
+    public boolean hasUniformTimeStep()
+    {
+        return ( this.inverseUniformTimeStep > 0.0 );
+    }
+    
+    
+    /**
+     * Stores in {@code output} the SLERP interpolation of the keyframes at the given time.
+     * 
+     * @param t     time at which the trajectory is sampled.
+     * @param output    {@link UnitQuaternion} where the result is stored.
+     * @return  {@code output} with the interpolated {@link UnitQuaternion}.
+     */
+    public UnitQuaternion slerp( double t , UnitQuaternion output )
+    {
+        return this.sample( t , false , output );
+    }
+    
+    
+    /**
+     * Stores in {@code output} the SQUAD interpolation of the keyframes at the given time.
+     * <p>
+     * Unlike {@link #slerp(double, UnitQuaternion)}, the interpolated trajectory has continuous angular velocity at the keyframes.
+     * 
+     * @param t     time at which the trajectory is sampled.
+     * @param output    {@link UnitQuaternion} where the result is stored.
+     * @return  {@code output} with the interpolated {@link UnitQuaternion}.
+     */
+    public UnitQuaternion squad( double t , UnitQuaternion output )
+    {
+        return this.sample( t , true , output );
+    }
+    
+    
+    /**
+     * Samples the SLERP interpolation of the keyframes at a batch of times.
+     * <p>
+     * The output is stored as separate component arrays (structure of arrays).
+     * 
+     * @param ts    times at which the trajectory is sampled.
+     * @param ws    output array where the real parts are stored.
+     * @param xs    output array where the coefficients multiplying the imaginary unit i are stored.
+     * @param ys    output array where the coefficients multiplying the imaginary unit j are stored.
+     * @param zs    output array where the coefficients multiplying the imaginary unit k are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     * 
+     * @see #slerp(double, UnitQuaternion)
+     */
+    public void slerp( double[] ts , double[] ws , double[] xs , double[] ys , double[] zs )
+    {
+        this.sample( ts , false , ws , xs , ys , zs );
+    }
+    
+    
+    /**
+     * Samples the SQUAD interpolation of the keyframes at a batch of times.
+     * <p>
+     * The output is stored as separate component arrays (structure of arrays).
+     * 
+     * @param ts    times at which the trajectory is sampled.
+     * @param ws    output array where the real parts are stored.
+     * @param xs    output array where the coefficients multiplying the imaginary unit i are stored.
+     * @param ys    output array where the coefficients multiplying the imaginary unit j are stored.
+     * @param zs    output array where the coefficients multiplying the imaginary unit k are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     * 
+     * @see #squad(double, UnitQuaternion)
+     */
+    public void squad( double[] ts , double[] ws , double[] xs , double[] ys , double[] zs )
+    {
+        this.sample( ts , true , ws , xs , ys , zs );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PACKAGE-PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the index of the segment that contains the given time.
+     * <p>
+     * Segment  i  joins the keyframes  i  and  i+1 . Times out of the range of the keyframes are assigned to the first or last segment.
+     * 
+     * @param t     time whose segment is looked for.
+     * @return  index of the segment that contains the given time.
+     */
+    int segmentIndex( double t )
+    {
+        int last = this.times.length - 2;
+        if( this.inverseUniformTimeStep > 0.0 ) {
+            int i = (int)( ( t - this.times[0] ) * this.inverseUniformTimeStep );
+            i = Math.max( 0 , Math.min( last , i ) );
+            // Correct the rounding errors of the uniform grid.
+            if(  i > 0  &&  t < this.times[i]  ) {
+                i--;
+            } else if(  i < last  &&  t >= this.times[i+1]  ) {
+                i++;
+            }
+            return i;
+        }
+        int index = Arrays.binarySearch( this.times , t );
+        if( index < 0 ) {
+            index = -index - 2;
+        }
+        return Math.max( 0 , Math.min( last , index ) );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the inverse of the time step if the times are uniformly spaced, and 0 otherwise.
+     * 
+     * @param times     strictly increasing times.
+     * @return  inverse of the time step if the times are uniformly spaced; 0 otherwise.
+     */
+    private static double uniformGridInverseTimeStep( double[] times )
+    {
+        int n = times.length;
+        double timeStep = ( times[n-1] - times[0] )/( n - 1 );
+        for( int i=1; i<n; i++ ) {
+            if( Math.abs( times[i] - ( times[0] + i * timeStep ) ) > UNIFORM_GRID_TOLERANCE * timeStep ) {
+                return 0.0;
+            }
+        }
+        return 1.0/timeStep;
+    }
+    
+    
+    /**
+     * Stores the components of a {@link UnitQuaternion} in an array.
+     * 
+     * @param q     {@link UnitQuaternion} whose components are stored.
+     * @param output    array where the components are stored.
+     * @param offset    index of the first component in the array.
+     */
+    private static void storeComponents( UnitQuaternion q , double[] output , int offset )
+    {
+        output[ offset ] = q.w();
+        output[ offset + 1 ] = q.x();
+        output[ offset + 2 ] = q.y();
+        output[ offset + 3 ] = q.z();
+    }
+    
+    
+    /**
+     * Returns the angle between the consecutive 4-dimensional vectors stored from the given offset.
+     * 
+     * @param components    array of concatenated 4-dimensional vectors.
+     * @param offset    index of the first component of the first vector.
+     * @return  angle between the vectors.
+     */
+    private static double angleBetween( double[] components , int offset )
+    {
+        double dot = 0.0;
+        for( int k=0; k<4; k++ ) {
+            dot += components[ offset + k ] * components[ offset + 4 + k ];
+        }
+        return Math.acos( Math.max( -1.0 , Math.min( 1.0 , dot ) ) );
+    }
+    
+    
+    /**
+     * Returns the coefficient of spherical interpolation  sin( u angle ) / sin( angle ) .
+     * <p>
+     * Spherically interpolating from  a  to  b  gives  c(1-u) a + c(u) b , where  c  is the returned coefficient.
+     * Below {@link #SMALL_ANGLE} it is replaced by the coefficient of linear interpolation  u .
+     * 
+     * @param angle     angle between the interpolated vectors.
+     * @param inverseSine   inverse of the sine of the angle.
+     * @param u     interpolation parameter in [0,1].
+     * @return  coefficient of spherical interpolation.
+     */
+    private static double slerpCoefficient( double angle , double inverseSine , double u )
+    {
+        return ( angle < SMALL_ANGLE )?  u  :  Math.sin( u * angle ) * inverseSine;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Samples the trajectory at the given time, and stores the result in {@code output}.
+     * 
+     * @param t     time at which the trajectory is sampled.
+     * @param squad     true to use SQUAD interpolation; false to use SLERP interpolation.
+     * @param output    {@link UnitQuaternion} where the result is stored.
+     * @return  {@code output} with the interpolated {@link UnitQuaternion}.
+     */
+    private UnitQuaternion sample( double t , boolean squad , UnitQuaternion output )
+    {
+        int i = this.segmentIndex( t );
+        double u = Math.max( 0.0 , Math.min( 1.0 , ( t - this.times[i] ) * this.inverseDurations[i] ) );
+        // Interpolate between the keyframes.
+        final double[] k = this.keyframes;
+        final int a = 4 * i;
+        final int b = a + 4;
+        double ca = slerpCoefficient( this.keyframeAngles[i] , this.keyframeInverseSines[i] , 1.0 - u );
+        double cb = slerpCoefficient( this.keyframeAngles[i] , this.keyframeInverseSines[i] , u );
+        double pw = ca * k[a] + cb * k[b];
+        double px = ca * k[a+1] + cb * k[b+1];
+        double py = ca * k[a+2] + cb * k[b+2];
+        double pz = ca * k[a+3] + cb * k[b+3];
+        double normInverse = 1.0/Math.sqrt( pw*pw + px*px + py*py + pz*pz );
+        pw *= normInverse;
+        px *= normInverse;
+        py *= normInverse;
+        pz *= normInverse;
+        if( !squad ) {
+            return output.setToNormalizedComponents( pw , px , py , pz );
+        }
+        // Interpolate between the control points.
+        final double[] c = this.controlPoints;
+        ca = slerpCoefficient( this.controlPointAngles[i] , this.controlPointInverseSines[i] , 1.0 - u );
+        cb = slerpCoefficient( this.controlPointAngles[i] , this.controlPointInverseSines[i] , u );
+        double sw = ca * c[a] + cb * c[b];
+        double sx = ca * c[a+1] + cb * c[b+1];
+        double sy = ca * c[a+2] + cb * c[b+2];
+        double sz = ca * c[a+3] + cb * c[b+3];
+        normInverse = 1.0/Math.sqrt( sw*sw + sx*sx + sy*sy + sz*sz );
+        sw *= normInverse;
+        sx *= normInverse;
+        sy *= normInverse;
+        sz *= normInverse;
+        // Interpolate between the SLERP of the keyframes and the SLERP of the control points.
+        double angle = Math.acos( Math.max( -1.0 , Math.min( 1.0 , pw * sw + px * sx + py * sy + pz * sz ) ) );
+        double inverseSine = 1.0/Math.sin( angle );
+        double h = 2.0 * u * ( 1.0 - u );
+        double cp = slerpCoefficient( angle , inverseSine , 1.0 - h );
+        double cs = slerpCoefficient( angle , inverseSine , h );
+        double w = cp * pw + cs * sw;
+        double x = cp * px + cs * sx;
+        double y = cp * py + cs * sy;
+        double z = cp * pz + cs * sz;
+        normInverse = 1.0/Math.sqrt( w*w + x*x + y*y + z*z );
+        return output.setToNormalizedComponents( w * normInverse , x * normInverse , y * normInverse , z * normInverse );
+    }
+    
+    
+    /**
+     * Samples the trajectory at a batch of times, and stores the results as separate component arrays.
+     * 
+     * @param ts    times at which the trajectory is sampled.
+     * @param squad     true to use SQUAD interpolation; false to use SLERP interpolation.
+     * @param ws    output array where the real parts are stored.
+     * @param xs    output array where the coefficients multiplying the imaginary unit i are stored.
+     * @param ys    output array where the coefficients multiplying the imaginary unit j are stored.
+     * @param zs    output array where the coefficients multiplying the imaginary unit k are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    private void sample( double[] ts , boolean squad , double[] ws , double[] xs , double[] ys , double[] zs )
+    {
+        for( double[] array : new double[][] { ws , xs , ys , zs } ) {
+            if( array.length != ts.length ) {
+                throw new IllegalArgumentException( "Arrays must have the same length: " + ts.length + " != " + array.length );
+            }
+        }
+        UnitQuaternion q = UnitQuaternion.one();
+        for( int j=0; j<ts.length; j++ ) {
+            this.sample( ts[j] , squad , q );
+            ws[j] = q.w();
+            xs[j] = q.x();
+            ys[j] = q.y();
+            zs[j] = q.z();
+        }
+    }
+    
+}
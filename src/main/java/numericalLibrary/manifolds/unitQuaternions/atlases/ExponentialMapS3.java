@@ -1,6 +1,9 @@
 package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
+import numericalLibrary.types.Matrix3;
+import numericalLibrary.types.Matrix3x4;
+import numericalLibrary.types.Matrix4x3;
 import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.UnitQuaternion;
 import numericalLibrary.types.Vector3;
@@ -67,7 +70,26 @@ public class ExponentialMapS3
      */
     public Vector3 toChartCenteredAtIdentity( UnitQuaternion q )
     {
-        return q.toRotationVector();
+        return this.toChartCenteredAtIdentity( q , Vector3.zero() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion)
+     */
+    public Vector3 toChartCenteredAtIdentity( UnitQuaternion q , Vector3 output )
+    {
+        double qvnorm = Math.sqrt( q.x() * q.x() + q.y() * q.y() + q.z() * q.z() );
+        if( qvnorm > 0.0 ) {
+            double factor = 2.0 * Math.atan( qvnorm / q.w() ) / qvnorm;
+            return output.setComponents( factor * q.x() , factor * q.y() , factor * q.z() );
+        } else {
+            return output.setToZero();
+        }
     }
     
     
@@ -88,8 +110,89 @@ public class ExponentialMapS3
      */
     public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e )
     {
-        e = this.clipToImage( e );
-        return UnitQuaternion.fromRotationVector( e );
+        return this.toManifoldFromChartCenteredAtIdentity( e , UnitQuaternion.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3)
+     */
+    public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e , UnitQuaternion output )
+    {
+        double enorm = e.norm();
+        double clipFactor = 1.0;
+        if( !this.isContainedInImageFromNorm( enorm ) ) {
+            // Clip the norm to be in the image of the chart.
+            clipFactor = ExponentialMapS3.MAX_NORM / enorm;
+            enorm = ExponentialMapS3.MAX_NORM;
+        }
+        if( enorm > 0.0 ) {
+            double enorm05 = 0.5 * enorm;
+            double factor = clipFactor * Math.sin( enorm05 ) / enorm;
+            return output.setToNormalizedComponents( Math.cos( enorm05 ) , factor * e.x() , factor * e.y() , factor * e.z() );
+        } else {
+            return output.setToNormalizedComponents( 1.0 , 0.0 , 0.0 , 0.0 );
+        }
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion, Vector3)
+     */
+    public void toChartCenteredAtIdentity( double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom ,
+                                           double[] exs , double[] eys , double[] ezs , int chartFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = quaternionsFrom + k;
+            final int j = chartFrom + k;
+            final double x = xs[i];
+            final double y = ys[i];
+            final double z = zs[i];
+            final double qvnorm = Math.sqrt( x * x + y * y + z * z );
+            final double factor = ( qvnorm > 0.0 )?  2.0 * Math.atan( qvnorm / ws[i] ) / qvnorm  :  0.0;
+            exs[j] = factor * xs[i];
+            eys[j] = factor * ys[i];
+            ezs[j] = factor * zs[i];
+        }
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3, UnitQuaternion)
+     */
+    public void toManifoldFromChartCenteredAtIdentity( double[] exs , double[] eys , double[] ezs , int chartFrom ,
+                                                       double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = chartFrom + k;
+            final int j = quaternionsFrom + k;
+            final double ex = exs[i];
+            final double ey = eys[i];
+            final double ez = ezs[i];
+            final double enormRaw = Math.sqrt( ex * ex + ey * ey + ez * ez );
+            // Clip the norm to be in the image of the chart.
+            final boolean isContained = this.isContainedInImageFromNorm( enormRaw );
+            final double clipFactor = isContained?  1.0  :  ExponentialMapS3.MAX_NORM / enormRaw;
+            final double enorm = isContained?  enormRaw  :  ExponentialMapS3.MAX_NORM;
+            final double enorm05 = 0.5 * enorm;
+            final double factor = ( enorm > 0.0 )?  clipFactor * Math.sin( enorm05 ) / enorm  :  0.0;
+            ws[j] = Math.cos( enorm05 );
+            xs[j] = factor * ex;
+            ys[j] = factor * ey;
+            zs[j] = factor * ez;
+        }
     }
     
     
@@ -127,18 +230,34 @@ public class ExponentialMapS3
      */
     public MatrixReal jacobianOfChart( UnitQuaternion q )
     {
-        Vector3 qv = q.vectorPart();
-        double qvNormSquared = qv.normSquared();
+        return this.jacobianOfChart( q , Matrix3x4.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(UnitQuaternion)
+     */
+    public Matrix3x4 jacobianOfChart( UnitQuaternion q , Matrix3x4 output )
+    {
+        double qvNormSquared = q.x() * q.x() + q.y() * q.y() + q.z() * q.z();
         double qvNorm = Math.sqrt( qvNormSquared );
-        MatrixReal submatrix = MatrixReal.one( 3 );
+        double factor = 2.0 * Math.signum( q.w() );
+        double diagonal = factor;
+        double outer = 0.0;
         if( qvNorm > 0.0 ) {
             // Next line takes care of numerical inaccuracies that make the norm of the UnitQuaternion not exactly equal to 1.
             double asinc_qvnorm = ( qvNorm < 1.0 )? Math.asin( qvNorm )/qvNorm : Math.PI/2.0;
-            submatrix.scaleInplace( asinc_qvnorm );
-            submatrix.addInplace( qv.outerProduct( qv ).scaleInplace( ( 1.0/Math.abs( q.w() ) - asinc_qvnorm ) / qvNormSquared ) );
+            diagonal = factor * asinc_qvnorm;
+            outer = factor * ( 1.0/Math.abs( q.w() ) - asinc_qvnorm ) / qvNormSquared;
         }
-        submatrix.scaleInplace( 2.0 * Math.signum( q.w() ) );
-        return MatrixReal.zero( 3 , 4 ).setSubmatrix( 0,1 , submatrix );
+        return output.setEntries(
+                0.0 , diagonal + outer * q.x() * q.x() , outer * q.x() * q.y() , outer * q.x() * q.z() ,
+                0.0 , outer * q.y() * q.x() , diagonal + outer * q.y() * q.y() , outer * q.y() * q.z() ,
+                0.0 , outer * q.z() * q.x() , outer * q.z() * q.y() , diagonal + outer * q.z() * q.z() );
     }
     
     
@@ -156,21 +275,42 @@ public class ExponentialMapS3
      */
     public MatrixReal jacobianOfChartInverse( Vector3 e )
     {
-        e = this.clipToImage( e );
-        MatrixReal output = MatrixReal.empty( 4 , 3 );
-        double enormSquared = e.normSquared();
-        double enorm = Math.sqrt( enormSquared );
+        return this.jacobianOfChartInverse( e , Matrix4x3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(Vector3)
+     */
+    public Matrix4x3 jacobianOfChartInverse( Vector3 e , Matrix4x3 output )
+    {
+        double enorm = e.norm();
+        double clipFactor = 1.0;
+        if( !this.isContainedInImageFromNorm( enorm ) ) {
+            // Clip the norm to be in the image of the chart.
+            clipFactor = ExponentialMapS3.MAX_NORM / enorm;
+            enorm = ExponentialMapS3.MAX_NORM;
+        }
         double enorm_half = 0.5 * enorm;
         double sin_enorm_half = Math.sin( enorm_half );
         double cos_enorm_half = Math.cos( enorm_half );
         double sinc_enorm_half = ( enorm_half > 0.0 )? sin_enorm_half/enorm_half : 1.0;
-        Vector3 eNormalized = ( enorm > 0.0 )? e.scale( 1.0/enorm ) : Vector3.zero();
-        output.setSubmatrix( 0,0 , eNormalized.scale( -sin_enorm_half ).toMatrixAsRow() );
-        MatrixReal submatrix = MatrixReal.one( 3 ).scaleInplace( sinc_enorm_half );
-        submatrix.addInplace( eNormalized.outerProduct( eNormalized ).scaleInplace( cos_enorm_half - sinc_enorm_half ) );
-        output.setSubmatrix( 1,0 , submatrix );
-        output.scaleInplace( 0.5 );
-        return output;
+        double normalizingFactor = ( enorm > 0.0 )? clipFactor/enorm : 0.0;
+        double ux = normalizingFactor * e.x();
+        double uy = normalizingFactor * e.y();
+        double uz = normalizingFactor * e.z();
+        double diagonal = 0.5 * sinc_enorm_half;
+        double outer = 0.5 * ( cos_enorm_half - sinc_enorm_half );
+        double row0 = -0.5 * sin_enorm_half;
+        return output.setEntries(
+                row0 * ux , row0 * uy , row0 * uz ,
+                diagonal + outer * ux * ux , outer * ux * uy , outer * ux * uz ,
+                outer * uy * ux , diagonal + outer * uy * uy , outer * uy * uz ,
+                outer * uz * ux , outer * uz * uy , diagonal + outer * uz * uz );
     }
     
     
@@ -185,19 +325,37 @@ public class ExponentialMapS3
      */
     public MatrixReal jacobianOfTransitionMap( UnitQuaternion delta )
     {
-        delta = delta.positiveScalarPartForm();
-        Vector3 deltav = delta.vectorPart();
-        double deltavNorm = deltav.norm();
+        return this.jacobianOfTransitionMap( delta , Matrix3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfTransitionMap(UnitQuaternion)
+     */
+    public Matrix3 jacobianOfTransitionMap( UnitQuaternion delta , Matrix3 output )
+    {
+        // Use the positive scalar part form of delta.
+        double sign = ( delta.w() > 0.0 )? 1.0 : -1.0;
+        double w = sign * delta.w();
+        double vx = sign * delta.x();
+        double vy = sign * delta.y();
+        double vz = sign * delta.z();
+        double deltavNorm = Math.sqrt( vx * vx + vy * vy + vz * vz );
         if( deltavNorm > 0.0 ) {
-            Vector3 deltavNormalized = deltav.scale( 1.0/deltavNorm );
             // Next line takes care of numerical inaccuracies that make the norm of the UnitQuaternion not exactly equal to 1.
             double asinFactor = ( deltavNorm < 1.0 )? deltavNorm / Math.asin( deltavNorm ) : 2.0/Math.PI;
-            return MatrixReal.one( 3 ).scaleInplace( delta.w() )
-                    .subtractInplace( deltav.crossProductMatrix() ).scaleInplace( asinFactor )
-                    .addInplace( deltavNormalized.outerProduct( deltavNormalized ).scaleInplace( 1.0 - delta.w() * asinFactor ) );
+            double outer = ( 1.0 - w * asinFactor ) / ( deltavNorm * deltavNorm );
+            return output.setEntries(
+                    w * asinFactor + outer * vx * vx , vz * asinFactor + outer * vx * vy , -vy * asinFactor + outer * vx * vz ,
+                    -vz * asinFactor + outer * vy * vx , w * asinFactor + outer * vy * vy , vx * asinFactor + outer * vy * vz ,
+                    vy * asinFactor + outer * vz * vx , -vx * asinFactor + outer * vz * vy , w * asinFactor + outer * vz * vz );
         } else {
             // The limit of T(delta) when delta -> 1 is the identity matrix.
-            return MatrixReal.one( 3 );
+            return output.setToOne();
         }
     }
     
@@ -220,21 +378,4 @@ public class ExponentialMapS3
         return( enorm < ExponentialMapS3.MAX_NORM );
     }
     
-    
-    /**
-     * Returns the same {@link Vector3} if it is contained in the image; otherwise, it gets saturated to the image.
-     * 
-     * @param e     {@link Vector3} to be clipped to the image of the chart.
-     * @return  same {@link Vector3} if it is contained in the image; otherwise, it gets saturated to the image.
-     */
-    private Vector3 clipToImage( Vector3 e )
-    {
-        double enorm = e.norm();
-        if( !this.isContainedInImageFromNorm( enorm ) ) {
-            // Clip the norm to be in the image of the chart.
-            e = e.scale( ExponentialMapS3.MAX_NORM / enorm );
-        }
-        return e;
-    }
-    
 }
@@ -1,8 +1,10 @@
 package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
+import numericalLibrary.types.Matrix3;
+import numericalLibrary.types.Matrix3x4;
+import numericalLibrary.types.Matrix4x3;
 import numericalLibrary.types.MatrixReal;
-import numericalLibrary.types.Quaternion;
 import numericalLibrary.types.UnitQuaternion;
 import numericalLibrary.types.Vector3;
 
@@ -74,8 +76,23 @@ public class ModifiedRodriguesParametersS3
      */
     public Vector3 toChartCenteredAtIdentity( UnitQuaternion q )
     {
-        q = q.positiveScalarPartForm();
-        return q.vectorPart().scaleInplace( 4.0/( 1.0 + q.w() ) );
+        return this.toChartCenteredAtIdentity( q , Vector3.zero() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion)
+     */
+    public Vector3 toChartCenteredAtIdentity( UnitQuaternion q , Vector3 output )
+    {
+        // Use the positive scalar part form of q.
+        double sign = ( q.w() > 0.0 )? 1.0 : -1.0;
+        double factor = 4.0 * sign / ( 1.0 + sign * q.w() );
+        return output.setComponents( factor * q.x() , factor * q.y() , factor * q.z() );
     }
     
     
@@ -95,19 +112,85 @@ public class ModifiedRodriguesParametersS3
      * @see #MAX_NORM
      */
     public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( e , UnitQuaternion.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3)
+     */
+    public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e , UnitQuaternion output )
     {
         double enormSquared = e.normSquared();
+        double clipFactor = 1.0;
         if( !this.isContainedInImageFromNormSquared( enormSquared ) ) {
             // Clip the norm to be in the image of the chart.
-            e = e.scale( ModifiedRodriguesParametersS3.MAX_NORM/e.norm() );
+            clipFactor = ModifiedRodriguesParametersS3.MAX_NORM/Math.sqrt( enormSquared );
             enormSquared = ModifiedRodriguesParametersS3.MAX_NORM_SQUARED;
         }
         double alpha = 1.0/( 16.0 + enormSquared );
-        double alphav = alpha * 8.0;
-        Quaternion q = Quaternion.fromScalarAndVectorPart(
-                ( 16.0 - enormSquared ) * alpha ,
-                e.scale( alphav ) );
-        return UnitQuaternion.fromNormalizedQuaternion( q );
+        double alphav = alpha * 8.0 * clipFactor;
+        return output.setToNormalizedComponents( ( 16.0 - enormSquared ) * alpha , alphav * e.x() , alphav * e.y() , alphav * e.z() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion, Vector3)
+     */
+    public void toChartCenteredAtIdentity( double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom ,
+                                           double[] exs , double[] eys , double[] ezs , int chartFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = quaternionsFrom + k;
+            final int j = chartFrom + k;
+            // Use the positive scalar part form of q.
+            final double w = ws[i];
+            final double sign = ( w > 0.0 )? 1.0 : -1.0;
+            final double factor = 4.0 * sign / ( 1.0 + sign * w );
+            exs[j] = factor * xs[i];
+            eys[j] = factor * ys[i];
+            ezs[j] = factor * zs[i];
+        }
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3, UnitQuaternion)
+     */
+    public void toManifoldFromChartCenteredAtIdentity( double[] exs , double[] eys , double[] ezs , int chartFrom ,
+                                                       double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = chartFrom + k;
+            final int j = quaternionsFrom + k;
+            final double ex = exs[i];
+            final double ey = eys[i];
+            final double ez = ezs[i];
+            final double enormSquaredRaw = ex * ex + ey * ey + ez * ez;
+            // Clip the norm to be in the image of the chart.
+            final boolean isContained = this.isContainedInImageFromNormSquared( enormSquaredRaw );
+            final double clipFactor = isContained?  1.0  :  ModifiedRodriguesParametersS3.MAX_NORM/Math.sqrt( enormSquaredRaw );
+            final double enormSquared = isContained?  enormSquaredRaw  :  ModifiedRodriguesParametersS3.MAX_NORM_SQUARED;
+            final double alpha = 1.0/( 16.0 + enormSquared );
+            final double factor = alpha * 8.0 * clipFactor;
+            ws[j] = ( 16.0 - enormSquared ) * alpha;
+            xs[j] = factor * ex;
+            ys[j] = factor * ey;
+            zs[j] = factor * ez;
+        }
     }
     
     
@@ -142,14 +225,30 @@ public class ModifiedRodriguesParametersS3
      * d phi / d q  =  4 sign( q_0 ) / ( 1 + q_0 ) (  -q_v / ( 1 + q_0 )  |  I  )
      */
     public MatrixReal jacobianOfChart( UnitQuaternion q )
+    {
+        return this.jacobianOfChart( q , Matrix3x4.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(UnitQuaternion)
+     */
+    public Matrix3x4 jacobianOfChart( UnitQuaternion q , Matrix3x4 output )
     {
         double q0signum = Math.signum( q.w() );
-        q = q.positiveScalarPartForm();
-        double q0Plus1 = 1.0 + q.w();
-        MatrixReal output = MatrixReal.empty( 3 , 4 );
-        output.setSubmatrix( 0,0 , q.vectorPart().scaleInplace( -4.0/( q0Plus1 * q0Plus1 ) * q0signum ).toMatrixAsColumn() );
-        output.setSubmatrix( 0,1 , MatrixReal.one( 3 ).scaleInplace( 4.0/q0Plus1 * q0signum ) );
-        return output;
+        // Use the positive scalar part form of q.
+        double sign = ( q.w() > 0.0 )? 1.0 : -1.0;
+        double q0Plus1 = 1.0 + sign * q.w();
+        double diagonal = 4.0/q0Plus1 * q0signum;
+        double column0 = -4.0/( q0Plus1 * q0Plus1 ) * q0signum * sign;
+        return output.setEntries(
+                column0 * q.x() , diagonal , 0.0 , 0.0 ,
+                column0 * q.y() , 0.0 , diagonal , 0.0 ,
+                column0 * q.z() , 0.0 , 0.0 , diagonal );
     }
     
     
@@ -163,12 +262,29 @@ public class ModifiedRodriguesParametersS3
      */
     public MatrixReal jacobianOfChartInverse( Vector3 e )
     {
-        MatrixReal output = MatrixReal.empty( 4 , 3 );
-        output.setSubmatrix( 0,0 , e.scale( -8.0 ).toMatrixAsRow() );
+        return this.jacobianOfChartInverse( e , Matrix4x3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(Vector3)
+     */
+    public Matrix4x3 jacobianOfChartInverse( Vector3 e , Matrix4x3 output )
+    {
         double alpha = 16.0 + e.normSquared();
-        output.setSubmatrix( 1,0 , MatrixReal.one( 3 ).scaleInplace( alpha ).subtractInplace( e.outerProduct( e ).scaleInplace( 2.0 ) ) );
-        output.scaleInplace( 8.0/( alpha * alpha ) );
-        return output;
+        double factor = 8.0/( alpha * alpha );
+        double diagonal = factor * alpha;
+        double outer = -2.0 * factor;
+        double row0 = -8.0 * factor;
+        return output.setEntries(
+                row0 * e.x() , row0 * e.y() , row0 * e.z() ,
+                diagonal + outer * e.x() * e.x() , outer * e.x() * e.y() , outer * e.x() * e.z() ,
+                outer * e.y() * e.x() , diagonal + outer * e.y() * e.y() , outer * e.y() * e.z() ,
+                outer * e.z() * e.x() , outer * e.z() * e.y() , diagonal + outer * e.z() * e.z() );
     }
     
     
@@ -182,14 +298,30 @@ public class ModifiedRodriguesParametersS3
      */
     public MatrixReal jacobianOfTransitionMap( UnitQuaternion delta )
     {
-        delta = delta.positiveScalarPartForm();
-        Vector3 deltav = delta.vectorPart();
-        return ( ( MatrixReal.one(3)
-                         .scaleInplace( delta.w() )
-                         .subtractInplace( deltav.crossProductMatrix() ) )
-                 .scaleInplace( 1.0 + delta.w() )
-                 .addInplace( deltav.outerProduct( deltav ) ) )
-               .scaleInplace( 0.5 );
+        return this.jacobianOfTransitionMap( delta , Matrix3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfTransitionMap(UnitQuaternion)
+     */
+    public Matrix3 jacobianOfTransitionMap( UnitQuaternion delta , Matrix3 output )
+    {
+        // Use the positive scalar part form of delta.
+        double sign = ( delta.w() > 0.0 )? 1.0 : -1.0;
+        double w = sign * delta.w();
+        double vx = sign * delta.x();
+        double vy = sign * delta.y();
+        double vz = sign * delta.z();
+        double a = 0.5 * ( 1.0 + w );
+        return output.setEntries(
+                a * w + 0.5 * vx * vx , a * vz + 0.5 * vx * vy , -a * vy + 0.5 * vx * vz ,
+                -a * vz + 0.5 * vy * vx , a * w + 0.5 * vy * vy , a * vx + 0.5 * vy * vz ,
+                a * vy + 0.5 * vz * vx , -a * vx + 0.5 * vz * vy , a * w + 0.5 * vz * vz );
     }
     
     
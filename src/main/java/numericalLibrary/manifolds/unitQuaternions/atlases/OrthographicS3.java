@@ -1,8 +1,10 @@
 package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
+import numericalLibrary.types.Matrix3;
+import numericalLibrary.types.Matrix3x4;
+import numericalLibrary.types.Matrix4x3;
 import numericalLibrary.types.MatrixReal;
-import numericalLibrary.types.Quaternion;
 import numericalLibrary.types.UnitQuaternion;
 import numericalLibrary.types.Vector3;
 
@@ -79,8 +81,22 @@ public class OrthographicS3
      */
     public Vector3 toChartCenteredAtIdentity( UnitQuaternion q )
     {
-        q = q.positiveScalarPartForm();
-        return q.vectorPart().scaleInplace( 2.0 );
+        return this.toChartCenteredAtIdentity( q , Vector3.zero() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion)
+     */
+    public Vector3 toChartCenteredAtIdentity( UnitQuaternion q , Vector3 output )
+    {
+        // Use the positive scalar part form of q.
+        double factor = ( q.w() > 0.0 )? 2.0 : -2.0;
+        return output.setComponents( factor * q.x() , factor * q.y() , factor * q.z() );
     }
     
     
@@ -101,17 +117,79 @@ public class OrthographicS3
      * @see #MAX_NORM
      */
     public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( e , UnitQuaternion.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3)
+     */
+    public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e , UnitQuaternion output )
     {
         double enormSquared = e.normSquared();
+        double factor = 0.5;
         if( !this.isContainedInImageFromNormSquared( enormSquared ) ) {
             // Clip the norm to be in the image of the chart.
-            e = e.scale( OrthographicS3.MAX_NORM/e.norm() );
+            factor *= OrthographicS3.MAX_NORM/Math.sqrt( enormSquared );
             enormSquared = OrthographicS3.MAX_NORM_SQUARED;
         }
-        Quaternion q = Quaternion.fromScalarAndVectorPart(
-                Math.sqrt( 1.0 - enormSquared/4.0 ) ,
-                e.scale( 0.5 ) );
-        return UnitQuaternion.fromNormalizedQuaternion( q );
+        return output.setToNormalizedComponents( Math.sqrt( 1.0 - enormSquared/4.0 ) , factor * e.x() , factor * e.y() , factor * e.z() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion, Vector3)
+     */
+    public void toChartCenteredAtIdentity( double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom ,
+                                           double[] exs , double[] eys , double[] ezs , int chartFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = quaternionsFrom + k;
+            final int j = chartFrom + k;
+            // Use the positive scalar part form of q.
+            final double factor = ( ws[i] > 0.0 )? 2.0 : -2.0;
+            exs[j] = factor * xs[i];
+            eys[j] = factor * ys[i];
+            ezs[j] = factor * zs[i];
+        }
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3, UnitQuaternion)
+     */
+    public void toManifoldFromChartCenteredAtIdentity( double[] exs , double[] eys , double[] ezs , int chartFrom ,
+                                                       double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = chartFrom + k;
+            final int j = quaternionsFrom + k;
+            final double ex = exs[i];
+            final double ey = eys[i];
+            final double ez = ezs[i];
+            final double enormSquaredRaw = ex * ex + ey * ey + ez * ez;
+            // Clip the norm to be in the image of the chart.
+            final boolean isContained = this.isContainedInImageFromNormSquared( enormSquaredRaw );
+            final double factor = isContained?  0.5  :  0.5 * ( OrthographicS3.MAX_NORM/Math.sqrt( enormSquaredRaw ) );
+            final double enormSquared = isContained?  enormSquaredRaw  :  OrthographicS3.MAX_NORM_SQUARED;
+            ws[j] = Math.sqrt( 1.0 - enormSquared/4.0 );
+            xs[j] = factor * ex;
+            ys[j] = factor * ey;
+            zs[j] = factor * ez;
+        }
     }
     
     
@@ -147,9 +225,24 @@ public class OrthographicS3
      */
     public MatrixReal jacobianOfChart( UnitQuaternion q )
     {
-        MatrixReal output = MatrixReal.zero( 3 , 4 );
-        output.setSubmatrix( 0,1 , MatrixReal.one( 3 ).scaleInplace( 2.0 * Math.signum( q.w() ) ) );
-        return output;
+        return this.jacobianOfChart( q , Matrix3x4.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(UnitQuaternion)
+     */
+    public Matrix3x4 jacobianOfChart( UnitQuaternion q , Matrix3x4 output )
+    {
+        double diagonal = 2.0 * Math.signum( q.w() );
+        return output.setEntries(
+                0.0 , diagonal , 0.0 , 0.0 ,
+                0.0 , 0.0 , diagonal , 0.0 ,
+                0.0 , 0.0 , 0.0 , diagonal );
     }
     
     
@@ -163,11 +256,25 @@ public class OrthographicS3
      */
     public MatrixReal jacobianOfChartInverse( Vector3 e )
     {
-        MatrixReal output = MatrixReal.zero( 4 , 3 );
-        output.setSubmatrix( 0,0 , e.scale( -1.0/Math.sqrt( 4.0 - e.normSquared() ) ).toMatrixAsRow() );
-        output.setSubmatrix( 1,0 , MatrixReal.one( 3 ) );
-        output.scaleInplace( 0.5 );
-        return output;
+        return this.jacobianOfChartInverse( e , Matrix4x3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(Vector3)
+     */
+    public Matrix4x3 jacobianOfChartInverse( Vector3 e , Matrix4x3 output )
+    {
+        double row0 = -0.5/Math.sqrt( 4.0 - e.normSquared() );
+        return output.setEntries(
+                row0 * e.x() , row0 * e.y() , row0 * e.z() ,
+                0.5 , 0.0 , 0.0 ,
+                0.0 , 0.5 , 0.0 ,
+                0.0 , 0.0 , 0.5 );
     }
     
     
@@ -181,12 +288,30 @@ public class OrthographicS3
      */
     public MatrixReal jacobianOfTransitionMap( UnitQuaternion delta )
     {
-        delta = delta.positiveScalarPartForm();
-        Vector3 deltav = delta.vectorPart();
-        return MatrixReal.one(3)
-                .scaleInplace( delta.w() )
-                .subtractInplace( deltav.crossProductMatrix() )
-                .addInplace( deltav.outerProduct( deltav ).scaleInplace( 1.0/delta.w() ) );
+        return this.jacobianOfTransitionMap( delta , Matrix3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfTransitionMap(UnitQuaternion)
+     */
+    public Matrix3 jacobianOfTransitionMap( UnitQuaternion delta , Matrix3 output )
+    {
+        // Use the positive scalar part form of delta.
+        double sign = ( delta.w() > 0.0 )? 1.0 : -1.0;
+        double w = sign * delta.w();
+        double vx = sign * delta.x();
+        double vy = sign * delta.y();
+        double vz = sign * delta.z();
+        double outer = 1.0/w;
+        return output.setEntries(
+                w + outer * vx * vx , vz + outer * vx * vy , -vy + outer * vx * vz ,
+                -vz + outer * vy * vx , w + outer * vy * vy , vx + outer * vy * vz ,
+                vy + outer * vz * vx , -vx + outer * vz * vy , w + outer * vz * vz );
     }
     
     
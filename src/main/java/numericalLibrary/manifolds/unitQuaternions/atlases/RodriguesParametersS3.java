@@ -1,8 +1,10 @@
 package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
+import numericalLibrary.types.Matrix3;
+import numericalLibrary.types.Matrix3x4;
+import numericalLibrary.types.Matrix4x3;
 import numericalLibrary.types.MatrixReal;
-import numericalLibrary.types.Quaternion;
 import numericalLibrary.types.UnitQuaternion;
 import numericalLibrary.types.Vector3;
 
@@ -52,7 +54,21 @@ public class RodriguesParametersS3
      */
     public Vector3 toChartCenteredAtIdentity( UnitQuaternion q )
     {
-        return q.vectorPart().scaleInplace( 2.0/q.w() );
+        return this.toChartCenteredAtIdentity( q , Vector3.zero() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion)
+     */
+    public Vector3 toChartCenteredAtIdentity( UnitQuaternion q , Vector3 output )
+    {
+        double factor = 2.0/q.w();
+        return output.setComponents( factor * q.x() , factor * q.y() , factor * q.z() );
     }
     
     
@@ -67,12 +83,68 @@ public class RodriguesParametersS3
      * The image is R^3, so there is no need to saturate the input {@link Vector3}.
      */
     public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e )
+    {
+        return this.toManifoldFromChartCenteredAtIdentity( e , UnitQuaternion.one() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3)
+     */
+    public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e , UnitQuaternion output )
     {
         double alpha = 1.0/Math.sqrt( 4.0 + e.normSquared() );
-        Quaternion q = Quaternion.fromScalarAndVectorPart(
-                alpha + alpha ,
-                e.scale( alpha ) );
-        return UnitQuaternion.fromNormalizedQuaternion( q );
+        return output.setToNormalizedComponents( alpha + alpha , alpha * e.x() , alpha * e.y() , alpha * e.z() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toChartCenteredAtIdentity(UnitQuaternion, Vector3)
+     */
+    public void toChartCenteredAtIdentity( double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom ,
+                                           double[] exs , double[] eys , double[] ezs , int chartFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = quaternionsFrom + k;
+            final int j = chartFrom + k;
+            final double factor = 2.0/ws[i];
+            exs[j] = factor * xs[i];
+            eys[j] = factor * ys[i];
+            ezs[j] = factor * zs[i];
+        }
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #toManifoldFromChartCenteredAtIdentity(Vector3, UnitQuaternion)
+     */
+    public void toManifoldFromChartCenteredAtIdentity( double[] exs , double[] eys , double[] ezs , int chartFrom ,
+                                                       double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom , int length )
+    {
+        for( int k=0; k<length; k++ ) {
+            final int i = chartFrom + k;
+            final int j = quaternionsFrom + k;
+            final double ex = exs[i];
+            final double ey = eys[i];
+            final double ez = ezs[i];
+            final double factor = 1.0/Math.sqrt( 4.0 + ex * ex + ey * ey + ez * ez );
+            ws[j] = factor + factor;
+            xs[j] = factor * ex;
+            ys[j] = factor * ey;
+            zs[j] = factor * ez;
+        }
     }
     
     
@@ -108,10 +180,25 @@ public class RodriguesParametersS3
      */
     public MatrixReal jacobianOfChart( UnitQuaternion q )
     {
-        MatrixReal output = MatrixReal.empty( 3 , 4 );
-        output.setSubmatrix( 0,0 , q.vectorPart().scaleInplace( -2.0/( q.w() * q.w() ) ).toMatrixAsColumn() );
-        output.setSubmatrix( 0,1 , MatrixReal.one( 3 ).scaleInplace( 2.0/q.w() ) );
-        return output;
+        return this.jacobianOfChart( q , Matrix3x4.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChart(UnitQuaternion)
+     */
+    public Matrix3x4 jacobianOfChart( UnitQuaternion q , Matrix3x4 output )
+    {
+        double diagonal = 2.0/q.w();
+        double column0 = -diagonal/q.w();
+        return output.setEntries(
+                column0 * q.x() , diagonal , 0.0 , 0.0 ,
+                column0 * q.y() , 0.0 , diagonal , 0.0 ,
+                column0 * q.z() , 0.0 , 0.0 , diagonal );
     }
     
     
@@ -125,13 +212,29 @@ public class RodriguesParametersS3
      */
     public MatrixReal jacobianOfChartInverse( Vector3 e )
     {
-        MatrixReal output = MatrixReal.empty( 4 , 3 );
-        output.setSubmatrix( 0,0 , e.scale( -2.0 ).toMatrixAsRow() );
+        return this.jacobianOfChartInverse( e , Matrix4x3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfChartInverse(Vector3)
+     */
+    public Matrix4x3 jacobianOfChartInverse( Vector3 e , Matrix4x3 output )
+    {
         double alpha = 4.0 + e.normSquared();
-        output.setSubmatrix( 1,0 , MatrixReal.one( 3 ).scaleInplace( alpha ).subtractInplace( e.outerProduct( e ) ) );
         double divisorValue = Math.sqrt( alpha );
-        output.scaleInplace( 1.0/( divisorValue * divisorValue * divisorValue ) );
-        return output;
+        double factor = 1.0/( divisorValue * divisorValue * divisorValue );
+        double diagonal = factor * alpha;
+        double row0 = -2.0 * factor;
+        return output.setEntries(
+                row0 * e.x() , row0 * e.y() , row0 * e.z() ,
+                diagonal - factor * e.x() * e.x() , -factor * e.x() * e.y() , -factor * e.x() * e.z() ,
+                -factor * e.y() * e.x() , diagonal - factor * e.y() * e.y() , -factor * e.y() * e.z() ,
+                -factor * e.z() * e.x() , -factor * e.z() * e.y() , diagonal - factor * e.z() * e.z() );
     }
     
     
@@ -145,11 +248,27 @@ public class RodriguesParametersS3
      */
     public MatrixReal jacobianOfTransitionMap( UnitQuaternion delta )
     {
-        Vector3 deltav = delta.vectorPart();
-        return MatrixReal.one(3)
-                         .scaleInplace( delta.w() )
-                         .subtractInplace( deltav.crossProductMatrix() )
-                         .scaleInplace( delta.w() );
+        return this.jacobianOfTransitionMap( delta , Matrix3.zero() ).toMatrixReal();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @see #jacobianOfTransitionMap(UnitQuaternion)
+     */
+    public Matrix3 jacobianOfTransitionMap( UnitQuaternion delta , Matrix3 output )
+    {
+        double w = delta.w();
+        double vx = delta.x();
+        double vy = delta.y();
+        double vz = delta.z();
+        return output.setEntries(
+                w * w , w * vz , -w * vy ,
+                -w * vz , w * w , w * vx ,
+                w * vy , -w * vx , w * w );
     }
     
 }
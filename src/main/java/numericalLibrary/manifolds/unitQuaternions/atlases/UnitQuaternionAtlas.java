@@ -1,6 +1,9 @@
 package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 import numericalLibrary.manifolds.Atlas;
 import numericalLibrary.types.UnitQuaternion;
 import numericalLibrary.types.Vector3;
@@ -15,12 +18,33 @@ import numericalLibrary.types.Vector3;
  * <p>
  * A chart is defined for each {@link UnitQuaternion}.
  * Such chart transforms the {@link UnitQuaternion} associated with the chart with the origin of the Euclidean space.
+ * <p>
+ * Instances are not thread-safe.
+ * The chart selector is mutable, and {@link #toChart(UnitQuaternion, Vector3)} uses scratch state of the atlas to avoid allocations.
+ * The methods that return new objects and the bulk methods only read the chart selector,
+ * so they can be called concurrently as long as no thread changes it; otherwise, use one atlas per thread.
  * 
  * @see "Kalman Filtering for Attitude Estimation with Quaternions and Concepts from Manifold Theory" (<a href="https://www.mdpi.com/1424-8220/19/1/149">https://www.mdpi.com/1424-8220/19/1/149</a>)
  */
 public abstract class UnitQuaternionAtlas
     implements Atlas<UnitQuaternion, Vector3>
 {
+    ////////////////////////////////////////////////////////////////
+    // PACKAGE-PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of elements processed by each task of the bulk methods.
+     */
+    static final int BULK_CHUNK_SIZE = 1 << 12;
+    
+    /**
+     * Length of the scratch buffers used by the bulk methods.
+     */
+    static final int BULK_BLOCK_SIZE = 256;
+    
+    
+    
     ////////////////////////////////////////////////////////////////
     // PUBLIC ABSTRACT METHODS
     ////////////////////////////////////////////////////////////////
@@ -73,7 +97,23 @@ public abstract class UnitQuaternionAtlas
      * {@link UnitQuaternion} used to select the chart.
      * This {@link UnitQuaternion} will be mapped by the chart to the origin of the Euclidean space.
      */
-    private UnitQuaternion chartSelector;
+    private final UnitQuaternion chartSelector;
+    
+    /**
+     * Inverse of the {@link #chartSelector}, computed once each time the chart selector is set.
+     */
+    private final UnitQuaternion chartSelectorInverse;
+    
+    /**
+     * Workspace holding the {@link UnitQuaternion} expressed in the perspective of the {@link #chartSelector}.
+     * It is only used by {@link #toChart(UnitQuaternion, Vector3)}.
+     */
+    private final UnitQuaternion delta;
+    
+    /**
+     * True if the {@link #chartSelector} is exactly the identity, so that the bulk methods can skip the change of perspective.
+     */
+    private boolean chartSelectorIsIdentity;
     
     
     
@@ -86,6 +126,9 @@ public abstract class UnitQuaternionAtlas
      */
     public UnitQuaternionAtlas()
     {
+        this.chartSelector = UnitQuaternion.one();
+        this.chartSelectorInverse = UnitQuaternion.one();
+        this.delta = UnitQuaternion.one();
         // Default chartSelector.
         this.setChartSelector( UnitQuaternion.one() );
     }
@@ -100,12 +143,51 @@ public abstract class UnitQuaternionAtlas
      * {@inheritDoc}
      * <p>
      * Such {@link UnitQuaternion} will be mapped by the chart to the origin of the Euclidean space.
+     * <p>
+     * The input is copied, and its inverse is computed here once, so later changes of the input do not affect the chart.
      * 
      * @see #chartSelector
      */
     public void setChartSelector( UnitQuaternion theChartSelector )
     {
-        this.chartSelector = theChartSelector;
+        this.chartSelector.setTo( theChartSelector );
+        this.chartSelectorInverse.setTo( theChartSelector ).inverseMultiplicativeInplace();
+        this.chartSelectorIsIdentity = (  theChartSelector.w() == 1.0  &&
+                                          theChartSelector.x() == 0.0  &&  theChartSelector.y() == 0.0  &&  theChartSelector.z() == 0.0  );
+    }
+    
+    
+    /**
+     * Defines the map from {@link UnitQuaternion}s to {@link Vector3}s for the chart centered at the identity {@link UnitQuaternion},
+     * storing the result in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #toChartCenteredAtIdentity(UnitQuaternion)}.
+     * 
+     * @param q     {@link UnitQuaternion} to be mapped with an element in the 3-dimensional Euclidean space.
+     * @param output    {@link Vector3} where the result is stored.
+     * @return  {@code output}, holding the {@link Vector3} mapped from the input {@link UnitQuaternion}.
+     */
+    public Vector3 toChartCenteredAtIdentity( UnitQuaternion q , Vector3 output )
+    {
+        return output.setTo( this.toChartCenteredAtIdentity( q ) );
+    }
+    
+    
+    /**
+     * Defines the map from {@link Vector3}s to {@link UnitQuaternion}s for the chart centered at the identity {@link UnitQuaternion},
+     * storing the result in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #toManifoldFromChartCenteredAtIdentity(Vector3)}.
+     * 
+     * @param e     {@link Vector3} to be mapped with a {@link UnitQuaternion}.
+     * @param output    {@link UnitQuaternion} where the result is stored.
+     * @return  {@code output}, holding the {@link UnitQuaternion} mapped with the input {@link Vector3}.
+     */
+    public UnitQuaternion toManifoldFromChartCenteredAtIdentity( Vector3 e , UnitQuaternion output )
+    {
+        return output.setTo( this.toManifoldFromChartCenteredAtIdentity( e ) );
     }
     
     
@@ -126,7 +208,23 @@ public abstract class UnitQuaternionAtlas
     public UnitQuaternion toChartSelectorPerspective( UnitQuaternion q )
     {
         // delta = q0^{-1} * q
-        return this.chartSelector.inverseMultiplicative().multiply( q );
+        return this.chartSelectorInverse.multiply( q );
+    }
+    
+    
+    /**
+     * Transforms a {@link UnitQuaternion} to the perspective of the {@link #chartSelector}, storing the result in {@code output}.
+     * 
+     * @param q     {@link UnitQuaternion} to be transformed into the perspective of the {@link #chartSelector}.
+     * @param output    {@link UnitQuaternion} where the result is stored. It can be {@code q}.
+     * @return  {@code output}, holding the input {@link UnitQuaternion} expressed from the perspective of the {@link #chartSelector}.
+     * 
+     * @see #toChartSelectorPerspective(UnitQuaternion)
+     */
+    public UnitQuaternion toChartSelectorPerspective( UnitQuaternion q , UnitQuaternion output )
+    {
+        // delta = q0^{-1} * q
+        return output.setToProduct( this.chartSelectorInverse , q );
     }
     
     
@@ -135,8 +233,26 @@ public abstract class UnitQuaternionAtlas
      */
     public Vector3 toChart( UnitQuaternion q )
     {
-        UnitQuaternion delta = this.toChartSelectorPerspective( q );
-        return this.toChartCenteredAtIdentity( delta );
+        return this.toChartCenteredAtIdentity( this.toChartSelectorPerspective( q ) , Vector3.zero() );
+    }
+    
+    
+    /**
+     * Maps a {@link UnitQuaternion} to its chart element, storing the result in {@code output}.
+     * <p>
+     * It does not allocate new objects when the concrete atlas overrides {@link #toChartCenteredAtIdentity(UnitQuaternion, Vector3)}.
+     * It uses scratch state of the atlas, so it must not be called concurrently on the same instance.
+     * 
+     * @param q     {@link UnitQuaternion} to be mapped.
+     * @param output    {@link Vector3} where the result is stored.
+     * @return  {@code output}, holding the chart element mapped from the input {@link UnitQuaternion}.
+     * 
+     * @see #toChart(UnitQuaternion)
+     */
+    public Vector3 toChart( UnitQuaternion q , Vector3 output )
+    {
+        this.toChartSelectorPerspective( q , this.delta );
+        return this.toChartCenteredAtIdentity( this.delta , output );
     }
     
     
@@ -144,10 +260,27 @@ public abstract class UnitQuaternionAtlas
      * {@inheritDoc}
      */
     public UnitQuaternion toManifold( Vector3 e )
+    {
+        return this.toManifold( e , UnitQuaternion.one() );
+    }
+    
+    
+    /**
+     * Maps a chart element to its {@link UnitQuaternion}, storing the result in {@code output}.
+     * <p>
+     * It does not allocate new objects when the concrete atlas overrides {@link #toManifoldFromChartCenteredAtIdentity(Vector3, UnitQuaternion)}.
+     * 
+     * @param e     chart element to be mapped.
+     * @param output    {@link UnitQuaternion} where the result is stored.
+     * @return  {@code output}, holding the {@link UnitQuaternion} mapped with the input chart element.
+     * 
+     * @see #toManifold(Vector3)
+     */
+    public UnitQuaternion toManifold( Vector3 e , UnitQuaternion output )
     {
         // q = q0 * delta_q0_q
-        UnitQuaternion delta = this.toManifoldFromChartCenteredAtIdentity( e );
-        return this.chartSelector.multiply( delta );
+        this.toManifoldFromChartCenteredAtIdentity( e , output );
+        return output.setToProduct( this.chartSelector , output );
     }
     
     
@@ -156,8 +289,265 @@ public abstract class UnitQuaternionAtlas
      */
     public boolean isContainedInChartDomain( UnitQuaternion q )
     {
-        UnitQuaternion delta = this.toChartSelectorPerspective( q );
-        return this.isContainedInChartCenteredAtIdentityDomain( delta );
+        return this.isContainedInChartCenteredAtIdentityDomain( this.toChartSelectorPerspective( q ) );
+    }
+    
+    
+    /**
+     * Maps an array of {@link UnitQuaternion}s to their chart elements.
+     * <p>
+     * The {@link UnitQuaternion}s are given by their components in separate arrays (structure of arrays),
+     * and the chart elements are stored in the same way.
+     * The work is split in chunks of {@link #BULK_CHUNK_SIZE} elements, which are processed in parallel if requested.
+     * 
+     * @param ws    scalar parts of the {@link UnitQuaternion}s.
+     * @param xs    i components of the {@link UnitQuaternion}s.
+     * @param ys    j components of the {@link UnitQuaternion}s.
+     * @param zs    k components of the {@link UnitQuaternion}s.
+     * @param exs   array where the x components of the chart elements are stored.
+     * @param eys   array where the y components of the chart elements are stored.
+     * @param ezs   array where the z components of the chart elements are stored.
+     * @param parallel  true to process the chunks in parallel.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have the same length.
+     * 
+     * @see #toChart(UnitQuaternion)
+     */
+    public void toChart( double[] ws , double[] xs , double[] ys , double[] zs , double[] exs , double[] eys , double[] ezs , boolean parallel )
+    {
+        final int n = ws.length;
+        UnitQuaternionAtlas.assertSameLength( n , xs , ys , zs , exs , eys , ezs );
+        UnitQuaternionAtlas.forEachChunk( n , parallel , chunk -> {
+            int from = chunk * UnitQuaternionAtlas.BULK_CHUNK_SIZE;
+            this.toChartRange( ws , xs , ys , zs , exs , eys , ezs , from , Math.min( from + UnitQuaternionAtlas.BULK_CHUNK_SIZE , n ) );
+        } );
+    }
+    
+    
+    /**
+     * Maps an array of chart elements to their {@link UnitQuaternion}s.
+     * <p>
+     * The chart elements are given by their components in separate arrays (structure of arrays),
+     * and the {@link UnitQuaternion}s are stored in the same way.
+     * The work is split in chunks of {@link #BULK_CHUNK_SIZE} elements, which are processed in parallel if requested.
+     * 
+     * @param exs   x components of the chart elements.
+     * @param eys   y components of the chart elements.
+     * @param ezs   z components of the chart elements.
+     * @param ws    array where the scalar parts of the {@link UnitQuaternion}s are stored.
+     * @param xs    array where the i components of the {@link UnitQuaternion}s are stored.
+     * @param ys    array where the j components of the {@link UnitQuaternion}s are stored.
+     * @param zs    array where the k components of the {@link UnitQuaternion}s are stored.
+     * @param parallel  true to process the chunks in parallel.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have the same length.
+     * 
+     * @see #toManifold(Vector3)
+     */
+    public void toManifold( double[] exs , double[] eys , double[] ezs , double[] ws , double[] xs , double[] ys , double[] zs , boolean parallel )
+    {
+        final int n = exs.length;
+        UnitQuaternionAtlas.assertSameLength( n , eys , ezs , ws , xs , ys , zs );
+        UnitQuaternionAtlas.forEachChunk( n , parallel , chunk -> {
+            int from = chunk * UnitQuaternionAtlas.BULK_CHUNK_SIZE;
+            this.toManifoldRange( exs , eys , ezs , ws , xs , ys , zs , from , Math.min( from + UnitQuaternionAtlas.BULK_CHUNK_SIZE , n ) );
+        } );
+    }
+    
+    
+    /**
+     * Applies {@link #toChartCenteredAtIdentity(UnitQuaternion)} to a range of {@link UnitQuaternion}s given by their components.
+     * <p>
+     * The {@link UnitQuaternion}s are read from positions {@code quaternionsFrom} to {@code quaternionsFrom + length - 1},
+     * and the chart elements are written in positions {@code chartFrom} to {@code chartFrom + length - 1}.
+     * <p>
+     * Concrete atlases override this method with a loop free of allocations and virtual calls;
+     * this default implementation delegates to {@link #toChartCenteredAtIdentity(UnitQuaternion, Vector3)}.
+     * 
+     * @param ws    scalar parts of the {@link UnitQuaternion}s.
+     * @param xs    i components of the {@link UnitQuaternion}s.
+     * @param ys    j components of the {@link UnitQuaternion}s.
+     * @param zs    k components of the {@link UnitQuaternion}s.
+     * @param quaternionsFrom   position of the first {@link UnitQuaternion}.
+     * @param exs   array where the x components of the chart elements are stored.
+     * @param eys   array where the y components of the chart elements are stored.
+     * @param ezs   array where the z components of the chart elements are stored.
+     * @param chartFrom     position of the first chart element.
+     * @param length    number of elements to be mapped.
+     */
+    public void toChartCenteredAtIdentity( double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom ,
+                                           double[] exs , double[] eys , double[] ezs , int chartFrom , int length )
+    {
+        UnitQuaternion q = UnitQuaternion.one();
+        Vector3 e = Vector3.zero();
+        for( int k=0; k<length; k++ ) {
+            int i = quaternionsFrom + k;
+            this.toChartCenteredAtIdentity( q.setToNormalizedComponents( ws[i] , xs[i] , ys[i] , zs[i] ) , e );
+            exs[ chartFrom + k ] = e.x();
+            eys[ chartFrom + k ] = e.y();
+            ezs[ chartFrom + k ] = e.z();
+        }
+    }
+    
+    
+    /**
+     * Applies {@link #toManifoldFromChartCenteredAtIdentity(Vector3)} to a range of chart elements given by their components.
+     * <p>
+     * The chart elements are read from positions {@code chartFrom} to {@code chartFrom + length - 1},
+     * and the {@link UnitQuaternion}s are written in positions {@code quaternionsFrom} to {@code quaternionsFrom + length - 1}.
+     * <p>
+     * Concrete atlases override this method with a loop free of allocations and virtual calls;
+     * this default implementation delegates to {@link #toManifoldFromChartCenteredAtIdentity(Vector3, UnitQuaternion)}.
+     * 
+     * @param exs   x components of the chart elements.
+     * @param eys   y components of the chart elements.
+     * @param ezs   z components of the chart elements.
+     * @param chartFrom     position of the first chart element.
+     * @param ws    array where the scalar parts of the {@link UnitQuaternion}s are stored.
+     * @param xs    array where the i components of the {@link UnitQuaternion}s are stored.
+     * @param ys    array where the j components of the {@link UnitQuaternion}s are stored.
+     * @param zs    array where the k components of the {@link UnitQuaternion}s are stored.
+     * @param quaternionsFrom   position of the first {@link UnitQuaternion}.
+     * @param length    number of elements to be mapped.
+     */
+    public void toManifoldFromChartCenteredAtIdentity( double[] exs , double[] eys , double[] ezs , int chartFrom ,
+                                                       double[] ws , double[] xs , double[] ys , double[] zs , int quaternionsFrom , int length )
+    {
+        Vector3 e = Vector3.zero();
+        UnitQuaternion q = UnitQuaternion.one();
+        for( int k=0; k<length; k++ ) {
+            int i = chartFrom + k;
+            this.toManifoldFromChartCenteredAtIdentity( e.setComponents( exs[i] , eys[i] , ezs[i] ) , q );
+            ws[ quaternionsFrom + k ] = q.w();
+            xs[ quaternionsFrom + k ] = q.x();
+            ys[ quaternionsFrom + k ] = q.y();
+            zs[ quaternionsFrom + k ] = q.z();
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PACKAGE-PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Runs an action for each chunk of {@link #BULK_CHUNK_SIZE} elements, in parallel if requested.
+     * 
+     * @param n     number of elements.
+     * @param parallel  true to process the chunks in parallel.
+     * @param chunkAction   action that receives the index of the chunk.
+     */
+    static void forEachChunk( int n , boolean parallel , IntConsumer chunkAction )
+    {
+        final int nChunks = ( n + UnitQuaternionAtlas.BULK_CHUNK_SIZE - 1 ) / UnitQuaternionAtlas.BULK_CHUNK_SIZE;
+        IntStream chunks = IntStream.range( 0 , nChunks );
+        if( parallel  &&  nChunks > 1 ) {
+            chunks = chunks.parallel();
+        }
+        chunks.forEach( chunkAction );
+    }
+    
+    
+    /**
+     * Throws if any array does not have the given length.
+     * 
+     * @param n     expected length.
+     * @param arrays    arrays to be checked.
+     * 
+     * @throws IllegalArgumentException     if any array does not have length {@code n}.
+     */
+    static void assertSameLength( int n , double[]... arrays )
+    {
+        for( double[] array : arrays ) {
+            if( array.length != n ) {
+                throw new IllegalArgumentException( "Component arrays must have the same length; found " + array.length + " and " + n );
+            }
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Maps the {@link UnitQuaternion}s in positions {@code from} to {@code to - 1} to their chart elements.
+     * <p>
+     * Unless the {@link #chartSelector} is the identity, the {@link UnitQuaternion}s are first expressed in the perspective of the {@link #chartSelector}
+     * in scratch buffers of {@link #BULK_BLOCK_SIZE} elements.
+     */
+    private void toChartRange( double[] ws , double[] xs , double[] ys , double[] zs , double[] exs , double[] eys , double[] ezs , int from , int to )
+    {
+        if( this.chartSelectorIsIdentity ) {
+            this.toChartCenteredAtIdentity( ws , xs , ys , zs , from , exs , eys , ezs , from , to - from );
+            return;
+        }
+        final double aw = this.chartSelectorInverse.w();
+        final double ax = this.chartSelectorInverse.x();
+        final double ay = this.chartSelectorInverse.y();
+        final double az = this.chartSelectorInverse.z();
+        final int blockSize = Math.min( UnitQuaternionAtlas.BULK_BLOCK_SIZE , to - from );
+        double[] dws = new double[ blockSize ];
+        double[] dxs = new double[ blockSize ];
+        double[] dys = new double[ blockSize ];
+        double[] dzs = new double[ blockSize ];
+        for( int blockFrom=from; blockFrom<to; blockFrom+=blockSize ) {
+            final int length = Math.min( blockSize , to - blockFrom );
+            // delta = q0^{-1} * q
+            for( int k=0; k<length; k++ ) {
+                final int i = blockFrom + k;
+                final double bw = ws[i];
+                final double bx = xs[i];
+                final double by = ys[i];
+                final double bz = zs[i];
+                final double dw = aw * bw  - ( ax * bx  +  ay * by  +  az * bz );
+                final double dx = aw * bx  +  bw * ax  +  ( ay * bz - az * by );
+                final double dy = aw * by  +  bw * ay  +  ( az * bx - ax * bz );
+                final double dz = aw * bz  +  bw * az  +  ( ax * by - ay * bx );
+                final double inverseNorm = 1.0/Math.sqrt( dw * dw + dx * dx + dy * dy + dz * dz );
+                dws[k] = dw * inverseNorm;
+                dxs[k] = dx * inverseNorm;
+                dys[k] = dy * inverseNorm;
+                dzs[k] = dz * inverseNorm;
+            }
+            this.toChartCenteredAtIdentity( dws , dxs , dys , dzs , 0 , exs , eys , ezs , blockFrom , length );
+        }
+    }
+    
+    
+    /**
+     * Maps the chart elements in positions {@code from} to {@code to - 1} to their {@link UnitQuaternion}s.
+     * <p>
+     * Unless the {@link #chartSelector} is the identity, the {@link UnitQuaternion}s are then moved in place from the perspective of the {@link #chartSelector}.
+     */
+    private void toManifoldRange( double[] exs , double[] eys , double[] ezs , double[] ws , double[] xs , double[] ys , double[] zs , int from , int to )
+    {
+        this.toManifoldFromChartCenteredAtIdentity( exs , eys , ezs , from , ws , xs , ys , zs , from , to - from );
+        if( this.chartSelectorIsIdentity ) {
+            return;
+        }
+        final double aw = this.chartSelector.w();
+        final double ax = this.chartSelector.x();
+        final double ay = this.chartSelector.y();
+        final double az = this.chartSelector.z();
+        // q = q0 * delta
+        for( int i=from; i<to; i++ ) {
+            final double bw = ws[i];
+            final double bx = xs[i];
+            final double by = ys[i];
+            final double bz = zs[i];
+            final double qw = aw * bw  - ( ax * bx  +  ay * by  +  az * bz );
+            final double qx = aw * bx  +  bw * ax  +  ( ay * bz - az * by );
+            final double qy = aw * by  +  bw * ay  +  ( az * bx - ax * bz );
+            final double qz = aw * bz  +  bw * az  +  ( ax * by - ay * bx );
+            final double inverseNorm = 1.0/Math.sqrt( qw * qw + qx * qx + qy * qy + qz * qz );
+            ws[i] = qw * inverseNorm;
+            xs[i] = qx * inverseNorm;
+            ys[i] = qy * inverseNorm;
+            zs[i] = qz * inverseNorm;
+        }
     }
     
 }
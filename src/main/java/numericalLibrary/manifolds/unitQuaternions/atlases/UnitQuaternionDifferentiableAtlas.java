@@ -2,6 +2,9 @@ package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
 import numericalLibrary.manifolds.DifferentiableAtlas;
+import numericalLibrary.types.Matrix3;
+import numericalLibrary.types.Matrix3x4;
+import numericalLibrary.types.Matrix4x3;
 import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.UnitQuaternion;
 import numericalLibrary.types.Vector3;
@@ -12,6 +15,10 @@ import numericalLibrary.types.Vector3;
  * Base class for each {@link DifferentiableAtlas} mapping {@link UnitQuaternion}s to {@link Vector3}s.
  * <p>
  * Extends {@link UnitQuaternionAtlas} providing the Jacobian of the transition map.
+ * <p>
+ * As {@link UnitQuaternionAtlas}, instances are not thread-safe:
+ * the methods that take two chart selectors change the chart selector of the atlas,
+ * and {@link #jacobianOfTransitionMap(UnitQuaternion, UnitQuaternion, Matrix3)} also uses scratch state of the atlas.
  * 
  * @see "Kalman Filtering for Attitude Estimation with Quaternions and Concepts from Manifold Theory" (<a href="https://www.mdpi.com/1424-8220/19/1/149">https://www.mdpi.com/1424-8220/19/1/149</a>)
  */
@@ -45,6 +52,32 @@ public abstract class UnitQuaternionDifferentiableAtlas
     
     
     
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Workspace holding the {@link UnitQuaternion} that defines the transition map.
+     * It is only used by {@link #jacobianOfTransitionMap(UnitQuaternion, UnitQuaternion, Matrix3)}.
+     */
+    private final UnitQuaternion transitionMapDelta;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link UnitQuaternionDifferentiableAtlas}.
+     */
+    public UnitQuaternionDifferentiableAtlas()
+    {
+        this.transitionMapDelta = UnitQuaternion.one();
+    }
+    
+    
+    
     ////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
     ////////////////////////////////////////////////////////////////
@@ -59,4 +92,196 @@ public abstract class UnitQuaternionDifferentiableAtlas
         return this.jacobianOfTransitionMap( delta );
     }
     
+    
+    /**
+     * Stores the Jacobian of the chart in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #jacobianOfChart(UnitQuaternion)}.
+     * 
+     * @param q     {@link UnitQuaternion} at which the Jacobian is evaluated.
+     * @param output    {@link Matrix3x4} where the result is stored.
+     * @return  {@code output}, holding the Jacobian of the chart.
+     */
+    public Matrix3x4 jacobianOfChart( UnitQuaternion q , Matrix3x4 output )
+    {
+        return output.setTo( Matrix3x4.fromMatrixReal( this.jacobianOfChart( q ) ) );
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the chart inverse in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #jacobianOfChartInverse(Vector3)}.
+     * 
+     * @param e     {@link Vector3} at which the Jacobian is evaluated.
+     * @param output    {@link Matrix4x3} where the result is stored.
+     * @return  {@code output}, holding the Jacobian of the chart inverse.
+     */
+    public Matrix4x3 jacobianOfChartInverse( Vector3 e , Matrix4x3 output )
+    {
+        return output.setTo( Matrix4x3.fromMatrixReal( this.jacobianOfChartInverse( e ) ) );
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the transition map in {@code output}.
+     * <p>
+     * Concrete atlases override this method to avoid allocations;
+     * this default implementation delegates to {@link #jacobianOfTransitionMap(UnitQuaternion)}.
+     * 
+     * @param delta     {@link UnitQuaternion} that defines the transition map.
+     * @param output    {@link Matrix3} where the result is stored.
+     * @return  {@code output}, holding the Jacobian of the transition map.
+     */
+    public Matrix3 jacobianOfTransitionMap( UnitQuaternion delta , Matrix3 output )
+    {
+        return output.setTo( Matrix3.fromMatrixReal( this.jacobianOfTransitionMap( delta ) ) );
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the transition map between the charts selected by two {@link UnitQuaternion}s in {@code output}.
+     * 
+     * @param initialChartSelector  {@link UnitQuaternion} that selects the initial chart.
+     * @param finalChartSelector    {@link UnitQuaternion} that selects the final chart.
+     * @param output    {@link Matrix3} where the result is stored.
+     * @return  {@code output}, holding the Jacobian of the transition map evaluated at the final chart selector.
+     * 
+     * @see #jacobianOfTransitionMap(UnitQuaternion, UnitQuaternion)
+     */
+    public Matrix3 jacobianOfTransitionMap( UnitQuaternion initialChartSelector , UnitQuaternion finalChartSelector , Matrix3 output )
+    {
+        this.setChartSelector( initialChartSelector );
+        this.toChartSelectorPerspective( finalChartSelector , this.transitionMapDelta );
+        return this.jacobianOfTransitionMap( this.transitionMapDelta , output );
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the chart evaluated at each {@link UnitQuaternion} of an array.
+     * <p>
+     * The {@link UnitQuaternion}s are given by their components in separate arrays (structure of arrays).
+     * The 3x4 Jacobian of the k-th {@link UnitQuaternion} is stored in row-major order in positions {@code 12*k} to {@code 12*k + 11} of {@code jacobians}.
+     * The work is split in chunks of {@link #BULK_CHUNK_SIZE} elements, which are processed in parallel if requested.
+     * 
+     * @param ws    scalar parts of the {@link UnitQuaternion}s.
+     * @param xs    i components of the {@link UnitQuaternion}s.
+     * @param ys    j components of the {@link UnitQuaternion}s.
+     * @param zs    k components of the {@link UnitQuaternion}s.
+     * @param jacobians     array where the Jacobians are stored.
+     * @param parallel  true to process the chunks in parallel.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have consistent lengths.
+     * 
+     * @see #jacobianOfChart(UnitQuaternion, Matrix3x4)
+     */
+    public void jacobianOfChart( double[] ws , double[] xs , double[] ys , double[] zs , double[] jacobians , boolean parallel )
+    {
+        final int n = ws.length;
+        UnitQuaternionAtlas.assertSameLength( n , xs , ys , zs );
+        UnitQuaternionDifferentiableAtlas.assertJacobiansLength( n , 12 , jacobians );
+        UnitQuaternionAtlas.forEachChunk( n , parallel , chunk -> {
+            final int from = chunk * UnitQuaternionAtlas.BULK_CHUNK_SIZE;
+            final int to = Math.min( from + UnitQuaternionAtlas.BULK_CHUNK_SIZE , n );
+            UnitQuaternion q = UnitQuaternion.one();
+            Matrix3x4 jacobian = Matrix3x4.zero();
+            for( int i=from; i<to; i++ ) {
+                this.jacobianOfChart( q.setToNormalizedComponents( ws[i] , xs[i] , ys[i] , zs[i] ) , jacobian ).toFlatArray( jacobians , 12 * i );
+            }
+        } );
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the chart inverse evaluated at each chart element of an array.
+     * <p>
+     * The chart elements are given by their components in separate arrays (structure of arrays).
+     * The 4x3 Jacobian of the k-th chart element is stored in row-major order in positions {@code 12*k} to {@code 12*k + 11} of {@code jacobians}.
+     * The work is split in chunks of {@link #BULK_CHUNK_SIZE} elements, which are processed in parallel if requested.
+     * 
+     * @param exs   x components of the chart elements.
+     * @param eys   y components of the chart elements.
+     * @param ezs   z components of the chart elements.
+     * @param jacobians     array where the Jacobians are stored.
+     * @param parallel  true to process the chunks in parallel.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have consistent lengths.
+     * 
+     * @see #jacobianOfChartInverse(Vector3, Matrix4x3)
+     */
+    public void jacobianOfChartInverse( double[] exs , double[] eys , double[] ezs , double[] jacobians , boolean parallel )
+    {
+        final int n = exs.length;
+        UnitQuaternionAtlas.assertSameLength( n , eys , ezs );
+        UnitQuaternionDifferentiableAtlas.assertJacobiansLength( n , 12 , jacobians );
+        UnitQuaternionAtlas.forEachChunk( n , parallel , chunk -> {
+            final int from = chunk * UnitQuaternionAtlas.BULK_CHUNK_SIZE;
+            final int to = Math.min( from + UnitQuaternionAtlas.BULK_CHUNK_SIZE , n );
+            Vector3 e = Vector3.zero();
+            Matrix4x3 jacobian = Matrix4x3.zero();
+            for( int i=from; i<to; i++ ) {
+                this.jacobianOfChartInverse( e.setComponents( exs[i] , eys[i] , ezs[i] ) , jacobian ).toFlatArray( jacobians , 12 * i );
+            }
+        } );
+    }
+    
+    
+    /**
+     * Stores the Jacobian of the transition map defined by each {@link UnitQuaternion} of an array.
+     * <p>
+     * The {@link UnitQuaternion}s are given by their components in separate arrays (structure of arrays).
+     * The 3x3 Jacobian of the k-th {@link UnitQuaternion} is stored in row-major order in positions {@code 9*k} to {@code 9*k + 8} of {@code jacobians}.
+     * The work is split in chunks of {@link #BULK_CHUNK_SIZE} elements, which are processed in parallel if requested.
+     * 
+     * @param ws    scalar parts of the {@link UnitQuaternion}s that define the transition maps.
+     * @param xs    i components of the {@link UnitQuaternion}s that define the transition maps.
+     * @param ys    j components of the {@link UnitQuaternion}s that define the transition maps.
+     * @param zs    k components of the {@link UnitQuaternion}s that define the transition maps.
+     * @param jacobians     array where the Jacobians are stored.
+     * @param parallel  true to process the chunks in parallel.
+     * 
+     * @throws IllegalArgumentException     if the arrays do not have consistent lengths.
+     * 
+     * @see #jacobianOfTransitionMap(UnitQuaternion, Matrix3)
+     */
+    public void jacobianOfTransitionMap( double[] ws , double[] xs , double[] ys , double[] zs , double[] jacobians , boolean parallel )
+    {
+        final int n = ws.length;
+        UnitQuaternionAtlas.assertSameLength( n , xs , ys , zs );
+        UnitQuaternionDifferentiableAtlas.assertJacobiansLength( n , 9 , jacobians );
+        UnitQuaternionAtlas.forEachChunk( n , parallel , chunk -> {
+            final int from = chunk * UnitQuaternionAtlas.BULK_CHUNK_SIZE;
+            final int to = Math.min( from + UnitQuaternionAtlas.BULK_CHUNK_SIZE , n );
+            UnitQuaternion delta = UnitQuaternion.one();
+            Matrix3 jacobian = Matrix3.zero();
+            for( int i=from; i<to; i++ ) {
+                this.jacobianOfTransitionMap( delta.setToNormalizedComponents( ws[i] , xs[i] , ys[i] , zs[i] ) , jacobian ).toFlatArray( jacobians , 9 * i );
+            }
+        } );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Throws if the array of Jacobians cannot hold exactly the Jacobians of {@code n} elements.
+     * 
+     * @param n     number of elements.
+     * @param entriesPerJacobian    number of entries of each Jacobian.
+     * @param jacobians     array where the Jacobians are stored.
+     * 
+     * @throws IllegalArgumentException     if {@code jacobians} does not have length  n * entriesPerJacobian .
+     */
+    private static void assertJacobiansLength( int n , int entriesPerJacobian , double[] jacobians )
+    {
+        if( jacobians.length != n * entriesPerJacobian ) {
+            throw new IllegalArgumentException( "Jacobian array must have length " + ( n * entriesPerJacobian ) + "; found " + jacobians.length );
+        }
+    }
+    
 }
@@ -4,6 +4,8 @@ package numericalLibrary.optimization.algorithms;
 import numericalLibrary.optimization.lossFunctions.LocallyQuadraticLoss;
 import numericalLibrary.optimization.lossFunctions.LocallyQuadraticLossResults;
 import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.SymmetricPackedMatrixReal;
+import numericalLibrary.types.TriangularPackedMatrixReal;
 
 
 
@@ -54,8 +56,8 @@ public class GaussNewtonAlgorithm
     public MatrixReal getDeltaParameters( LocallyQuadraticLoss lossFunction )
     {
     	LocallyQuadraticLossResults results = lossFunction.getLocallyQuadraticLossResults();
-    	MatrixReal gaussNewtonMatrix = results.getGaussNewtonMatrix();
-        MatrixReal L = null;
+    	SymmetricPackedMatrixReal gaussNewtonMatrix = results.getGaussNewtonMatrixPacked();
+        TriangularPackedMatrixReal L = null;
         try {
             L = gaussNewtonMatrix.choleskyDecompositionInplace();
         } catch( IllegalArgumentException e ) {
@@ -4,6 +4,8 @@ package numericalLibrary.optimization.algorithms;
 import numericalLibrary.optimization.lossFunctions.LocallyQuadraticLoss;
 import numericalLibrary.optimization.lossFunctions.LocallyQuadraticLossResults;
 import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.SymmetricPackedMatrixReal;
+import numericalLibrary.types.TriangularPackedMatrixReal;
 
 
 
@@ -105,9 +107,9 @@ public class LevenbergMarquardtAlgorithm
     public MatrixReal getDeltaParameters( LocallyQuadraticLoss lossFunction )
     {
     	LocallyQuadraticLossResults results = lossFunction.getLocallyQuadraticLossResults();
-        MatrixReal gaussNewtonMatrix = results.getGaussNewtonMatrix();
-        gaussNewtonMatrix.addInplace( MatrixReal.one( gaussNewtonMatrix.rows() ).scaleInplace( this.lambda ) );
-        MatrixReal L = null;
+        SymmetricPackedMatrixReal gaussNewtonMatrix = results.getGaussNewtonMatrixPacked();
+        gaussNewtonMatrix.addToDiagonalInplace( this.lambda );
+        TriangularPackedMatrixReal L = null;
         try {
             L = gaussNewtonMatrix.choleskyDecompositionInplace();
         } catch( IllegalArgumentException e ) {
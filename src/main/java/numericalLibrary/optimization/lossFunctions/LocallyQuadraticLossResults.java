@@ -2,11 +2,17 @@ package numericalLibrary.optimization.lossFunctions;
 
 
 import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.SymmetricPackedMatrixReal;
 
 
 
 /**
  * Contains the results of evaluating a {@link LocallyQuadraticLoss}: the cost, its gradient, and its Gauss-Newton matrix.
+ * <p>
+ * The Gauss-Newton matrix is symmetric, so it can be given either as a full {@link MatrixReal} or as a {@link SymmetricPackedMatrixReal};
+ * both getters are available in any case, converting the stored representation when needed.
+ * The getter matching the stored representation returns the stored instance, so in-place operations on its result modify the stored matrix;
+ * the other getter returns a new instance, so modifications of its result are not reflected in the stored matrix.
  */
 public class LocallyQuadraticLossResults
 	extends DifferentiableLossResults
@@ -16,9 +22,14 @@ public class LocallyQuadraticLossResults
     ////////////////////////////////////////////////////////////////
     
 	/**
-	 * Gauss-Newton matrix obtained from the {@link LocallyQuadraticLoss}.
+	 * Gauss-Newton matrix obtained from the {@link LocallyQuadraticLoss}, or null if it is given as a {@link SymmetricPackedMatrixReal}.
 	 */
 	private MatrixReal gaussNewtonMatrix;
+	
+	/**
+	 * Gauss-Newton matrix obtained from the {@link LocallyQuadraticLoss}, or null if it is given as a {@link MatrixReal}.
+	 */
+	private SymmetricPackedMatrixReal gaussNewtonMatrixPacked;
     
 	
 	
@@ -37,6 +48,22 @@ public class LocallyQuadraticLossResults
 	{
 		super( cost , gradient );
 		this.gaussNewtonMatrix = gaussNewtonMatrix;
+		this.gaussNewtonMatrixPacked = null;
+	}
+	
+	
+	/**
+	 * Constructs a {@link LocallyQuadraticLossResults} object whose Gauss-Newton matrix is stored in packed form.
+	 * 
+	 * @param cost	cost obtained from the {@link LocallyQuadraticLoss}.
+	 * @param gradient	gradient obtained from the {@link LocallyQuadraticLoss}.
+	 * @param gaussNewtonMatrix		Gauss-Newton matrix obtained from the {@link LocallyQuadraticLoss}.
+	 */
+	public LocallyQuadraticLossResults( double cost , MatrixReal gradient , SymmetricPackedMatrixReal gaussNewtonMatrix )
+	{
+		super( cost , gradient );
+		this.gaussNewtonMatrix = null;
+		this.gaussNewtonMatrixPacked = gaussNewtonMatrix;
 	}
 	
 	
@@ -47,12 +74,37 @@ public class LocallyQuadraticLossResults
 	
 	/**
 	 * Returns the Gauss-Newton matrix stored in this {@link LocallyQuadraticLossResults}.
+	 * <p>
+	 * If the Gauss-Newton matrix is stored as a full {@link MatrixReal}, the stored instance is returned.
+	 * If it is stored in packed form, a new full {@link MatrixReal} is returned,
+	 * so, unlike in previous versions, modifications of the returned matrix do not change the stored Gauss-Newton matrix.
 	 * 
 	 * @return	Gauss-Newton matrix stored in this {@link LocallyQuadraticLossResults}.
 	 */
 	public MatrixReal getGaussNewtonMatrix()
 	{
+		if( this.gaussNewtonMatrix == null ) {
+			return this.gaussNewtonMatrixPacked.toMatrixReal();
+		}
 		return this.gaussNewtonMatrix;
 	}
 	
+	
+	/**
+	 * Returns the Gauss-Newton matrix stored in this {@link LocallyQuadraticLossResults} in packed form.
+	 * <p>
+	 * If the Gauss-Newton matrix is stored in packed form, the stored instance is returned.
+	 * If it is stored as a full {@link MatrixReal}, a new {@link SymmetricPackedMatrixReal} holding its lower triangular part is returned,
+	 * so modifications of the returned matrix do not change the stored Gauss-Newton matrix.
+	 * 
+	 * @return	Gauss-Newton matrix stored in this {@link LocallyQuadraticLossResults} in packed form.
+	 */
+	public SymmetricPackedMatrixReal getGaussNewtonMatrixPacked()
+	{
+		if( this.gaussNewtonMatrixPacked == null ) {
+			return SymmetricPackedMatrixReal.fromMatrixReal( this.gaussNewtonMatrix );
+		}
+		return this.gaussNewtonMatrixPacked;
+	}
+	
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import numericalLibrary.optimization.ErrorFunction;
 import numericalLibrary.optimization.robustFunctions.RobustFunction;
 import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.SymmetricPackedMatrixReal;
 
 
 
@@ -53,8 +54,9 @@ abstract class MeanSquaredErrorBase<T>
     
     /**
      * Used to accumulate the contribution to the Gauss-Newton matrix from each input.
+     * Only its lower triangular part is stored, since the Gauss-Newton matrix is symmetric.
      */
-    protected MatrixReal gaussNewtonMatrix;
+    protected SymmetricPackedMatrixReal gaussNewtonMatrix;
     
 	/**
      * Used to accumulate the contribution to the cost from each input.
@@ -77,7 +79,7 @@ abstract class MeanSquaredErrorBase<T>
     	this.errorFunction = errorFunction;
     	int degreesOfFreedom = errorFunction.degreesOfFreedom();
     	this.gradient = MatrixReal.empty( degreesOfFreedom , 1 );
-    	this.gaussNewtonMatrix = MatrixReal.empty( degreesOfFreedom , degreesOfFreedom );
+    	this.gaussNewtonMatrix = SymmetricPackedMatrixReal.empty( degreesOfFreedom );
     }
     
     
@@ -121,7 +121,7 @@ public class PlainMeanSquaredError<T>
 			// Add contribution to cost, gradient, and Gauss-Newton matrix.
 			this.cost += errorFunctionOutput.normFrobeniusSquared();
 			this.gradient.addLeftTransposeTimesRight( J , errorFunctionOutput );
-			this.gaussNewtonMatrix.addLeftTransposeTimesRight( J , J );
+			this.gaussNewtonMatrix.addLeftTransposeTimesLeft( J );
 		}
 		this.divideCostGradientAndGaussNewtonMatrixByNumberOfInputs();
 		return new LocallyQuadraticLossResults( this.cost , this.gradient , this.gaussNewtonMatrix );
@@ -144,7 +144,7 @@ public class RobustMeanSquaredError<T>
             // Add contribution to cost, gradient, and Gauss-Newton matrix.
             this.cost += this.robustFunction.rho( errorSquared );
             this.gradient.addLeftTransposeTimesRight( JW , errorFunctionOutput );
-            this.gaussNewtonMatrix.addLeftTransposeTimesRight( JW , J );
+            this.gaussNewtonMatrix.addScaledLeftTransposeTimesLeft( robustWeight , J );
 		}
 		this.divideCostGradientAndGaussNewtonMatrixByNumberOfInputs();
 		return new LocallyQuadraticLossResults( this.cost , this.gradient , this.gaussNewtonMatrix );
@@ -144,7 +144,7 @@ public class WeightedMeanSquaredErrorLocallyQuadraticLoss<T>
             // Add contribution to cost, and gradient.
             this.cost += weight * errorFunctionOutput.normFrobeniusSquared();
             this.gradient.addLeftTransposeTimesRight( JW , errorFunctionOutput );
-            this.gaussNewtonMatrix.addLeftTransposeTimesRight( JW , J );
+            this.gaussNewtonMatrix.addScaledLeftTransposeTimesLeft( weight , J );
         }
         // Note that we do not divide by the number of inputs;
         // the user is responsible for introducing in the weights any scaling factor dependent on the number of inputs.
@@ -0,0 +1,172 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import numericalLibrary.types.MatrixReal;
+
+
+
+/**
+ * {@link ParameterBlock} made of a sequence of {@link ParameterBlock}s.
+ * <p>
+ * The shift vector is the concatenation of the shift vectors of each {@link ParameterBlock}, in the order they were added,
+ * and each slice is handed to its {@link ParameterBlock}.
+ * This way, a problem mixing Euclidean parameters with parameters living in other manifolds
+ * presents the optimization algorithms only with its total degrees of freedom.
+ */
+public class CompositeParameterBlock
+    implements ParameterBlock
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * List of {@link ParameterBlock}s.
+     */
+    private final List<ParameterBlock> blockList;
+    
+    /**
+     * Position of the first degree of freedom of each {@link ParameterBlock} in the shift vector.
+     */
+    private final List<Integer> offsetList;
+    
+    /**
+     * Sum of the degrees of freedom of every {@link ParameterBlock}.
+     */
+    private int degreesOfFreedom;
+    
+    /**
+     * Sum of the ambient dimensions of every {@link ParameterBlock}.
+     */
+    private int ambientDimension;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs an empty {@link CompositeParameterBlock}.
+     */
+    public CompositeParameterBlock()
+    {
+        this.blockList = new ArrayList<ParameterBlock>();
+        this.offsetList = new ArrayList<Integer>();
+        this.degreesOfFreedom = 0;
+        this.ambientDimension = 0;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Appends a {@link ParameterBlock}.
+     * 
+     * @param block     {@link ParameterBlock} to be appended.
+     * @return  position of the first degree of freedom of {@code block} in the shift vector.
+     */
+    public int add( ParameterBlock block )
+    {
+        int offset = this.degreesOfFreedom;
+        this.blockList.add( block );
+        this.offsetList.add( offset );
+        this.degreesOfFreedom += block.degreesOfFreedom();
+        this.ambientDimension += block.ambientDimension();
+        return offset;
+    }
+    
+    
+    /**
+     * Returns the number of {@link ParameterBlock}s.
+     * 
+     * @return  number of {@link ParameterBlock}s.
+     */
+    public int numberOfBlocks()
+    {
+        return this.blockList.size();
+    }
+    
+    
+    /**
+     * Returns the {@link ParameterBlock} at a given position.
+     * 
+     * @param index     position of the {@link ParameterBlock}, in the order they were added.
+     * @return  {@link ParameterBlock} at position {@code index}.
+     */
+    public ParameterBlock getBlock( int index )
+    {
+        return this.blockList.get( index );
+    }
+    
+    
+    /**
+     * Returns the position of the first degree of freedom of a {@link ParameterBlock} in the shift vector.
+     * 
+     * @param index     position of the {@link ParameterBlock}, in the order they were added.
+     * @return  position of the first degree of freedom of the {@link ParameterBlock} in the shift vector.
+     */
+    public int getOffset( int index )
+    {
+        return this.offsetList.get( index );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int degreesOfFreedom()
+    {
+        return this.degreesOfFreedom;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int ambientDimension()
+    {
+        return this.ambientDimension;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each {@link ParameterBlock} is shifted with its slice of {@code deltaParameters}.
+     * 
+     * @throws IllegalArgumentException     if {@code deltaParameters} does not have as many rows as {@link #degreesOfFreedom()}.
+     */
+    public void shift( MatrixReal deltaParameters )
+    {
+        if( deltaParameters.rows() != this.degreesOfFreedom ) {
+            throw new IllegalArgumentException( "Shift vector must have " + this.degreesOfFreedom + " rows; found " + deltaParameters.rows() );
+        }
+        for( int b=0; b<this.blockList.size(); b++ ) {
+            ParameterBlock block = this.blockList.get( b );
+            block.shift( deltaParameters.submatrixFromRows( this.offsetList.get( b ) , block.degreesOfFreedom() ) );
+        }
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It is the block diagonal matrix made of the Jacobians of each {@link ParameterBlock}.
+     */
+    public MatrixReal jacobianOfShift()
+    {
+        List<MatrixReal> jacobianList = new ArrayList<MatrixReal>();
+        for( ParameterBlock block : this.blockList ) {
+            jacobianList.add( block.jacobianOfShift() );
+        }
+        return MatrixReal.blockDiagonal( jacobianList );
+    }
+    
+}
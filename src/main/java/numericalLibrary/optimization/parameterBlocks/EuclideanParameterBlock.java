@@ -0,0 +1,114 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import numericalLibrary.types.MatrixReal;
+
+
+
+/**
+ * {@link ParameterBlock} that lives in the Euclidean space.
+ * <p>
+ * The shift operation is the plain addition, so the degrees of freedom match the ambient dimension,
+ * and the Jacobian of the shift operation is the identity.
+ */
+public class EuclideanParameterBlock
+    implements ParameterBlock
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Column {@link MatrixReal} holding the parameters.
+     */
+    private final MatrixReal value;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link EuclideanParameterBlock}.
+     * 
+     * @param initialValue  column {@link MatrixReal} with the initial parameters. It is copied.
+     * 
+     * @throws IllegalArgumentException     if {@code initialValue} is not a column {@link MatrixReal}.
+     */
+    public EuclideanParameterBlock( MatrixReal initialValue )
+    {
+        if( initialValue.columns() != 1 ) {
+            throw new IllegalArgumentException( "Parameters must be given as a column matrix; found size " + initialValue.size() );
+        }
+        this.value = initialValue.copy();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the parameters.
+     * 
+     * @return  column {@link MatrixReal} holding the parameters.
+     */
+    public MatrixReal getValue()
+    {
+        return this.value;
+    }
+    
+    
+    /**
+     * Sets the parameters.
+     * 
+     * @param newValue  column {@link MatrixReal} with the new parameters. It is copied.
+     */
+    public void setValue( MatrixReal newValue )
+    {
+        this.value.setTo( newValue );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int degreesOfFreedom()
+    {
+        return this.value.rows();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int ambientDimension()
+    {
+        return this.value.rows();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The shift vector is added to the parameters.
+     */
+    public void shift( MatrixReal deltaParameters )
+    {
+        this.value.addInplace( deltaParameters );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It is the identity.
+     */
+    public MatrixReal jacobianOfShift()
+    {
+        return MatrixReal.one( this.value.rows() );
+    }
+    
+}
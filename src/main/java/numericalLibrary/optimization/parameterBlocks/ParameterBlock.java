@@ -0,0 +1,49 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import numericalLibrary.optimization.Shiftable;
+import numericalLibrary.types.MatrixReal;
+
+
+
+/**
+ * Represents a block of parameters that lives in a manifold, and that is shifted through a local parametrisation.
+ * <p>
+ * A {@link ParameterBlock} is stored with as many components as the dimension of the space in which the manifold is embedded (its ambient dimension),
+ * but it is shifted with a vector of the dimension of the manifold (its degrees of freedom).
+ * As an example, a unit quaternion has 4 components but only 3 degrees of freedom,
+ * so the normal equations built by the optimization algorithms involve 3 parameters instead of 4.
+ * <p>
+ * The shift operation is:
+ * <br>
+ * x_{k+1}  =  x_k  (+)  \delta
+ * <br>
+ * and {@link #jacobianOfShift()} gives the Jacobian of  x_k (+) \delta  with respect to  \delta  evaluated at  \delta = 0.
+ * Multiplying the Jacobian of an error with respect to the ambient components by {@link #jacobianOfShift()}
+ * gives the Jacobian with respect to the degrees of freedom, which is the one expected by the optimization algorithms.
+ */
+public interface ParameterBlock
+    extends Shiftable
+{
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC ABSTRACT METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of components used to store the {@link ParameterBlock}.
+     * 
+     * @return  number of components used to store the {@link ParameterBlock}.
+     */
+    public abstract int ambientDimension();
+    
+    
+    /**
+     * Returns the Jacobian of the shift operation with respect to the shift vector, evaluated at the zero shift vector.
+     * <p>
+     * The Jacobian has as many rows as {@link #ambientDimension()}, and as many columns as {@link #degreesOfFreedom()}.
+     * 
+     * @return  Jacobian of the shift operation evaluated at the zero shift vector.
+     */
+    public abstract MatrixReal jacobianOfShift();
+    
+}
@@ -0,0 +1,151 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import numericalLibrary.manifolds.unitComplexNumbers.atlases.UnitComplexNumberDifferentiableAtlas;
+import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.RealNumber;
+
+
+
+/**
+ * {@link ParameterBlock} that lives in the S1 sphere, shifted through a {@link UnitComplexNumberDifferentiableAtlas}.
+ * <p>
+ * The chart is re-centred at the current unit {@link ComplexNumber} before each shift, so the shift operation is:
+ * <br>
+ * z_{k+1}  =  z_k * phi^{-1}( \delta )
+ * <br>
+ * where phi is the chart centered at the identity of the {@link UnitComplexNumberDifferentiableAtlas}.
+ * The {@link ComplexNumber} is kept normalized, and it has 1 degree of freedom.
+ */
+public class UnitComplexNumberParameterBlock
+    implements ParameterBlock
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Current unit {@link ComplexNumber}.
+     */
+    private final ComplexNumber value;
+    
+    /**
+     * {@link UnitComplexNumberDifferentiableAtlas} that defines the local parametrisation.
+     */
+    private final UnitComplexNumberDifferentiableAtlas atlas;
+    
+    /**
+     * Workspace holding the shift.
+     */
+    private final RealNumber delta;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link UnitComplexNumberParameterBlock}.
+     * 
+     * @param initialValue  initial {@link ComplexNumber}. It is copied and normalized.
+     * @param atlas     {@link UnitComplexNumberDifferentiableAtlas} that defines the local parametrisation.
+     */
+    public UnitComplexNumberParameterBlock( ComplexNumber initialValue , UnitComplexNumberDifferentiableAtlas atlas )
+    {
+        this.value = initialValue.normalize();
+        this.atlas = atlas;
+        this.delta = RealNumber.zero();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the current unit {@link ComplexNumber}.
+     * 
+     * @return  current unit {@link ComplexNumber}.
+     */
+    public ComplexNumber getValue()
+    {
+        return this.value;
+    }
+    
+    
+    /**
+     * Sets the current unit {@link ComplexNumber}.
+     * 
+     * @param newValue  new {@link ComplexNumber}. It is copied and normalized.
+     */
+    public void setValue( ComplexNumber newValue )
+    {
+        this.value.setTo( newValue ).normalizeInplace();
+    }
+    
+    
+    /**
+     * Returns the {@link UnitComplexNumberDifferentiableAtlas} that defines the local parametrisation.
+     * 
+     * @return  {@link UnitComplexNumberDifferentiableAtlas} that defines the local parametrisation.
+     */
+    public UnitComplexNumberDifferentiableAtlas getAtlas()
+    {
+        return this.atlas;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int degreesOfFreedom()
+    {
+        return 1;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int ambientDimension()
+    {
+        return 2;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The chart is centered at the current unit {@link ComplexNumber}, and the shift is mapped to the manifold through it.
+     * Shifts outside of the chart image are saturated by the {@link UnitComplexNumberDifferentiableAtlas}.
+     */
+    public void shift( MatrixReal deltaParameters )
+    {
+        this.delta.setValue( deltaParameters.entry( 0 , 0 ) );
+        this.atlas.setChartSelector( this.value );
+        this.atlas.toManifold( this.delta , this.value );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It is the 2x1 matrix  L( z ) J  where:
+     * <ul>
+     *  <li> L( z ) is the matrix that represents the left product by the current unit {@link ComplexNumber}, and
+     *  <li> J is the Jacobian of the chart inverse evaluated at the origin of the chart.
+     * </ul>
+     * Rows are ordered as the components  ( re , im ).
+     */
+    public MatrixReal jacobianOfShift()
+    {
+        MatrixReal J = this.atlas.jacobianOfChartInverse( RealNumber.zero() );
+        double a = this.value.re();
+        double b = this.value.im();
+        return MatrixReal.fromEntries2x2( a , -b , b , a ).multiply( J );
+    }
+    
+}
@@ -0,0 +1,160 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import numericalLibrary.manifolds.unitQuaternions.atlases.UnitQuaternionDifferentiableAtlas;
+import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * {@link ParameterBlock} that lives in the S3 sphere, shifted through a {@link UnitQuaternionDifferentiableAtlas}.
+ * <p>
+ * The chart is re-centred at the current {@link UnitQuaternion} before each shift, so the shift operation is:
+ * <br>
+ * q_{k+1}  =  q_k * phi^{-1}( \delta )
+ * <br>
+ * where phi is the chart centered at the identity of the {@link UnitQuaternionDifferentiableAtlas}.
+ * The {@link UnitQuaternion} is kept normalized, and it has 3 degrees of freedom.
+ * 
+ * @see "Kalman Filtering for Attitude Estimation with Quaternions and Concepts from Manifold Theory" (<a href="https://www.mdpi.com/1424-8220/19/1/149">https://www.mdpi.com/1424-8220/19/1/149</a>)
+ */
+public class UnitQuaternionParameterBlock
+    implements ParameterBlock
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Current {@link UnitQuaternion}.
+     */
+    private final UnitQuaternion value;
+    
+    /**
+     * {@link UnitQuaternionDifferentiableAtlas} that defines the local parametrisation.
+     */
+    private final UnitQuaternionDifferentiableAtlas atlas;
+    
+    /**
+     * Workspace holding the shift vector.
+     */
+    private final Vector3 delta;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link UnitQuaternionParameterBlock}.
+     * 
+     * @param initialValue  initial {@link UnitQuaternion}. It is copied.
+     * @param atlas     {@link UnitQuaternionDifferentiableAtlas} that defines the local parametrisation.
+     */
+    public UnitQuaternionParameterBlock( UnitQuaternion initialValue , UnitQuaternionDifferentiableAtlas atlas )
+    {
+        this.value = initialValue.copy();
+        this.atlas = atlas;
+        this.delta = Vector3.zero();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the current {@link UnitQuaternion}.
+     * 
+     * @return  current {@link UnitQuaternion}.
+     */
+    public UnitQuaternion getValue()
+    {
+        return this.value;
+    }
+    
+    
+    /**
+     * Sets the current {@link UnitQuaternion}.
+     * 
+     * @param newValue  new {@link UnitQuaternion}. It is copied.
+     */
+    public void setValue( UnitQuaternion newValue )
+    {
+        this.value.setTo( newValue );
+    }
+    
+    
+    /**
+     * Returns the {@link UnitQuaternionDifferentiableAtlas} that defines the local parametrisation.
+     * 
+     * @return  {@link UnitQuaternionDifferentiableAtlas} that defines the local parametrisation.
+     */
+    public UnitQuaternionDifferentiableAtlas getAtlas()
+    {
+        return this.atlas;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int degreesOfFreedom()
+    {
+        return 3;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int ambientDimension()
+    {
+        return 4;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The chart is centered at the current {@link UnitQuaternion}, and the shift vector is mapped to the manifold through it.
+     * Shift vectors outside of the chart image are saturated by the {@link UnitQuaternionDifferentiableAtlas}.
+     */
+    public void shift( MatrixReal deltaParameters )
+    {
+        this.delta.setComponents( deltaParameters.entry( 0 , 0 ) , deltaParameters.entry( 1 , 0 ) , deltaParameters.entry( 2 , 0 ) );
+        this.atlas.setChartSelector( this.value );
+        this.atlas.toManifold( this.delta , this.value );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * It is the 4x3 matrix  L( q ) J  where:
+     * <ul>
+     *  <li> L( q ) is the matrix that represents the left product by the current {@link UnitQuaternion}, and
+     *  <li> J is the Jacobian of the chart inverse evaluated at the origin of the chart.
+     * </ul>
+     * Rows are ordered as the components  ( w , x , y , z ).
+     */
+    public MatrixReal jacobianOfShift()
+    {
+        MatrixReal J = this.atlas.jacobianOfChartInverse( Vector3.zero() );
+        double w = this.value.w();
+        double x = this.value.x();
+        double y = this.value.y();
+        double z = this.value.z();
+        MatrixReal L = MatrixReal.empty( 4 , 4 );
+        L.setEntry( 0 , 0 , w );  L.setEntry( 0 , 1 , -x );  L.setEntry( 0 , 2 , -y );  L.setEntry( 0 , 3 , -z );
+        L.setEntry( 1 , 0 , x );  L.setEntry( 1 , 1 ,  w );  L.setEntry( 1 , 2 , -z );  L.setEntry( 1 , 3 ,  y );
+        L.setEntry( 2 , 0 , y );  L.setEntry( 2 , 1 ,  z );  L.setEntry( 2 , 2 ,  w );  L.setEntry( 2 , 3 , -x );
+        L.setEntry( 3 , 0 , z );  L.setEntry( 3 , 1 , -y );  L.setEntry( 3 , 2 ,  x );  L.setEntry( 3 , 3 ,  w );
+        return L.multiply( J );
+    }
+    
+}
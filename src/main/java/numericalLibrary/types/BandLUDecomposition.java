@@ -0,0 +1,334 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+
+
+
+/**
+ * Implements the LU decomposition with partial pivoting of square {@link BandMatrixReal}s.
+ * <p>
+ * Row interchanges are restricted to the kl rows below the pivot, so the factors keep a band structure:
+ * L has lower bandwidth kl, and U has upper bandwidth kl + ku because of the fill-in produced by the interchanges.
+ * As in LAPACK, the multipliers are left where they are computed, and the interchanges are applied during the solves,
+ * so decomposition and solves take O( n kl ( kl + ku ) ) and O( n ( kl + ku ) ) operations, respectively.
+ * <p>
+ * A {@link BandLUDecomposition} owns its storage: it is allocated once for a given dimension and bandwidths,
+ * and can be reused to decompose several matrices and to solve several systems with the same matrix without further allocations.
+ * 
+ * @see LUDecomposition
+ */
+public class BandLUDecomposition
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Dimension of the decomposed matrices.
+     */
+    private final int n;
+    
+    /**
+     * Lower bandwidth of the decomposed matrices.
+     */
+    private final int kl;
+    
+    /**
+     * Upper bandwidth of the decomposed matrices.
+     */
+    private final int ku;
+    
+    /**
+     * Number of stored entries per row:  2 kl + ku + 1 .
+     */
+    private final int width;
+    
+    /**
+     * Entries of the factors, row after row: entry ( i , j ) with  -kl <= j-i <= kl+ku  is stored at position  i * width + ( j - i + kl ).
+     * The part below the diagonal holds the multipliers of L, and the rest holds U.
+     */
+    private final double[] lu;
+    
+    /**
+     * Row interchanged with row k at the k-th elimination step.
+     */
+    private final int[] pivots;
+    
+    /**
+     * Sign of the permutation: 1 for an even number of row interchanges, -1 for an odd one.
+     */
+    private int permutationSign;
+    
+    /**
+     * True if a zero pivot was found.
+     */
+    private boolean singular;
+    
+    /**
+     * True if a matrix has been decomposed.
+     */
+    private boolean decomposed;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link BandLUDecomposition} for band matrices of a given dimension and bandwidths.
+     * 
+     * @param dimension     number of rows and columns of the matrices to be decomposed.
+     * @param lowerBandwidth    number of diagonals below the main diagonal of the matrices to be decomposed.
+     * @param upperBandwidth    number of diagonals above the main diagonal of the matrices to be decomposed.
+     * 
+     * @throws IllegalArgumentException     if a bandwidth is negative.
+     */
+    public BandLUDecomposition( int dimension , int lowerBandwidth , int upperBandwidth )
+    {
+        if(  lowerBandwidth < 0  ||  upperBandwidth < 0  ) {
+            throw new IllegalArgumentException( "Bandwidths must be non-negative; found " + lowerBandwidth + " and " + upperBandwidth + "." );
+        }
+        this.n = dimension;
+        this.kl = lowerBandwidth;
+        this.ku = upperBandwidth;
+        this.width = 2 * lowerBandwidth + upperBandwidth + 1;
+        this.lu = new double[ dimension * this.width ];
+        this.pivots = new int[ dimension ];
+        this.decomposed = false;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Computes the LU decomposition of a {@link BandMatrixReal}.
+     * <p>
+     * {@code A} is not modified.
+     * 
+     * @param A     {@link BandMatrixReal} to be decomposed.
+     * @return  {@code this}, holding the LU decomposition of {@code A}.
+     * 
+     * @throws IllegalArgumentException     if {@code A} does not have the dimension and bandwidths of {@code this}.
+     */
+    public BandLUDecomposition decompose( BandMatrixReal A )
+    {
+        if(  A.rows() != this.n  ||  A.lowerBandwidth() != this.kl  ||  A.upperBandwidth() != this.ku  ) {
+            throw new IllegalArgumentException( "Band matrix must be " + this.n + " x " + this.n + " with bandwidths " + this.kl + " and " + this.ku +
+                    "; found " + A.rows() + " x " + A.columns() + " with bandwidths " + A.lowerBandwidth() + " and " + A.upperBandwidth() + "." );
+        }
+        final int w = this.width;
+        final int aw = this.kl + this.ku + 1;
+        Arrays.fill( this.lu , 0.0 );
+        for( int i=0; i<this.n; i++ ) {
+            System.arraycopy( A.x , i * aw , this.lu , i * w , aw );
+        }
+        this.permutationSign = 1;
+        this.singular = false;
+        for( int k=0; k<this.n; k++ ) {
+            final int lastRow = Math.min( this.n - 1 , k + this.kl );
+            final int lastColumn = Math.min( this.n - 1 , k + this.kl + this.ku );
+            // Find the pivot.
+            int p = k;
+            double pivotAbs = Math.abs( this.lu[ k * w + this.kl ] );
+            for( int i=k+1; i<=lastRow; i++ ) {
+                double candidateAbs = Math.abs( this.lu[ i * w + k - i + this.kl ] );
+                if( candidateAbs > pivotAbs ) {
+                    pivotAbs = candidateAbs;
+                    p = i;
+                }
+            }
+            this.pivots[k] = p;
+            if( p != k ) {
+                for( int j=k; j<=lastColumn; j++ ) {
+                    final int kj = k * w + j - k + this.kl;
+                    final int pj = p * w + j - p + this.kl;
+                    double value = this.lu[kj];
+                    this.lu[kj] = this.lu[pj];
+                    this.lu[pj] = value;
+                }
+                this.permutationSign = -this.permutationSign;
+            }
+            final int kOffset = k * w - k + this.kl;
+            final double pivot = this.lu[ kOffset + k ];
+            if( pivot == 0.0 ) {
+                this.singular = true;
+                continue;
+            }
+            // Eliminate below the pivot.
+            final double inversePivot = 1.0 / pivot;
+            for( int i=k+1; i<=lastRow; i++ ) {
+                final int iOffset = i * w - i + this.kl;
+                final double lik = this.lu[ iOffset + k ] * inversePivot;
+                this.lu[ iOffset + k ] = lik;
+                if( lik != 0.0 ) {
+                    for( int j=k+1; j<=lastColumn; j++ ) {
+                        this.lu[ iOffset + j ] -= lik * this.lu[ kOffset + j ];
+                    }
+                }
+            }
+        }
+        this.decomposed = true;
+        return this;
+    }
+    
+    
+    /**
+     * Returns true if the decomposed matrix is singular, that is, if a zero pivot was found.
+     * 
+     * @return  true if the decomposed matrix is singular; false otherwise.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public boolean isSingular()
+    {
+        this.assertDecomposed();
+        return this.singular;
+    }
+    
+    
+    /**
+     * Returns the determinant of the decomposed matrix.
+     * 
+     * @return  determinant of the decomposed matrix.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public double determinant()
+    {
+        this.assertDecomposed();
+        double determinant = this.permutationSign;
+        for( int i=0; i<this.n; i++ ) {
+            determinant *= this.lu[ i * this.width + this.kl ];
+        }
+        return determinant;
+    }
+    
+    
+    /**
+     * Solves the equation  A * x = b  for x, where A is the decomposed matrix.
+     * <p>
+     * Operation done in-place: {@code b} holds b on input and x on output.
+     * 
+     * @param b     right-hand side.
+     * @return  {@code b}, holding the solution x.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code b} does not match the dimension of the decomposed matrix.
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    public double[] solveInplace( double[] b )
+    {
+        this.assertSolvable();
+        if( b.length != this.n ) {
+            throw new IllegalArgumentException( "Vector length must be " + this.n + "; found " + b.length + "." );
+        }
+        final int w = this.width;
+        // Apply the interchanges and the multipliers in the order they were computed.
+        for( int k=0; k<this.n; k++ ) {
+            final int p = this.pivots[k];
+            double bk = b[p];
+            b[p] = b[k];
+            b[k] = bk;
+            if( bk != 0.0 ) {
+                for( int i=k+1; i<=Math.min( this.n - 1 , k + this.kl ); i++ ) {
+                    b[i] -= this.lu[ i * w + k - i + this.kl ] * bk;
+                }
+            }
+        }
+        // Solve ( U * x = y ).
+        for( int i=this.n-1; i>-1; i-- ) {
+            final int iOffset = i * w - i + this.kl;
+            double sum = b[i];
+            for( int j=i+1; j<=Math.min( this.n - 1 , i + this.kl + this.ku ); j++ ) {
+                sum -= this.lu[ iOffset + j ] * b[j];
+            }
+            b[i] = sum / this.lu[ iOffset + i ];
+        }
+        return b;
+    }
+    
+    
+    /**
+     * Solves the equation  A * X = B  for X, where A is the decomposed matrix.
+     * <p>
+     * Operation done in-place: {@code B} holds B on input and X on output.
+     * 
+     * @param B     {@link MatrixReal} holding the right-hand sides.
+     * @return  {@code B}, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if {@code B} does not have as many rows as the decomposed matrix.
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    public MatrixReal solveInplace( MatrixReal B )
+    {
+        this.assertSolvable();
+        if( B.rows() != this.n ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.n + " rows; found " + B.size() + "." );
+        }
+        double[] column = new double[ this.n ];
+        for( int c=0; c<B.columns(); c++ ) {
+            for( int i=0; i<this.n; i++ ) {
+                column[i] = B.entry( i , c );
+            }
+            this.solveInplace( column );
+            for( int i=0; i<this.n; i++ ) {
+                B.setEntry( i , c , column[i] );
+            }
+        }
+        return B;
+    }
+    
+    
+    /**
+     * Solves the equation  A * X = B  for X, where A is the decomposed matrix.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @param B     {@link MatrixReal} holding the right-hand sides.
+     * @return  solution X, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException     if {@code B} does not have as many rows as the decomposed matrix.
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    public MatrixReal solve( MatrixReal B )
+    {
+        return this.solveInplace( B.copy() );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Checks that a matrix has been decomposed.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    private void assertDecomposed()
+    {
+        if( !this.decomposed ) {
+            throw new IllegalStateException( "No matrix has been decomposed." );
+        }
+    }
+    
+    
+    /**
+     * Checks that a non-singular matrix has been decomposed.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    private void assertSolvable()
+    {
+        this.assertDecomposed();
+        if( this.singular ) {
+            throw new IllegalStateException( "Matrix is singular." );
+        }
+    }
+    
+}
@@ -0,0 +1,443 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+
+
+
+/**
+ * Implements square band matrices with real entries, storing only the entries inside the band.
+ * <p>
+ * A band matrix with lower bandwidth kl and upper bandwidth ku has non-zero entries only in the kl diagonals below the main diagonal, the main diagonal, and the ku diagonals above it.
+ * Following the band layout of LAPACK, the band is stored as a compact rectangular array with one slot per diagonal,
+ * but row after row instead of column after column, so that each row of the band is contiguous:
+ * entry ( i , j ) with  -kl <= j-i <= ku  is stored at position  i * ( kl + ku + 1 ) + ( j - i + kl ).
+ * The slots of the first and last rows that fall outside the matrix are kept at zero.
+ * <p>
+ * Storage, products and solves take O( n ( kl + ku ) ) memory and time, instead of the O( n^2 ) and O( n^3 ) of a full {@link MatrixReal}.
+ * Symmetric positive-definite band matrices are solved with {@link #choleskyDecomposition()} and
+ * {@link MatrixReal#divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace(BandMatrixReal)},
+ * and general band matrices with {@link BandLUDecomposition}.
+ * 
+ * @see TridiagonalMatrixReal
+ */
+public class BandMatrixReal
+{
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Entries of the band, row after row.
+     * It is package-private so that {@link MatrixReal} and {@link BandLUDecomposition} can apply band solves.
+     */
+    final double[] x;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of rows and columns.
+     */
+    private final int n;
+    
+    /**
+     * Number of diagonals below the main diagonal.
+     */
+    private final int kl;
+    
+    /**
+     * Number of diagonals above the main diagonal.
+     */
+    private final int ku;
+    
+    /**
+     * Number of stored entries per row:  kl + ku + 1 .
+     */
+    private final int width;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of rows of {@code this}.
+     * 
+     * @return  number of rows of {@code this}.
+     */
+    public int rows()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Returns the number of columns of {@code this}.
+     * 
+     * @return  number of columns of {@code this}.
+     */
+    public int columns()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Returns the number of diagonals below the main diagonal.
+     * 
+     * @return  lower bandwidth of {@code this}.
+     */
+    public int lowerBandwidth()
+    {
+        return this.kl;
+    }
+    
+    
+    /**
+     * Returns the number of diagonals above the main diagonal.
+     * 
+     * @return  upper bandwidth of {@code this}.
+     */
+    public int upperBandwidth()
+    {
+        return this.ku;
+    }
+    
+    
+    /**
+     * Sets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to be set.
+     * @param j     column index of the entry to be set.
+     * @param value     new value for the entry to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range, or if the entry is outside the band of {@code this}.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        this.assertIndexBounds( i , j );
+        if( !this.isInBand( i , j ) ) {
+            throw new IllegalArgumentException( "Entry ( " + i + " , " + j + " ) is outside the band." );
+        }
+        this.x[ i * this.width + j - i + this.kl ] = value;
+    }
+    
+    
+    /**
+     * Gets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to get.
+     * @param j     column index of the entry to get.
+     * @return      value of the entry; zero if it is outside the band of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        this.assertIndexBounds( i , j );
+        return ( this.isInBand( i , j ) )?  this.x[ i * this.width + j - i + this.kl ]  :  0.0;
+    }
+    
+    
+    /**
+     * Returns a copy of {@code this}.
+     * 
+     * @return  new {@link BandMatrixReal} equal to {@code this}, not sharing its storage.
+     */
+    public BandMatrixReal copy()
+    {
+        return new BandMatrixReal( this.n , this.kl , this.ku , this.x.clone() );
+    }
+    
+    
+    /**
+     * Returns true if {@code other} has the same shape, bandwidths and entries as {@code this}.
+     * 
+     * @param other     {@link BandMatrixReal} to be compared with {@code this}.
+     * @return  true if {@code other} is equal to {@code this}; false otherwise.
+     */
+    public boolean equals( BandMatrixReal other )
+    {
+        return (  this.n == other.n  &&  this.kl == other.kl  &&  this.ku == other.ku  &&  Arrays.equals( this.x , other.x )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return this.toMatrixReal().toString();
+    }
+    
+    
+    /**
+     * Returns the equivalent full {@link MatrixReal}, with zeros outside the band.
+     * 
+     * @return  new {@link MatrixReal} equal to {@code this}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        MatrixReal output = MatrixReal.zero( this.n , this.n );
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=this.firstColumn( i ); j<=this.lastColumn( i ); j++ ) {
+                output.setEntry( i , j , this.x[ i * this.width + j - i + this.kl ] );
+            }
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a vector.
+     * 
+     * @param v     vector to be multiplied.
+     * @return  new array holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} does not match the columns of {@code this}.
+     */
+    public double[] multiply( double[] v )
+    {
+        return this.multiply( v , new double[ this.n ] );
+    }
+    
+    
+    /**
+     * Stores the product of {@code this} and a vector in {@code output}.
+     * 
+     * @param v     vector to be multiplied.
+     * @param output    array where the product is stored; it must be different from {@code v}.
+     * @return  {@code output}, holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} or {@code output} does not match the size of {@code this}, or if {@code output} is {@code v}.
+     */
+    public double[] multiply( double[] v , double[] output )
+    {
+        if(  v.length != this.n  ||  output.length != this.n  ) {
+            throw new IllegalArgumentException( "Vector lengths must be " + this.n + "; found " + v.length + " and " + output.length + "." );
+        }
+        if( v == output ) {
+            throw new IllegalArgumentException( "\"output\" must be different from \"v\"." );
+        }
+        for( int i=0; i<this.n; i++ ) {
+            final int offset = i * this.width - i + this.kl;
+            double sum = 0.0;
+            for( int j=this.firstColumn( i ); j<=this.lastColumn( i ); j++ ) {
+                sum += this.x[ offset + j ] * v[j];
+            }
+            output[i] = sum;
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a {@link MatrixReal}.
+     * 
+     * @param X     {@link MatrixReal} to be multiplied from the left by {@code this}.
+     * @return  new {@link MatrixReal} holding  {@code this} * X.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code X} do not match the columns of {@code this}.
+     */
+    public MatrixReal multiply( MatrixReal X )
+    {
+        if( X.rows() != this.n ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.n + " rows; found " + X.size() + "." );
+        }
+        final int m = X.columns();
+        MatrixReal output = MatrixReal.empty( this.n , m );
+        double[] row = new double[ m ];
+        for( int i=0; i<this.n; i++ ) {
+            final int offset = i * this.width - i + this.kl;
+            Arrays.fill( row , 0.0 );
+            for( int j=this.firstColumn( i ); j<=this.lastColumn( i ); j++ ) {
+                final double aij = this.x[ offset + j ];
+                for( int c=0; c<m; c++ ) {
+                    row[c] += aij * X.entry( j , c );
+                }
+            }
+            for( int c=0; c<m; c++ ) {
+                output.setEntry( i , c , row[c] );
+            }
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Performs a Cholesky decomposition of the form A = L L^T, where L is a lower band matrix.
+     * <p>
+     * The lower bandwidth of L is the lower bandwidth of {@code this}, and no fill-in is produced outside of it.
+     * The algorithm only considers the entries on the diagonal and below it, and assumes that the band is symmetric.
+     * The user is responsible for calling this method on a symmetric matrix.
+     * 
+     * @return  new lower {@link BandMatrixReal} L holding the Cholesky decomposition of {@code this}.
+     * 
+     * @throws IllegalArgumentException if {@code this} is not positive-definite, or if NaNs are found.
+     */
+    public BandMatrixReal choleskyDecomposition()
+    {
+        BandMatrixReal L = BandMatrixReal.zero( this.n , this.kl , 0 );
+        final int w = L.width;
+        for( int i=0; i<this.n; i++ ) {
+            final int j0 = Math.max( 0 , i - this.kl );
+            for( int j=j0; j<=i; j++ ) {
+                double sum = this.x[ i * this.width + j - i + this.kl ];
+                for( int k=j0; k<j; k++ ) {
+                    sum -= L.x[ i * w + k - i + this.kl ] * L.x[ j * w + k - j + this.kl ];
+                }
+                if( j < i ) {
+                    L.x[ i * w + j - i + this.kl ] = sum / L.x[ j * w + this.kl ];
+                } else if( sum > 0.0 ) {
+                    L.x[ i * w + this.kl ] = Math.sqrt( sum );
+                } else {
+                    throw new IllegalArgumentException( "Matrix must be positive-definite." );
+                }
+            }
+        }
+        return L;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link BandMatrixReal} filled with zeros.
+     * 
+     * @param dimension     number of rows and columns.
+     * @param lowerBandwidth    number of diagonals below the main diagonal.
+     * @param upperBandwidth    number of diagonals above the main diagonal.
+     * @return  new zero {@link BandMatrixReal}.
+     * 
+     * @throws IllegalArgumentException     if a bandwidth is negative.
+     */
+    public static BandMatrixReal zero( int dimension , int lowerBandwidth , int upperBandwidth )
+    {
+        if(  lowerBandwidth < 0  ||  upperBandwidth < 0  ) {
+            throw new IllegalArgumentException( "Bandwidths must be non-negative; found " + lowerBandwidth + " and " + upperBandwidth + "." );
+        }
+        return new BandMatrixReal( dimension , lowerBandwidth , upperBandwidth , new double[ dimension * ( lowerBandwidth + upperBandwidth + 1 ) ] );
+    }
+    
+    
+    /**
+     * Returns a {@link BandMatrixReal} built from the band of a square {@link MatrixReal}.
+     * <p>
+     * The entries of {@code matrix} outside the band are ignored.
+     * 
+     * @param matrix    square {@link MatrixReal} whose band is read.
+     * @param lowerBandwidth    number of diagonals below the main diagonal.
+     * @param upperBandwidth    number of diagonals above the main diagonal.
+     * @return  new {@link BandMatrixReal}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not square, or if a bandwidth is negative.
+     */
+    public static BandMatrixReal fromMatrixReal( MatrixReal matrix , int lowerBandwidth , int upperBandwidth )
+    {
+        if( matrix.rows() != matrix.columns() ) {
+            throw new IllegalArgumentException( "Square matrix is required: " + matrix.size() + " is not square." );
+        }
+        BandMatrixReal output = BandMatrixReal.zero( matrix.rows() , lowerBandwidth , upperBandwidth );
+        for( int i=0; i<output.n; i++ ) {
+            for( int j=output.firstColumn( i ); j<=output.lastColumn( i ); j++ ) {
+                output.x[ i * output.width + j - i + output.kl ] = matrix.entry( i , j );
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link BandMatrixReal} over an existing band array, without copying it.
+     * 
+     * @param dimension     number of rows and columns.
+     * @param lowerBandwidth    number of diagonals below the main diagonal.
+     * @param upperBandwidth    number of diagonals above the main diagonal.
+     * @param band  entries of the band, row after row.
+     */
+    BandMatrixReal( int dimension , int lowerBandwidth , int upperBandwidth , double[] band )
+    {
+        this.n = dimension;
+        this.kl = lowerBandwidth;
+        this.ku = upperBandwidth;
+        this.width = lowerBandwidth + upperBandwidth + 1;
+        this.x = band;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the first column of the band in a given row.
+     * 
+     * @param i     row index.
+     * @return  first column of the band in row {@code i}.
+     */
+    int firstColumn( int i )
+    {
+        return Math.max( 0 , i - this.kl );
+    }
+    
+    
+    /**
+     * Returns the last column of the band in a given row.
+     * 
+     * @param i     row index.
+     * @return  last column of the band in row {@code i}.
+     */
+    int lastColumn( int i )
+    {
+        return Math.min( this.n - 1 , i + this.ku );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns true if the entry in row {@code i} and column {@code j} belongs to the band of {@code this}.
+     * 
+     * @param i     row index.
+     * @param j     column index.
+     * @return  true if the entry can be non-zero; false otherwise.
+     */
+    private boolean isInBand( int i , int j )
+    {
+        return (  -this.kl <= j - i  &&  j - i <= this.ku  );
+    }
+    
+    
+    /**
+     * Checks that both indices are in the range 0 , ... , n-1.
+     * 
+     * @param i     row index to check.
+     * @param j     column index to check.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private void assertIndexBounds( int i , int j )
+    {
+        if(  i < 0  ||  this.n <= i  ||  j < 0  ||  this.n <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for dimension " + this.n + "." );
+        }
+    }
+    
+}
@@ -0,0 +1,536 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+
+
+/**
+ * Implements block-diagonal matrices with real entries, storing only their diagonal blocks.
+ * <p>
+ * Blocks are independent of each other, so products, decompositions, inverses and solves are done block by block;
+ * when the total amount of work is large enough, the blocks are processed in parallel on the common fork-join pool
+ * (see {@link #setParallelThreshold(long)}).
+ * The dense matrix returned by {@link MatrixReal#blockDiagonal(List)} is only built on request, with {@link #toMatrixReal()}.
+ * <p>
+ * Blocks can be rectangular, although decompositions, inverses and solves require square blocks.
+ * The blocks are not copied: they are shared with the {@link List} used to build {@code this}, and can be accessed with {@link #block(int)}.
+ */
+public class BlockDiagonalMatrixReal
+{
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Default number of multiply-adds from which the blocks are processed in parallel; it is reached with about 150 blocks of size 6x6.
+     */
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 1L << 15;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Diagonal blocks, from top-left to bottom-right.
+     */
+    private final MatrixReal[] blocks;
+    
+    /**
+     * First row of each block, followed by the number of rows.
+     */
+    private final int[] rowOffsets;
+    
+    /**
+     * First column of each block, followed by the number of columns.
+     */
+    private final int[] columnOffsets;
+    
+    /**
+     * Number of multiply-adds of a cubic operation over all the blocks, used to decide whether to process them in parallel.
+     */
+    private final long work;
+    
+    /**
+     * Number of multiply-adds from which the blocks are processed in parallel.
+     */
+    private long parallelThreshold;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Sets the amount of work from which the blocks of {@code this} are processed in parallel.
+     * <p>
+     * The work is measured as the number of multiply-adds of a cubic operation over all the blocks, the sum of  r c max(r,c)  for r x c blocks.
+     * The default value is {@link #DEFAULT_PARALLEL_THRESHOLD}; 0 always processes the blocks in parallel, and {@link Long#MAX_VALUE} never does.
+     * The {@link BlockDiagonalMatrixReal}s returned by the operations of {@code this} inherit its threshold.
+     * 
+     * @param parallelThreshold     number of multiply-adds from which the blocks are processed in parallel.
+     * @return  {@code this}.
+     * 
+     * @throws IllegalArgumentException     if {@code parallelThreshold} is negative.
+     */
+    public BlockDiagonalMatrixReal setParallelThreshold( long parallelThreshold )
+    {
+        if( parallelThreshold < 0 ) {
+            throw new IllegalArgumentException( "Parallel threshold must be non-negative; found " + parallelThreshold + "." );
+        }
+        this.parallelThreshold = parallelThreshold;
+        return this;
+    }
+    
+    
+    /**
+     * Returns true if the blocks of {@code this} are processed in parallel.
+     * 
+     * @return  true if the amount of work of {@code this} reaches its parallel threshold; false otherwise.
+     */
+    public boolean isProcessedInParallel()
+    {
+        return ( this.work >= this.parallelThreshold );
+    }
+    
+    
+    /**
+     * Returns the number of rows of {@code this}.
+     * 
+     * @return  number of rows of {@code this}.
+     */
+    public int rows()
+    {
+        return this.rowOffsets[ this.blocks.length ];
+    }
+    
+    
+    /**
+     * Returns the number of columns of {@code this}.
+     * 
+     * @return  number of columns of {@code this}.
+     */
+    public int columns()
+    {
+        return this.columnOffsets[ this.blocks.length ];
+    }
+    
+    
+    /**
+     * Returns the number of diagonal blocks of {@code this}.
+     * 
+     * @return  number of diagonal blocks of {@code this}.
+     */
+    public int numberOfBlocks()
+    {
+        return this.blocks.length;
+    }
+    
+    
+    /**
+     * Returns the k-th diagonal block of {@code this}.
+     * <p>
+     * The block is not copied, so modifying it modifies {@code this}.
+     * 
+     * @param k     index of the block.
+     * @return  k-th diagonal block of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if {@code k} is out of range.
+     */
+    public MatrixReal block( int k )
+    {
+        if(  k < 0  ||  this.blocks.length <= k  ) {
+            throw new IllegalArgumentException( "Block index out of bounds: " + k + " not in 0..." + this.blocks.length );
+        }
+        return this.blocks[k];
+    }
+    
+    
+    /**
+     * Gets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to get.
+     * @param j     column index of the entry to get.
+     * @return      value of the entry; zero if it is outside the diagonal blocks.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        if(  i < 0  ||  this.rows() <= i  ||  j < 0  ||  this.columns() <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for size " + this.rows() + " x " + this.columns() + "." );
+        }
+        int k = Arrays.binarySearch( this.rowOffsets , i );
+        // Skip empty blocks starting at the same row, and map insertion points to the block containing i.
+        k = ( k < 0 )?  -k - 2  :  k;
+        while(  k < this.blocks.length - 1  &&  this.rowOffsets[ k + 1 ] <= i  ) {
+            k++;
+        }
+        int j0 = this.columnOffsets[k];
+        if(  j < j0  ||  this.columnOffsets[ k + 1 ] <= j  ) {
+            return 0.0;
+        }
+        return this.blocks[k].entry( i - this.rowOffsets[k] , j - j0 );
+    }
+    
+    
+    /**
+     * Returns a deep copy of {@code this}.
+     * 
+     * @return  new {@link BlockDiagonalMatrixReal} equal to {@code this}, not sharing its blocks.
+     */
+    public BlockDiagonalMatrixReal copy()
+    {
+        return this.map( MatrixReal::copy );
+    }
+    
+    
+    /**
+     * Returns true if {@code other} has the same blocks as {@code this}.
+     * 
+     * @param other     {@link BlockDiagonalMatrixReal} to be compared with {@code this}.
+     * @return  true if {@code other} is equal to {@code this}; false otherwise.
+     */
+    public boolean equals( BlockDiagonalMatrixReal other )
+    {
+        if( this.blocks.length != other.blocks.length ) {
+            return false;
+        }
+        for( int k=0; k<this.blocks.length; k++ ) {
+            if(  !this.blocks[k].size().equals( other.blocks[k].size() )  ||  !this.blocks[k].equals( other.blocks[k] )  ) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return this.toMatrixReal().toString();
+    }
+    
+    
+    /**
+     * Returns the equivalent dense {@link MatrixReal}.
+     * <p>
+     * This is the only operation that densifies {@code this}.
+     * 
+     * @return  new {@link MatrixReal} equal to {@code this}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        return MatrixReal.blockDiagonal( Arrays.asList( this.blocks ) );
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code this}.
+     * 
+     * @return  new {@link BlockDiagonalMatrixReal} whose blocks are the transposes of the blocks of {@code this}.
+     */
+    public BlockDiagonalMatrixReal transpose()
+    {
+        return this.map( MatrixReal::transpose );
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and another {@link BlockDiagonalMatrixReal} with a compatible partition.
+     * 
+     * @param other     right factor, whose k-th block has as many rows as the k-th block of {@code this} has columns.
+     * @return  new {@link BlockDiagonalMatrixReal} holding  {@code this} * {@code other}.
+     * 
+     * @throws IllegalArgumentException     if the partitions of {@code this} and {@code other} are not compatible.
+     */
+    public BlockDiagonalMatrixReal multiply( BlockDiagonalMatrixReal other )
+    {
+        if(  this.blocks.length != other.blocks.length  ||  !Arrays.equals( this.columnOffsets , other.rowOffsets )  ) {
+            throw new IllegalArgumentException( "Block partitions are not compatible." );
+        }
+        MatrixReal[] output = new MatrixReal[ this.blocks.length ];
+        this.forEachBlock( k -> output[k] = this.blocks[k].multiply( other.blocks[k] ) );
+        return new BlockDiagonalMatrixReal( output , this.parallelThreshold );
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a dense {@link MatrixReal}.
+     * 
+     * @param X     dense {@link MatrixReal} to be multiplied from the left by {@code this}.
+     * @return  new {@link MatrixReal} holding  {@code this} * X.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code X} do not match the columns of {@code this}.
+     */
+    public MatrixReal multiply( MatrixReal X )
+    {
+        if( X.rows() != this.columns() ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.columns() + " rows; found " + X.size() + "." );
+        }
+        MatrixReal output = MatrixReal.zero( this.rows() , X.columns() );
+        this.forEachBlock( k -> {
+            if(  this.blocks[k].rows() > 0  &&  this.blocks[k].columns() > 0  ) {
+                output.submatrixViewFromRows( this.rowOffsets[k] , this.blocks[k].rows() ).setToLeftTimesRight( this.blocks[k] , X.submatrixViewFromRows( this.columnOffsets[k] , this.blocks[k].columns() ) );
+            }
+        } );
+        return output;
+    }
+    
+    
+    /**
+     * Returns the determinant of {@code this}, which is the product of the determinants of its blocks.
+     * 
+     * @return  determinant of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if a block is not square.
+     */
+    public double determinant()
+    {
+        this.assertSquareBlocks();
+        double[] determinants = new double[ this.blocks.length ];
+        this.forEachBlock( k -> determinants[k] = this.blocks[k].determinant() );
+        double determinant = 1.0;
+        for( double d : determinants ) {
+            determinant *= d;
+        }
+        return determinant;
+    }
+    
+    
+    /**
+     * Performs a Cholesky decomposition of the form A = L L^T block by block.
+     * <p>
+     * Result is returned as a new instance. Each block is decomposed with {@link MatrixReal#choleskyDecomposition()}.
+     * 
+     * @return  new {@link BlockDiagonalMatrixReal} L holding the Cholesky decomposition of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if a block is not square, not positive-definite, or if NaNs are found.
+     */
+    public BlockDiagonalMatrixReal choleskyDecomposition()
+    {
+        this.assertSquareBlocks();
+        return this.map( MatrixReal::choleskyDecomposition );
+    }
+    
+    
+    /**
+     * Performs a Cholesky decomposition of the form A = L L^T block by block.
+     * <p>
+     * Operation done in-place. Each block is decomposed with {@link MatrixReal#choleskyDecompositionInplace()}.
+     * 
+     * @return  {@code this}, holding its Cholesky decomposition L.
+     * 
+     * @throws IllegalArgumentException     if a block is not square, not positive-definite, or if NaNs are found.
+     */
+    public BlockDiagonalMatrixReal choleskyDecompositionInplace()
+    {
+        this.assertSquareBlocks();
+        this.forEachBlock( k -> this.blocks[k].choleskyDecompositionInplace() );
+        return this;
+    }
+    
+    
+    /**
+     * Returns the inverse of {@code this}, which is block-diagonal with the inverses of its blocks.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @return  new {@link BlockDiagonalMatrixReal} holding the inverse of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if a block is not square.
+     * @throws IllegalStateException    if a block is singular.
+     */
+    public BlockDiagonalMatrixReal inverse()
+    {
+        this.assertSquareBlocks();
+        return this.map( MatrixReal::inverse );
+    }
+    
+    
+    /**
+     * Inverts {@code this} block by block.
+     * <p>
+     * Operation done in-place.
+     * 
+     * @return  {@code this}, holding its inverse.
+     * 
+     * @throws IllegalArgumentException     if a block is not square.
+     * @throws IllegalStateException    if a block is singular.
+     */
+    public BlockDiagonalMatrixReal inverseInplace()
+    {
+        this.assertSquareBlocks();
+        this.forEachBlock( k -> this.blocks[k].inverseInplace() );
+        return this;
+    }
+    
+    
+    /**
+     * Solves the equation  {@code this} * X = B  for X block by block.
+     * <p>
+     * Operation done in-place: {@code B} holds B on input and X on output.
+     * Each block of rows of B is solved with {@link MatrixReal#divideLeftInplace(MatrixReal)}.
+     * For positive-definite matrices, {@link MatrixReal#divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace(BlockDiagonalMatrixReal)} can be used instead.
+     * 
+     * @param B     {@link MatrixReal} holding the right-hand sides.
+     * @return  {@code B}, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if a block is not square, or if {@code B} does not have as many rows as {@code this}.
+     * @throws IllegalStateException    if a block is singular.
+     */
+    public MatrixReal solveInplace( MatrixReal B )
+    {
+        this.assertSquareBlocks();
+        if( B.rows() != this.rows() ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.rows() + " rows; found " + B.size() + "." );
+        }
+        this.forEachBlock( k -> {
+            if( this.blocks[k].rows() > 0 ) {
+                B.submatrixViewFromRows( this.rowOffsets[k] , this.blocks[k].rows() ).divideLeftInplace( this.blocks[k] );
+            }
+        } );
+        return B;
+    }
+    
+    
+    /**
+     * Solves the equation  {@code this} * X = B  for X block by block.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @param B     {@link MatrixReal} holding the right-hand sides.
+     * @return  solution X, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException     if a block is not square, or if {@code B} does not have as many rows as {@code this}.
+     * @throws IllegalStateException    if a block is singular.
+     */
+    public MatrixReal solve( MatrixReal B )
+    {
+        return this.solveInplace( B.copy() );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link BlockDiagonalMatrixReal} with the given diagonal blocks.
+     * <p>
+     * The blocks are not copied.
+     * 
+     * @param blocks    diagonal blocks, from top-left to bottom-right.
+     * @return  new {@link BlockDiagonalMatrixReal} sharing {@code blocks}.
+     */
+    public static BlockDiagonalMatrixReal fromBlocks( List<MatrixReal> blocks )
+    {
+        return new BlockDiagonalMatrixReal( blocks.toArray( new MatrixReal[ blocks.size() ] ) , DEFAULT_PARALLEL_THRESHOLD );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the first row of the k-th block.
+     * 
+     * @param k     index of the block.
+     * @return  first row of the k-th block.
+     */
+    int rowOffset( int k )
+    {
+        return this.rowOffsets[k];
+    }
+    
+    
+    /**
+     * Applies a task to each block index, in parallel if the total amount of work is large enough.
+     * 
+     * @param task  task applied to each block index.
+     */
+    void forEachBlock( IntConsumer task )
+    {
+        if( !this.isProcessedInParallel() ) {
+            for( int k=0; k<this.blocks.length; k++ ) {
+                task.accept( k );
+            }
+        } else {
+            IntStream.range( 0 , this.blocks.length ).parallel().forEach( task );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link BlockDiagonalMatrixReal} over an existing array of blocks, without copying it.
+     * 
+     * @param blocks    diagonal blocks, from top-left to bottom-right.
+     * @param parallelThreshold     number of multiply-adds from which the blocks are processed in parallel.
+     */
+    private BlockDiagonalMatrixReal( MatrixReal[] blocks , long parallelThreshold )
+    {
+        this.blocks = blocks;
+        this.rowOffsets = new int[ blocks.length + 1 ];
+        this.columnOffsets = new int[ blocks.length + 1 ];
+        long work = 0;
+        for( int k=0; k<blocks.length; k++ ) {
+            this.rowOffsets[ k + 1 ] = this.rowOffsets[k] + blocks[k].rows();
+            this.columnOffsets[ k + 1 ] = this.columnOffsets[k] + blocks[k].columns();
+            work += (long)blocks[k].rows() * blocks[k].columns() * Math.max( blocks[k].rows() , blocks[k].columns() );
+        }
+        this.work = work;
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link BlockDiagonalMatrixReal} whose blocks are obtained applying an operation to the blocks of {@code this}.
+     * 
+     * @param operation     operation applied to each block.
+     * @return  new {@link BlockDiagonalMatrixReal} with the resulting blocks.
+     */
+    private BlockDiagonalMatrixReal map( UnaryOperator<MatrixReal> operation )
+    {
+        MatrixReal[] output = new MatrixReal[ this.blocks.length ];
+        this.forEachBlock( k -> output[k] = operation.apply( this.blocks[k] ) );
+        return new BlockDiagonalMatrixReal( output , this.parallelThreshold );
+    }
+    
+    
+    /**
+     * Checks that all the blocks are square.
+     * 
+     * @throws IllegalArgumentException     if a block is not square.
+     */
+    private void assertSquareBlocks()
+    {
+        for( int k=0; k<this.blocks.length; k++ ) {
+            if( this.blocks[k].rows() != this.blocks[k].columns() ) {
+                throw new IllegalArgumentException( "Square blocks are required: block " + k + " is " + this.blocks[k].size() + "." );
+            }
+        }
+    }
+    
+}
@@ -297,11 +297,14 @@ public class ComplexNumber
      * {@inheritDoc}
      * <p>
      * Overridden method to make it more efficient.
+     * Any of {@code first} and {@code second} can be {@code this}.
      */
     public ComplexNumber setToProduct( ComplexNumber first , ComplexNumber second )
     {
-        this.x = first.re() * second.re()  -  first.im() * second.im();
-        this.y = first.re() * second.im()  +  first.im() * second.re();
+        double real = first.re() * second.re()  -  first.im() * second.im();
+        double imag = first.re() * second.im()  +  first.im() * second.re();
+        this.x = real;
+        this.y = imag;
         return this;
     }
     
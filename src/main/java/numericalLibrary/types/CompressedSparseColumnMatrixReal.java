@@ -0,0 +1,321 @@
+package numericalLibrary.types;
+
+
+
+/**
+ * Implements sparse matrices with real entries in compressed sparse column (CSC) format.
+ * <p>
+ * Only the non-zero entries are stored, column after column, sorted by row within each column.
+ * The compressed columns of a matrix are the compressed rows of its transpose,
+ * so {@code this} is stored as the {@link CompressedSparseRowMatrixReal} of its transpose, and {@link #transpose()} shares the storage.
+ * Consequently, products with the transpose of {@code this} gather each output entry from a single column and are split among several threads when they are large enough,
+ * while products with {@code this} scatter each column: when they are large enough, the columns are split among several tasks with their own output buffers, which are added at the end.
+ * The reduction needs one buffer of the size of the output per task, so for products that are repeated many times,
+ * converting once with {@link #toCompressedSparseRow()} gives the gathering products of {@link CompressedSparseRowMatrixReal}, which need no extra memory.
+ * None of the products densifies {@code this}.
+ * <p>
+ * Matrices are assembled with {@link SparseMatrixRealBuilder}, or converted with {@link #fromMatrixReal(MatrixReal)}.
+ * 
+ * @see CompressedSparseRowMatrixReal
+ */
+public class CompressedSparseColumnMatrixReal
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Transpose of {@code this}, whose compressed rows are the compressed columns of {@code this}.
+     */
+    private final CompressedSparseRowMatrixReal transposed;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of rows of {@code this}.
+     * 
+     * @return  number of rows of {@code this}.
+     */
+    public int rows()
+    {
+        return this.transposed.columns();
+    }
+    
+    
+    /**
+     * Returns the number of columns of {@code this}.
+     * 
+     * @return  number of columns of {@code this}.
+     */
+    public int columns()
+    {
+        return this.transposed.rows();
+    }
+    
+    
+    /**
+     * Returns the number of stored entries of {@code this}.
+     * 
+     * @return  number of stored entries of {@code this}.
+     */
+    public int nonZeros()
+    {
+        return this.transposed.nonZeros();
+    }
+    
+    
+    /**
+     * Sets the value of a stored entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to be set.
+     * @param j     column index of the entry to be set.
+     * @param value     new value for the entry to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range, or if the entry is not stored in {@code this}.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        this.assertIndexBounds( i , j );
+        this.transposed.setEntry( j , i , value );
+    }
+    
+    
+    /**
+     * Gets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to get.
+     * @param j     column index of the entry to get.
+     * @return      value of the entry; zero if it is not stored in {@code this}.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        this.assertIndexBounds( i , j );
+        return this.transposed.entry( j , i );
+    }
+    
+    
+    /**
+     * Returns a copy of {@code this}.
+     * 
+     * @return  new {@link CompressedSparseColumnMatrixReal} equal to {@code this}, not sharing its storage.
+     */
+    public CompressedSparseColumnMatrixReal copy()
+    {
+        return new CompressedSparseColumnMatrixReal( this.transposed.copy() );
+    }
+    
+    
+    /**
+     * Returns true if {@code other} has the same size, sparsity pattern and entries as {@code this}.
+     * 
+     * @param other     {@link CompressedSparseColumnMatrixReal} to be compared with {@code this}.
+     * @return  true if {@code other} is equal to {@code this}; false otherwise.
+     */
+    public boolean equals( CompressedSparseColumnMatrixReal other )
+    {
+        return this.transposed.equals( other.transposed );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return this.toCompressedSparseRow().toString();
+    }
+    
+    
+    /**
+     * Returns the equivalent dense {@link MatrixReal}.
+     * <p>
+     * This is the only operation that densifies {@code this}.
+     * 
+     * @return  new {@link MatrixReal} equal to {@code this}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        return this.transposed.toMatrixReal().transpose();
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code this}.
+     * <p>
+     * The returned {@link CompressedSparseRowMatrixReal} shares the storage of {@code this}, so no entries are copied.
+     * 
+     * @return  transpose of {@code this}, sharing its storage.
+     */
+    public CompressedSparseRowMatrixReal transpose()
+    {
+        return this.transposed;
+    }
+    
+    
+    /**
+     * Returns {@code this} in compressed sparse row format.
+     * <p>
+     * The conversion takes O( nonZeros + rows ) operations.
+     * 
+     * @return  new {@link CompressedSparseRowMatrixReal} equal to {@code this}.
+     */
+    public CompressedSparseRowMatrixReal toCompressedSparseRow()
+    {
+        return this.transposed.toCompressedSparseColumn().transpose();
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a vector.
+     * 
+     * @param v     vector to be multiplied.
+     * @return  new array holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} does not match the columns of {@code this}.
+     */
+    public double[] multiply( double[] v )
+    {
+        return this.transposed.multiplyTranspose( v );
+    }
+    
+    
+    /**
+     * Stores the product of {@code this} and a vector in {@code output}.
+     * <p>
+     * Each stored entry scatters into the output; columns are split among several tasks with their own output buffers if the product is large enough.
+     * 
+     * @param v     vector to be multiplied.
+     * @param output    array where the product is stored; it must be different from {@code v}.
+     * @return  {@code output}, holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the lengths of {@code v} or {@code output} do not match the size of {@code this}, or if {@code output} is {@code v}.
+     */
+    public double[] multiply( double[] v , double[] output )
+    {
+        return this.transposed.multiplyTranspose( v , output );
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a dense {@link MatrixReal}.
+     * <p>
+     * Each stored entry scatters a row of {@code X} into the output; columns are split among several tasks with their own output buffers if the product is large enough.
+     * 
+     * @param X     dense {@link MatrixReal} to be multiplied from the left by {@code this}.
+     * @return  new {@link MatrixReal} holding  {@code this} * X.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code X} do not match the columns of {@code this}.
+     */
+    public MatrixReal multiply( MatrixReal X )
+    {
+        return this.transposed.multiplyTranspose( X );
+    }
+    
+    
+    /**
+     * Returns the product of the transpose of {@code this} and a vector.
+     * 
+     * @param v     vector to be multiplied.
+     * @return  new array holding  {@code this}^T * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} does not match the rows of {@code this}.
+     */
+    public double[] multiplyTranspose( double[] v )
+    {
+        return this.transposed.multiply( v );
+    }
+    
+    
+    /**
+     * Stores the product of the transpose of {@code this} and a vector in {@code output}.
+     * <p>
+     * Columns are split among several threads if the product is large enough.
+     * 
+     * @param v     vector to be multiplied.
+     * @param output    array where the product is stored; it must be different from {@code v}.
+     * @return  {@code output}, holding  {@code this}^T * v.
+     * 
+     * @throws IllegalArgumentException     if the lengths of {@code v} or {@code output} do not match the size of {@code this}, or if {@code output} is {@code v}.
+     */
+    public double[] multiplyTranspose( double[] v , double[] output )
+    {
+        return this.transposed.multiply( v , output );
+    }
+    
+    
+    /**
+     * Returns the product of the transpose of {@code this} and a dense {@link MatrixReal}.
+     * <p>
+     * Columns are split among several threads if the product is large enough.
+     * 
+     * @param X     dense {@link MatrixReal} to be multiplied from the left by the transpose of {@code this}.
+     * @return  new {@link MatrixReal} holding  {@code this}^T * X.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code X} do not match the rows of {@code this}.
+     */
+    public MatrixReal multiplyTranspose( MatrixReal X )
+    {
+        return this.transposed.multiply( X );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link CompressedSparseColumnMatrixReal} with the non-zero entries of a dense {@link MatrixReal}.
+     * 
+     * @param matrix    dense {@link MatrixReal} to be compressed.
+     * @return  new {@link CompressedSparseColumnMatrixReal} equal to {@code matrix}.
+     */
+    public static CompressedSparseColumnMatrixReal fromMatrixReal( MatrixReal matrix )
+    {
+        return CompressedSparseRowMatrixReal.fromMatrixReal( matrix.transpose() ).transpose();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link CompressedSparseColumnMatrixReal} over the storage of its transpose, without copying it.
+     * 
+     * @param transposed    transpose of the matrix to be constructed.
+     */
+    CompressedSparseColumnMatrixReal( CompressedSparseRowMatrixReal transposed )
+    {
+        this.transposed = transposed;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Checks that the indices are in range.
+     * 
+     * @param i     row index to check.
+     * @param j     column index to check.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private void assertIndexBounds( int i , int j )
+    {
+        if(  i < 0  ||  this.rows() <= i  ||  j < 0  ||  this.columns() <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for size " + this.rows() + " x " + this.columns() + "." );
+        }
+    }
+    
+}
@@ -0,0 +1,619 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+
+
+/**
+ * Implements sparse matrices with real entries in compressed sparse row (CSR) format.
+ * <p>
+ * Only the non-zero entries are stored, row after row: the entries of row i are at positions
+ * {@code rowPointers[i]} , ... , {@code rowPointers[i+1]-1} of {@code columnIndices} and {@code values}, sorted by column.
+ * Products with vectors and dense {@link MatrixReal}s gather each output entry from a single row,
+ * so they are split among several threads when they are large enough.
+ * Products with the transpose of {@code this} scatter each stored entry; when they are large enough, the rows are split among several tasks with their own output buffers,
+ * which are added at the end. None of the products densifies {@code this}.
+ * <p>
+ * The sparsity pattern is fixed once built: {@link #setEntry(int, int, double)} can only modify stored entries,
+ * which suits Jacobians that are refilled with new values at every iteration.
+ * Matrices are assembled with {@link SparseMatrixRealBuilder}, or converted with {@link #fromMatrixReal(MatrixReal)}.
+ * 
+ * @see CompressedSparseColumnMatrixReal
+ */
+public class CompressedSparseRowMatrixReal
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of multiply-adds from which a product is split among several threads.
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 18;
+    
+    /**
+     * Number of rows processed by each task of a parallel product.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 1024;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Position in {@link #columnIndices} and {@link #values} of the first entry of each row, followed by the number of stored entries.
+     */
+    private final int[] rowPointers;
+    
+    /**
+     * Column of each stored entry.
+     */
+    private final int[] columnIndices;
+    
+    /**
+     * Value of each stored entry.
+     */
+    private final double[] values;
+    
+    /**
+     * Number of rows.
+     */
+    private final int nRows;
+    
+    /**
+     * Number of columns.
+     */
+    private final int nCols;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of rows of {@code this}.
+     * 
+     * @return  number of rows of {@code this}.
+     */
+    public int rows()
+    {
+        return this.nRows;
+    }
+    
+    
+    /**
+     * Returns the number of columns of {@code this}.
+     * 
+     * @return  number of columns of {@code this}.
+     */
+    public int columns()
+    {
+        return this.nCols;
+    }
+    
+    
+    /**
+     * Returns the number of stored entries of {@code this}.
+     * 
+     * @return  number of stored entries of {@code this}.
+     */
+    public int nonZeros()
+    {
+        return this.rowPointers[ this.nRows ];
+    }
+    
+    
+    /**
+     * Sets the value of a stored entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to be set.
+     * @param j     column index of the entry to be set.
+     * @param value     new value for the entry to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range, or if the entry is not stored in {@code this}.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        this.assertIndexBounds( i , j );
+        int position = this.position( i , j );
+        if( position < 0 ) {
+            throw new IllegalArgumentException( "Entry ( " + i + " , " + j + " ) is not stored." );
+        }
+        this.values[ position ] = value;
+    }
+    
+    
+    /**
+     * Gets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to get.
+     * @param j     column index of the entry to get.
+     * @return      value of the entry; zero if it is not stored in {@code this}.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        this.assertIndexBounds( i , j );
+        int position = this.position( i , j );
+        return ( position < 0 )?  0.0  :  this.values[ position ];
+    }
+    
+    
+    /**
+     * Returns a copy of {@code this}.
+     * 
+     * @return  new {@link CompressedSparseRowMatrixReal} equal to {@code this}, not sharing its storage.
+     */
+    public CompressedSparseRowMatrixReal copy()
+    {
+        return new CompressedSparseRowMatrixReal( this.nRows , this.nCols , this.rowPointers.clone() , this.columnIndices.clone() , this.values.clone() );
+    }
+    
+    
+    /**
+     * Returns true if {@code other} has the same size, sparsity pattern and entries as {@code this}.
+     * 
+     * @param other     {@link CompressedSparseRowMatrixReal} to be compared with {@code this}.
+     * @return  true if {@code other} is equal to {@code this}; false otherwise.
+     */
+    public boolean equals( CompressedSparseRowMatrixReal other )
+    {
+        return (  this.nRows == other.nRows  &&  this.nCols == other.nCols  &&
+                Arrays.equals( this.rowPointers , other.rowPointers )  &&
+                Arrays.equals( this.columnIndices , other.columnIndices )  &&
+                Arrays.equals( this.values , other.values )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( this.nRows + " x " + this.nCols + " , " + this.nonZeros() + " stored entries\n" );
+        for( int i=0; i<this.nRows; i++ ) {
+            for( int p=this.rowPointers[i]; p<this.rowPointers[ i + 1 ]; p++ ) {
+                sb.append( "( " + i + " , " + this.columnIndices[p] + " )  " + this.values[p] + "\n" );
+            }
+        }
+        return sb.toString();
+    }
+    
+    
+    /**
+     * Returns the equivalent dense {@link MatrixReal}.
+     * <p>
+     * This is the only operation that densifies {@code this}.
+     * 
+     * @return  new {@link MatrixReal} equal to {@code this}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        MatrixReal output = MatrixReal.zero( this.nRows , this.nCols );
+        for( int i=0; i<this.nRows; i++ ) {
+            for( int p=this.rowPointers[i]; p<this.rowPointers[ i + 1 ]; p++ ) {
+                output.setEntry( i , this.columnIndices[p] , this.values[p] );
+            }
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code this}.
+     * <p>
+     * The compressed rows of {@code this} are the compressed columns of its transpose,
+     * so the returned {@link CompressedSparseColumnMatrixReal} shares the storage of {@code this} and no entries are copied.
+     * 
+     * @return  transpose of {@code this}, sharing its storage.
+     */
+    public CompressedSparseColumnMatrixReal transpose()
+    {
+        return new CompressedSparseColumnMatrixReal( this );
+    }
+    
+    
+    /**
+     * Returns {@code this} in compressed sparse column format.
+     * <p>
+     * The conversion takes O( nonZeros + columns ) operations.
+     * 
+     * @return  new {@link CompressedSparseColumnMatrixReal} equal to {@code this}.
+     */
+    public CompressedSparseColumnMatrixReal toCompressedSparseColumn()
+    {
+        int nnz = this.nonZeros();
+        int[] columnPointers = new int[ this.nCols + 1 ];
+        for( int p=0; p<nnz; p++ ) {
+            columnPointers[ this.columnIndices[p] + 1 ]++;
+        }
+        for( int j=0; j<this.nCols; j++ ) {
+            columnPointers[ j + 1 ] += columnPointers[j];
+        }
+        int[] next = Arrays.copyOf( columnPointers , this.nCols );
+        int[] rowIndices = new int[ nnz ];
+        double[] values = new double[ nnz ];
+        for( int i=0; i<this.nRows; i++ ) {
+            for( int p=this.rowPointers[i]; p<this.rowPointers[ i + 1 ]; p++ ) {
+                int q = next[ this.columnIndices[p] ]++;
+                rowIndices[q] = i;
+                values[q] = this.values[p];
+            }
+        }
+        return new CompressedSparseRowMatrixReal( this.nCols , this.nRows , columnPointers , rowIndices , values ).transpose();
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a vector.
+     * 
+     * @param v     vector to be multiplied.
+     * @return  new array holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} does not match the columns of {@code this}.
+     */
+    public double[] multiply( double[] v )
+    {
+        return this.multiply( v , new double[ this.nRows ] );
+    }
+    
+    
+    /**
+     * Stores the product of {@code this} and a vector in {@code output}.
+     * <p>
+     * Rows are split among several threads if the product is large enough.
+     * 
+     * @param v     vector to be multiplied.
+     * @param output    array where the product is stored; it must be different from {@code v}.
+     * @return  {@code output}, holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the lengths of {@code v} or {@code output} do not match the size of {@code this}, or if {@code output} is {@code v}.
+     */
+    public double[] multiply( double[] v , double[] output )
+    {
+        if(  v.length != this.nCols  ||  output.length != this.nRows  ) {
+            throw new IllegalArgumentException( "Vector lengths must be " + this.nCols + " and " + this.nRows + "; found " + v.length + " and " + output.length + "." );
+        }
+        if( v == output ) {
+            throw new IllegalArgumentException( "\"output\" must be different from \"v\"." );
+        }
+        this.forEachRowChunk( 1 , ( from , to ) -> {
+            for( int i=from; i<to; i++ ) {
+                double sum = 0.0;
+                for( int p=this.rowPointers[i]; p<this.rowPointers[ i + 1 ]; p++ ) {
+                    sum += this.values[p] * v[ this.columnIndices[p] ];
+                }
+                output[i] = sum;
+            }
+        } );
+        return output;
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a dense {@link MatrixReal}.
+     * <p>
+     * Rows are split among several threads if the product is large enough.
+     * 
+     * @param X     dense {@link MatrixReal} to be multiplied from the left by {@code this}.
+     * @return  new {@link MatrixReal} holding  {@code this} * X.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code X} do not match the columns of {@code this}.
+     */
+    public MatrixReal multiply( MatrixReal X )
+    {
+        if( X.rows() != this.nCols ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.nCols + " rows; found " + X.size() + "." );
+        }
+        final int m = X.columns();
+        MatrixReal output = MatrixReal.zero( this.nRows , m );
+        this.forEachRowChunk( m , ( from , to ) -> {
+            double[] row = new double[ m ];
+            for( int i=from; i<to; i++ ) {
+                Arrays.fill( row , 0.0 );
+                for( int p=this.rowPointers[i]; p<this.rowPointers[ i + 1 ]; p++ ) {
+                    final double aik = this.values[p];
+                    final int k = this.columnIndices[p];
+                    for( int c=0; c<m; c++ ) {
+                        row[c] += aik * X.entry( k , c );
+                    }
+                }
+                for( int c=0; c<m; c++ ) {
+                    output.setEntry( i , c , row[c] );
+                }
+            }
+        } );
+        return output;
+    }
+    
+    
+    /**
+     * Returns the product of the transpose of {@code this} and a vector.
+     * 
+     * @param v     vector to be multiplied.
+     * @return  new array holding  {@code this}^T * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} does not match the rows of {@code this}.
+     */
+    public double[] multiplyTranspose( double[] v )
+    {
+        return this.multiplyTranspose( v , new double[ this.nCols ] );
+    }
+    
+    
+    /**
+     * Stores the product of the transpose of {@code this} and a vector in {@code output}.
+     * <p>
+     * Each stored entry scatters into the output. If the product is large enough, the rows are split among several tasks,
+     * each of which scatters into its own buffer, and the buffers are added at the end in a fixed order, so the result does not depend on thread scheduling.
+     * 
+     * @param v     vector to be multiplied.
+     * @param output    array where the product is stored; it must be different from {@code v}.
+     * @return  {@code output}, holding  {@code this}^T * v.
+     * 
+     * @throws IllegalArgumentException     if the lengths of {@code v} or {@code output} do not match the size of {@code this}, or if {@code output} is {@code v}.
+     */
+    public double[] multiplyTranspose( double[] v , double[] output )
+    {
+        if(  v.length != this.nRows  ||  output.length != this.nCols  ) {
+            throw new IllegalArgumentException( "Vector lengths must be " + this.nRows + " and " + this.nCols + "; found " + v.length + " and " + output.length + "." );
+        }
+        if( v == output ) {
+            throw new IllegalArgumentException( "\"output\" must be different from \"v\"." );
+        }
+        final int nTasks = this.numberOfScatterTasks( 1 );
+        if( nTasks == 1 ) {
+            Arrays.fill( output , 0.0 );
+            this.scatterTransposeProduct( v , output , 0 , this.nRows );
+            return output;
+        }
+        final double[][] partial = new double[ nTasks ][];
+        IntStream.range( 0 , nTasks ).parallel().forEach( t -> {
+            double[] buffer = new double[ this.nCols ];
+            this.scatterTransposeProduct( v , buffer , this.firstRowOfScatterTask( t , nTasks ) , this.firstRowOfScatterTask( t + 1 , nTasks ) );
+            partial[t] = buffer;
+        } );
+        int nChunks = ( this.nCols + PARALLEL_CHUNK_SIZE - 1 ) / PARALLEL_CHUNK_SIZE;
+        IntStream.range( 0 , nChunks ).parallel().forEach( c -> {
+            for( int j=c*PARALLEL_CHUNK_SIZE; j<Math.min( this.nCols , ( c + 1 ) * PARALLEL_CHUNK_SIZE ); j++ ) {
+                double sum = 0.0;
+                for( int t=0; t<nTasks; t++ ) {
+                    sum += partial[t][j];
+                }
+                output[j] = sum;
+            }
+        } );
+        return output;
+    }
+    
+    
+    /**
+     * Returns the product of the transpose of {@code this} and a dense {@link MatrixReal}.
+     * <p>
+     * Each stored entry scatters a row of {@code X} into the output. If the product is large enough, the rows of {@code this} are split among several tasks,
+     * each of which scatters into its own buffer, and the buffers are added at the end in a fixed order, so the result does not depend on thread scheduling.
+     * 
+     * @param X     dense {@link MatrixReal} to be multiplied from the left by the transpose of {@code this}.
+     * @return  new {@link MatrixReal} holding  {@code this}^T * X.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code X} do not match the rows of {@code this}.
+     */
+    public MatrixReal multiplyTranspose( MatrixReal X )
+    {
+        if( X.rows() != this.nRows ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.nRows + " rows; found " + X.size() + "." );
+        }
+        final int m = X.columns();
+        final int nTasks = this.numberOfScatterTasks( m );
+        final double[][][] partial = new double[ nTasks ][][];
+        IntStream.range( 0 , nTasks ).parallel().forEach( t -> {
+            double[][] buffer = new double[ this.nCols ][ m ];
+            double[] row = new double[ m ];
+            for( int i=this.firstRowOfScatterTask( t , nTasks ); i<this.firstRowOfScatterTask( t + 1 , nTasks ); i++ ) {
+                if( this.rowPointers[i] == this.rowPointers[ i + 1 ] ) {
+                    continue;
+                }
+                for( int c=0; c<m; c++ ) {
+                    row[c] = X.entry( i , c );
+                }
+                for( int p=this.rowPointers[i]; p<this.rowPointers[ i + 1 ]; p++ ) {
+                    final double aik = this.values[p];
+                    final double[] target = buffer[ this.columnIndices[p] ];
+                    for( int c=0; c<m; c++ ) {
+                        target[c] += aik * row[c];
+                    }
+                }
+            }
+            partial[t] = buffer;
+        } );
+        MatrixReal output = MatrixReal.zero( this.nCols , m );
+        int nChunks = ( this.nCols + PARALLEL_CHUNK_SIZE - 1 ) / PARALLEL_CHUNK_SIZE;
+        IntStream.range( 0 , nChunks ).parallel().forEach( c -> {
+            for( int k=c*PARALLEL_CHUNK_SIZE; k<Math.min( this.nCols , ( c + 1 ) * PARALLEL_CHUNK_SIZE ); k++ ) {
+                for( int j=0; j<m; j++ ) {
+                    double sum = 0.0;
+                    for( int t=0; t<nTasks; t++ ) {
+                        sum += partial[t][k][j];
+                    }
+                    output.setEntry( k , j , sum );
+                }
+            }
+        } );
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link CompressedSparseRowMatrixReal} with the non-zero entries of a dense {@link MatrixReal}.
+     * 
+     * @param matrix    dense {@link MatrixReal} to be compressed.
+     * @return  new {@link CompressedSparseRowMatrixReal} equal to {@code matrix}.
+     */
+    public static CompressedSparseRowMatrixReal fromMatrixReal( MatrixReal matrix )
+    {
+        int[] rowPointers = new int[ matrix.rows() + 1 ];
+        for( int i=0; i<matrix.rows(); i++ ) {
+            rowPointers[ i + 1 ] = rowPointers[i];
+            for( int j=0; j<matrix.columns(); j++ ) {
+                if( matrix.entry( i , j ) != 0.0 ) {
+                    rowPointers[ i + 1 ]++;
+                }
+            }
+        }
+        int[] columnIndices = new int[ rowPointers[ matrix.rows() ] ];
+        double[] values = new double[ rowPointers[ matrix.rows() ] ];
+        int p = 0;
+        for( int i=0; i<matrix.rows(); i++ ) {
+            for( int j=0; j<matrix.columns(); j++ ) {
+                double value = matrix.entry( i , j );
+                if( value != 0.0 ) {
+                    columnIndices[p] = j;
+                    values[p++] = value;
+                }
+            }
+        }
+        return new CompressedSparseRowMatrixReal( matrix.rows() , matrix.columns() , rowPointers , columnIndices , values );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link CompressedSparseRowMatrixReal} over existing arrays, without copying them.
+     * 
+     * @param rows  number of rows.
+     * @param columns   number of columns.
+     * @param rowPointers   position of the first entry of each row, followed by the number of stored entries.
+     * @param columnIndices     column of each stored entry, sorted within each row.
+     * @param values    value of each stored entry.
+     */
+    CompressedSparseRowMatrixReal( int rows , int columns , int[] rowPointers , int[] columnIndices , double[] values )
+    {
+        this.nRows = rows;
+        this.nCols = columns;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the position in the storage of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index.
+     * @param j     column index.
+     * @return  position of the entry; negative if it is not stored.
+     */
+    private int position( int i , int j )
+    {
+        int position = Arrays.binarySearch( this.columnIndices , this.rowPointers[i] , this.rowPointers[ i + 1 ] , j );
+        return ( position < 0 )?  -1  :  position;
+    }
+    
+    
+    /**
+     * Adds the products of the rows  [ from , to )  of the transpose of {@code this} and the entries of {@code v} to {@code output}.
+     * 
+     * @param v     vector to be multiplied.
+     * @param output    array where the products are accumulated.
+     * @param from  first row of {@code this} to be scattered.
+     * @param to    row of {@code this} after the last one to be scattered.
+     */
+    private void scatterTransposeProduct( double[] v , double[] output , int from , int to )
+    {
+        for( int i=from; i<to; i++ ) {
+            final double vi = v[i];
+            for( int p=this.rowPointers[i]; p<this.rowPointers[ i + 1 ]; p++ ) {
+                output[ this.columnIndices[p] ] += this.values[p] * vi;
+            }
+        }
+    }
+    
+    
+    /**
+     * Returns the number of tasks among which the rows are split in a scattering product.
+     * <p>
+     * Each task needs its own output buffer, so there are at most as many tasks as threads in the common pool, and a single one if the product is small.
+     * 
+     * @param columnsPerEntry   number of multiply-adds done for each stored entry.
+     * @return  number of tasks of the scattering product.
+     */
+    private int numberOfScatterTasks( int columnsPerEntry )
+    {
+        if( (long)this.nonZeros() * columnsPerEntry < PARALLEL_THRESHOLD ) {
+            return 1;
+        }
+        int nChunks = ( this.nRows + PARALLEL_CHUNK_SIZE - 1 ) / PARALLEL_CHUNK_SIZE;
+        return Math.max( 1 , Math.min( nChunks , ForkJoinPool.getCommonPoolParallelism() ) );
+    }
+    
+    
+    /**
+     * Returns the first row processed by a task of a scattering product.
+     * 
+     * @param task  index of the task; {@code nTasks} gives the number of rows.
+     * @param nTasks    number of tasks of the product.
+     * @return  first row processed by {@code task}.
+     */
+    private int firstRowOfScatterTask( int task , int nTasks )
+    {
+        return (int)( (long)this.nRows * task / nTasks );
+    }
+    
+    
+    /**
+     * Applies a task to consecutive ranges of rows, in parallel if the amount of work is large enough.
+     * 
+     * @param columnsPerEntry   number of multiply-adds done for each stored entry.
+     * @param task  task applied to each range of rows [ from , to ).
+     */
+    private void forEachRowChunk( int columnsPerEntry , BiConsumer<Integer,Integer> task )
+    {
+        if( (long)this.nonZeros() * columnsPerEntry < PARALLEL_THRESHOLD ) {
+            task.accept( 0 , this.nRows );
+            return;
+        }
+        int nChunks = ( this.nRows + PARALLEL_CHUNK_SIZE - 1 ) / PARALLEL_CHUNK_SIZE;
+        IntStream.range( 0 , nChunks ).parallel().forEach( c -> task.accept( c * PARALLEL_CHUNK_SIZE , Math.min( this.nRows , ( c + 1 ) * PARALLEL_CHUNK_SIZE ) ) );
+    }
+    
+    
+    
+    /**
+     * Checks that the indices are in range.
+     * 
+     * @param i     row index to check.
+     * @param j     column index to check.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private void assertIndexBounds( int i , int j )
+    {
+        if(  i < 0  ||  this.nRows <= i  ||  j < 0  ||  this.nCols <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for size " + this.nRows + " x " + this.nCols + "." );
+        }
+    }
+    
+}
@@ -0,0 +1,555 @@
+package numericalLibrary.types;
+
+
+import java.util.stream.IntStream;
+
+
+
+/**
+ * Implements the LU decomposition with partial pivoting of square {@link MatrixReal}s, P A = L U.
+ * <p>
+ * The decomposition is computed by blocks of {@link #BLOCK_SIZE} columns:
+ * each panel is factorized with partial pivoting, and then the trailing submatrix is updated with a single rank-{@link #BLOCK_SIZE} product,
+ * which keeps the rows of the panel in cache and can be split among several threads.
+ * Rows are stored as separate arrays, so row interchanges only swap references.
+ * <p>
+ * A {@link LUDecomposition} owns its storage: it is allocated once for a given dimension,
+ * and can be reused to decompose several matrices and to solve several systems with the same matrix without further allocations,
+ * except for the workspace of the solves, which is reallocated only when the number of right-hand sides changes.
+ * 
+ * @see MatrixReal#determinant()
+ * @see MatrixReal#inverse()
+ */
+public class LUDecomposition
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of columns factorized in each panel.
+     */
+    private static final int BLOCK_SIZE = 64;
+    
+    /**
+     * Number of multiply-adds of a trailing update from which it is split among several threads, if requested.
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 18;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Dimension of the decomposed matrices.
+     */
+    private final int n;
+    
+    /**
+     * Rows of the factors: the strictly lower triangular part holds L, whose diagonal is made of ones, and the upper triangular part holds U.
+     */
+    private final double[][] lu;
+    
+    /**
+     * Row of the decomposed matrix that ends up in each row of the factors.
+     */
+    private final int[] permutation;
+    
+    /**
+     * Sign of the permutation: 1 for an even number of row interchanges, -1 for an odd one.
+     */
+    private int permutationSign;
+    
+    /**
+     * True if a zero pivot was found.
+     */
+    private boolean singular;
+    
+    /**
+     * Largest absolute value of the entries of the decomposed matrix, used as scale of the pivots.
+     */
+    private double maximumAbsoluteEntry;
+    
+    /**
+     * True if a matrix has been decomposed.
+     */
+    private boolean decomposed;
+    
+    /**
+     * Rows of the right-hand sides being solved; reallocated only when the number of right-hand sides changes.
+     */
+    private double[][] workspace;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link LUDecomposition} for square matrices of a given dimension.
+     * 
+     * @param dimension     number of rows and columns of the matrices to be decomposed.
+     */
+    public LUDecomposition( int dimension )
+    {
+        this.n = dimension;
+        this.lu = new double[ dimension ][ dimension ];
+        this.permutation = new int[ dimension ];
+        this.workspace = new double[ dimension ][ 0 ];
+        this.decomposed = false;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Computes the LU decomposition of a square {@link MatrixReal}.
+     * <p>
+     * {@code A} is not modified.
+     * 
+     * @param A     square {@link MatrixReal} to be decomposed.
+     * @return  {@code this}, holding the LU decomposition of {@code A}.
+     * 
+     * @throws IllegalArgumentException     if {@code A} does not have the dimension of {@code this}.
+     */
+    public LUDecomposition decompose( MatrixReal A )
+    {
+        return this.decompose( A , false );
+    }
+    
+    
+    /**
+     * Computes the LU decomposition of a square {@link MatrixReal}.
+     * <p>
+     * {@code A} is not modified.
+     * 
+     * @param A     square {@link MatrixReal} to be decomposed.
+     * @param parallel  true to split large trailing updates among several threads.
+     * @return  {@code this}, holding the LU decomposition of {@code A}.
+     * 
+     * @throws IllegalArgumentException     if {@code A} does not have the dimension of {@code this}.
+     */
+    public LUDecomposition decompose( MatrixReal A , boolean parallel )
+    {
+        if(  A.rows() != this.n  ||  A.columns() != this.n  ) {
+            throw new IllegalArgumentException( "Matrix must be " + this.n + " x " + this.n + "; found " + A.size() + "." );
+        }
+        double maximum = 0.0;
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<this.n; j++ ) {
+                this.lu[i][j] = A.entry( i , j );
+                maximum = Math.max( maximum , Math.abs( this.lu[i][j] ) );
+            }
+            this.permutation[i] = i;
+        }
+        this.maximumAbsoluteEntry = maximum;
+        this.permutationSign = 1;
+        this.singular = false;
+        for( int blockStart=0; blockStart<this.n; blockStart+=BLOCK_SIZE ) {
+            int blockEnd = Math.min( blockStart + BLOCK_SIZE , this.n );
+            this.factorizePanel( blockStart , blockEnd );
+            this.solveBlockRow( blockStart , blockEnd );
+            this.updateTrailingSubmatrix( blockStart , blockEnd , parallel );
+        }
+        this.decomposed = true;
+        return this;
+    }
+    
+    
+    /**
+     * Returns the dimension of the decomposed matrices.
+     * 
+     * @return  number of rows and columns of the decomposed matrices.
+     */
+    public int dimension()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Returns true if the decomposed matrix is singular, that is, if a pivot exactly equal to zero was found.
+     * <p>
+     * Only exact zero pivots are flagged: a matrix that is singular in exact arithmetic usually leaves tiny nonzero pivots due to rounding,
+     * and is then reported as regular, and solves return large meaningless values.
+     * Use {@link #isSingular(double)} to detect numerically singular matrices.
+     * 
+     * @return  true if the decomposed matrix is singular; false otherwise.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public boolean isSingular()
+    {
+        this.assertDecomposed();
+        return this.singular;
+    }
+    
+    
+    /**
+     * Returns true if the decomposed matrix is numerically singular, that is, if a pivot is small relative to the entries of the matrix.
+     * <p>
+     * A pivot  u_kk  is considered zero if  |u_kk| <= {@code relativeTolerance} * max_ij |a_ij|.
+     * A tolerance of the order of  n * {@code Math.ulp(1.0)}  flags the matrices that are singular up to rounding errors;
+     * larger tolerances also flag ill-conditioned matrices.
+     * 
+     * @param relativeTolerance     tolerance relative to the largest absolute entry of the decomposed matrix.
+     * @return  true if an exact zero pivot was found, or a pivot is below the tolerance; false otherwise.
+     * 
+     * @throws IllegalArgumentException     if {@code relativeTolerance} is negative or NaN.
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public boolean isSingular( double relativeTolerance )
+    {
+        if( !( relativeTolerance >= 0.0 ) ) {
+            throw new IllegalArgumentException( "Tolerance must be non-negative; found " + relativeTolerance + "." );
+        }
+        this.assertDecomposed();
+        if( this.singular ) {
+            return true;
+        }
+        double threshold = relativeTolerance * this.maximumAbsoluteEntry;
+        for( int i=0; i<this.n; i++ ) {
+            if( Math.abs( this.lu[i][i] ) <= threshold ) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    
+    /**
+     * Returns the determinant of the decomposed matrix.
+     * 
+     * @return  determinant of the decomposed matrix.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public double determinant()
+    {
+        this.assertDecomposed();
+        double determinant = this.permutationSign;
+        for( int i=0; i<this.n; i++ ) {
+            determinant *= this.lu[i][i];
+        }
+        return determinant;
+    }
+    
+    
+    /**
+     * Solves the equation  A * X = B  for X, where A is the decomposed matrix.
+     * <p>
+     * Operation done in-place: {@code B} holds B on input and X on output. All the columns of B are solved together.
+     * 
+     * @param B     {@link MatrixReal} holding the right-hand sides.
+     * @return  {@code B}, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if {@code B} does not have as many rows as the decomposed matrix.
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    public MatrixReal solveInplace( MatrixReal B )
+    {
+        this.assertDecomposed();
+        if( this.singular ) {
+            throw new IllegalStateException( "Matrix is singular." );
+        }
+        if( B.rows() != this.n ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.n + " rows; found " + B.size() + "." );
+        }
+        final int m = B.columns();
+        if(  this.n > 0  &&  this.workspace[0].length != m  ) {
+            this.workspace = new double[ this.n ][ m ];
+        }
+        final double[][] w = this.workspace;
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<m; j++ ) {
+                w[i][j] = B.entry( this.permutation[i] , j );
+            }
+        }
+        // Solve ( L * Y = P * B ).
+        for( int i=0; i<this.n; i++ ) {
+            final double[] luRow = this.lu[i];
+            final double[] wRow = w[i];
+            for( int k=0; k<i; k++ ) {
+                final double lik = luRow[k];
+                if( lik != 0.0 ) {
+                    final double[] wk = w[k];
+                    for( int j=0; j<m; j++ ) {
+                        wRow[j] -= lik * wk[j];
+                    }
+                }
+            }
+        }
+        // Solve ( U * X = Y ).
+        for( int i=this.n-1; i>-1; i-- ) {
+            final double[] luRow = this.lu[i];
+            final double[] wRow = w[i];
+            for( int k=i+1; k<this.n; k++ ) {
+                final double uik = luRow[k];
+                final double[] wk = w[k];
+                for( int j=0; j<m; j++ ) {
+                    wRow[j] -= uik * wk[j];
+                }
+            }
+            final double inverseUii = 1.0 / luRow[i];
+            for( int j=0; j<m; j++ ) {
+                wRow[j] *= inverseUii;
+            }
+        }
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<m; j++ ) {
+                B.setEntry( i , j , w[i][j] );
+            }
+        }
+        return B;
+    }
+    
+    
+    /**
+     * Solves the equation  A * X = B  for X, where A is the decomposed matrix.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @param B     {@link MatrixReal} holding the right-hand sides.
+     * @return  solution X, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException     if {@code B} does not have as many rows as the decomposed matrix.
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    public MatrixReal solve( MatrixReal B )
+    {
+        return this.solveInplace( B.copy() );
+    }
+    
+    
+    /**
+     * Stores the inverse of the decomposed matrix in {@code output}.
+     * 
+     * @param output    {@link MatrixReal} where the inverse is stored.
+     * @return  {@code output}, holding the inverse of the decomposed matrix.
+     * 
+     * @throws IllegalArgumentException     if {@code output} does not have the dimension of the decomposed matrix.
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    public MatrixReal inverse( MatrixReal output )
+    {
+        if(  output.rows() != this.n  ||  output.columns() != this.n  ) {
+            throw new IllegalArgumentException( "Matrix must be " + this.n + " x " + this.n + "; found " + output.size() + "." );
+        }
+        output.setToZero();
+        for( int i=0; i<this.n; i++ ) {
+            output.setEntry( i , i , 1.0 );
+        }
+        return this.solveInplace( output );
+    }
+    
+    
+    /**
+     * Returns the inverse of the decomposed matrix.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @return  inverse of the decomposed matrix.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed, or if the decomposed matrix is singular.
+     */
+    public MatrixReal inverse()
+    {
+        return this.inverse( MatrixReal.empty( this.n , this.n ) );
+    }
+    
+    
+    /**
+     * Returns the unit lower triangular factor L.
+     * 
+     * @return  new lower triangular {@link TriangularPackedMatrixReal} holding L.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public TriangularPackedMatrixReal getL()
+    {
+        this.assertDecomposed();
+        TriangularPackedMatrixReal L = TriangularPackedMatrixReal.lowerZero( this.n );
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<i; j++ ) {
+                L.setEntry( i , j , this.lu[i][j] );
+            }
+            L.setEntry( i , i , 1.0 );
+        }
+        return L;
+    }
+    
+    
+    /**
+     * Returns the upper triangular factor U.
+     * 
+     * @return  new upper triangular {@link TriangularPackedMatrixReal} holding U.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public TriangularPackedMatrixReal getU()
+    {
+        this.assertDecomposed();
+        TriangularPackedMatrixReal U = TriangularPackedMatrixReal.upperZero( this.n );
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=i; j<this.n; j++ ) {
+                U.setEntry( i , j , this.lu[i][j] );
+            }
+        }
+        return U;
+    }
+    
+    
+    /**
+     * Returns the row permutation, so that row {@code i} of  P A  is row {@code getPermutation()[i]} of A.
+     * 
+     * @return  new array with the row permutation.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    public int[] getPermutation()
+    {
+        this.assertDecomposed();
+        return this.permutation.clone();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Factorizes the columns  [ blockStart , blockEnd )  of the rows  [ blockStart , n )  with partial pivoting.
+     * <p>
+     * Row interchanges are applied to whole rows, and elimination is restricted to the columns of the panel.
+     * 
+     * @param blockStart    first column of the panel.
+     * @param blockEnd      column after the last one of the panel.
+     */
+    private void factorizePanel( int blockStart , int blockEnd )
+    {
+        for( int k=blockStart; k<blockEnd; k++ ) {
+            // Find the pivot.
+            int p = k;
+            double pivotAbs = Math.abs( this.lu[k][k] );
+            for( int i=k+1; i<this.n; i++ ) {
+                double candidateAbs = Math.abs( this.lu[i][k] );
+                if( candidateAbs > pivotAbs ) {
+                    pivotAbs = candidateAbs;
+                    p = i;
+                }
+            }
+            if( p != k ) {
+                double[] row = this.lu[p];
+                this.lu[p] = this.lu[k];
+                this.lu[k] = row;
+                int index = this.permutation[p];
+                this.permutation[p] = this.permutation[k];
+                this.permutation[k] = index;
+                this.permutationSign = -this.permutationSign;
+            }
+            final double[] pivotRow = this.lu[k];
+            if( pivotRow[k] == 0.0 ) {
+                this.singular = true;
+                continue;
+            }
+            // Eliminate below the pivot, within the panel.
+            final double inversePivot = 1.0 / pivotRow[k];
+            for( int i=k+1; i<this.n; i++ ) {
+                final double[] row = this.lu[i];
+                final double lik = row[k] * inversePivot;
+                row[k] = lik;
+                if( lik != 0.0 ) {
+                    for( int j=k+1; j<blockEnd; j++ ) {
+                        row[j] -= lik * pivotRow[j];
+                    }
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Computes the block row of U to the right of the panel, solving with the unit lower triangular factor of the panel.
+     * 
+     * @param blockStart    first column of the panel.
+     * @param blockEnd      column after the last one of the panel.
+     */
+    private void solveBlockRow( int blockStart , int blockEnd )
+    {
+        for( int i=blockStart+1; i<blockEnd; i++ ) {
+            final double[] row = this.lu[i];
+            for( int k=blockStart; k<i; k++ ) {
+                final double lik = row[k];
+                if( lik != 0.0 ) {
+                    final double[] pivotRow = this.lu[k];
+                    for( int j=blockEnd; j<this.n; j++ ) {
+                        row[j] -= lik * pivotRow[j];
+                    }
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Subtracts the product of the panel and the block row of U from the trailing submatrix.
+     * 
+     * @param blockStart    first column of the panel.
+     * @param blockEnd      column after the last one of the panel.
+     * @param parallel  true to split the update among several threads if it is large enough.
+     */
+    private void updateTrailingSubmatrix( int blockStart , int blockEnd , boolean parallel )
+    {
+        final long trailing = this.n - blockEnd;
+        if(  parallel  &&  trailing * trailing * ( blockEnd - blockStart ) >= PARALLEL_THRESHOLD  ) {
+            IntStream.range( blockEnd , this.n ).parallel().forEach( i -> this.updateTrailingRow( i , blockStart , blockEnd ) );
+        } else {
+            for( int i=blockEnd; i<this.n; i++ ) {
+                this.updateTrailingRow( i , blockStart , blockEnd );
+            }
+        }
+    }
+    
+    
+    /**
+     * Subtracts the product of a row of the panel and the block row of U from a row of the trailing submatrix.
+     * 
+     * @param i     row of the trailing submatrix.
+     * @param blockStart    first column of the panel.
+     * @param blockEnd      column after the last one of the panel.
+     */
+    private void updateTrailingRow( int i , int blockStart , int blockEnd )
+    {
+        final double[] row = this.lu[i];
+        for( int k=blockStart; k<blockEnd; k++ ) {
+            final double lik = row[k];
+            if( lik != 0.0 ) {
+                final double[] pivotRow = this.lu[k];
+                for( int j=blockEnd; j<this.n; j++ ) {
+                    row[j] -= lik * pivotRow[j];
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Checks that a matrix has been decomposed.
+     * 
+     * @throws IllegalStateException    if no matrix has been decomposed.
+     */
+    private void assertDecomposed()
+    {
+        if( !this.decomposed ) {
+            throw new IllegalStateException( "No matrix has been decomposed." );
+        }
+    }
+    
+}
@@ -0,0 +1,726 @@
+package numericalLibrary.types;
+
+
+import java.util.Random;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElement;
+import numericalLibrary.algebraicStructures.MetricSpaceElement;
+import numericalLibrary.algebraicStructures.MultiplicativeMagmaElement;
+import numericalLibrary.algebraicStructures.VectorSpaceElement;
+
+
+
+/**
+ * Implements 3x3 matrices with real entries.
+ * <p>
+ * Unlike {@link MatrixReal}, the entries are stored in fields and every operation is fully unrolled,
+ * so short-lived instances can be scalar-replaced by the JIT compiler.
+ * Each operation that returns a new instance has an in-place or "setTo" counterpart that does not allocate.
+ * 
+ * @see Matrix3x4
+ * @see Matrix4x3
+ */
+public class Matrix3
+    implements
+        AdditiveAbelianGroupElement<Matrix3>,
+        VectorSpaceElement<Matrix3>,
+        MetricSpaceElement<Matrix3>,
+        MultiplicativeMagmaElement<Matrix3>
+{
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Entries of the matrix; {@code mij} is the entry in row {@code i} and column {@code j}.
+     * They are package-private so that products with {@link Matrix3x4} and {@link Matrix4x3} can be unrolled.
+     */
+    double m00, m01, m02;
+    double m10, m11, m12;
+    double m20, m21, m22;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the entry in row {@code i} and column {@code j}.
+     * 
+     * @param i     row index, from 0 to 2.
+     * @param j     column index, from 0 to 2.
+     * @return  entry in row {@code i} and column {@code j}.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        switch( Matrix3.flatIndex( i , j ) ) {
+            case 0: return this.m00;
+            case 1: return this.m01;
+            case 2: return this.m02;
+            case 3: return this.m10;
+            case 4: return this.m11;
+            case 5: return this.m12;
+            case 6: return this.m20;
+            case 7: return this.m21;
+            default: return this.m22;
+        }
+    }
+    
+    
+    /**
+     * Sets the entry in row {@code i} and column {@code j}.
+     * 
+     * @param i     row index, from 0 to 2.
+     * @param j     column index, from 0 to 2.
+     * @param value     value to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        switch( Matrix3.flatIndex( i , j ) ) {
+            case 0: this.m00 = value; break;
+            case 1: this.m01 = value; break;
+            case 2: this.m02 = value; break;
+            case 3: this.m10 = value; break;
+            case 4: this.m11 = value; break;
+            case 5: this.m12 = value; break;
+            case 6: this.m20 = value; break;
+            case 7: this.m21 = value; break;
+            default: this.m22 = value; break;
+        }
+    }
+    
+    
+    /**
+     * Sets every entry of {@code this}, given in row-major order.
+     * 
+     * @return  {@code this} with the new entries.
+     */
+    public Matrix3 setEntries( double a00 , double a01 , double a02 ,
+                               double a10 , double a11 , double a12 ,
+                               double a20 , double a21 , double a22 )
+    {
+        this.m00 = a00;  this.m01 = a01;  this.m02 = a02;
+        this.m10 = a10;  this.m11 = a11;  this.m12 = a12;
+        this.m20 = a20;  this.m21 = a21;  this.m22 = a22;
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return String.format( " %15.6e %15.6e %15.6e\n %15.6e %15.6e %15.6e\n %15.6e %15.6e %15.6e\n\n" ,
+                this.m00 , this.m01 , this.m02 ,
+                this.m10 , this.m11 , this.m12 ,
+                this.m20 , this.m21 , this.m22 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals( Matrix3 other )
+    {
+        return (  this.m00 == other.m00  &&  this.m01 == other.m01  &&  this.m02 == other.m02  &&
+                  this.m10 == other.m10  &&  this.m11 == other.m11  &&  this.m12 == other.m12  &&
+                  this.m20 == other.m20  &&  this.m21 == other.m21  &&  this.m22 == other.m22  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * In particular, it is considered equal if for each entry, the absolute error | this_ij - other_ij | is below one of the thresholds:
+     * <ul>
+     * <li> toleranceAbsolute
+     * <li> toleranceRelative * 0.5 * ( |this_ij| + |other_ij| )
+     * </ul>
+     */
+    public boolean equalsApproximately( Matrix3 other , double toleranceAbsolute , double toleranceRelative )
+    {
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                double a = this.entry( i , j );
+                double b = other.entry( i , j );
+                double absoluteDifference = Math.abs( a - b );
+                if( !(  absoluteDifference <= toleranceAbsolute  ||
+                        absoluteDifference <= toleranceRelative * 0.5 * ( Math.abs( a ) + Math.abs( b ) )  ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isNaN()
+    {
+        return (  Double.isNaN( this.m00 )  ||  Double.isNaN( this.m01 )  ||  Double.isNaN( this.m02 )  ||
+                  Double.isNaN( this.m10 )  ||  Double.isNaN( this.m11 )  ||  Double.isNaN( this.m12 )  ||
+                  Double.isNaN( this.m20 )  ||  Double.isNaN( this.m21 )  ||  Double.isNaN( this.m22 )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 copy()
+    {
+        return Matrix3.zero().setTo( this );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 setTo( Matrix3 other )
+    {
+        return this.setEntries(
+                other.m00 , other.m01 , other.m02 ,
+                other.m10 , other.m11 , other.m12 ,
+                other.m20 , other.m21 , other.m22 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 add( Matrix3 other )
+    {
+        return this.copy().addInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 addInplace( Matrix3 other )
+    {
+        return this.setToSum( this , other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 setToSum( Matrix3 first , Matrix3 second )
+    {
+        return this.setEntries(
+                first.m00 + second.m00 , first.m01 + second.m01 , first.m02 + second.m02 ,
+                first.m10 + second.m10 , first.m11 + second.m11 , first.m12 + second.m12 ,
+                first.m20 + second.m20 , first.m21 + second.m21 , first.m22 + second.m22 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 subtract( Matrix3 other )
+    {
+        return this.copy().subtractInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 subtractInplace( Matrix3 other )
+    {
+        return this.setEntries(
+                this.m00 - other.m00 , this.m01 - other.m01 , this.m02 - other.m02 ,
+                this.m10 - other.m10 , this.m11 - other.m11 , this.m12 - other.m12 ,
+                this.m20 - other.m20 , this.m21 - other.m21 , this.m22 - other.m22 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 identityAdditive()
+    {
+        return Matrix3.zero();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 setToZero()
+    {
+        return this.setEntries( 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 inverseAdditive()
+    {
+        return this.scale( -1.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 inverseAdditiveInplace()
+    {
+        return this.scaleInplace( -1.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 scale( double scalar )
+    {
+        return this.copy().scaleInplace( scalar );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 scaleInplace( double scalar )
+    {
+        return this.setEntries(
+                scalar * this.m00 , scalar * this.m01 , scalar * this.m02 ,
+                scalar * this.m10 , scalar * this.m11 , scalar * this.m12 ,
+                scalar * this.m20 , scalar * this.m21 , scalar * this.m22 );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the identity matrix.
+     * 
+     * @return  {@code this} set to the identity matrix.
+     */
+    public Matrix3 setToOne()
+    {
+        return this.setEntries( 1.0 , 0.0 , 0.0 , 0.0 , 1.0 , 0.0 , 0.0 , 0.0 , 1.0 );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the identity matrix scaled by {@code scalar}.
+     * 
+     * @param scalar    value of the diagonal entries.
+     * @return  {@code this} set to the identity matrix scaled by {@code scalar}.
+     */
+    public Matrix3 setToScaledIdentity( double scalar )
+    {
+        return this.setEntries( scalar , 0.0 , 0.0 , 0.0 , scalar , 0.0 , 0.0 , 0.0 , scalar );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The multiplication is performed as  this * other.
+     */
+    public Matrix3 multiply( Matrix3 other )
+    {
+        return Matrix3.zero().setToProduct( this , other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3 multiplyInplace( Matrix3 other )
+    {
+        return this.setToProduct( this , other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * {@code this} can be one of the factors.
+     */
+    public Matrix3 setToProduct( Matrix3 first , Matrix3 second )
+    {
+        return this.setEntries(
+                first.m00 * second.m00 + first.m01 * second.m10 + first.m02 * second.m20 ,
+                first.m00 * second.m01 + first.m01 * second.m11 + first.m02 * second.m21 ,
+                first.m00 * second.m02 + first.m01 * second.m12 + first.m02 * second.m22 ,
+                first.m10 * second.m00 + first.m11 * second.m10 + first.m12 * second.m20 ,
+                first.m10 * second.m01 + first.m11 * second.m11 + first.m12 * second.m21 ,
+                first.m10 * second.m02 + first.m11 * second.m12 + first.m12 * second.m22 ,
+                first.m20 * second.m00 + first.m21 * second.m10 + first.m22 * second.m20 ,
+                first.m20 * second.m01 + first.m21 * second.m11 + first.m22 * second.m21 ,
+                first.m20 * second.m02 + first.m21 * second.m12 + first.m22 * second.m22 );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the product of a {@link Matrix3x4} and a {@link Matrix4x3}.
+     * <p>
+     * This is the form of the chain rule composing the Jacobian of a chart with the Jacobian of a chart inverse.
+     * 
+     * @param first     left factor.
+     * @param second    right factor.
+     * @return  {@code this} set to  first * second .
+     */
+    public Matrix3 setToProduct( Matrix3x4 first , Matrix4x3 second )
+    {
+        return this.setEntries(
+                first.m00 * second.m00 + first.m01 * second.m10 + first.m02 * second.m20 + first.m03 * second.m30 ,
+                first.m00 * second.m01 + first.m01 * second.m11 + first.m02 * second.m21 + first.m03 * second.m31 ,
+                first.m00 * second.m02 + first.m01 * second.m12 + first.m02 * second.m22 + first.m03 * second.m32 ,
+                first.m10 * second.m00 + first.m11 * second.m10 + first.m12 * second.m20 + first.m13 * second.m30 ,
+                first.m10 * second.m01 + first.m11 * second.m11 + first.m12 * second.m21 + first.m13 * second.m31 ,
+                first.m10 * second.m02 + first.m11 * second.m12 + first.m12 * second.m22 + first.m13 * second.m32 ,
+                first.m20 * second.m00 + first.m21 * second.m10 + first.m22 * second.m20 + first.m23 * second.m30 ,
+                first.m20 * second.m01 + first.m21 * second.m11 + first.m22 * second.m21 + first.m23 * second.m31 ,
+                first.m20 * second.m02 + first.m21 * second.m12 + first.m22 * second.m22 + first.m23 * second.m32 );
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code this} in a new instance.
+     * 
+     * @return  transpose of {@code this} in a new instance.
+     */
+    public Matrix3 transpose()
+    {
+        return Matrix3.zero().setToTransposeOf( this );
+    }
+    
+    
+    /**
+     * Transposes {@code this}.
+     * 
+     * @return  {@code this} transposed.
+     */
+    public Matrix3 transposeInplace()
+    {
+        return this.setToTransposeOf( this );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the transpose of another {@link Matrix3}.
+     * 
+     * @param other     {@link Matrix3} to be transposed. It can be {@code this}.
+     * @return  {@code this} set to the transpose of {@code other}.
+     */
+    public Matrix3 setToTransposeOf( Matrix3 other )
+    {
+        return this.setEntries(
+                other.m00 , other.m10 , other.m20 ,
+                other.m01 , other.m11 , other.m21 ,
+                other.m02 , other.m12 , other.m22 );
+    }
+    
+    
+    /**
+     * Returns the determinant of {@code this}.
+     * 
+     * @return  determinant of {@code this}.
+     */
+    public double determinant()
+    {
+        return ( this.m00 * ( this.m11 * this.m22 - this.m12 * this.m21 )
+               - this.m01 * ( this.m10 * this.m22 - this.m12 * this.m20 )
+               + this.m02 * ( this.m10 * this.m21 - this.m11 * this.m20 ) );
+    }
+    
+    
+    /**
+     * Returns the trace of {@code this}.
+     * 
+     * @return  trace of {@code this}.
+     */
+    public double trace()
+    {
+        return ( this.m00 + this.m11 + this.m22 );
+    }
+    
+    
+    /**
+     * Returns the inverse of {@code this} in a new instance.
+     * 
+     * @return  inverse of {@code this} in a new instance.
+     * 
+     * @see #setToInverseOf(Matrix3)
+     */
+    public Matrix3 inverse()
+    {
+        return Matrix3.zero().setToInverseOf( this );
+    }
+    
+    
+    /**
+     * Inverts {@code this}.
+     * 
+     * @return  {@code this} inverted.
+     * 
+     * @see #setToInverseOf(Matrix3)
+     */
+    public Matrix3 inverseInplace()
+    {
+        return this.setToInverseOf( this );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the inverse of another {@link Matrix3}.
+     * <p>
+     * The inverse is computed as the adjugate divided by the determinant.
+     * The entries of the inverse of a singular matrix are not finite.
+     * 
+     * @param other     {@link Matrix3} to be inverted. It can be {@code this}.
+     * @return  {@code this} set to the inverse of {@code other}.
+     */
+    public Matrix3 setToInverseOf( Matrix3 other )
+    {
+        double c00 = other.m11 * other.m22 - other.m12 * other.m21;
+        double c01 = other.m12 * other.m20 - other.m10 * other.m22;
+        double c02 = other.m10 * other.m21 - other.m11 * other.m20;
+        double inverseDeterminant = 1.0 / ( other.m00 * c00 + other.m01 * c01 + other.m02 * c02 );
+        return this.setEntries(
+                c00 * inverseDeterminant ,
+                ( other.m02 * other.m21 - other.m01 * other.m22 ) * inverseDeterminant ,
+                ( other.m01 * other.m12 - other.m02 * other.m11 ) * inverseDeterminant ,
+                c01 * inverseDeterminant ,
+                ( other.m00 * other.m22 - other.m02 * other.m20 ) * inverseDeterminant ,
+                ( other.m02 * other.m10 - other.m00 * other.m12 ) * inverseDeterminant ,
+                c02 * inverseDeterminant ,
+                ( other.m01 * other.m20 - other.m00 * other.m21 ) * inverseDeterminant ,
+                ( other.m00 * other.m11 - other.m01 * other.m10 ) * inverseDeterminant );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the matrix that computes the cross product with {@code v} from the left.
+     * <p>
+     * That is  [ v ]_x w = v x w .
+     * 
+     * @param v     {@link Vector3} that defines the cross product matrix.
+     * @return  {@code this} set to the cross product matrix of {@code v}.
+     */
+    public Matrix3 setToCrossProductMatrix( Vector3 v )
+    {
+        return this.setEntries(
+                0.0    , -v.z() ,  v.y() ,
+                v.z()  ,  0.0   , -v.x() ,
+               -v.y()  ,  v.x() ,  0.0   );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the outer product  a b^T .
+     * 
+     * @param a     left {@link Vector3}.
+     * @param b     right {@link Vector3}.
+     * @return  {@code this} set to  a b^T .
+     */
+    public Matrix3 setToOuterProduct( Vector3 a , Vector3 b )
+    {
+        return this.setEntries(
+                a.x() * b.x() , a.x() * b.y() , a.x() * b.z() ,
+                a.y() * b.x() , a.y() * b.y() , a.y() * b.z() ,
+                a.z() * b.x() , a.z() * b.y() , a.z() * b.z() );
+    }
+    
+    
+    /**
+     * Returns the result of applying {@code this} to a {@link Vector3} in a new {@link Vector3}.
+     * 
+     * @param v     {@link Vector3} to which {@code this} is applied.
+     * @return  {@code this} * {@code v} in a new {@link Vector3}.
+     */
+    public Vector3 applyToVector3( Vector3 v )
+    {
+        return this.applyToVector3( v , Vector3.zero() );
+    }
+    
+    
+    /**
+     * Applies {@code this} to a {@link Vector3}, storing the result in {@code output}.
+     * 
+     * @param v     {@link Vector3} to which {@code this} is applied.
+     * @param output    {@link Vector3} where the result is stored. It can be {@code v}.
+     * @return  {@code output}, holding {@code this} * {@code v}.
+     */
+    public Vector3 applyToVector3( Vector3 v , Vector3 output )
+    {
+        return output.setComponents(
+                this.m00 * v.x() + this.m01 * v.y() + this.m02 * v.z() ,
+                this.m10 * v.x() + this.m11 * v.y() + this.m12 * v.z() ,
+                this.m20 * v.x() + this.m21 * v.y() + this.m22 * v.z() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The distance is the Frobenius norm of the difference.
+     */
+    public double distanceFrom( Matrix3 other )
+    {
+        double d00 = this.m00 - other.m00;  double d01 = this.m01 - other.m01;  double d02 = this.m02 - other.m02;
+        double d10 = this.m10 - other.m10;  double d11 = this.m11 - other.m11;  double d12 = this.m12 - other.m12;
+        double d20 = this.m20 - other.m20;  double d21 = this.m21 - other.m21;  double d22 = this.m22 - other.m22;
+        return Math.sqrt( d00 * d00 + d01 * d01 + d02 * d02
+                        + d10 * d10 + d11 * d11 + d12 * d12
+                        + d20 * d20 + d21 * d21 + d22 * d22 );
+    }
+    
+    
+    /**
+     * Stores the entries of {@code this} in row-major order in an array.
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @param output    array where the entries are stored.
+     * @param offset    position of {@code output} where the first entry is stored.
+     * @return  {@code output}, with the 9 entries stored from position {@code offset}.
+     */
+    public double[] toFlatArray( double[] output , int offset )
+    {
+        output[ offset + 0 ] = this.m00;  output[ offset + 1 ] = this.m01;  output[ offset + 2 ] = this.m02;
+        output[ offset + 3 ] = this.m10;  output[ offset + 4 ] = this.m11;  output[ offset + 5 ] = this.m12;
+        output[ offset + 6 ] = this.m20;  output[ offset + 7 ] = this.m21;  output[ offset + 8 ] = this.m22;
+        return output;
+    }
+    
+    
+    /**
+     * Returns {@code this} as a new 3x3 {@link MatrixReal}.
+     * 
+     * @return  {@code this} as a new 3x3 {@link MatrixReal}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        return MatrixReal.fromEntries3x3(
+                this.m00 , this.m01 , this.m02 ,
+                this.m10 , this.m11 , this.m12 ,
+                this.m20 , this.m21 , this.m22 );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the zero matrix stored in a new instance.
+     * 
+     * @return  zero matrix stored in a new instance.
+     */
+    public static Matrix3 zero()
+    {
+        return new Matrix3();
+    }
+    
+    
+    /**
+     * Returns the identity matrix stored in a new instance.
+     * 
+     * @return  identity matrix stored in a new instance.
+     */
+    public static Matrix3 one()
+    {
+        return new Matrix3().setToOne();
+    }
+    
+    
+    /**
+     * Returns a new {@link Matrix3} constructed from its entries, given in row-major order.
+     * 
+     * @return  new {@link Matrix3} constructed from its entries.
+     */
+    public static Matrix3 fromEntries( double a00 , double a01 , double a02 ,
+                                       double a10 , double a11 , double a12 ,
+                                       double a20 , double a21 , double a22 )
+    {
+        return new Matrix3().setEntries( a00 , a01 , a02 , a10 , a11 , a12 , a20 , a21 , a22 );
+    }
+    
+    
+    /**
+     * Returns a new {@link Matrix3} with the entries of a 3x3 {@link MatrixReal}.
+     * 
+     * @param matrix    3x3 {@link MatrixReal}.
+     * @return  new {@link Matrix3} with the entries of {@code matrix}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not 3x3.
+     */
+    public static Matrix3 fromMatrixReal( MatrixReal matrix )
+    {
+        if( matrix.rows() != 3  ||  matrix.columns() != 3 ) {
+            throw new IllegalArgumentException( "Matrix3 requires a 3x3 matrix; found " + matrix.size() );
+        }
+        Matrix3 output = new Matrix3();
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                output.setEntry( i , j , matrix.entry( i , j ) );
+            }
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns a new random {@link Matrix3} with normally distributed entries sampled from {@link Random}.
+     * 
+     * @param randomNumberGenerator {@link Random} used to generate the entries of the returned {@link Matrix3}.
+     * @return  new random {@link Matrix3} with normally distributed entries sampled from {@link Random}.
+     */
+    public static Matrix3 random( Random randomNumberGenerator )
+    {
+        Matrix3 output = new Matrix3();
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                output.setEntry( i , j , randomNumberGenerator.nextGaussian() );
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a zero {@link Matrix3}.
+     */
+    private Matrix3()
+    {
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the row-major position of an entry.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private static int flatIndex( int i , int j )
+    {
+        if( i < 0  ||  i > 2  ||  j < 0  ||  j > 2 ) {
+            throw new IllegalArgumentException( "Index out of range of a 3x3 matrix; found (" + i + "," + j + ")" );
+        }
+        return 3*i + j;
+    }
+    
+}
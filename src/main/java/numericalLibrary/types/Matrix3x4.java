@@ -0,0 +1,549 @@
+package numericalLibrary.types;
+
+
+import java.util.Random;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElement;
+import numericalLibrary.algebraicStructures.MetricSpaceElement;
+import numericalLibrary.algebraicStructures.VectorSpaceElement;
+
+
+
+/**
+ * Implements 3x4 matrices with real entries.
+ * <p>
+ * It is the shape of the Jacobian of a chart of a {@link UnitQuaternion} atlas: 3d chart elements with respect to quaternion components.
+ * Like {@link Matrix3}, the entries are stored in fields and every operation is fully unrolled,
+ * so short-lived instances can be scalar-replaced by the JIT compiler.
+ * 
+ * @see Matrix3
+ * @see Matrix4x3
+ */
+public class Matrix3x4
+    implements
+        AdditiveAbelianGroupElement<Matrix3x4>,
+        VectorSpaceElement<Matrix3x4>,
+        MetricSpaceElement<Matrix3x4>
+{
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Entries of the matrix; {@code mij} is the entry in row {@code i} and column {@code j}.
+     * They are package-private so that products with {@link Matrix3} and {@link Matrix4x3} can be unrolled.
+     */
+    double m00, m01, m02, m03;
+    double m10, m11, m12, m13;
+    double m20, m21, m22, m23;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the entry in row {@code i} and column {@code j}.
+     * 
+     * @param i     row index, from 0 to 2.
+     * @param j     column index, from 0 to 3.
+     * @return  entry in row {@code i} and column {@code j}.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        switch( Matrix3x4.flatIndex( i , j ) ) {
+            case 0: return this.m00;
+            case 1: return this.m01;
+            case 2: return this.m02;
+            case 3: return this.m03;
+            case 4: return this.m10;
+            case 5: return this.m11;
+            case 6: return this.m12;
+            case 7: return this.m13;
+            case 8: return this.m20;
+            case 9: return this.m21;
+            case 10: return this.m22;
+            default: return this.m23;
+        }
+    }
+    
+    
+    /**
+     * Sets the entry in row {@code i} and column {@code j}.
+     * 
+     * @param i     row index, from 0 to 2.
+     * @param j     column index, from 0 to 3.
+     * @param value     value to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        switch( Matrix3x4.flatIndex( i , j ) ) {
+            case 0: this.m00 = value; break;
+            case 1: this.m01 = value; break;
+            case 2: this.m02 = value; break;
+            case 3: this.m03 = value; break;
+            case 4: this.m10 = value; break;
+            case 5: this.m11 = value; break;
+            case 6: this.m12 = value; break;
+            case 7: this.m13 = value; break;
+            case 8: this.m20 = value; break;
+            case 9: this.m21 = value; break;
+            case 10: this.m22 = value; break;
+            default: this.m23 = value; break;
+        }
+    }
+    
+    
+    /**
+     * Sets every entry of {@code this}, given in row-major order.
+     * 
+     * @return  {@code this} with the new entries.
+     */
+    public Matrix3x4 setEntries( double a00 , double a01 , double a02 , double a03 ,
+                                 double a10 , double a11 , double a12 , double a13 ,
+                                 double a20 , double a21 , double a22 , double a23 )
+    {
+        this.m00 = a00;  this.m01 = a01;  this.m02 = a02;  this.m03 = a03;
+        this.m10 = a10;  this.m11 = a11;  this.m12 = a12;  this.m13 = a13;
+        this.m20 = a20;  this.m21 = a21;  this.m22 = a22;  this.m23 = a23;
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return String.format( " %15.6e %15.6e %15.6e %15.6e\n %15.6e %15.6e %15.6e %15.6e\n %15.6e %15.6e %15.6e %15.6e\n\n" ,
+                this.m00 , this.m01 , this.m02 , this.m03 ,
+                this.m10 , this.m11 , this.m12 , this.m13 ,
+                this.m20 , this.m21 , this.m22 , this.m23 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals( Matrix3x4 other )
+    {
+        return (  this.m00 == other.m00  &&  this.m01 == other.m01  &&  this.m02 == other.m02  &&  this.m03 == other.m03  &&
+                  this.m10 == other.m10  &&  this.m11 == other.m11  &&  this.m12 == other.m12  &&  this.m13 == other.m13  &&
+                  this.m20 == other.m20  &&  this.m21 == other.m21  &&  this.m22 == other.m22  &&  this.m23 == other.m23  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * In particular, it is considered equal if for each entry, the absolute error | this_ij - other_ij | is below one of the thresholds:
+     * <ul>
+     * <li> toleranceAbsolute
+     * <li> toleranceRelative * 0.5 * ( |this_ij| + |other_ij| )
+     * </ul>
+     */
+    public boolean equalsApproximately( Matrix3x4 other , double toleranceAbsolute , double toleranceRelative )
+    {
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<4; j++ ) {
+                double a = this.entry( i , j );
+                double b = other.entry( i , j );
+                double absoluteDifference = Math.abs( a - b );
+                if( !(  absoluteDifference <= toleranceAbsolute  ||
+                        absoluteDifference <= toleranceRelative * 0.5 * ( Math.abs( a ) + Math.abs( b ) )  ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isNaN()
+    {
+        return (  Double.isNaN( this.m00 )  ||  Double.isNaN( this.m01 )  ||  Double.isNaN( this.m02 )  ||  Double.isNaN( this.m03 )  ||
+                  Double.isNaN( this.m10 )  ||  Double.isNaN( this.m11 )  ||  Double.isNaN( this.m12 )  ||  Double.isNaN( this.m13 )  ||
+                  Double.isNaN( this.m20 )  ||  Double.isNaN( this.m21 )  ||  Double.isNaN( this.m22 )  ||  Double.isNaN( this.m23 )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 copy()
+    {
+        return Matrix3x4.zero().setTo( this );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 setTo( Matrix3x4 other )
+    {
+        return this.setEntries(
+                other.m00 , other.m01 , other.m02 , other.m03 ,
+                other.m10 , other.m11 , other.m12 , other.m13 ,
+                other.m20 , other.m21 , other.m22 , other.m23 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 add( Matrix3x4 other )
+    {
+        return this.copy().addInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 addInplace( Matrix3x4 other )
+    {
+        return this.setToSum( this , other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 setToSum( Matrix3x4 first , Matrix3x4 second )
+    {
+        return this.setEntries(
+                first.m00 + second.m00 , first.m01 + second.m01 , first.m02 + second.m02 , first.m03 + second.m03 ,
+                first.m10 + second.m10 , first.m11 + second.m11 , first.m12 + second.m12 , first.m13 + second.m13 ,
+                first.m20 + second.m20 , first.m21 + second.m21 , first.m22 + second.m22 , first.m23 + second.m23 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 subtract( Matrix3x4 other )
+    {
+        return this.copy().subtractInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 subtractInplace( Matrix3x4 other )
+    {
+        return this.setEntries(
+                this.m00 - other.m00 , this.m01 - other.m01 , this.m02 - other.m02 , this.m03 - other.m03 ,
+                this.m10 - other.m10 , this.m11 - other.m11 , this.m12 - other.m12 , this.m13 - other.m13 ,
+                this.m20 - other.m20 , this.m21 - other.m21 , this.m22 - other.m22 , this.m23 - other.m23 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 identityAdditive()
+    {
+        return Matrix3x4.zero();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 setToZero()
+    {
+        return this.setEntries( 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 inverseAdditive()
+    {
+        return this.scale( -1.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 inverseAdditiveInplace()
+    {
+        return this.scaleInplace( -1.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 scale( double scalar )
+    {
+        return this.copy().scaleInplace( scalar );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix3x4 scaleInplace( double scalar )
+    {
+        return this.setEntries(
+                scalar * this.m00 , scalar * this.m01 , scalar * this.m02 , scalar * this.m03 ,
+                scalar * this.m10 , scalar * this.m11 , scalar * this.m12 , scalar * this.m13 ,
+                scalar * this.m20 , scalar * this.m21 , scalar * this.m22 , scalar * this.m23 );
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code this} in a new {@link Matrix4x3}.
+     * 
+     * @return  transpose of {@code this} in a new {@link Matrix4x3}.
+     */
+    public Matrix4x3 transpose()
+    {
+        return Matrix4x3.zero().setToTransposeOf( this );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the transpose of a {@link Matrix4x3}.
+     * 
+     * @param other     {@link Matrix4x3} to be transposed.
+     * @return  {@code this} set to the transpose of {@code other}.
+     */
+    public Matrix3x4 setToTransposeOf( Matrix4x3 other )
+    {
+        return this.setEntries(
+                other.m00 , other.m10 , other.m20 , other.m30 ,
+                other.m01 , other.m11 , other.m21 , other.m31 ,
+                other.m02 , other.m12 , other.m22 , other.m32 );
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a {@link Matrix4x3} in a new {@link Matrix3}.
+     * 
+     * @param other     right factor.
+     * @return  this * other  in a new {@link Matrix3}.
+     * 
+     * @see Matrix3#setToProduct(Matrix3x4, Matrix4x3)
+     */
+    public Matrix3 multiply( Matrix4x3 other )
+    {
+        return Matrix3.zero().setToProduct( this , other );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the product of a {@link Matrix3} and a {@link Matrix3x4}.
+     * 
+     * @param first     left factor.
+     * @param second    right factor. It can be {@code this}.
+     * @return  {@code this} set to  first * second .
+     */
+    public Matrix3x4 setToProduct( Matrix3 first , Matrix3x4 second )
+    {
+        return this.setEntries(
+                first.m00 * second.m00 + first.m01 * second.m10 + first.m02 * second.m20 , first.m00 * second.m01 + first.m01 * second.m11 + first.m02 * second.m21 , first.m00 * second.m02 + first.m01 * second.m12 + first.m02 * second.m22 , first.m00 * second.m03 + first.m01 * second.m13 + first.m02 * second.m23 ,
+                first.m10 * second.m00 + first.m11 * second.m10 + first.m12 * second.m20 , first.m10 * second.m01 + first.m11 * second.m11 + first.m12 * second.m21 , first.m10 * second.m02 + first.m11 * second.m12 + first.m12 * second.m22 , first.m10 * second.m03 + first.m11 * second.m13 + first.m12 * second.m23 ,
+                first.m20 * second.m00 + first.m21 * second.m10 + first.m22 * second.m20 , first.m20 * second.m01 + first.m21 * second.m11 + first.m22 * second.m21 , first.m20 * second.m02 + first.m21 * second.m12 + first.m22 * second.m22 , first.m20 * second.m03 + first.m21 * second.m13 + first.m22 * second.m23 );
+    }
+    
+    
+    /**
+     * Returns the result of applying {@code this} to the components of a {@link Quaternion} in a new {@link Vector3}.
+     * <p>
+     * The components are taken in the order  ( w , x , y , z ).
+     * 
+     * @param q     {@link Quaternion} to which {@code this} is applied.
+     * @return  {@code this} * {@code q} in a new {@link Vector3}.
+     */
+    public Vector3 applyToQuaternion( Quaternion q )
+    {
+        return this.applyToQuaternion( q , Vector3.zero() );
+    }
+    
+    
+    /**
+     * Applies {@code this} to the components of a {@link Quaternion}, storing the result in {@code output}.
+     * <p>
+     * The components are taken in the order  ( w , x , y , z ).
+     * 
+     * @param q     {@link Quaternion} to which {@code this} is applied.
+     * @param output    {@link Vector3} where the result is stored.
+     * @return  {@code output}, holding {@code this} * {@code q}.
+     */
+    public Vector3 applyToQuaternion( Quaternion q , Vector3 output )
+    {
+        return output.setComponents(
+                this.m00 * q.w() + this.m01 * q.x() + this.m02 * q.y() + this.m03 * q.z() ,
+                this.m10 * q.w() + this.m11 * q.x() + this.m12 * q.y() + this.m13 * q.z() ,
+                this.m20 * q.w() + this.m21 * q.x() + this.m22 * q.y() + this.m23 * q.z() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The distance is the Frobenius norm of the difference.
+     */
+    public double distanceFrom( Matrix3x4 other )
+    {
+        double distanceSquared = 0.0;
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<4; j++ ) {
+                double difference = this.entry( i , j ) - other.entry( i , j );
+                distanceSquared += difference * difference;
+            }
+        }
+        return Math.sqrt( distanceSquared );
+    }
+    
+    
+    /**
+     * Stores the entries of {@code this} in row-major order in an array.
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @param output    array where the entries are stored.
+     * @param offset    position of {@code output} where the first entry is stored.
+     * @return  {@code output}, with the 12 entries stored from position {@code offset}.
+     */
+    public double[] toFlatArray( double[] output , int offset )
+    {
+        output[ offset + 0 ] = this.m00;  output[ offset + 1 ] = this.m01;  output[ offset + 2 ] = this.m02;  output[ offset + 3 ] = this.m03;
+        output[ offset + 4 ] = this.m10;  output[ offset + 5 ] = this.m11;  output[ offset + 6 ] = this.m12;  output[ offset + 7 ] = this.m13;
+        output[ offset + 8 ] = this.m20;  output[ offset + 9 ] = this.m21;  output[ offset + 10 ] = this.m22;  output[ offset + 11 ] = this.m23;
+        return output;
+    }
+    
+    
+    /**
+     * Returns {@code this} as a new 3x4 {@link MatrixReal}.
+     * 
+     * @return  {@code this} as a new 3x4 {@link MatrixReal}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        MatrixReal output = MatrixReal.empty( 3 , 4 );
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<4; j++ ) {
+                output.setEntry( i , j , this.entry( i , j ) );
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the zero matrix stored in a new instance.
+     * 
+     * @return  zero matrix stored in a new instance.
+     */
+    public static Matrix3x4 zero()
+    {
+        return new Matrix3x4();
+    }
+    
+    
+    /**
+     * Returns a new {@link Matrix3x4} constructed from its entries, given in row-major order.
+     * 
+     * @return  new {@link Matrix3x4} constructed from its entries.
+     */
+    public static Matrix3x4 fromEntries( double a00 , double a01 , double a02 , double a03 ,
+                                         double a10 , double a11 , double a12 , double a13 ,
+                                         double a20 , double a21 , double a22 , double a23 )
+    {
+        return new Matrix3x4().setEntries( a00 , a01 , a02 , a03 , a10 , a11 , a12 , a13 , a20 , a21 , a22 , a23 );
+    }
+    
+    
+    /**
+     * Returns a new {@link Matrix3x4} with the entries of a 3x4 {@link MatrixReal}.
+     * 
+     * @param matrix    3x4 {@link MatrixReal}.
+     * @return  new {@link Matrix3x4} with the entries of {@code matrix}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not 3x4.
+     */
+    public static Matrix3x4 fromMatrixReal( MatrixReal matrix )
+    {
+        if( matrix.rows() != 3  ||  matrix.columns() != 4 ) {
+            throw new IllegalArgumentException( "Matrix3x4 requires a 3x4 matrix; found " + matrix.size() );
+        }
+        Matrix3x4 output = new Matrix3x4();
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<4; j++ ) {
+                output.setEntry( i , j , matrix.entry( i , j ) );
+            }
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns a new random {@link Matrix3x4} with normally distributed entries sampled from {@link Random}.
+     * 
+     * @param randomNumberGenerator {@link Random} used to generate the entries of the returned {@link Matrix3x4}.
+     * @return  new random {@link Matrix3x4} with normally distributed entries sampled from {@link Random}.
+     */
+    public static Matrix3x4 random( Random randomNumberGenerator )
+    {
+        Matrix3x4 output = new Matrix3x4();
+        for( int i=0; i<3; i++ ) {
+            for( int j=0; j<4; j++ ) {
+                output.setEntry( i , j , randomNumberGenerator.nextGaussian() );
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a zero {@link Matrix3x4}.
+     */
+    private Matrix3x4()
+    {
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the row-major position of an entry.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private static int flatIndex( int i , int j )
+    {
+        if( i < 0  ||  i > 2  ||  j < 0  ||  j > 3 ) {
+            throw new IllegalArgumentException( "Index out of range of a 3x4 matrix; found (" + i + "," + j + ")" );
+        }
+        return 4*i + j;
+    }
+    
+}
@@ -0,0 +1,550 @@
+package numericalLibrary.types;
+
+
+import java.util.Random;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElement;
+import numericalLibrary.algebraicStructures.MetricSpaceElement;
+import numericalLibrary.algebraicStructures.VectorSpaceElement;
+
+
+
+/**
+ * Implements 4x3 matrices with real entries.
+ * <p>
+ * It is the shape of the Jacobian of a chart inverse of a {@link UnitQuaternion} atlas: quaternion components with respect to 3d chart elements.
+ * Like {@link Matrix3}, the entries are stored in fields and every operation is fully unrolled,
+ * so short-lived instances can be scalar-replaced by the JIT compiler.
+ * 
+ * @see Matrix3
+ * @see Matrix3x4
+ */
+public class Matrix4x3
+    implements
+        AdditiveAbelianGroupElement<Matrix4x3>,
+        VectorSpaceElement<Matrix4x3>,
+        MetricSpaceElement<Matrix4x3>
+{
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Entries of the matrix; {@code mij} is the entry in row {@code i} and column {@code j}.
+     * They are package-private so that products with {@link Matrix3} and {@link Matrix3x4} can be unrolled.
+     */
+    double m00, m01, m02;
+    double m10, m11, m12;
+    double m20, m21, m22;
+    double m30, m31, m32;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the entry in row {@code i} and column {@code j}.
+     * 
+     * @param i     row index, from 0 to 3.
+     * @param j     column index, from 0 to 2.
+     * @return  entry in row {@code i} and column {@code j}.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        switch( Matrix4x3.flatIndex( i , j ) ) {
+            case 0: return this.m00;
+            case 1: return this.m01;
+            case 2: return this.m02;
+            case 3: return this.m10;
+            case 4: return this.m11;
+            case 5: return this.m12;
+            case 6: return this.m20;
+            case 7: return this.m21;
+            case 8: return this.m22;
+            case 9: return this.m30;
+            case 10: return this.m31;
+            default: return this.m32;
+        }
+    }
+    
+    
+    /**
+     * Sets the entry in row {@code i} and column {@code j}.
+     * 
+     * @param i     row index, from 0 to 3.
+     * @param j     column index, from 0 to 2.
+     * @param value     value to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        switch( Matrix4x3.flatIndex( i , j ) ) {
+            case 0: this.m00 = value; break;
+            case 1: this.m01 = value; break;
+            case 2: this.m02 = value; break;
+            case 3: this.m10 = value; break;
+            case 4: this.m11 = value; break;
+            case 5: this.m12 = value; break;
+            case 6: this.m20 = value; break;
+            case 7: this.m21 = value; break;
+            case 8: this.m22 = value; break;
+            case 9: this.m30 = value; break;
+            case 10: this.m31 = value; break;
+            default: this.m32 = value; break;
+        }
+    }
+    
+    
+    /**
+     * Sets every entry of {@code this}, given in row-major order.
+     * 
+     * @return  {@code this} with the new entries.
+     */
+    public Matrix4x3 setEntries( double a00 , double a01 , double a02 ,
+                                 double a10 , double a11 , double a12 ,
+                                 double a20 , double a21 , double a22 ,
+                                 double a30 , double a31 , double a32 )
+    {
+        this.m00 = a00;  this.m01 = a01;  this.m02 = a02;
+        this.m10 = a10;  this.m11 = a11;  this.m12 = a12;
+        this.m20 = a20;  this.m21 = a21;  this.m22 = a22;
+        this.m30 = a30;  this.m31 = a31;  this.m32 = a32;
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return String.format( " %15.6e %15.6e %15.6e\n %15.6e %15.6e %15.6e\n %15.6e %15.6e %15.6e\n %15.6e %15.6e %15.6e\n\n" ,
+                this.m00 , this.m01 , this.m02 ,
+                this.m10 , this.m11 , this.m12 ,
+                this.m20 , this.m21 , this.m22 ,
+                this.m30 , this.m31 , this.m32 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals( Matrix4x3 other )
+    {
+        return (  this.m00 == other.m00  &&  this.m01 == other.m01  &&  this.m02 == other.m02  &&
+                  this.m10 == other.m10  &&  this.m11 == other.m11  &&  this.m12 == other.m12  &&
+                  this.m20 == other.m20  &&  this.m21 == other.m21  &&  this.m22 == other.m22  &&
+                  this.m30 == other.m30  &&  this.m31 == other.m31  &&  this.m32 == other.m32  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * In particular, it is considered equal if for each entry, the absolute error | this_ij - other_ij | is below one of the thresholds:
+     * <ul>
+     * <li> toleranceAbsolute
+     * <li> toleranceRelative * 0.5 * ( |this_ij| + |other_ij| )
+     * </ul>
+     */
+    public boolean equalsApproximately( Matrix4x3 other , double toleranceAbsolute , double toleranceRelative )
+    {
+        for( int i=0; i<4; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                double a = this.entry( i , j );
+                double b = other.entry( i , j );
+                double absoluteDifference = Math.abs( a - b );
+                if( !(  absoluteDifference <= toleranceAbsolute  ||
+                        absoluteDifference <= toleranceRelative * 0.5 * ( Math.abs( a ) + Math.abs( b ) )  ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isNaN()
+    {
+        return (  Double.isNaN( this.m00 )  ||  Double.isNaN( this.m01 )  ||  Double.isNaN( this.m02 )  ||
+                  Double.isNaN( this.m10 )  ||  Double.isNaN( this.m11 )  ||  Double.isNaN( this.m12 )  ||
+                  Double.isNaN( this.m20 )  ||  Double.isNaN( this.m21 )  ||  Double.isNaN( this.m22 )  ||
+                  Double.isNaN( this.m30 )  ||  Double.isNaN( this.m31 )  ||  Double.isNaN( this.m32 )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 copy()
+    {
+        return Matrix4x3.zero().setTo( this );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 setTo( Matrix4x3 other )
+    {
+        return this.setEntries(
+                other.m00 , other.m01 , other.m02 ,
+                other.m10 , other.m11 , other.m12 ,
+                other.m20 , other.m21 , other.m22 ,
+                other.m30 , other.m31 , other.m32 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 add( Matrix4x3 other )
+    {
+        return this.copy().addInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 addInplace( Matrix4x3 other )
+    {
+        return this.setToSum( this , other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 setToSum( Matrix4x3 first , Matrix4x3 second )
+    {
+        return this.setEntries(
+                first.m00 + second.m00 , first.m01 + second.m01 , first.m02 + second.m02 ,
+                first.m10 + second.m10 , first.m11 + second.m11 , first.m12 + second.m12 ,
+                first.m20 + second.m20 , first.m21 + second.m21 , first.m22 + second.m22 ,
+                first.m30 + second.m30 , first.m31 + second.m31 , first.m32 + second.m32 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 subtract( Matrix4x3 other )
+    {
+        return this.copy().subtractInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 subtractInplace( Matrix4x3 other )
+    {
+        return this.setEntries(
+                this.m00 - other.m00 , this.m01 - other.m01 , this.m02 - other.m02 ,
+                this.m10 - other.m10 , this.m11 - other.m11 , this.m12 - other.m12 ,
+                this.m20 - other.m20 , this.m21 - other.m21 , this.m22 - other.m22 ,
+                this.m30 - other.m30 , this.m31 - other.m31 , this.m32 - other.m32 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 identityAdditive()
+    {
+        return Matrix4x3.zero();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 setToZero()
+    {
+        return this.setEntries( 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 , 0.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 inverseAdditive()
+    {
+        return this.scale( -1.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 inverseAdditiveInplace()
+    {
+        return this.scaleInplace( -1.0 );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 scale( double scalar )
+    {
+        return this.copy().scaleInplace( scalar );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Matrix4x3 scaleInplace( double scalar )
+    {
+        return this.setEntries(
+                scalar * this.m00 , scalar * this.m01 , scalar * this.m02 ,
+                scalar * this.m10 , scalar * this.m11 , scalar * this.m12 ,
+                scalar * this.m20 , scalar * this.m21 , scalar * this.m22 ,
+                scalar * this.m30 , scalar * this.m31 , scalar * this.m32 );
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code this} in a new {@link Matrix3x4}.
+     * 
+     * @return  transpose of {@code this} in a new {@link Matrix3x4}.
+     */
+    public Matrix3x4 transpose()
+    {
+        return Matrix3x4.zero().setToTransposeOf( this );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the transpose of a {@link Matrix3x4}.
+     * 
+     * @param other     {@link Matrix3x4} to be transposed.
+     * @return  {@code this} set to the transpose of {@code other}.
+     */
+    public Matrix4x3 setToTransposeOf( Matrix3x4 other )
+    {
+        return this.setEntries(
+                other.m00 , other.m10 , other.m20 ,
+                other.m01 , other.m11 , other.m21 ,
+                other.m02 , other.m12 , other.m22 ,
+                other.m03 , other.m13 , other.m23 );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the product of a {@link Matrix4x3} and a {@link Matrix3}.
+     * 
+     * @param first     left factor. It can be {@code this}.
+     * @param second    right factor.
+     * @return  {@code this} set to  first * second .
+     */
+    public Matrix4x3 setToProduct( Matrix4x3 first , Matrix3 second )
+    {
+        return this.setEntries(
+                first.m00 * second.m00 + first.m01 * second.m10 + first.m02 * second.m20 , first.m00 * second.m01 + first.m01 * second.m11 + first.m02 * second.m21 , first.m00 * second.m02 + first.m01 * second.m12 + first.m02 * second.m22 ,
+                first.m10 * second.m00 + first.m11 * second.m10 + first.m12 * second.m20 , first.m10 * second.m01 + first.m11 * second.m11 + first.m12 * second.m21 , first.m10 * second.m02 + first.m11 * second.m12 + first.m12 * second.m22 ,
+                first.m20 * second.m00 + first.m21 * second.m10 + first.m22 * second.m20 , first.m20 * second.m01 + first.m21 * second.m11 + first.m22 * second.m21 , first.m20 * second.m02 + first.m21 * second.m12 + first.m22 * second.m22 ,
+                first.m30 * second.m00 + first.m31 * second.m10 + first.m32 * second.m20 , first.m30 * second.m01 + first.m31 * second.m11 + first.m32 * second.m21 , first.m30 * second.m02 + first.m31 * second.m12 + first.m32 * second.m22 );
+    }
+    
+    
+    /**
+     * Returns the result of applying {@code this} to a {@link Vector3} in a new {@link Quaternion}.
+     * <p>
+     * The rows of {@code this} give the components in the order  ( w , x , y , z ).
+     * 
+     * @param v     {@link Vector3} to which {@code this} is applied.
+     * @return  {@code this} * {@code v} in a new {@link Quaternion}.
+     */
+    public Quaternion applyToVector3( Vector3 v )
+    {
+        return this.applyToVector3( v , Quaternion.zero() );
+    }
+    
+    
+    /**
+     * Applies {@code this} to a {@link Vector3}, storing the result in {@code output}.
+     * <p>
+     * The rows of {@code this} give the components in the order  ( w , x , y , z ).
+     * 
+     * @param v     {@link Vector3} to which {@code this} is applied.
+     * @param output    {@link Quaternion} where the result is stored.
+     * @return  {@code output}, holding {@code this} * {@code v}.
+     */
+    public Quaternion applyToVector3( Vector3 v , Quaternion output )
+    {
+        return output.setComponents(
+                this.m00 * v.x() + this.m01 * v.y() + this.m02 * v.z() ,
+                this.m10 * v.x() + this.m11 * v.y() + this.m12 * v.z() ,
+                this.m20 * v.x() + this.m21 * v.y() + this.m22 * v.z() ,
+                this.m30 * v.x() + this.m31 * v.y() + this.m32 * v.z() );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The distance is the Frobenius norm of the difference.
+     */
+    public double distanceFrom( Matrix4x3 other )
+    {
+        double distanceSquared = 0.0;
+        for( int i=0; i<4; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                double difference = this.entry( i , j ) - other.entry( i , j );
+                distanceSquared += difference * difference;
+            }
+        }
+        return Math.sqrt( distanceSquared );
+    }
+    
+    
+    /**
+     * Stores the entries of {@code this} in row-major order in an array.
+     * <p>
+     * It does not allocate new objects.
+     * 
+     * @param output    array where the entries are stored.
+     * @param offset    position of {@code output} where the first entry is stored.
+     * @return  {@code output}, with the 12 entries stored from position {@code offset}.
+     */
+    public double[] toFlatArray( double[] output , int offset )
+    {
+        output[ offset + 0 ] = this.m00;  output[ offset + 1 ] = this.m01;  output[ offset + 2 ] = this.m02;
+        output[ offset + 3 ] = this.m10;  output[ offset + 4 ] = this.m11;  output[ offset + 5 ] = this.m12;
+        output[ offset + 6 ] = this.m20;  output[ offset + 7 ] = this.m21;  output[ offset + 8 ] = this.m22;
+        output[ offset + 9 ] = this.m30;  output[ offset + 10 ] = this.m31;  output[ offset + 11 ] = this.m32;
+        return output;
+    }
+    
+    
+    /**
+     * Returns {@code this} as a new 4x3 {@link MatrixReal}.
+     * 
+     * @return  {@code this} as a new 4x3 {@link MatrixReal}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        MatrixReal output = MatrixReal.empty( 4 , 3 );
+        for( int i=0; i<4; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                output.setEntry( i , j , this.entry( i , j ) );
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the zero matrix stored in a new instance.
+     * 
+     * @return  zero matrix stored in a new instance.
+     */
+    public static Matrix4x3 zero()
+    {
+        return new Matrix4x3();
+    }
+    
+    
+    /**
+     * Returns a new {@link Matrix4x3} constructed from its entries, given in row-major order.
+     * 
+     * @return  new {@link Matrix4x3} constructed from its entries.
+     */
+    public static Matrix4x3 fromEntries( double a00 , double a01 , double a02 ,
+                                         double a10 , double a11 , double a12 ,
+                                         double a20 , double a21 , double a22 ,
+                                         double a30 , double a31 , double a32 )
+    {
+        return new Matrix4x3().setEntries( a00 , a01 , a02 , a10 , a11 , a12 , a20 , a21 , a22 , a30 , a31 , a32 );
+    }
+    
+    
+    /**
+     * Returns a new {@link Matrix4x3} with the entries of a 4x3 {@link MatrixReal}.
+     * 
+     * @param matrix    4x3 {@link MatrixReal}.
+     * @return  new {@link Matrix4x3} with the entries of {@code matrix}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not 4x3.
+     */
+    public static Matrix4x3 fromMatrixReal( MatrixReal matrix )
+    {
+        if( matrix.rows() != 4  ||  matrix.columns() != 3 ) {
+            throw new IllegalArgumentException( "Matrix4x3 requires a 4x3 matrix; found " + matrix.size() );
+        }
+        Matrix4x3 output = new Matrix4x3();
+        for( int i=0; i<4; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                output.setEntry( i , j , matrix.entry( i , j ) );
+            }
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns a new random {@link Matrix4x3} with normally distributed entries sampled from {@link Random}.
+     * 
+     * @param randomNumberGenerator {@link Random} used to generate the entries of the returned {@link Matrix4x3}.
+     * @return  new random {@link Matrix4x3} with normally distributed entries sampled from {@link Random}.
+     */
+    public static Matrix4x3 random( Random randomNumberGenerator )
+    {
+        Matrix4x3 output = new Matrix4x3();
+        for( int i=0; i<4; i++ ) {
+            for( int j=0; j<3; j++ ) {
+                output.setEntry( i , j , randomNumberGenerator.nextGaussian() );
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a zero {@link Matrix4x3}.
+     */
+    private Matrix4x3()
+    {
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the row-major position of an entry.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private static int flatIndex( int i , int j )
+    {
+        if( i < 0  ||  i > 3  ||  j < 0  ||  j > 2 ) {
+            throw new IllegalArgumentException( "Index out of range of a 4x3 matrix; found (" + i + "," + j + ")" );
+        }
+        return 3*i + j;
+    }
+    
+}
@@ -1,8 +1,10 @@
 package numericalLibrary.types;
 
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElement;
 import numericalLibrary.algebraicStructures.MetricSpaceElement;
@@ -19,17 +21,55 @@ public class MatrixReal
         VectorSpaceElement<MatrixReal>,
         MetricSpaceElement<MatrixReal>
 {
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of vectors whose triangular systems are solved together by the batched Mahalanobis distances.
+     */
+    private static final int BATCH_BLOCK_SIZE = 64;
+    
+    /**
+     * Number of multiply-adds from which the batched Mahalanobis distances split the work among several threads.
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 18;
+    
+    /**
+     * Number of vectors processed by each parallel task of the batched Mahalanobis distances.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 16 * BATCH_BLOCK_SIZE;
+    
+    
+    
     ////////////////////////////////////////////////////////////////
     /// PRIVATE VARIABLES
     ////////////////////////////////////////////////////////////////
-    private final double[][] x;  // matrix values
+    private final double[][] x;  // matrix values, shared with the views of the same matrix
+    private final int rowOffset;  // row of x holding the first row of this
+    private final int columnOffset;  // column of x holding the first column of this
     private final int nRows;
     private final int nCols;
     
     ////////////////////////////////////////////////////////////////
-    /// PRIVATE STATIC VARIABLES
+    /// PRIVATE STATIC CONSTANTS
     ////////////////////////////////////////////////////////////////
-    private static boolean assertionsOn = true;
+    
+    /**
+     * Name of the system property that disables the size and index checks of {@link MatrixReal} when set to {@code false}.
+     */
+    private static final String ASSERTIONS_PROPERTY = "numericalLibrary.types.MatrixReal.assertions";
+    
+    /**
+     * True if the size and index checks of {@link MatrixReal} are active.
+     * <p>
+     * It is read once from the {@link #ASSERTIONS_PROPERTY} system property when the class is initialized (e.g. {@code -DnumericalLibrary.types.MatrixReal.assertions=false}),
+     * so the JIT compiler can fold it and remove the checks from the compiled code when they are disabled.
+     * <p>
+     * Disabling the checks also removes the only bounds guard of views (see {@link #submatrixView(int, int, int, int)}):
+     * views share the arrays of their parent, so an out-of-range index through a view silently reads or overwrites entries of the parent instead of throwing.
+     */
+    private static final boolean assertionsOn = !"false".equalsIgnoreCase( System.getProperty( ASSERTIONS_PROPERTY , "true" ) );
     
     
     
@@ -272,13 +312,13 @@ public class MatrixReal
      * @param right    right factor of the {@link MatrixReal} multiplication.
      * @return  {@code this} reference to which the product of {@code left} and {@code right} is added.
      * 
-     * @throws IllegalArgumentException     if {@code this} is {@code left} or {@code right}.
+     * @throws IllegalArgumentException     if {@code this} is, or shares entries with, {@code left} or {@code right}.
      * @throws IllegalArgumentException     if {@code right} does not have same rows as {@code left} columns.
      * @throws IllegalArgumentException     if {@code this} does not have same rows as {@code left}, or columns as {@code right}.
      */
     public MatrixReal setToLeftTimesRight( MatrixReal left , MatrixReal right )
     {
-        if(  this == left  ||  this == right  ) {
+        if(  this.sharesStorageWith( left )  ||  this.sharesStorageWith( right )  ) {
             throw new IllegalArgumentException( "\"this\" must be different from \"left\" and \"right\"." );
         }
         right.assertRows( left.columns() );
@@ -298,13 +338,13 @@ public class MatrixReal
      * @param right    right factor to be transposed before {@link MatrixReal} multiplication.
      * @return  {@code this} reference to which the product of {@code left} and transpose of {@code right} is added.
      * 
-     * @throws IllegalArgumentException     if {@code this} is {@code left} or {@code right}.
+     * @throws IllegalArgumentException     if {@code this} is, or shares entries with, {@code left} or {@code right}.
      * @throws IllegalArgumentException     if {@code right} does not have same columns as {@code left}.
      * @throws IllegalArgumentException     if {@code this} does not have same rows as {@code left}, or columns as {@code right} rows.
      */
     public MatrixReal setToLeftTimesRightTranspose( MatrixReal left , MatrixReal right )
     {
-        if(  this == left  ||  this == right  ) {
+        if(  this.sharesStorageWith( left )  ||  this.sharesStorageWith( right )  ) {
             throw new IllegalArgumentException( "\"this\" must be different from \"left\" and \"right\"." );
         }
         right.assertColumns( left.columns() );
@@ -324,13 +364,13 @@ public class MatrixReal
      * @param right    right factor of {@link MatrixReal} multiplication.
      * @return  {@code this} reference to which the product of {@code left} transpose and {@code right} is added.
      * 
-     * @throws IllegalArgumentException     if {@code this} is {@code left} or {@code right}.
+     * @throws IllegalArgumentException     if {@code this} is, or shares entries with, {@code left} or {@code right}.
      * @throws IllegalArgumentException     if {@code right} does not have same rows as {@code left}.
      * @throws IllegalArgumentException     if {@code this} does not have same rows as {@code left} columns, or columns as {@code right}.
      */
     public MatrixReal setToLeftTransposeTimesRight( MatrixReal left , MatrixReal right )
     {
-        if(  this == left  ||  this == right  ) {
+        if(  this.sharesStorageWith( left )  ||  this.sharesStorageWith( right )  ) {
             throw new IllegalArgumentException( "\"this\" must be different from \"left\" and \"right\"." );
         }
         right.assertRows( left.rows() );
@@ -381,7 +421,7 @@ public class MatrixReal
         this.assertSameSize( other );
         for( int i=0; i<this.rows(); i++ ) {
             for( int j=0; j<this.columns(); j++ ) {
-                this.x[i][j] += other.entryUnchecked(i,j);
+                this.setEntryUnchecked( i,j , this.entryUnchecked(i,j) + other.entryUnchecked(i,j) );
             }
         }
         return this;
@@ -433,7 +473,7 @@ public class MatrixReal
     {
         for( int i=0; i<this.rows(); i++ ) {
             for( int j=0; j<this.columns(); j++ ) {
-                this.x[i][j] = -this.entryUnchecked(i,j);
+                this.setEntryUnchecked( i,j , -this.entryUnchecked(i,j) );
             }
         }
         return this;
@@ -464,7 +504,7 @@ public class MatrixReal
         this.assertSameSize( other );
         for( int i=0; i<this.rows(); i++ ) {
             for( int j=0; j<this.columns(); j++ ) {
-                this.x[i][j] -= other.entryUnchecked(i,j);
+                this.setEntryUnchecked( i,j , this.entryUnchecked(i,j) - other.entryUnchecked(i,j) );
             }
         }
         return this;
@@ -502,40 +542,128 @@ public class MatrixReal
     }
     
     
-    /*public Matrix inverseMultiplicative()
+    /**
+     * Returns the determinant of {@code this}.
+     * <p>
+     * It is computed from the {@link LUDecomposition} of {@code this}.
+     * 
+     * @return  determinant of {@code this}.
+     * 
+     * @throws IllegalArgumentException if {@code this} is not square.
+     */
+    public double determinant()
     {
-        
+        this.assertIsSquare();
+        return new LUDecomposition( this.rows() ).decompose( this ).determinant();
     }
-
-
-    public Matrix inverseMultiplicativeInplace()
+    
+    
+    /**
+     * Returns the inverse of {@code this}.
+     * <p>
+     * Result is returned as a new instance.
+     * If the inverse is only needed to multiply other matrices, {@link #divideLeft(MatrixReal)} and {@link #divideRight(MatrixReal)} are cheaper and more accurate;
+     * if the same matrix is used in several divisions, an {@link LUDecomposition} can be computed once and reused.
+     * 
+     * @return  inverse of {@code this}, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException if {@code this} is not square.
+     * @throws IllegalStateException    if {@code this} is singular.
+     */
+    public MatrixReal inverse()
     {
-        return this.set( this.inverseMultiplicative() );
+        this.assertIsSquare();
+        return new LUDecomposition( this.rows() ).decompose( this ).inverse();
     }
-
-
-    public Matrix divideLeft( Matrix other )
+    
+    
+    /**
+     * Inverts {@code this}.
+     * <p>
+     * Operation done in-place.
+     * 
+     * @return  {@code this}, holding its inverse.
+     * 
+     * @throws IllegalArgumentException if {@code this} is not square.
+     * @throws IllegalStateException    if {@code this} is singular.
+     */
+    public MatrixReal inverseInplace()
     {
-        return other.inverseMultiplicative().multiply( this );
+        this.assertIsSquare();
+        return new LUDecomposition( this.rows() ).decompose( this ).inverse( this );
     }
-
-
-    public Matrix divideLeftInplace( Matrix other )
+    
+    
+    /**
+     * Returns the solution X of  A * X = {@code this}, that is,  A^-1 * {@code this}.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @param A     square {@link MatrixReal} that divides {@code this} from the left.
+     * @return  A^-1 * {@code this}, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException if {@code A} is not square, or if its size does not match the rows of {@code this}.
+     * @throws IllegalStateException    if {@code A} is singular.
+     */
+    public MatrixReal divideLeft( MatrixReal A )
+    {
+        return this.copy().divideLeftInplace( A );
+    }
+    
+    
+    /**
+     * Sets {@code this} to the solution X of  A * X = {@code this}, that is,  A^-1 * {@code this}.
+     * <p>
+     * Operation done in-place.
+     * 
+     * @param A     square {@link MatrixReal} that divides {@code this} from the left.
+     * @return  {@code this}, holding  A^-1 * {@code this}.
+     * 
+     * @throws IllegalArgumentException if {@code A} is not square, or if its size does not match the rows of {@code this}.
+     * @throws IllegalStateException    if {@code A} is singular.
+     */
+    public MatrixReal divideLeftInplace( MatrixReal A )
     {
-        return this.set( this.divideLeft( other ) );
+        A.assertIsSquare();
+        return new LUDecomposition( A.rows() ).decompose( A ).solveInplace( this );
     }
     
     
-    public Matrix divideRight( Matrix other )
+    /**
+     * Returns the solution X of  X * A = {@code this}, that is,  {@code this} * A^-1.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @param A     square {@link MatrixReal} that divides {@code this} from the right.
+     * @return  {@code this} * A^-1, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException if {@code A} is not square, or if its size does not match the columns of {@code this}.
+     * @throws IllegalStateException    if {@code A} is singular.
+     */
+    public MatrixReal divideRight( MatrixReal A )
     {
-        return this.multiply( other.inverseMultiplicative() );
+        return this.copy().divideRightInplace( A );
     }
-
-
-    public Matrix divideRightInplace( Matrix other )
+    
+    
+    /**
+     * Sets {@code this} to the solution X of  X * A = {@code this}, that is,  {@code this} * A^-1.
+     * <p>
+     * Operation done in-place.
+     * The equation is solved as  A^T * X^T = {@code this}^T.
+     * 
+     * @param A     square {@link MatrixReal} that divides {@code this} from the right.
+     * @return  {@code this}, holding  {@code this} * A^-1.
+     * 
+     * @throws IllegalArgumentException if {@code A} is not square, or if its size does not match the columns of {@code this}.
+     * @throws IllegalStateException    if {@code A} is singular.
+     */
+    public MatrixReal divideRightInplace( MatrixReal A )
     {
-        return this.multiplyInplace( other.inverseMultiplicative() );
-    }*/
+        A.assertIsSquare();
+        MatrixReal XT = new LUDecomposition( A.rows() ).decompose( A.transpose() ).solveInplace( this.transpose() );
+        return this.setToTransposeOf( XT );
+    }
     
     
     /**
@@ -547,13 +675,13 @@ public class MatrixReal
      * @param right    right factor of the {@link MatrixReal} multiplication.
      * @return  {@code this} reference to which the product of {@code left} and {@code right} is added.
      * 
-     * @throws IllegalArgumentException     if {@code this} is {@code left} or {@code right}.
+     * @throws IllegalArgumentException     if {@code this} is, or shares entries with, {@code left} or {@code right}.
      * @throws IllegalArgumentException     if {@code right} does not have same rows as {@code left} columns.
      * @throws IllegalArgumentException     if {@code this} does not have same rows as {@code left}, or columns as {@code right}.
      */
     public MatrixReal addLeftTimesRight( MatrixReal left , MatrixReal right )
     {
-        if(  this == left  ||  this == right  ) {
+        if(  this.sharesStorageWith( left )  ||  this.sharesStorageWith( right )  ) {
             throw new IllegalArgumentException( "\"this\" must be different from \"left\" and \"right\"." );
         }
         right.assertRows( left.columns() );
@@ -571,13 +699,13 @@ public class MatrixReal
      * @param right    right factor to be transpose before {@link MatrixReal} multiplication.
      * @return  {@code this} reference to which the product of {@code left} and transpose of {@code right} is added.
      * 
-     * @throws IllegalArgumentException     if {@code this} is {@code left} or {@code right}.
+     * @throws IllegalArgumentException     if {@code this} is, or shares entries with, {@code left} or {@code right}.
      * @throws IllegalArgumentException     if {@code right} does not have same columns as {@code left}.
      * @throws IllegalArgumentException     if {@code this} does not have same rows as {@code left}, or columns as {@code right} rows.
      */
     public MatrixReal addLeftTimesRightTranspose( MatrixReal left , MatrixReal right )
     {
-        if(  this == left  ||  this == right  ) {
+        if(  this.sharesStorageWith( left )  ||  this.sharesStorageWith( right )  ) {
             throw new IllegalArgumentException( "\"this\" must be different from \"left\" and \"right\"." );
         }
         right.assertColumns( left.columns() );
@@ -595,13 +723,13 @@ public class MatrixReal
      * @param right    right factor of {@link MatrixReal} multiplication.
      * @return  {@code this} reference to which the product of {@code left} transpose and {@code right} is added.
      * 
-     * @throws IllegalArgumentException     if {@code this} is {@code left} or {@code right}.
+     * @throws IllegalArgumentException     if {@code this} is, or shares entries with, {@code left} or {@code right}.
      * @throws IllegalArgumentException     if {@code right} does not have same rows as {@code left}.
      * @throws IllegalArgumentException     if {@code this} does not have same rows as {@code left} columns, or columns as {@code right}.
      */
     public MatrixReal addLeftTransposeTimesRight( MatrixReal left , MatrixReal right )
     {
-        if(  this == left  ||  this == right  ) {
+        if(  this.sharesStorageWith( left )  ||  this.sharesStorageWith( right )  ) {
             throw new IllegalArgumentException( "\"this\" must be different from \"left\" and \"right\"." );
         }
         right.assertRows( left.rows() );
@@ -610,6 +738,134 @@ public class MatrixReal
     }
     
     
+    /**
+     * Sets {@code this} to the symmetric sandwich product  {@code A * B * A^T} , with {@code B} symmetric.
+     * <p>
+     * Only the lower triangular part of {@code B} is read, and only the lower triangular part of {@code this} is computed;
+     * the upper triangular part of {@code this} is filled by symmetry if {@code mirror} is true, and left untouched otherwise.
+     * The intermediate product  {@code A * B}  is stored in {@code workspace}.
+     * Since {@code B} is not read after {@code workspace} is computed, {@code this} can be {@code B}.
+     * 
+     * @param A     outer factor of the sandwich product.
+     * @param B     symmetric inner factor of the sandwich product.
+     * @param workspace     {@link MatrixReal} with the size of {@code A} used to store intermediate results.
+     * @param mirror    true to fill the upper triangular part of {@code this} by symmetry; false to compute only the lower triangular part.
+     * @return  {@code this} reference, which holds  {@code A * B * A^T} .
+     * 
+     * @throws IllegalArgumentException     if {@code this} or {@code workspace} is {@code A}, or if {@code workspace} is {@code this} or {@code B}.
+     * @throws IllegalArgumentException     if {@code B} is not square with as many rows as {@code A} columns.
+     * @throws IllegalArgumentException     if {@code workspace} does not have the size of {@code A}, or {@code this} is not square with as many rows as {@code A}.
+     */
+    public MatrixReal setToSandwich( MatrixReal A , MatrixReal B , MatrixReal workspace , boolean mirror )
+    {
+        this.assertSandwichArguments( A , B , workspace );
+        B.assertRows( A.columns() );
+        this.assertSize( A.rows() , A.rows() );
+        leftTimesSymmetricAlgorithm( A , B , workspace );
+        this.lowerLeftTimesRightTransposeAlgorithm( workspace , A , false );
+        if( mirror ) {
+            this.mirrorLowerTriangle();
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Adds the symmetric sandwich product  {@code A * B * A^T}  to {@code this}, with {@code B} symmetric.
+     * <p>
+     * Only the lower triangular part of {@code B} is read, and only the lower triangular part of {@code this} is updated;
+     * the upper triangular part of {@code this} is filled by symmetry if {@code mirror} is true, and left untouched otherwise.
+     * 
+     * @param A     outer factor of the sandwich product.
+     * @param B     symmetric inner factor of the sandwich product.
+     * @param workspace     {@link MatrixReal} with the size of {@code A} used to store intermediate results.
+     * @param mirror    true to fill the upper triangular part of {@code this} by symmetry; false to update only the lower triangular part.
+     * @return  {@code this} reference, to which  {@code A * B * A^T}  is added.
+     * 
+     * @throws IllegalArgumentException     if {@code this} or {@code workspace} is {@code A}, or if {@code workspace} is {@code this} or {@code B}.
+     * @throws IllegalArgumentException     if {@code B} is not square with as many rows as {@code A} columns.
+     * @throws IllegalArgumentException     if {@code workspace} does not have the size of {@code A}, or {@code this} is not square with as many rows as {@code A}.
+     * 
+     * @see #setToSandwich(MatrixReal, MatrixReal, MatrixReal, boolean)
+     */
+    public MatrixReal addSandwich( MatrixReal A , MatrixReal B , MatrixReal workspace , boolean mirror )
+    {
+        this.assertSandwichArguments( A , B , workspace );
+        B.assertRows( A.columns() );
+        this.assertSize( A.rows() , A.rows() );
+        leftTimesSymmetricAlgorithm( A , B , workspace );
+        this.lowerLeftTimesRightTransposeAlgorithm( workspace , A , true );
+        if( mirror ) {
+            this.mirrorLowerTriangle();
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Sets {@code this} to the symmetric sandwich product  {@code A^T * B * A} , with {@code B} symmetric.
+     * <p>
+     * Only the lower triangular part of {@code B} is read, and only the lower triangular part of {@code this} is computed;
+     * the upper triangular part of {@code this} is filled by symmetry if {@code mirror} is true, and left untouched otherwise.
+     * The intermediate product  {@code B * A}  is stored in {@code workspace}.
+     * Since {@code B} is not read after {@code workspace} is computed, {@code this} can be {@code B}.
+     * 
+     * @param A     outer factor of the sandwich product.
+     * @param B     symmetric inner factor of the sandwich product.
+     * @param workspace     {@link MatrixReal} with the size of {@code A} used to store intermediate results.
+     * @param mirror    true to fill the upper triangular part of {@code this} by symmetry; false to compute only the lower triangular part.
+     * @return  {@code this} reference, which holds  {@code A^T * B * A} .
+     * 
+     * @throws IllegalArgumentException     if {@code this} or {@code workspace} is {@code A}, or if {@code workspace} is {@code this} or {@code B}.
+     * @throws IllegalArgumentException     if {@code B} is not square with as many rows as {@code A}.
+     * @throws IllegalArgumentException     if {@code workspace} does not have the size of {@code A}, or {@code this} is not square with as many rows as {@code A} columns.
+     */
+    public MatrixReal setToTransposeSandwich( MatrixReal A , MatrixReal B , MatrixReal workspace , boolean mirror )
+    {
+        this.assertSandwichArguments( A , B , workspace );
+        B.assertRows( A.rows() );
+        this.assertSize( A.columns() , A.columns() );
+        symmetricTimesRightAlgorithm( B , A , workspace );
+        this.lowerLeftTransposeTimesRightAlgorithm( A , workspace , false );
+        if( mirror ) {
+            this.mirrorLowerTriangle();
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Adds the symmetric sandwich product  {@code A^T * B * A}  to {@code this}, with {@code B} symmetric.
+     * <p>
+     * Only the lower triangular part of {@code B} is read, and only the lower triangular part of {@code this} is updated;
+     * the upper triangular part of {@code this} is filled by symmetry if {@code mirror} is true, and left untouched otherwise.
+     * 
+     * @param A     outer factor of the sandwich product.
+     * @param B     symmetric inner factor of the sandwich product.
+     * @param workspace     {@link MatrixReal} with the size of {@code A} used to store intermediate results.
+     * @param mirror    true to fill the upper triangular part of {@code this} by symmetry; false to update only the lower triangular part.
+     * @return  {@code this} reference, to which  {@code A^T * B * A}  is added.
+     * 
+     * @throws IllegalArgumentException     if {@code this} or {@code workspace} is {@code A}, or if {@code workspace} is {@code this} or {@code B}.
+     * @throws IllegalArgumentException     if {@code B} is not square with as many rows as {@code A}.
+     * @throws IllegalArgumentException     if {@code workspace} does not have the size of {@code A}, or {@code this} is not square with as many rows as {@code A} columns.
+     * 
+     * @see #setToTransposeSandwich(MatrixReal, MatrixReal, MatrixReal, boolean)
+     */
+    public MatrixReal addTransposeSandwich( MatrixReal A , MatrixReal B , MatrixReal workspace , boolean mirror )
+    {
+        this.assertSandwichArguments( A , B , workspace );
+        B.assertRows( A.rows() );
+        this.assertSize( A.columns() , A.columns() );
+        symmetricTimesRightAlgorithm( B , A , workspace );
+        this.lowerLeftTransposeTimesRightAlgorithm( A , workspace , true );
+        if( mirror ) {
+            this.mirrorLowerTriangle();
+        }
+        return this;
+    }
+    
+    
     /**
      * {@inheritDoc}
      */
@@ -632,7 +888,7 @@ public class MatrixReal
     {
         for( int i=0; i<this.rows(); i++ ) {
             for( int j=0; j<this.columns(); j++ ) {
-                this.x[i][j] *= scalar;
+                this.setEntryUnchecked( i,j , this.entryUnchecked(i,j) * scalar );
             }
         }
         return this;
@@ -735,6 +991,24 @@ public class MatrixReal
     }
     
     
+    /**
+     * Performs a Cholesky decomposition of the form A = L L^T, returning L in packed form.
+     * <p>
+     * Only the lower triangular part of {@code this} is read, and only the lower triangular factor is written,
+     * so the factor takes half the memory of {@link #choleskyDecomposition()} and the upper triangle is never filled with zeros.
+     * 
+     * @return  new lower triangular {@link TriangularPackedMatrixReal} holding the Cholesky decomposition of {@code this}.
+     * 
+     * @throws IllegalArgumentException if {@code this} is not square, not positive-definite, or if NaNs are found.
+     */
+    public TriangularPackedMatrixReal choleskyDecompositionPacked()
+    {
+        SymmetricPackedMatrixReal A = SymmetricPackedMatrixReal.fromMatrixReal( this );
+        SymmetricPackedMatrixReal.choleskyDecompositionAlgorithm( A.x , A.rows() );
+        return new TriangularPackedMatrixReal( A.rows() , true , A.x );
+    }
+    
+    
     public MatrixReal LDLTDecomposition()
     {
         this.assertIsSquare();
@@ -786,157 +1060,490 @@ public class MatrixReal
     }
     
     
-    public MatrixReal divideRightByPositiveDefiniteUsingItsLDLTDecomposition( MatrixReal LD )
-    {
-        LD.assertIsSquare();
-        MatrixReal output = MatrixReal.emptyWithSizeOf( this );
-        MatrixReal.divideRightByPositiveDefiniteUsingItsLDLTDecompositionAlgorithm( this , LD , output );
-        return output;
-    }
-    
-    
-    public MatrixReal divideRightByPositiveDefiniteUsingItsLDLTDecompositionInplace( MatrixReal LD )
+    /**
+     * Solves the equation  L * D * L^T * X = {@code this}  for X, where L and D are stored in a lower {@link TriangularPackedMatrixReal}.
+     * <p>
+     * Operation done in-place. All the columns of {@code this} are solved together, traversing the packed rows of L once.
+     * 
+     * @param LD    lower {@link TriangularPackedMatrixReal} holding the LDL^T decomposition obtained with {@link SymmetricPackedMatrixReal#LDLTDecompositionInplace()}.
+     * @return  {@code this} reference, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if {@code LD} is not lower triangular, or if {@code this} does not have as many rows as {@code LD}.
+     */
+    public MatrixReal divideLeftByPositiveDefiniteUsingItsLDLTDecompositionInplace( TriangularPackedMatrixReal LD )
     {
-        LD.assertIsSquare();
-        MatrixReal.divideRightByPositiveDefiniteUsingItsLDLTDecompositionAlgorithm( this , LD , this );
+        MatrixReal.assertLowerTriangular( LD );
+        this.assertRows( LD.rows() );
+        MatrixReal.leftSolveLowerAlgorithm( LD.x , true , this );
+        for( int i=0; i<this.rows(); i++ ) {
+            final double inverseDi = 1.0 / LD.x[ i * ( i + 3 ) / 2 ];
+            for( int j=0; j<this.columns(); j++ ) {
+                this.setEntryUnchecked( i,j , this.entryUnchecked(i,j) * inverseDi );
+            }
+        }
+        MatrixReal.leftSolveLowerTransposeAlgorithm( LD.x , true , this );
         return this;
     }
     
     
     /**
-     * Returns the squared Mahalanobis distance of {@code this} column vector using the covariance matrix S = L L^T.
+     * Solves the equation  L * L^T * X = {@code this}  for X, where L is a lower {@link TriangularPackedMatrixReal}.
      * <p>
-     * The Mahalanobis distance is computed knowing that
-     * <br>
-     * d^2 = x^T S^{-1} x =
-     * 	   = x^T ( L L^T )^{-1} x =
-     *     = x^T (L^T)^{-1} L^{-1} x =
-     *     = x^T (L^{-1})^T L^{-1} x =
-     *     = ( L^{-1} x )^T ( L^{-1} x ) =
-     *     = y^T y
-     *     = ||y||^2
-     * <br>
-     * so if the system  L y = x  is solved, the resulting  column vector  y  satisfies  d^2 = y^T y.
+     * Result is returned as a new instance.
      * 
-     * @param L		Cholesky decomposition of the positive definite matrix S, so that L L^T = S.
-     * @return	squared Mahalanobis distance of a vector x using the covariance matrix S = L L^T.
+     * @param L     Cholesky decomposition obtained with {@link #choleskyDecompositionPacked()} or {@link SymmetricPackedMatrixReal#choleskyDecomposition()}.
+     * @return  solution X, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is not lower triangular, or if {@code this} does not have as many rows as {@code L}.
      */
-    public double distanceMahalanobis2( MatrixReal L )
+    public MatrixReal divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( TriangularPackedMatrixReal L )
     {
-    	double[] y = new double[ this.rows() ];
-        double distance2 = 0.0;
-        for( int i=0; i<L.rows(); i++ ) {
-        	double sum = this.x[i][0];
-        	for( int j=0; j<i; j++ ) {
-        		sum -= L.x[i][j] * y[j];
-        	}
-          	y[i] = sum / L.x[i][i];
-          	distance2 += y[i] * y[i];
-        }
-        return distance2;
+        return this.copy().divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( L );
     }
     
     
-    public double[] diagonalElements()
+    /**
+     * Solves the equation  L * L^T * X = {@code this}  for X, where L is a lower {@link TriangularPackedMatrixReal}.
+     * <p>
+     * Operation done in-place. All the columns of {@code this} are solved together, traversing the packed rows of L once per triangular solve.
+     * 
+     * @param L     Cholesky decomposition obtained with {@link #choleskyDecompositionPacked()}, {@link SymmetricPackedMatrixReal#choleskyDecomposition()} or {@link SymmetricPackedMatrixReal#choleskyDecompositionInplace()}.
+     * @return  {@code this} reference, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is not lower triangular, or if {@code this} does not have as many rows as {@code L}.
+     */
+    public MatrixReal divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( TriangularPackedMatrixReal L )
     {
-        int nElements = ( this.rows() < this.columns() )? this.rows() : this.columns() ;
-        double[] d = new double[ nElements ];
-        for( int i=0; i<nElements; i++ ) {
-            d[i] = this.entryUnchecked( i , i );
-        }
-        return d;
+        MatrixReal.assertLowerTriangular( L );
+        this.assertRows( L.rows() );
+        MatrixReal.leftSolveLowerAlgorithm( L.x , false , this );
+        MatrixReal.leftSolveLowerTransposeAlgorithm( L.x , false , this );
+        return this;
     }
     
     
-    public double trace()
+    /**
+     * Solves the equation  X * L * L^T = {@code this}  for X, where L is a lower {@link TriangularPackedMatrixReal}.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @param L     Cholesky decomposition obtained with {@link #choleskyDecompositionPacked()} or {@link SymmetricPackedMatrixReal#choleskyDecomposition()}.
+     * @return  solution X, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is not lower triangular, or if {@code this} does not have as many columns as {@code L}.
+     */
+    public MatrixReal divideRightByPositiveDefiniteUsingItsCholeskyDecomposition( TriangularPackedMatrixReal L )
     {
-        this.assertIsSquare();
-        double sum = 0.0;
-        for( int i=0; i<this.rows(); i++ ) {
-            sum += this.entryUnchecked( i , i );
-        }
-        return sum;
+        return this.copy().divideRightByPositiveDefiniteUsingItsCholeskyDecompositionInplace( L );
     }
     
     
     /**
-     * Sets a block of {@code this} using {@code other} {@link MatrixReal}.
+     * Solves the equation  X * L * L^T = {@code this}  for X, where L is a lower {@link TriangularPackedMatrixReal}.
      * <p>
      * Operation done in-place.
      * 
-     * @param i0    row index of {@code this} from which values ​​of {@code other} are set.
-     * @param j0    column index of {@code this} from which values of {@code other} are set.
-     * @param other     {@link MatrixReal} to be set in a block of {@code this}.
-     * @return  modified {@link MatrixReal}. Result is stored in {@code this}.
+     * @param L     Cholesky decomposition obtained with {@link #choleskyDecompositionPacked()} or {@link SymmetricPackedMatrixReal#choleskyDecomposition()}.
+     * @return  {@code this} reference, holding the solution X.
      * 
-     * @throws IllegalArgumentException if an attempt to set a value outside the index range of {@code this} is made.
+     * @throws IllegalArgumentException     if {@code L} is not lower triangular, or if {@code this} does not have as many columns as {@code L}.
      */
-    public MatrixReal setSubmatrix( int i0 , int j0 , MatrixReal other )
+    public MatrixReal divideRightByPositiveDefiniteUsingItsCholeskyDecompositionInplace( TriangularPackedMatrixReal L )
     {
-        this.assertIndexBounds( i0 , j0 );
-        this.assertIndexBounds( i0 + other.rows() , j0 + other.columns() );
-        for( int i=0; i<other.rows(); i++ ) {
-            for( int j=0; j<other.columns(); j++ ) {
-                this.setEntryUnchecked( i0+i , j0+j , other.entryUnchecked(i,j) );
-            }
-        }
+        MatrixReal.assertLowerTriangular( L );
+        this.assertColumns( L.rows() );
+        MatrixReal.rightSolveLowerTransposeAlgorithm( L.x , this );
+        MatrixReal.rightSolveLowerAlgorithm( L.x , this );
         return this;
     }
     
     
     /**
-     * Adds {@code other} to a block of {@code this}.
+     * Solves the equation  L * L^T * X = {@code this}  for X, where L is a lower {@link BandMatrixReal}.
+     * <p>
+     * Result is returned as a new instance.
      * 
-     * @param i0    row index of {@code this} that defines the start of the block from which values of {@code other} are added.
-     * @param j0    column index of {@code this} that defines the start of the block from which values of {@code other} are added.
-     * @param other     {@link MatrixReal} to be added to a block of {@code this}.
-     * @return  modified {@link MatrixReal}. Result is stored in {@code this}.
+     * @param L     Cholesky decomposition obtained with {@link BandMatrixReal#choleskyDecomposition()}.
+     * @return  solution X, stored in a new instance.
      * 
-     * @throws IllegalArgumentException if an attempt to add a value outside the index range of {@code this} is made.
+     * @throws IllegalArgumentException     if {@code L} has non-zero upper bandwidth, or if {@code this} does not have as many rows as {@code L}.
      */
-    public MatrixReal addSubmatrix( int i0 , int j0 , MatrixReal other )
+    public MatrixReal divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( BandMatrixReal L )
     {
-        this.assertIndexBounds( i0 , j0 );
-        this.assertIndexBounds( i0 + other.rows() , j0 + other.columns() );
-        for( int i=0; i<other.rows(); i++ ) {
-            for( int j=0; j<other.columns(); j++ ) {
-                this.x[i0+i][j0+j] += other.entryUnchecked(i,j);
-            }
-        }
-        return this;
+        return this.copy().divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( L );
     }
     
     
     /**
-     * Subtracts {@code other} to a block of {@code this}.
+     * Solves the equation  L * L^T * X = {@code this}  for X, where L is a lower {@link BandMatrixReal}.
+     * <p>
+     * Operation done in-place. Both triangular solves only visit the band of L, so they take O( n kl ) operations per column of {@code this}.
      * 
-     * @param i0    row index of {@code this} that defines the start of the block from which values of {@code other} are subtracted.
-     * @param j0    column index of {@code this} that defines the start of the block from which values of {@code other} are subtracted.
-     * @param other     {@link MatrixReal} to be subtracted to a block of {@code this}.
-     * @return  modified {@link MatrixReal}. Result is stored in {@code this}.
+     * @param L     Cholesky decomposition obtained with {@link BandMatrixReal#choleskyDecomposition()}.
+     * @return  {@code this} reference, holding the solution X.
      * 
-     * @throws IllegalArgumentException if an attempt to subtract a value outside the index range of {@code this} is made.
+     * @throws IllegalArgumentException     if {@code L} has non-zero upper bandwidth, or if {@code this} does not have as many rows as {@code L}.
      */
-    public MatrixReal subtractSubmatrix( int i0 , int j0 , MatrixReal other )
+    public MatrixReal divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( BandMatrixReal L )
     {
-        this.assertIndexBounds( i0 , j0 );
-        this.assertIndexBounds( i0 + other.rows() , j0 + other.columns() );
-        for( int i=0; i<other.rows(); i++ ) {
-            for( int j=0; j<other.columns(); j++ ) {
-                this.x[i0+i][j0+j] -= other.entryUnchecked(i,j);
+        if( L.upperBandwidth() != 0 ) {
+            throw new IllegalArgumentException( "Cholesky decomposition must be lower triangular." );
+        }
+        this.assertRows( L.rows() );
+        final int n = L.rows();
+        final int kd = L.lowerBandwidth();
+        final int w = kd + 1;
+        // Solve ( L * Y = B ).
+        for( int i=0; i<n; i++ ) {
+            final int offset = i * w - i + kd;
+            for( int k=L.firstColumn( i ); k<i; k++ ) {
+                final double lik = L.x[ offset + k ];
+                for( int j=0; j<this.nCols; j++ ) {
+                    this.setEntryUnchecked( i , j , this.entryUnchecked( i , j ) - lik * this.entryUnchecked( k , j ) );
+                }
+            }
+            final double inverseLii = 1.0 / L.x[ offset + i ];
+            for( int j=0; j<this.nCols; j++ ) {
+                this.setEntryUnchecked( i , j , this.entryUnchecked( i , j ) * inverseLii );
+            }
+        }
+        // Solve ( L^T * X = Y ).
+        for( int i=n-1; i>-1; i-- ) {
+            for( int k=i+1; k<=Math.min( n - 1 , i + kd ); k++ ) {
+                final double lki = L.x[ k * w + i - k + kd ];
+                for( int j=0; j<this.nCols; j++ ) {
+                    this.setEntryUnchecked( i , j , this.entryUnchecked( i , j ) - lki * this.entryUnchecked( k , j ) );
+                }
+            }
+            final double inverseLii = 1.0 / L.x[ i * w + kd ];
+            for( int j=0; j<this.nCols; j++ ) {
+                this.setEntryUnchecked( i , j , this.entryUnchecked( i , j ) * inverseLii );
             }
         }
         return this;
     }
     
     
-    public MatrixReal submatrix( int i , int j , int numberOfRows , int numberOfColumns )
-    {
-        this.assertIndexBounds( i , j );
-        this.assertIndexBounds( i+numberOfRows , j+numberOfColumns );
-        return this.submatrixFast( i , j , numberOfRows , numberOfColumns );
-    }
-    
+    /**
+     * Solves the equation  L * L^T * X = {@code this}  for X, where L is a {@link BlockDiagonalMatrixReal}.
+     * <p>
+     * Result is returned as a new instance.
+     * 
+     * @param L     Cholesky decomposition obtained with {@link BlockDiagonalMatrixReal#choleskyDecomposition()}.
+     * @return  solution X, stored in a new instance.
+     * 
+     * @throws IllegalArgumentException     if a block of {@code L} is not square, or if {@code this} does not have as many rows as {@code L}.
+     */
+    public MatrixReal divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( BlockDiagonalMatrixReal L )
+    {
+        return this.copy().divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( L );
+    }
+    
+    
+    /**
+     * Solves the equation  L * L^T * X = {@code this}  for X, where L is a {@link BlockDiagonalMatrixReal}.
+     * <p>
+     * Operation done in-place. Each block of rows of {@code this} is solved against its own block of L, in parallel if the blocks are large enough.
+     * 
+     * @param L     Cholesky decomposition obtained with {@link BlockDiagonalMatrixReal#choleskyDecomposition()}.
+     * @return  {@code this} reference, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if a block of {@code L} is not square, or if {@code this} does not have as many rows as {@code L}.
+     */
+    public MatrixReal divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( BlockDiagonalMatrixReal L )
+    {
+        for( int k=0; k<L.numberOfBlocks(); k++ ) {
+            if( L.block( k ).rows() != L.block( k ).columns() ) {
+                throw new IllegalArgumentException( "Square blocks are required: block " + k + " is " + L.block( k ).size() + "." );
+            }
+        }
+        this.assertRows( L.rows() );
+        L.forEachBlock( k -> {
+            MatrixReal Lk = L.block( k );
+            if( Lk.rows() > 0 ) {
+                this.submatrixViewFromRows( L.rowOffset( k ) , Lk.rows() ).divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( Lk );
+            }
+        } );
+        return this;
+    }
+    
+    
+    /**
+     * Sets {@code this} to the product  T * {@code this} , where T is a {@link TriangularPackedMatrixReal}.
+     * <p>
+     * Operation done in-place.
+     * 
+     * @param T     lower or upper triangular left factor.
+     * @return  {@code this} reference, holding  T * {@code this} .
+     * 
+     * @throws IllegalArgumentException     if {@code this} does not have as many rows as {@code T}.
+     */
+    public MatrixReal multiplyLeftByTriangularInplace( TriangularPackedMatrixReal T )
+    {
+        this.assertRows( T.rows() );
+        if( T.isLower() ) {
+            MatrixReal.leftMultiplyLowerAlgorithm( T.x , this );
+        } else {
+            MatrixReal.leftMultiplyLowerTransposeAlgorithm( T.x , this );
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Sets {@code this} to the product  {@code this} * T , where T is a {@link TriangularPackedMatrixReal}.
+     * <p>
+     * Operation done in-place.
+     * 
+     * @param T     lower or upper triangular right factor.
+     * @return  {@code this} reference, holding  {@code this} * T .
+     * 
+     * @throws IllegalArgumentException     if {@code this} does not have as many columns as {@code T}.
+     */
+    public MatrixReal multiplyRightByTriangularInplace( TriangularPackedMatrixReal T )
+    {
+        this.assertColumns( T.rows() );
+        if( T.isLower() ) {
+            MatrixReal.rightMultiplyLowerAlgorithm( T.x , this );
+        } else {
+            MatrixReal.rightMultiplyLowerTransposeAlgorithm( T.x , this );
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Solves the equation  T * X = {@code this}  for X, where T is a {@link TriangularPackedMatrixReal}.
+     * <p>
+     * Operation done in-place. All the columns of {@code this} are solved together, traversing the packed rows of T once.
+     * 
+     * @param T     lower or upper triangular {@link TriangularPackedMatrixReal} with non-zero diagonal.
+     * @return  {@code this} reference, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if {@code this} does not have as many rows as {@code T}.
+     */
+    public MatrixReal divideLeftByTriangularInplace( TriangularPackedMatrixReal T )
+    {
+        this.assertRows( T.rows() );
+        if( T.isLower() ) {
+            MatrixReal.leftSolveLowerAlgorithm( T.x , false , this );
+        } else {
+            MatrixReal.leftSolveLowerTransposeAlgorithm( T.x , false , this );
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Solves the equation  X * T = {@code this}  for X, where T is a {@link TriangularPackedMatrixReal}.
+     * <p>
+     * Operation done in-place.
+     * 
+     * @param T     lower or upper triangular {@link TriangularPackedMatrixReal} with non-zero diagonal.
+     * @return  {@code this} reference, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if {@code this} does not have as many columns as {@code T}.
+     */
+    public MatrixReal divideRightByTriangularInplace( TriangularPackedMatrixReal T )
+    {
+        this.assertColumns( T.rows() );
+        if( T.isLower() ) {
+            MatrixReal.rightSolveLowerAlgorithm( T.x , this );
+        } else {
+            MatrixReal.rightSolveLowerTransposeAlgorithm( T.x , this );
+        }
+        return this;
+    }
+    
+    
+    public MatrixReal divideRightByPositiveDefiniteUsingItsLDLTDecomposition( MatrixReal LD )
+    {
+        LD.assertIsSquare();
+        MatrixReal output = MatrixReal.emptyWithSizeOf( this );
+        MatrixReal.divideRightByPositiveDefiniteUsingItsLDLTDecompositionAlgorithm( this , LD , output );
+        return output;
+    }
+    
+    
+    public MatrixReal divideRightByPositiveDefiniteUsingItsLDLTDecompositionInplace( MatrixReal LD )
+    {
+        LD.assertIsSquare();
+        MatrixReal.divideRightByPositiveDefiniteUsingItsLDLTDecompositionAlgorithm( this , LD , this );
+        return this;
+    }
+    
+    
+    /**
+     * Returns the squared Mahalanobis distance of {@code this} column vector using the covariance matrix S = L L^T.
+     * <p>
+     * The Mahalanobis distance is computed knowing that
+     * <br>
+     * d^2 = x^T S^{-1} x =
+     * 	   = x^T ( L L^T )^{-1} x =
+     *     = x^T (L^T)^{-1} L^{-1} x =
+     *     = x^T (L^{-1})^T L^{-1} x =
+     *     = ( L^{-1} x )^T ( L^{-1} x ) =
+     *     = y^T y
+     *     = ||y||^2
+     * <br>
+     * so if the system  L y = x  is solved, the resulting  column vector  y  satisfies  d^2 = y^T y.
+     * 
+     * @param L		Cholesky decomposition of the positive definite matrix S, so that L L^T = S.
+     * @return	squared Mahalanobis distance of a vector x using the covariance matrix S = L L^T.
+     */
+    public double distanceMahalanobis2( MatrixReal L )
+    {
+    	double[] y = new double[ this.rows() ];
+        double distance2 = 0.0;
+        for( int i=0; i<L.rows(); i++ ) {
+        	double sum = this.entryUnchecked(i,0);
+        	for( int j=0; j<i; j++ ) {
+        		sum -= L.entryUnchecked(i,j) * y[j];
+        	}
+          	y[i] = sum / L.entryUnchecked(i,i);
+          	distance2 += y[i] * y[i];
+        }
+        return distance2;
+    }
+    
+    
+    /**
+     * Returns the squared Mahalanobis distance of each column of {@code this} using the covariance matrix S = L L^T.
+     * 
+     * @param L     Cholesky decomposition of the positive definite matrix S, so that L L^T = S.
+     * @return  new array with the squared Mahalanobis distance of each column of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is not square with as many rows as {@code this}.
+     * 
+     * @see #distanceMahalanobis2OfColumns(MatrixReal, double[])
+     */
+    public double[] distanceMahalanobis2OfColumns( MatrixReal L )
+    {
+        return this.distanceMahalanobis2OfColumns( L , new double[ this.columns() ] );
+    }
+    
+    
+    /**
+     * Stores in {@code output} the squared Mahalanobis distance of each column of {@code this} using the covariance matrix S = L L^T.
+     * <p>
+     * The triangular systems  L y = x  of blocks of columns are solved together, traversing {@code L} once per block,
+     * and large batches are split among several threads.
+     * 
+     * @param L     Cholesky decomposition of the positive definite matrix S, so that L L^T = S.
+     * @param output    array where the squared Mahalanobis distance of each column of {@code this} is stored.
+     * @return  {@code output}, holding the squared Mahalanobis distance of each column of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is not square with as many rows as {@code this}.
+     * @throws IllegalArgumentException     if the length of {@code output} is not the number of columns of {@code this}.
+     * 
+     * @see #distanceMahalanobis2(MatrixReal)
+     */
+    public double[] distanceMahalanobis2OfColumns( MatrixReal L , double[] output )
+    {
+        if( output.length != this.columns() ) {
+            throw new IllegalArgumentException( "Output length must be " + this.columns() + "; found " + output.length + "." );
+        }
+        distanceMahalanobis2Batch( L , this , null , output );
+        return output;
+    }
+    
+    
+    public double[] diagonalElements()
+    {
+        int nElements = ( this.rows() < this.columns() )? this.rows() : this.columns() ;
+        double[] d = new double[ nElements ];
+        for( int i=0; i<nElements; i++ ) {
+            d[i] = this.entryUnchecked( i , i );
+        }
+        return d;
+    }
+    
+    
+    public double trace()
+    {
+        this.assertIsSquare();
+        double sum = 0.0;
+        for( int i=0; i<this.rows(); i++ ) {
+            sum += this.entryUnchecked( i , i );
+        }
+        return sum;
+    }
+    
+    
+    /**
+     * Sets a block of {@code this} using {@code other} {@link MatrixReal}.
+     * <p>
+     * Operation done in-place.
+     * 
+     * @param i0    row index of {@code this} from which values ​​of {@code other} are set.
+     * @param j0    column index of {@code this} from which values of {@code other} are set.
+     * @param other     {@link MatrixReal} to be set in a block of {@code this}.
+     * @return  modified {@link MatrixReal}. Result is stored in {@code this}.
+     * 
+     * @throws IllegalArgumentException if an attempt to set a value outside the index range of {@code this} is made.
+     */
+    public MatrixReal setSubmatrix( int i0 , int j0 , MatrixReal other )
+    {
+        this.assertBlockBounds( i0 , j0 , other.rows() , other.columns() );
+        for( int i=0; i<other.rows(); i++ ) {
+            for( int j=0; j<other.columns(); j++ ) {
+                this.setEntryUnchecked( i0+i , j0+j , other.entryUnchecked(i,j) );
+            }
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Adds {@code other} to a block of {@code this}.
+     * 
+     * @param i0    row index of {@code this} that defines the start of the block from which values of {@code other} are added.
+     * @param j0    column index of {@code this} that defines the start of the block from which values of {@code other} are added.
+     * @param other     {@link MatrixReal} to be added to a block of {@code this}.
+     * @return  modified {@link MatrixReal}. Result is stored in {@code this}.
+     * 
+     * @throws IllegalArgumentException if an attempt to add a value outside the index range of {@code this} is made.
+     */
+    public MatrixReal addSubmatrix( int i0 , int j0 , MatrixReal other )
+    {
+        this.assertBlockBounds( i0 , j0 , other.rows() , other.columns() );
+        for( int i=0; i<other.rows(); i++ ) {
+            for( int j=0; j<other.columns(); j++ ) {
+                this.setEntryUnchecked( i0+i , j0+j , this.entryUnchecked( i0+i , j0+j ) + other.entryUnchecked(i,j) );
+            }
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Subtracts {@code other} to a block of {@code this}.
+     * 
+     * @param i0    row index of {@code this} that defines the start of the block from which values of {@code other} are subtracted.
+     * @param j0    column index of {@code this} that defines the start of the block from which values of {@code other} are subtracted.
+     * @param other     {@link MatrixReal} to be subtracted to a block of {@code this}.
+     * @return  modified {@link MatrixReal}. Result is stored in {@code this}.
+     * 
+     * @throws IllegalArgumentException if an attempt to subtract a value outside the index range of {@code this} is made.
+     */
+    public MatrixReal subtractSubmatrix( int i0 , int j0 , MatrixReal other )
+    {
+        this.assertBlockBounds( i0 , j0 , other.rows() , other.columns() );
+        for( int i=0; i<other.rows(); i++ ) {
+            for( int j=0; j<other.columns(); j++ ) {
+                this.setEntryUnchecked( i0+i , j0+j , this.entryUnchecked( i0+i , j0+j ) - other.entryUnchecked(i,j) );
+            }
+        }
+        return this;
+    }
+    
+    
+    public MatrixReal submatrix( int i , int j , int numberOfRows , int numberOfColumns )
+    {
+        this.assertBlockBounds( i , j , numberOfRows , numberOfColumns );
+        return this.submatrixFast( i , j , numberOfRows , numberOfColumns );
+    }
+    
     
     public MatrixReal submatrixFromRow( int i )
     {
@@ -951,8 +1558,7 @@ public class MatrixReal
     
     public MatrixReal submatrixFromRows( int i , int numberOfRows )
     {
-        this.assertRowIndexBounds( i );
-        this.assertRowIndexBounds( i+numberOfRows );
+        this.assertBlockBounds( i , 0 , numberOfRows , this.columns() );
         return this.submatrixFast( i , 0 , numberOfRows , this.columns() );
     }
     
@@ -970,24 +1576,112 @@ public class MatrixReal
     
     public MatrixReal submatrixFromColumns( int j , int numberOfColumns )
     {
-        this.assertColumnIndexBounds( j );
-        this.assertColumnIndexBounds( j+numberOfColumns );
+        this.assertBlockBounds( 0 , j , this.rows() , numberOfColumns );
         return this.submatrixFast( 0 , j , this.rows() , numberOfColumns );
     }
     
     
+    /**
+     * Returns a view of a block of {@code this}.
+     * <p>
+     * The view shares the entries of {@code this}, so no entries are copied:
+     * modifications of the view are seen by {@code this}, and vice versa.
+     * Views can be used as any other {@link MatrixReal}, which allows block-partitioned algorithms to update the blocks of a matrix in place.
+     * Operations that require their operands to be different {@link MatrixReal}s also reject views whose blocks overlap.
+     * 
+     * @param i     row index of {@code this} where the block starts.
+     * @param j     column index of {@code this} where the block starts.
+     * @param numberOfRows  number of rows of the block.
+     * @param numberOfColumns   number of columns of the block.
+     * @return  {@link MatrixReal} view of the block of {@code this}.
+     * 
+     * @throws IllegalArgumentException if the block exceeds the index range of {@code this}.
+     * 
+     * @see #submatrix(int, int, int, int)
+     */
+    public MatrixReal submatrixView( int i , int j , int numberOfRows , int numberOfColumns )
+    {
+        this.assertBlockBounds( i , j , numberOfRows , numberOfColumns );
+        return new MatrixReal( this , i , j , numberOfRows , numberOfColumns );
+    }
+    
+    
+    /**
+     * Returns a view of a row of {@code this}.
+     * 
+     * @param i     index of the row.
+     * @return  {@link MatrixReal} view of the row of {@code this}, of size 1 x {@code this}.{@link #columns()}.
+     * 
+     * @throws IllegalArgumentException if the row exceeds the index range of {@code this}.
+     * 
+     * @see #submatrixView(int, int, int, int)
+     */
+    public MatrixReal submatrixViewFromRow( int i )
+    {
+        return this.submatrixView( i , 0 , 1 , this.columns() );
+    }
+    
+    
+    /**
+     * Returns a view of a block of consecutive rows of {@code this}.
+     * 
+     * @param i     index of the first row.
+     * @param numberOfRows  number of rows of the block.
+     * @return  {@link MatrixReal} view of the rows of {@code this}.
+     * 
+     * @throws IllegalArgumentException if the block exceeds the index range of {@code this}.
+     * 
+     * @see #submatrixView(int, int, int, int)
+     */
+    public MatrixReal submatrixViewFromRows( int i , int numberOfRows )
+    {
+        return this.submatrixView( i , 0 , numberOfRows , this.columns() );
+    }
+    
+    
+    /**
+     * Returns a view of a column of {@code this}.
+     * 
+     * @param j     index of the column.
+     * @return  {@link MatrixReal} view of the column of {@code this}, of size {@code this}.{@link #rows()} x 1.
+     * 
+     * @throws IllegalArgumentException if the column exceeds the index range of {@code this}.
+     * 
+     * @see #submatrixView(int, int, int, int)
+     */
+    public MatrixReal submatrixViewFromColumn( int j )
+    {
+        return this.submatrixView( 0 , j , this.rows() , 1 );
+    }
+    
+    
+    /**
+     * Returns a view of a block of consecutive columns of {@code this}.
+     * 
+     * @param j     index of the first column.
+     * @param numberOfColumns   number of columns of the block.
+     * @return  {@link MatrixReal} view of the columns of {@code this}.
+     * 
+     * @throws IllegalArgumentException if the block exceeds the index range of {@code this}.
+     * 
+     * @see #submatrixView(int, int, int, int)
+     */
+    public MatrixReal submatrixViewFromColumns( int j , int numberOfColumns )
+    {
+        return this.submatrixView( 0 , j , this.rows() , numberOfColumns );
+    }
+    
+    
     public Vector2 submatrixToVector2( int i , int j )
     {
-        this.assertIndexBounds( i , j );
-        this.assertIndexBounds( i+2 , j );
+        this.assertBlockBounds( i , j , 2 , 1 );
         return Vector2.fromComponents( this.entryUnchecked(i,j) , this.entryUnchecked(i+1,j) );
     }
     
     
     public Vector3 submatrixToVector3( int i , int j )
     {
-        this.assertIndexBounds( i , j );
-        this.assertIndexBounds( i+3 , j );
+        this.assertBlockBounds( i , j , 3 , 1 );
         return Vector3.fromComponents( this.entryUnchecked(i,j) , this.entryUnchecked(i+1,j) , this.entryUnchecked(i+2,j) );
     }
     
@@ -1128,6 +1822,33 @@ public class MatrixReal
     /// PUBLIC STATIC METHODS
     ////////////////////////////////////////////////////////////////
     
+    /**
+     * Stores in {@code output} the squared Mahalanobis distance of each vector of a packed array using the covariance matrix S = L L^T.
+     * <p>
+     * The k-th vector is stored in positions {@code d*k} to {@code d*k + d - 1} of {@code packedVectors}, where  d  is the dimension of {@code L}.
+     * The triangular systems  L y = x  of blocks of vectors are solved together, traversing {@code L} once per block,
+     * and large batches are split among several threads.
+     * 
+     * @param L     Cholesky decomposition of the positive definite matrix S, so that L L^T = S.
+     * @param packedVectors     vectors stored consecutively.
+     * @param output    array where the squared Mahalanobis distance of each vector is stored.
+     * @return  {@code output}, holding the squared Mahalanobis distance of each vector.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is not square.
+     * @throws IllegalArgumentException     if the length of {@code packedVectors} is not the dimension of {@code L} times the length of {@code output}.
+     * 
+     * @see #distanceMahalanobis2(MatrixReal)
+     */
+    public static double[] distanceMahalanobis2( MatrixReal L , double[] packedVectors , double[] output )
+    {
+        if( packedVectors.length != L.rows() * output.length ) {
+            throw new IllegalArgumentException( "Packed vectors length must be " + L.rows() + " x " + output.length + "; found " + packedVectors.length + "." );
+        }
+        distanceMahalanobis2Batch( L , null , packedVectors , output );
+        return output;
+    }
+    
+    
     /**
      * Creates an empty matrix with a given size.
      * 
@@ -1436,67 +2157,211 @@ public class MatrixReal
     
     public static MatrixReal rotation2d( double rotationAngle )
     {
-        return MatrixReal.fromEntries2x2(
-                Math.cos( rotationAngle ) , -Math.sin( rotationAngle ) ,
-                Math.sin( rotationAngle ) ,  Math.cos( rotationAngle ) );
+        return MatrixReal.fromEntries2x2(
+                Math.cos( rotationAngle ) , -Math.sin( rotationAngle ) ,
+                Math.sin( rotationAngle ) ,  Math.cos( rotationAngle ) );
+    }
+    
+    
+    public static MatrixReal LfromLDLTDecomposition( MatrixReal LDLTDecomposition )
+    {
+        MatrixReal L = LDLTDecomposition.copy();
+        for( int i=0; i<L.columns(); i++ ) {
+            L.setEntryUnchecked( i,i , 1.0 );
+        }
+        return L;
+    }
+    
+    
+    public static MatrixReal DfromLDLTDecomposition( MatrixReal LDLTDecomposition )
+    {
+        return MatrixReal.diagonal( LDLTDecomposition.diagonalElements() );
+    }
+    
+    
+    /**
+     * Returns true if the size and index checks of {@link MatrixReal} are active.
+     * <p>
+     * The checks are active unless the JVM is started with {@code -DnumericalLibrary.types.MatrixReal.assertions=false}.
+     * When they are disabled, out-of-range indices used through views silently access the entries of the parent matrix instead of throwing.
+     * The switch only covers the methods of {@link MatrixReal};
+     * the other matrix types ({@link SymmetricPackedMatrixReal}, {@link TriangularPackedMatrixReal}, {@link BandMatrixReal},
+     * {@link CompressedSparseRowMatrixReal}, {@link CompressedSparseColumnMatrixReal}, {@link BlockDiagonalMatrixReal}, {@link LUDecomposition}, {@link BandLUDecomposition})
+     * always check their arguments.
+     * 
+     * @return  true if the size and index checks of {@link MatrixReal} are active.
+     */
+    public static boolean areAssertionsActive()
+    {
+        return MatrixReal.assertionsOn;
+    }
+    
+    
+    /**
+     * Sets whether the size and index checks of {@link MatrixReal} are active.
+     * <p>
+     * The checks are now fixed when the class is initialized, from the system property {@code numericalLibrary.types.MatrixReal.assertions},
+     * so that the JIT compiler can remove them when they are disabled.
+     * This method does nothing if {@code areAssertionsActive} matches {@link #areAssertionsActive()}.
+     * 
+     * @param areAssertionsActive   true if the checks are required to be active.
+     * 
+     * @throws UnsupportedOperationException    if {@code areAssertionsActive} does not match {@link #areAssertionsActive()}.
+     * 
+     * @deprecated  start the JVM with {@code -DnumericalLibrary.types.MatrixReal.assertions=false} to disable the checks, and use {@link #areAssertionsActive()} to query them.
+     */
+    @Deprecated
+    public static void setAssertions( boolean areAssertionsActive )
+    {
+        if( areAssertionsActive != MatrixReal.assertionsOn ) {
+            throw new UnsupportedOperationException( "MatrixReal checks cannot be changed at run time; set the system property " + ASSERTIONS_PROPERTY + " when starting the JVM." );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link MatrixReal}.
+     * 
+     * @param numberOfRows  number of rows for the new matrix.
+     * @param numberOfColumns   number of columns for the new matrix.
+     */
+    private MatrixReal( int numberOfRows , int numberOfColumns )
+    {
+        this.nRows = numberOfRows;
+        this.nCols = numberOfColumns;
+        this.x = new double[ numberOfRows ][ numberOfColumns ];
+        this.rowOffset = 0;
+        this.columnOffset = 0;
+    }
+    
+    
+    /**
+     * Constructs a {@link MatrixReal} that uses {@code storage} to hold its entries.
+     * 
+     * @param storage   array with {@code numberOfRows} rows of {@code numberOfColumns} entries each, which is not copied.
+     * @param numberOfRows  number of rows for the new matrix.
+     * @param numberOfColumns   number of columns for the new matrix.
+     */
+    private MatrixReal( double[][] storage , int numberOfRows , int numberOfColumns )
+    {
+        this.nRows = numberOfRows;
+        this.nCols = numberOfColumns;
+        this.x = storage;
+        this.rowOffset = 0;
+        this.columnOffset = 0;
+    }
+    
+    
+    /**
+     * Constructs a {@link MatrixReal} view of a block of {@code parent}.
+     * <p>
+     * The view shares the storage of {@code parent}, so no entries are copied.
+     * 
+     * @param parent    {@link MatrixReal} whose storage is shared.
+     * @param i     row of {@code parent} holding the first row of the view.
+     * @param j     column of {@code parent} holding the first column of the view.
+     * @param numberOfRows  number of rows of the view.
+     * @param numberOfColumns   number of columns of the view.
+     */
+    private MatrixReal( MatrixReal parent , int i , int j , int numberOfRows , int numberOfColumns )
+    {
+        this.nRows = numberOfRows;
+        this.nCols = numberOfColumns;
+        this.x = parent.x;
+        this.rowOffset = parent.rowOffset + i;
+        this.columnOffset = parent.columnOffset + j;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a new {@link MatrixReal} that uses {@code storage} to hold its entries.
+     * <p>
+     * It is package-private so that {@link MatrixRealWorkspace} can hand out matrices backed by recycled storage.
+     * 
+     * @param storage   array with {@code numberOfRows} rows of {@code numberOfColumns} entries each, which is not copied.
+     * @param numberOfRows  number of rows for the new matrix.
+     * @param numberOfColumns   number of columns for the new matrix.
+     * @return  new {@link MatrixReal} backed by {@code storage}.
+     */
+    static MatrixReal wrapStorage( double[][] storage , int numberOfRows , int numberOfColumns )
+    {
+        return new MatrixReal( storage , numberOfRows , numberOfColumns );
     }
     
     
-    public static MatrixReal LfromLDLTDecomposition( MatrixReal LDLTDecomposition )
-    {
-        MatrixReal L = LDLTDecomposition.copy();
-        for( int i=0; i<L.columns(); i++ ) {
-            L.setEntryUnchecked( i,i , 1.0 );
-        }
-        return L;
-    }
     
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
     
-    public static MatrixReal DfromLDLTDecomposition( MatrixReal LDLTDecomposition )
+    /**
+     * Returns true if {@code this} and {@code other} have entries stored in the same memory locations.
+     * <p>
+     * This is the case if they are the same {@link MatrixReal}, or views of the same matrix whose blocks overlap.
+     * It is package-private so that {@link MatrixRealExpression} can detect aliasing with its destination.
+     * 
+     * @param other     {@link MatrixReal} to be compared with {@code this}.
+     * @return  true if {@code this} and {@code other} share some entry; false otherwise.
+     */
+    boolean sharesStorageWith( MatrixReal other )
     {
-        return MatrixReal.diagonal( LDLTDecomposition.diagonalElements() );
+        return (  this == other  ||
+                (  this.x == other.x  &&
+                   this.rowOffset < other.rowOffset + other.rows()  &&  other.rowOffset < this.rowOffset + this.rows()  &&
+                   this.columnOffset < other.columnOffset + other.columns()  &&  other.columnOffset < this.columnOffset + this.columns()  )  );
     }
     
     
-    public static void setAssertions( boolean areAssertionsActive )
+    /**
+     * Returns the array that stores the i-th row of {@code this}.
+     * <p>
+     * The row starts at position {@link #storageColumnOffset()} of the returned array, which is shared with {@code this}.
+     * It is package-private so that {@link MatrixRealExpressionPlan} can read and write rows without index checks.
+     * 
+     * @param i     row index.
+     * @return  array that stores the i-th row of {@code this}.
+     */
+    double[] storageRow( int i )
     {
-        MatrixReal.assertionsOn = areAssertionsActive;
+        return this.x[ this.rowOffset + i ];
     }
     
     
-    
-    ////////////////////////////////////////////////////////////////
-    /// PRIVATE CONSTRUCTORS
-    ////////////////////////////////////////////////////////////////
-    
     /**
-     * Constructs a {@link MatrixReal}.
+     * Returns the position of the first column of {@code this} in the arrays returned by {@link #storageRow(int)}.
      * 
-     * @param numberOfRows  number of rows for the new matrix.
-     * @param numberOfColumns   number of columns for the new matrix.
+     * @return  position of the first column of {@code this} in its storage rows.
      */
-    private MatrixReal( int numberOfRows , int numberOfColumns )
+    int storageColumnOffset()
     {
-        this.nRows = numberOfRows;
-        this.nCols = numberOfColumns;
-        this.x = new double[numberOfRows][numberOfColumns];
+        return this.columnOffset;
     }
-
-
-
+    
+    
+    
     ////////////////////////////////////////////////////////////////
     /// PRIVATE METHODS
     ////////////////////////////////////////////////////////////////
     
     private void setEntryUnchecked( int i , int j , double value )
     {
-        this.x[i][j] = value;
+        this.x[ this.rowOffset + i ][ this.columnOffset + j ] = value;
     }
     
     
     private double entryUnchecked( int i , int j )
     {
-        return this.x[i][j];
+        return this.x[ this.rowOffset + i ][ this.columnOffset + j ];
     }
     
     
@@ -1523,8 +2388,8 @@ public class MatrixReal
      */
     private void assertRowIndexBounds( int i )
     {
-        if(  MatrixReal.assertionsOn  &&  (  i < 0  ||  this.rows() < i  )  ) {
-            throw new IllegalArgumentException( "Row index out of bounds: " + i + " not in 0..." + this.rows() );
+        if(  MatrixReal.assertionsOn  &&  (  i < 0  ||  i >= this.rows()  )  ) {
+            throw new IllegalArgumentException( "Row index out of bounds: " + i + " not in 0..." + ( this.rows() - 1 ) );
         }
     }
     
@@ -1540,8 +2405,8 @@ public class MatrixReal
      */
     private void assertColumnIndexBounds( int j )
     {
-        if(  MatrixReal.assertionsOn  &&  (  j < 0  ||  this.columns() < j  )  ) {
-            throw new IllegalArgumentException( "Column index out of bounds: " + j + " not in 0..." + this.columns() );
+        if(  MatrixReal.assertionsOn  &&  (  j < 0  ||  j >= this.columns()  )  ) {
+            throw new IllegalArgumentException( "Column index out of bounds: " + j + " not in 0..." + ( this.columns() - 1 ) );
         }
     }
     
@@ -1563,6 +2428,32 @@ public class MatrixReal
     }
     
     
+    /**
+     * Checks that the block of {@code numberOfRows} x {@code numberOfColumns} entries starting at {@code i},{@code j} lies inside {@code this}.
+     * <p>
+     * That is, it checks that
+     * 0 <= {@code i}, 0 <= {@code numberOfRows}, and {@code i} + {@code numberOfRows} <= {@code this}.{@link #rows()}, and
+     * 0 <= {@code j}, 0 <= {@code numberOfColumns}, and {@code j} + {@code numberOfColumns} <= {@code this}.{@link #columns()}.
+     * Empty blocks may start one past the last row or column.
+     * 
+     * @param i     row index where the block starts.
+     * @param j     column index where the block starts.
+     * @param numberOfRows  number of rows of the block.
+     * @param numberOfColumns   number of columns of the block.
+     * 
+     * @throws IllegalArgumentException if the block is not in bounds.
+     */
+    private void assertBlockBounds( int i , int j , int numberOfRows , int numberOfColumns )
+    {
+        if(  MatrixReal.assertionsOn  &&  (  i < 0  ||  numberOfRows < 0  ||  numberOfRows > this.rows() - i  )  ) {
+            throw new IllegalArgumentException( "Row range out of bounds: " + i + "..." + ( i + numberOfRows ) + " not in 0..." + this.rows() );
+        }
+        if(  MatrixReal.assertionsOn  &&  (  j < 0  ||  numberOfColumns < 0  ||  numberOfColumns > this.columns() - j  )  ) {
+            throw new IllegalArgumentException( "Column range out of bounds: " + j + "..." + ( j + numberOfColumns ) + " not in 0..." + this.columns() );
+        }
+    }
+    
+    
     /**
      * Checks the number of rows of this matrix.
      * <ul>
@@ -1667,9 +2558,11 @@ public class MatrixReal
     {
         for( int i=0; i<this.rows(); i++ ) {
             for( int j=0; j<this.columns(); j++ ) {
+                double sum = this.entryUnchecked(i,j);
                 for( int k=0; k<left.columns(); k++ ) {
-                    this.x[i][j] += left.entryUnchecked(i,k) * right.entryUnchecked(k,j);
+                    sum += left.entryUnchecked(i,k) * right.entryUnchecked(k,j);
                 }
+                this.setEntryUnchecked( i,j , sum );
             }
         }
         return this;
@@ -1692,9 +2585,11 @@ public class MatrixReal
     {
         for( int i=0; i<this.rows(); i++ ) {
             for( int j=0; j<this.columns(); j++ ) {
+                double sum = this.entryUnchecked(i,j);
                 for( int k=0; k<left.columns(); k++ ) {
-                    this.x[i][j] += left.entryUnchecked(i,k) * right.entryUnchecked(j,k);
+                    sum += left.entryUnchecked(i,k) * right.entryUnchecked(j,k);
                 }
+                this.setEntryUnchecked( i,j , sum );
             }
         }
         return this;
@@ -1717,15 +2612,125 @@ public class MatrixReal
     {
         for( int i=0; i<this.rows(); i++ ) {
             for( int j=0; j<this.columns(); j++ ) {
+                double sum = this.entryUnchecked(i,j);
                 for( int k=0; k<left.rows(); k++ ) {
-                    this.x[i][j] += left.entryUnchecked(k,i) * right.entryUnchecked(k,j);
+                    sum += left.entryUnchecked(k,i) * right.entryUnchecked(k,j);
                 }
+                this.setEntryUnchecked( i,j , sum );
             }
         }
         return this;
     }
     
     
+    /**
+     * Computes the lower triangular part of the product of left {@link MatrixReal} and transpose of right {@link MatrixReal}.
+     * <p>
+     * The multiplication is performed as {@code left * right^T}, and the result is stored in, or added to, the lower triangular part of {@code this}.
+     * This method does not perform any checks because it assumes that the developer will take care of the inputs or implement the checks in the methods using this method.
+     * 
+     * @param left     left factor of the {@link MatrixReal} multiplication.
+     * @param right    right factor to be transposed before {@link MatrixReal} multiplication.
+     * @param accumulate    true to add the product to {@code this}; false to overwrite {@code this}.
+     */
+    private void lowerLeftTimesRightTransposeAlgorithm( MatrixReal left , MatrixReal right , boolean accumulate )
+    {
+        for( int i=0; i<this.rows(); i++ ) {
+            double[] leftRow = left.x[ left.rowOffset + i ];
+            for( int j=0; j<=i; j++ ) {
+                double[] rightRow = right.x[ right.rowOffset + j ];
+                double sum = ( accumulate )?  this.entryUnchecked(i,j)  :  0.0;
+                for( int k=0; k<left.columns(); k++ ) {
+                    sum += leftRow[ left.columnOffset + k ] * rightRow[ right.columnOffset + k ];
+                }
+                this.setEntryUnchecked( i,j , sum );
+            }
+        }
+    }
+    
+    
+    /**
+     * Computes the lower triangular part of the product of transpose of left {@link MatrixReal} and right {@link MatrixReal}.
+     * <p>
+     * The multiplication is performed as {@code left^T * right}, and the result is stored in, or added to, the lower triangular part of {@code this}.
+     * This method does not perform any checks because it assumes that the developer will take care of the inputs or implement the checks in the methods using this method.
+     * 
+     * @param left     left factor to be transposed before {@link MatrixReal} multiplication.
+     * @param right    right factor of the {@link MatrixReal} multiplication.
+     * @param accumulate    true to add the product to {@code this}; false to overwrite {@code this}.
+     */
+    private void lowerLeftTransposeTimesRightAlgorithm( MatrixReal left , MatrixReal right , boolean accumulate )
+    {
+        if( !accumulate ) {
+            for( int i=0; i<this.rows(); i++ ) {
+                for( int j=0; j<=i; j++ ) {
+                    this.setEntryUnchecked( i,j , 0.0 );
+                }
+            }
+        }
+        // Traverse the rows of both factors to access them contiguously.
+        for( int k=0; k<left.rows(); k++ ) {
+            double[] leftRow = left.x[ left.rowOffset + k ];
+            double[] rightRow = right.x[ right.rowOffset + k ];
+            for( int i=0; i<this.rows(); i++ ) {
+                double leftEntry = leftRow[ left.columnOffset + i ];
+                double[] thisRow = this.x[ this.rowOffset + i ];
+                for( int j=0; j<=i; j++ ) {
+                    thisRow[ this.columnOffset + j ] += leftEntry * rightRow[ right.columnOffset + j ];
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Copies the lower triangular part of {@code this} square {@link MatrixReal} to its upper triangular part.
+     */
+    private void mirrorLowerTriangle()
+    {
+        for( int i=0; i<this.rows(); i++ ) {
+            for( int j=0; j<i; j++ ) {
+                this.setEntryUnchecked( j,i , this.entryUnchecked(i,j) );
+            }
+        }
+    }
+    
+    
+    /**
+     * Checks the aliasing and the shape of the arguments of the sandwich products.
+     * 
+     * @param A     outer factor of the sandwich product.
+     * @param B     symmetric inner factor of the sandwich product.
+     * @param workspace     {@link MatrixReal} used to store intermediate results.
+     * 
+     * @throws IllegalArgumentException     if {@code this} or {@code workspace} is {@code A}, or if {@code workspace} is {@code this} or {@code B}.
+     * @throws IllegalArgumentException     if {@code B} is not square, or {@code workspace} does not have the size of {@code A}.
+     */
+    private void assertSandwichArguments( MatrixReal A , MatrixReal B , MatrixReal workspace )
+    {
+        if(  this.sharesStorageWith( A )  ||  workspace.sharesStorageWith( A )  ||  workspace.sharesStorageWith( this )  ||  workspace.sharesStorageWith( B )  ) {
+            throw new IllegalArgumentException( "\"workspace\" must be different from \"this\", \"A\" and \"B\", and \"this\" must be different from \"A\"." );
+        }
+        B.assertIsSquare();
+        workspace.assertSize( A.rows() , A.columns() );
+    }
+    
+    
+    /**
+     * Checks that a {@link TriangularPackedMatrixReal} used as Cholesky decomposition is lower triangular.
+     * 
+     * @param L     {@link TriangularPackedMatrixReal} to check.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is upper triangular.
+     */
+    private static void assertLowerTriangular( TriangularPackedMatrixReal L )
+    {
+        if( L.isUpper() ) {
+            throw new IllegalArgumentException( "Cholesky decomposition must be lower triangular." );
+        }
+    }
+    
+    
     
     ////////////////////////////////////////////////////////////////
     /// PRIVATE STATIC METHODS
@@ -1747,6 +2752,57 @@ public class MatrixReal
     }
     
     
+    /**
+     * Computes  {@code W = A * B} , where {@code B} is symmetric and only its lower triangular part is read.
+     * 
+     * @param A     left factor.
+     * @param B     symmetric right factor.
+     * @param W     output {@link MatrixReal} with the size of {@code A}.
+     */
+    private static void leftTimesSymmetricAlgorithm( MatrixReal A , MatrixReal B , MatrixReal W )
+    {
+        int n = B.rows();
+        for( int i=0; i<A.rows(); i++ ) {
+            double[] aRow = A.x[ A.rowOffset + i ];
+            double[] wRow = W.x[ W.rowOffset + i ];
+            for( int j=0; j<n; j++ ) {
+                double sum = 0.0;
+                for( int k=0; k<j; k++ ) {
+                    sum += aRow[ A.columnOffset + k ] * B.entryUnchecked(j,k);
+                }
+                for( int k=j; k<n; k++ ) {
+                    sum += aRow[ A.columnOffset + k ] * B.entryUnchecked(k,j);
+                }
+                wRow[ W.columnOffset + j ] = sum;
+            }
+        }
+    }
+    
+    
+    /**
+     * Computes  {@code W = B * A} , where {@code B} is symmetric and only its lower triangular part is read.
+     * 
+     * @param B     symmetric left factor.
+     * @param A     right factor.
+     * @param W     output {@link MatrixReal} with the size of {@code A}.
+     */
+    private static void symmetricTimesRightAlgorithm( MatrixReal B , MatrixReal A , MatrixReal W )
+    {
+        int n = B.rows();
+        for( int i=0; i<n; i++ ) {
+            double[] wRow = W.x[ W.rowOffset + i ];
+            Arrays.fill( wRow , W.columnOffset , W.columnOffset + W.columns() , 0.0 );
+            for( int k=0; k<n; k++ ) {
+                double b = ( k <= i )?  B.entryUnchecked(i,k)  :  B.entryUnchecked(k,i);
+                double[] aRow = A.x[ A.rowOffset + k ];
+                for( int j=0; j<W.columns(); j++ ) {
+                    wRow[ W.columnOffset + j ] += b * aRow[ A.columnOffset + j ];
+                }
+            }
+        }
+    }
+    
+    
     /**
      * Performs a Cholesky decomposition of the form A = L * L^T.
      * <p>
@@ -1922,6 +2978,198 @@ public class MatrixReal
     }
     
     
+    /**
+     * Solves the equation  L * Y = X  for Y in place, where L is a lower triangular matrix packed row after row.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param unitDiagonal  true to assume that the diagonal of L is made of ones, ignoring the stored diagonal.
+     * @param X     {@link MatrixReal} holding X on input, and Y on output.
+     */
+    private static void leftSolveLowerAlgorithm( double[] a , boolean unitDiagonal , MatrixReal X )
+    {
+        for( int i=0; i<X.rows(); i++ ) {
+            final int rowI = i * ( i + 1 ) / 2;
+            for( int k=0; k<i; k++ ) {
+                final double lik = a[ rowI + k ];
+                for( int j=0; j<X.columns(); j++ ) {
+                    X.setEntryUnchecked( i,j , X.entryUnchecked(i,j) - lik * X.entryUnchecked(k,j) );
+                }
+            }
+            if( !unitDiagonal ) {
+                final double inverseLii = 1.0 / a[ rowI + i ];
+                for( int j=0; j<X.columns(); j++ ) {
+                    X.setEntryUnchecked( i,j , X.entryUnchecked(i,j) * inverseLii );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Solves the equation  L^T * Y = X  for Y in place, where L is a lower triangular matrix packed row after row.
+     * <p>
+     * Each solved row is eliminated from the rows above it, so that L is traversed along its packed rows.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param unitDiagonal  true to assume that the diagonal of L is made of ones, ignoring the stored diagonal.
+     * @param X     {@link MatrixReal} holding X on input, and Y on output.
+     */
+    private static void leftSolveLowerTransposeAlgorithm( double[] a , boolean unitDiagonal , MatrixReal X )
+    {
+        for( int i=X.rows()-1; i>-1; i-- ) {
+            final int rowI = i * ( i + 1 ) / 2;
+            if( !unitDiagonal ) {
+                final double inverseLii = 1.0 / a[ rowI + i ];
+                for( int j=0; j<X.columns(); j++ ) {
+                    X.setEntryUnchecked( i,j , X.entryUnchecked(i,j) * inverseLii );
+                }
+            }
+            for( int k=0; k<i; k++ ) {
+                final double lik = a[ rowI + k ];
+                for( int j=0; j<X.columns(); j++ ) {
+                    X.setEntryUnchecked( k,j , X.entryUnchecked(k,j) - lik * X.entryUnchecked(i,j) );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Solves the equation  Y * L = X  for Y in place, where L is a lower triangular matrix packed row after row.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param X     {@link MatrixReal} holding X on input, and Y on output.
+     */
+    private static void rightSolveLowerAlgorithm( double[] a , MatrixReal X )
+    {
+        for( int p=0; p<X.rows(); p++ ) {
+            for( int k=X.columns()-1; k>-1; k-- ) {
+                final int rowK = k * ( k + 1 ) / 2;
+                final double yk = X.entryUnchecked(p,k) / a[ rowK + k ];
+                X.setEntryUnchecked( p,k , yk );
+                for( int j=0; j<k; j++ ) {
+                    X.setEntryUnchecked( p,j , X.entryUnchecked(p,j) - yk * a[ rowK + j ] );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Solves the equation  Y * L^T = X  for Y in place, where L is a lower triangular matrix packed row after row.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param X     {@link MatrixReal} holding X on input, and Y on output.
+     */
+    private static void rightSolveLowerTransposeAlgorithm( double[] a , MatrixReal X )
+    {
+        for( int p=0; p<X.rows(); p++ ) {
+            for( int k=0; k<X.columns(); k++ ) {
+                final int rowK = k * ( k + 1 ) / 2;
+                double sum = X.entryUnchecked(p,k);
+                for( int j=0; j<k; j++ ) {
+                    sum -= a[ rowK + j ] * X.entryUnchecked(p,j);
+                }
+                X.setEntryUnchecked( p,k , sum / a[ rowK + k ] );
+            }
+        }
+    }
+    
+    
+    /**
+     * Computes  X = L * X  in place, where L is a lower triangular matrix packed row after row.
+     * <p>
+     * Rows are computed from the last one, so each row is overwritten once it is no longer needed.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param X     {@link MatrixReal} to be multiplied.
+     */
+    private static void leftMultiplyLowerAlgorithm( double[] a , MatrixReal X )
+    {
+        for( int i=X.rows()-1; i>-1; i-- ) {
+            final int rowI = i * ( i + 1 ) / 2;
+            final double lii = a[ rowI + i ];
+            for( int j=0; j<X.columns(); j++ ) {
+                X.setEntryUnchecked( i,j , X.entryUnchecked(i,j) * lii );
+            }
+            for( int k=0; k<i; k++ ) {
+                final double lik = a[ rowI + k ];
+                for( int j=0; j<X.columns(); j++ ) {
+                    X.setEntryUnchecked( i,j , X.entryUnchecked(i,j) + lik * X.entryUnchecked(k,j) );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Computes  X = L^T * X  in place, where L is a lower triangular matrix packed row after row.
+     * <p>
+     * Each row of L is scattered to the rows of X above it, so rows are overwritten once they are no longer needed.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param X     {@link MatrixReal} to be multiplied.
+     */
+    private static void leftMultiplyLowerTransposeAlgorithm( double[] a , MatrixReal X )
+    {
+        for( int i=0; i<X.rows(); i++ ) {
+            final int rowI = i * ( i + 1 ) / 2;
+            for( int k=0; k<i; k++ ) {
+                final double lik = a[ rowI + k ];
+                for( int j=0; j<X.columns(); j++ ) {
+                    X.setEntryUnchecked( k,j , X.entryUnchecked(k,j) + lik * X.entryUnchecked(i,j) );
+                }
+            }
+            final double lii = a[ rowI + i ];
+            for( int j=0; j<X.columns(); j++ ) {
+                X.setEntryUnchecked( i,j , X.entryUnchecked(i,j) * lii );
+            }
+        }
+    }
+    
+    
+    /**
+     * Computes  X = X * L  in place, where L is a lower triangular matrix packed row after row.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param X     {@link MatrixReal} to be multiplied.
+     */
+    private static void rightMultiplyLowerAlgorithm( double[] a , MatrixReal X )
+    {
+        for( int p=0; p<X.rows(); p++ ) {
+            for( int k=0; k<X.columns(); k++ ) {
+                final int rowK = k * ( k + 1 ) / 2;
+                final double xk = X.entryUnchecked(p,k);
+                for( int j=0; j<k; j++ ) {
+                    X.setEntryUnchecked( p,j , X.entryUnchecked(p,j) + xk * a[ rowK + j ] );
+                }
+                X.setEntryUnchecked( p,k , xk * a[ rowK + k ] );
+            }
+        }
+    }
+    
+    
+    /**
+     * Computes  X = X * L^T  in place, where L is a lower triangular matrix packed row after row.
+     * 
+     * @param a     lower triangular matrix L packed row after row.
+     * @param X     {@link MatrixReal} to be multiplied.
+     */
+    private static void rightMultiplyLowerTransposeAlgorithm( double[] a , MatrixReal X )
+    {
+        for( int p=0; p<X.rows(); p++ ) {
+            for( int k=X.columns()-1; k>-1; k-- ) {
+                final int rowK = k * ( k + 1 ) / 2;
+                double sum = 0.0;
+                for( int j=0; j<=k; j++ ) {
+                    sum += a[ rowK + j ] * X.entryUnchecked(p,j);
+                }
+                X.setEntryUnchecked( p,k , sum );
+            }
+        }
+    }
+    
+    
     private static MatrixReal absPrivate( MatrixReal input , MatrixReal output )
     {
         for( int i=0; i<input.rows(); i++ ) {
@@ -1931,6 +3179,99 @@ public class MatrixReal
         }
         return output;
     }
+    
+    
+    /**
+     * Computes the squared Mahalanobis distances of a batch of vectors, given as the columns of a {@link MatrixReal} or as a packed array.
+     * <p>
+     * The lower triangular part of {@code L} is copied to a packed array, together with the inverse of its diagonal,
+     * and the batch is split in ranges that are processed in parallel if the amount of work is large enough.
+     * 
+     * @param L     Cholesky decomposition of the positive definite matrix S, so that L L^T = S.
+     * @param columns   {@link MatrixReal} whose columns are the vectors, or null if {@code packedVectors} is used.
+     * @param packedVectors     vectors stored consecutively, or null if {@code columns} is used.
+     * @param output    array where the squared Mahalanobis distances are stored.
+     * 
+     * @throws IllegalArgumentException     if {@code L} is not square, or if {@code columns} does not have as many rows as {@code L}.
+     */
+    private static void distanceMahalanobis2Batch( MatrixReal L , MatrixReal columns , double[] packedVectors , double[] output )
+    {
+        L.assertIsSquare();
+        if( columns != null ) {
+            columns.assertRows( L.rows() );
+        }
+        final int d = L.rows();
+        final int n = output.length;
+        final double[] lowerPacked = new double[ d * ( d + 1 ) / 2 ];
+        final double[] inverseDiagonal = new double[ d ];
+        for( int i=0; i<d; i++ ) {
+            System.arraycopy( L.x[ L.rowOffset + i ] , L.columnOffset , lowerPacked , i * ( i + 1 ) / 2 , i + 1 );
+            inverseDiagonal[i] = 1.0 / L.entryUnchecked(i,i);
+        }
+        if( (long)n * d * d < MatrixReal.PARALLEL_THRESHOLD ) {
+            distanceMahalanobis2Range( lowerPacked , inverseDiagonal , columns , packedVectors , output , 0 , n );
+        } else {
+            final int nChunks = ( n + MatrixReal.PARALLEL_CHUNK_SIZE - 1 ) / MatrixReal.PARALLEL_CHUNK_SIZE;
+            IntStream.range( 0 , nChunks ).parallel().forEach( chunk -> {
+                int from = chunk * MatrixReal.PARALLEL_CHUNK_SIZE;
+                distanceMahalanobis2Range( lowerPacked , inverseDiagonal , columns , packedVectors , output , from , Math.min( from + MatrixReal.PARALLEL_CHUNK_SIZE , n ) );
+            } );
+        }
+    }
+    
+    
+    /**
+     * Computes the squared Mahalanobis distances of the vectors in the range  [ from , to )  of a batch.
+     * <p>
+     * The vectors are processed in blocks of {@link #BATCH_BLOCK_SIZE}.
+     * Each block is transposed to a scratch array where the i-th components of the vectors are contiguous,
+     * so that each entry of  L  is loaded once per block and applied to every vector of the block in the innermost loop.
+     * 
+     * @param lowerPacked   lower triangular part of  L  packed by rows.
+     * @param inverseDiagonal   inverse of the diagonal entries of  L .
+     * @param columns   {@link MatrixReal} whose columns are the vectors, or null if {@code packedVectors} is used.
+     * @param packedVectors     vectors stored consecutively, or null if {@code columns} is used.
+     * @param output    array where the squared Mahalanobis distances are stored.
+     * @param from  first vector of the range.
+     * @param to    vector after the last one of the range.
+     */
+    private static void distanceMahalanobis2Range( double[] lowerPacked , double[] inverseDiagonal , MatrixReal columns , double[] packedVectors , double[] output , int from , int to )
+    {
+        final int d = inverseDiagonal.length;
+        final double[] y = new double[ d * BATCH_BLOCK_SIZE ];
+        for( int blockStart=from; blockStart<to; blockStart+=BATCH_BLOCK_SIZE ) {
+            final int b = Math.min( BATCH_BLOCK_SIZE , to - blockStart );
+            // Load the block so that the i-th components of the vectors are contiguous.
+            for( int i=0; i<d; i++ ) {
+                if( columns != null ) {
+                    System.arraycopy( columns.x[ columns.rowOffset + i ] , columns.columnOffset + blockStart , y , i * BATCH_BLOCK_SIZE , b );
+                } else {
+                    for( int c=0; c<b; c++ ) {
+                        y[ i * BATCH_BLOCK_SIZE + c ] = packedVectors[ ( blockStart + c ) * d + i ];
+                    }
+                }
+            }
+            Arrays.fill( output , blockStart , blockStart + b , 0.0 );
+            // Forward substitution  L y = x  for every vector of the block.
+            for( int i=0; i<d; i++ ) {
+                final int rowOffset = i * ( i + 1 ) / 2;
+                final int yi = i * BATCH_BLOCK_SIZE;
+                for( int k=0; k<i; k++ ) {
+                    final double lik = lowerPacked[ rowOffset + k ];
+                    final int yk = k * BATCH_BLOCK_SIZE;
+                    for( int c=0; c<b; c++ ) {
+                        y[ yi + c ] -= lik * y[ yk + c ];
+                    }
+                }
+                final double inverseLii = inverseDiagonal[i];
+                for( int c=0; c<b; c++ ) {
+                    final double value = y[ yi + c ] * inverseLii;
+                    y[ yi + c ] = value;
+                    output[ blockStart + c ] += value * value;
+                }
+            }
+        }
+    }
 
 
 }
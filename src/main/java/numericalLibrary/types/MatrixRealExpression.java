@@ -0,0 +1,597 @@
+package numericalLibrary.types;
+
+
+
+/**
+ * Implements lazy expressions of {@link MatrixReal} arithmetic, evaluated in a single fused loop.
+ * <p>
+ * Chains of in-place operations such as
+ * <br>
+ * {@code MatrixReal.one(3).scaleInplace(a).subtractInplace(B).scaleInplace(b).addInplace(C.scaleInplace(c))}
+ * <br>
+ * traverse memory once per operation and need temporaries to avoid modifying their operands. The same computation written as
+ * <br>
+ * {@code MatrixRealExpression.identity(3).scale(a).subtract(B).scale(b).add(MatrixRealExpression.of(C).scale(c)).evaluateInto(output)}
+ * <br>
+ * only records the operations in an expression tree; {@link #evaluateInto(MatrixReal)} then compiles the tree into a flat list of row operations
+ * and computes each row of the result from the leaves in one pass, without intermediate matrices and without modifying {@code B} or {@code C}.
+ * Leaves are read directly from their storage, and sums and entrywise products with a (scaled) leaf are applied without copying the leaf.
+ * <p>
+ * Entrywise operations (sums, differences, scalings, entrywise products) and transposes are fused completely.
+ * Matrix products are fused with the operations around them; operands of a product that are not plain matrices are evaluated once into a temporary before the fused loop,
+ * because each of their entries is read many times.
+ * <p>
+ * The benefit is fewer passes over memory and fewer temporaries than the equivalent chain of in-place operations;
+ * whether that makes a given chain faster depends on its size and shape, so measure before replacing existing code.
+ * <p>
+ * Expressions are immutable and reference their leaves without copying them, so the leaves are read at evaluation time.
+ * The destination can be one of the leaves: leaves that would be read after being overwritten are copied before the fused loop.
+ * Sizes are checked when the expression is built.
+ */
+public class MatrixRealExpression
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Node holding a {@link MatrixReal}.
+     */
+    private static final int LEAF = 0;
+    
+    /**
+     * Node holding the identity matrix.
+     */
+    private static final int IDENTITY = 1;
+    
+    /**
+     * Node adding its two operands.
+     */
+    private static final int SUM = 2;
+    
+    /**
+     * Node subtracting its second operand from the first one.
+     */
+    private static final int DIFFERENCE = 3;
+    
+    /**
+     * Node multiplying its operand by a scalar.
+     */
+    private static final int SCALING = 4;
+    
+    /**
+     * Node multiplying its two operands entry by entry.
+     */
+    private static final int ENTRYWISE_PRODUCT = 5;
+    
+    /**
+     * Node computing the matrix product of its two operands.
+     */
+    private static final int PRODUCT = 6;
+    
+    /**
+     * Node transposing its operand.
+     */
+    private static final int TRANSPOSE = 7;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Kind of node.
+     */
+    private final int kind;
+    
+    /**
+     * Number of rows of the result.
+     */
+    private final int nRows;
+    
+    /**
+     * Number of columns of the result.
+     */
+    private final int nCols;
+    
+    /**
+     * {@link MatrixReal} of a leaf node; null otherwise.
+     */
+    private final MatrixReal matrix;
+    
+    /**
+     * First operand of an operation node; null for leaf and identity nodes.
+     */
+    private final MatrixRealExpression left;
+    
+    /**
+     * Second operand of a binary operation node; null otherwise.
+     */
+    private final MatrixRealExpression right;
+    
+    /**
+     * Scalar of a scaling node.
+     */
+    private final double scalar;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of rows of the result of {@code this}.
+     * 
+     * @return  number of rows of the result of {@code this}.
+     */
+    public int rows()
+    {
+        return this.nRows;
+    }
+    
+    
+    /**
+     * Returns the number of columns of the result of {@code this}.
+     * 
+     * @return  number of columns of the result of {@code this}.
+     */
+    public int columns()
+    {
+        return this.nCols;
+    }
+    
+    
+    /**
+     * Returns the expression  {@code this} + {@code other}.
+     * 
+     * @param other     expression to be added.
+     * @return  new expression  {@code this} + {@code other}.
+     * 
+     * @throws IllegalArgumentException     if {@code other} does not have the size of {@code this}.
+     */
+    public MatrixRealExpression add( MatrixRealExpression other )
+    {
+        this.assertSameSize( other );
+        return new MatrixRealExpression( SUM , this.nRows , this.nCols , null , this , other , 0.0 );
+    }
+    
+    
+    /**
+     * Returns the expression  {@code this} + {@code other}.
+     * 
+     * @param other     {@link MatrixReal} to be added.
+     * @return  new expression  {@code this} + {@code other}.
+     * 
+     * @throws IllegalArgumentException     if {@code other} does not have the size of {@code this}.
+     */
+    public MatrixRealExpression add( MatrixReal other )
+    {
+        return this.add( MatrixRealExpression.of( other ) );
+    }
+    
+    
+    /**
+     * Returns the expression  {@code this} - {@code other}.
+     * 
+     * @param other     expression to be subtracted.
+     * @return  new expression  {@code this} - {@code other}.
+     * 
+     * @throws IllegalArgumentException     if {@code other} does not have the size of {@code this}.
+     */
+    public MatrixRealExpression subtract( MatrixRealExpression other )
+    {
+        this.assertSameSize( other );
+        return new MatrixRealExpression( DIFFERENCE , this.nRows , this.nCols , null , this , other , 0.0 );
+    }
+    
+    
+    /**
+     * Returns the expression  {@code this} - {@code other}.
+     * 
+     * @param other     {@link MatrixReal} to be subtracted.
+     * @return  new expression  {@code this} - {@code other}.
+     * 
+     * @throws IllegalArgumentException     if {@code other} does not have the size of {@code this}.
+     */
+    public MatrixRealExpression subtract( MatrixReal other )
+    {
+        return this.subtract( MatrixRealExpression.of( other ) );
+    }
+    
+    
+    /**
+     * Returns the expression  {@code scalar} * {@code this}.
+     * <p>
+     * Consecutive scalings are folded into a single one.
+     * 
+     * @param scalar    scalar that multiplies {@code this}.
+     * @return  new expression  {@code scalar} * {@code this}.
+     */
+    public MatrixRealExpression scale( double scalar )
+    {
+        if( this.kind == SCALING ) {
+            return new MatrixRealExpression( SCALING , this.nRows , this.nCols , null , this.left , null , scalar * this.scalar );
+        }
+        return new MatrixRealExpression( SCALING , this.nRows , this.nCols , null , this , null , scalar );
+    }
+    
+    
+    /**
+     * Returns the expression  -{@code this}.
+     * 
+     * @return  new expression  -{@code this}.
+     */
+    public MatrixRealExpression inverseAdditive()
+    {
+        return this.scale( -1.0 );
+    }
+    
+    
+    /**
+     * Returns the expression whose entries are the products of the entries of {@code this} and {@code other}.
+     * 
+     * @param other     expression to be multiplied entry by entry.
+     * @return  new expression with the entrywise product of {@code this} and {@code other}.
+     * 
+     * @throws IllegalArgumentException     if {@code other} does not have the size of {@code this}.
+     */
+    public MatrixRealExpression multiplyEntrywise( MatrixRealExpression other )
+    {
+        this.assertSameSize( other );
+        return new MatrixRealExpression( ENTRYWISE_PRODUCT , this.nRows , this.nCols , null , this , other , 0.0 );
+    }
+    
+    
+    /**
+     * Returns the expression whose entries are the products of the entries of {@code this} and {@code other}.
+     * 
+     * @param other     {@link MatrixReal} to be multiplied entry by entry.
+     * @return  new expression with the entrywise product of {@code this} and {@code other}.
+     * 
+     * @throws IllegalArgumentException     if {@code other} does not have the size of {@code this}.
+     */
+    public MatrixRealExpression multiplyEntrywise( MatrixReal other )
+    {
+        return this.multiplyEntrywise( MatrixRealExpression.of( other ) );
+    }
+    
+    
+    /**
+     * Returns the expression  {@code this} * {@code other}.
+     * 
+     * @param other     right factor of the matrix product.
+     * @return  new expression  {@code this} * {@code other}.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code other} do not match the columns of {@code this}.
+     */
+    public MatrixRealExpression multiply( MatrixRealExpression other )
+    {
+        if( this.nCols != other.nRows ) {
+            throw new IllegalArgumentException( "Sizes are not compatible for multiplication: " + this.size() + " * " + other.size() + "." );
+        }
+        return new MatrixRealExpression( PRODUCT , this.nRows , other.nCols , null , this , other , 0.0 );
+    }
+    
+    
+    /**
+     * Returns the expression  {@code this} * {@code other}.
+     * 
+     * @param other     right factor of the matrix product.
+     * @return  new expression  {@code this} * {@code other}.
+     * 
+     * @throws IllegalArgumentException     if the rows of {@code other} do not match the columns of {@code this}.
+     */
+    public MatrixRealExpression multiply( MatrixReal other )
+    {
+        return this.multiply( MatrixRealExpression.of( other ) );
+    }
+    
+    
+    /**
+     * Returns the expression  {@code this}^T.
+     * 
+     * @return  new expression  {@code this}^T.
+     */
+    public MatrixRealExpression transpose()
+    {
+        if( this.kind == TRANSPOSE ) {
+            return this.left;
+        }
+        return new MatrixRealExpression( TRANSPOSE , this.nCols , this.nRows , null , this , null , 0.0 );
+    }
+    
+    
+    /**
+     * Evaluates {@code this} into a new {@link MatrixReal}.
+     * 
+     * @return  new {@link MatrixReal} holding the value of {@code this}.
+     */
+    public MatrixReal evaluate()
+    {
+        return this.evaluateInto( MatrixReal.empty( this.nRows , this.nCols ) );
+    }
+    
+    
+    /**
+     * Evaluates {@code this} into {@code destination} in a single pass.
+     * <p>
+     * {@code destination} can be one of the leaves of {@code this}.
+     * 
+     * @param destination   {@link MatrixReal} where the value of {@code this} is stored.
+     * @return  {@code destination}, holding the value of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if {@code destination} does not have the size of {@code this}.
+     */
+    public MatrixReal evaluateInto( MatrixReal destination )
+    {
+        if(  destination.rows() != this.nRows  ||  destination.columns() != this.nCols  ) {
+            throw new IllegalArgumentException( "Destination must be " + this.size() + "; found " + destination.size() + "." );
+        }
+        MatrixRealExpressionPlan plan = new MatrixRealExpressionPlan( this.nRows , this.nCols , this.numberOfNodes() );
+        this.compile( plan , destination , false );
+        plan.evaluateInto( destination );
+        return destination;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the expression made of a single {@link MatrixReal}.
+     * <p>
+     * {@code matrix} is not copied, so it is read when the expression is evaluated.
+     * 
+     * @param matrix    {@link MatrixReal} to be used as leaf of an expression.
+     * @return  new expression whose value is {@code matrix}.
+     */
+    public static MatrixRealExpression of( MatrixReal matrix )
+    {
+        return new MatrixRealExpression( LEAF , matrix.rows() , matrix.columns() , matrix , null , null , 0.0 );
+    }
+    
+    
+    /**
+     * Returns the expression of the identity matrix, which is never stored.
+     * 
+     * @param dimension     number of rows and columns of the identity matrix.
+     * @return  new expression whose value is the identity matrix.
+     */
+    public static MatrixRealExpression identity( int dimension )
+    {
+        return new MatrixRealExpression( IDENTITY , dimension , dimension , null , null , null , 0.0 );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a node of an expression tree.
+     * 
+     * @param kind  kind of node.
+     * @param rows  number of rows of the result.
+     * @param columns   number of columns of the result.
+     * @param matrix    {@link MatrixReal} of a leaf node; null otherwise.
+     * @param left  first operand; null for leaf and identity nodes.
+     * @param right     second operand; null for nodes that are not binary operations.
+     * @param scalar    scalar of a scaling node.
+     */
+    private MatrixRealExpression( int kind , int rows , int columns , MatrixReal matrix , MatrixRealExpression left , MatrixRealExpression right , double scalar )
+    {
+        this.kind = kind;
+        this.nRows = rows;
+        this.nCols = columns;
+        this.matrix = matrix;
+        this.left = left;
+        this.right = right;
+        this.scalar = scalar;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Appends to {@code plan} the instructions that push the rows of the value of {@code this}, or of its transpose.
+     * <p>
+     * Transposes are pushed down to the leaves, and scaled leaves are combined with the rows on the stack without being loaded first.
+     * Leaves that share storage with {@code destination} are replaced by copies unless they are read row by row from {@code destination} itself,
+     * because each row of {@code destination} is only written after being computed completely.
+     * 
+     * @param plan  plan where the instructions are appended.
+     * @param destination   {@link MatrixReal} where the plan will be evaluated.
+     * @param transposed    true if the transpose of {@code this} is to be computed.
+     */
+    private void compile( MatrixRealExpressionPlan plan , MatrixReal destination , boolean transposed )
+    {
+        switch( this.kind ) {
+            case LEAF:
+                plan.load( this.readableLeaf( destination , !transposed ) , transposed , 1.0 );
+                break;
+            case IDENTITY:
+                plan.loadIdentity();
+                break;
+            case SCALING:
+                if( this.left.kind == LEAF ) {
+                    plan.load( this.left.readableLeaf( destination , !transposed ) , transposed , this.scalar );
+                } else {
+                    this.left.compile( plan , destination , transposed );
+                    plan.scale( this.scalar );
+                }
+                break;
+            case TRANSPOSE:
+                this.left.compile( plan , destination , !transposed );
+                break;
+            case PRODUCT:
+                this.compileProduct( plan , destination , transposed );
+                break;
+            default:
+                // SUM, DIFFERENCE, ENTRYWISE_PRODUCT
+                this.left.compile( plan , destination , transposed );
+                this.compileRightOperand( plan , destination , transposed );
+                break;
+        }
+    }
+    
+    
+    /**
+     * Appends to {@code plan} the instructions that combine the rows on top of the stack with the right operand of {@code this}.
+     * 
+     * @param plan  plan where the instructions are appended.
+     * @param destination   {@link MatrixReal} where the plan will be evaluated.
+     * @param transposed    true if the transpose of {@code this} is to be computed.
+     */
+    private void compileRightOperand( MatrixRealExpressionPlan plan , MatrixReal destination , boolean transposed )
+    {
+        MatrixRealExpression operand = this.right;
+        double factor = 1.0;
+        if(  operand.kind == SCALING  &&  operand.left.kind == LEAF  &&  this.kind != ENTRYWISE_PRODUCT  ) {
+            factor = operand.scalar;
+            operand = operand.left;
+        }
+        if( operand.kind == LEAF ) {
+            MatrixReal leaf = operand.readableLeaf( destination , !transposed );
+            switch( this.kind ) {
+                case SUM:
+                    plan.addLeaf( leaf , transposed , factor );
+                    break;
+                case DIFFERENCE:
+                    plan.addLeaf( leaf , transposed , -factor );
+                    break;
+                default:
+                    // ENTRYWISE_PRODUCT
+                    plan.multiplyLeaf( leaf , transposed );
+                    break;
+            }
+            return;
+        }
+        operand.compile( plan , destination , transposed );
+        switch( this.kind ) {
+            case SUM:
+                plan.add();
+                break;
+            case DIFFERENCE:
+                plan.subtract();
+                break;
+            default:
+                // ENTRYWISE_PRODUCT
+                plan.multiplyEntrywise();
+                break;
+        }
+    }
+    
+    
+    /**
+     * Appends to {@code plan} the instruction that pushes the rows of the product {@code this}, or of its transpose.
+     * <p>
+     * Products with the identity are replaced by the other factor.
+     * Factors that are neither leaves nor transposed leaves are evaluated into temporaries, because each of their entries is read many times.
+     * 
+     * @param plan  plan where the instructions are appended.
+     * @param destination   {@link MatrixReal} where the plan will be evaluated.
+     * @param transposed    true if the transpose of {@code this} is to be computed.
+     */
+    private void compileProduct( MatrixRealExpressionPlan plan , MatrixReal destination , boolean transposed )
+    {
+        // ( L * R )^T = R^T * L^T
+        MatrixRealExpression first = ( transposed )?  this.right  :  this.left;
+        MatrixRealExpression second = ( transposed )?  this.left  :  this.right;
+        boolean firstTransposed = transposed;
+        boolean secondTransposed = transposed;
+        if( first.kind == TRANSPOSE ) {
+            first = first.left;
+            firstTransposed = !firstTransposed;
+        }
+        if( second.kind == TRANSPOSE ) {
+            second = second.left;
+            secondTransposed = !secondTransposed;
+        }
+        if( first.kind == IDENTITY ) {
+            second.compile( plan , destination , secondTransposed );
+        } else if( second.kind == IDENTITY ) {
+            first.compile( plan , destination , firstTransposed );
+        } else {
+            plan.product( first.factor( destination ) , firstTransposed , second.factor( destination ) , secondTransposed );
+        }
+    }
+    
+    
+    /**
+     * Returns a {@link MatrixReal} holding the value of {@code this} that can be read in any order while {@code destination} is written.
+     * 
+     * @param destination   {@link MatrixReal} where the product will be evaluated.
+     * @return  leaf of {@code this}, a copy of it, or a temporary with the value of {@code this}.
+     */
+    private MatrixReal factor( MatrixReal destination )
+    {
+        return ( this.kind == LEAF )?  this.readableLeaf( destination , false )  :  this.evaluate();
+    }
+    
+    
+    /**
+     * Returns the {@link MatrixReal} of the leaf {@code this}, or a copy of it if it would be read after being overwritten in {@code destination}.
+     * 
+     * @param destination   {@link MatrixReal} where the plan will be evaluated.
+     * @param byRows    true if the i-th row of the leaf is only read while the i-th row of {@code destination} is computed.
+     * @return  {@link MatrixReal} that can be read safely.
+     */
+    private MatrixReal readableLeaf( MatrixReal destination , boolean byRows )
+    {
+        boolean overwritten = (  this.matrix.sharesStorageWith( destination )  &&  !( byRows  &&  this.matrix == destination )  );
+        return ( overwritten )?  this.matrix.copy()  :  this.matrix;
+    }
+    
+    
+    /**
+     * Returns the number of nodes of {@code this}, which bounds the number of instructions of its plan.
+     * 
+     * @return  number of nodes of {@code this}.
+     */
+    private int numberOfNodes()
+    {
+        int count = 1;
+        if( this.left != null ) {
+            count += this.left.numberOfNodes();
+        }
+        if( this.right != null ) {
+            count += this.right.numberOfNodes();
+        }
+        return count;
+    }
+    
+    
+    /**
+     * Checks that {@code other} has the size of {@code this}.
+     * 
+     * @param other     expression to be checked.
+     * 
+     * @throws IllegalArgumentException     if {@code other} does not have the size of {@code this}.
+     */
+    private void assertSameSize( MatrixRealExpression other )
+    {
+        if(  this.nRows != other.nRows  ||  this.nCols != other.nCols  ) {
+            throw new IllegalArgumentException( "Same size is required: " + this.size() + " != " + other.size() );
+        }
+    }
+    
+    
+    /**
+     * Returns the size of the result of {@code this} as a {@link String}.
+     * 
+     * @return  size of the result of {@code this}.
+     */
+    private String size()
+    {
+        return this.nRows + " x " + this.nCols;
+    }
+    
+}
@@ -0,0 +1,503 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+
+
+
+/**
+ * Implements the compiled form of a {@link MatrixRealExpression}.
+ * <p>
+ * The expression tree is flattened into a postorder list of instructions that operate on whole rows.
+ * Each row of the result is computed by running the instructions on a stack of row buffers,
+ * so the cost of dispatching an instruction is paid once per row instead of once per entry.
+ * Leaves are read directly from their storage; transposes only appear as a flag of the leaves that are read by columns.
+ * <p>
+ * The instructions {@link #ADD_LEAF} and {@link #MULTIPLY_LEAF} combine the top of the stack with a leaf without loading it into a buffer,
+ * which covers the common shapes  a * X + b * Y  and  X o Y + Z.
+ * <p>
+ * A plan is built by {@link MatrixRealExpression#evaluateInto(MatrixReal)} for a single evaluation, and is not meant to be shared between threads.
+ */
+final class MatrixRealExpressionPlan
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Pushes the scaled row of a leaf.
+     */
+    private static final int LOAD = 0;
+    
+    /**
+     * Pushes the row of the identity matrix.
+     */
+    private static final int LOAD_IDENTITY = 1;
+    
+    /**
+     * Scales the row on top of the stack.
+     */
+    private static final int SCALE = 2;
+    
+    /**
+     * Pops the row on top of the stack and adds it to the new top.
+     */
+    private static final int ADD = 3;
+    
+    /**
+     * Pops the row on top of the stack and subtracts it from the new top.
+     */
+    private static final int SUBTRACT = 4;
+    
+    /**
+     * Pops the row on top of the stack and multiplies it entry by entry with the new top.
+     */
+    private static final int MULTIPLY_ENTRYWISE = 5;
+    
+    /**
+     * Adds the scaled row of a leaf to the row on top of the stack.
+     */
+    private static final int ADD_LEAF = 6;
+    
+    /**
+     * Multiplies the row on top of the stack entry by entry with the row of a leaf.
+     */
+    private static final int MULTIPLY_LEAF = 7;
+    
+    /**
+     * Pushes the row of the product of two leaves.
+     */
+    private static final int PRODUCT = 8;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of rows of the result.
+     */
+    private final int nRows;
+    
+    /**
+     * Number of columns of the result, which is the length of every row buffer.
+     */
+    private final int nCols;
+    
+    /**
+     * Instruction codes.
+     */
+    private final int[] code;
+    
+    /**
+     * Leaf read by each instruction; left factor of products; null for instructions that do not read leaves.
+     */
+    private final MatrixReal[] first;
+    
+    /**
+     * Right factor of products; null for other instructions.
+     */
+    private final MatrixReal[] second;
+    
+    /**
+     * True if {@link #first} is read transposed.
+     */
+    private final boolean[] firstTransposed;
+    
+    /**
+     * True if {@link #second} is read transposed.
+     */
+    private final boolean[] secondTransposed;
+    
+    /**
+     * Scalar of each instruction.
+     */
+    private final double[] scalar;
+    
+    /**
+     * Number of instructions.
+     */
+    private int length;
+    
+    /**
+     * Number of rows that the stack holds after the last instruction.
+     */
+    private int stackSize;
+    
+    /**
+     * Largest number of rows held by the stack.
+     */
+    private int stackCapacity;
+    
+    /**
+     * Largest inner dimension of the products.
+     */
+    private int factorRowCapacity;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs an empty plan.
+     * 
+     * @param rows  number of rows of the result.
+     * @param columns   number of columns of the result.
+     * @param maximumLength     maximum number of instructions.
+     */
+    MatrixRealExpressionPlan( int rows , int columns , int maximumLength )
+    {
+        this.nRows = rows;
+        this.nCols = columns;
+        this.code = new int[ maximumLength ];
+        this.first = new MatrixReal[ maximumLength ];
+        this.second = new MatrixReal[ maximumLength ];
+        this.firstTransposed = new boolean[ maximumLength ];
+        this.secondTransposed = new boolean[ maximumLength ];
+        this.scalar = new double[ maximumLength ];
+        this.length = 0;
+        this.stackSize = 0;
+        this.stackCapacity = 0;
+        this.factorRowCapacity = 0;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Appends an instruction that pushes the rows of  {@code factor} * {@code leaf}.
+     * 
+     * @param leaf  {@link MatrixReal} to be read.
+     * @param transposed    true if {@code leaf} is read transposed.
+     * @param factor    scalar that multiplies {@code leaf}.
+     */
+    void load( MatrixReal leaf , boolean transposed , double factor )
+    {
+        this.append( LOAD , leaf , transposed , null , false , factor , 1 );
+    }
+    
+    
+    /**
+     * Appends an instruction that pushes the rows of the identity matrix.
+     */
+    void loadIdentity()
+    {
+        this.append( LOAD_IDENTITY , null , false , null , false , 0.0 , 1 );
+    }
+    
+    
+    /**
+     * Appends an instruction that scales the rows on top of the stack.
+     * 
+     * @param factor    scalar that multiplies the top of the stack.
+     */
+    void scale( double factor )
+    {
+        this.append( SCALE , null , false , null , false , factor , 0 );
+    }
+    
+    
+    /**
+     * Appends an instruction that replaces the two rows on top of the stack by their sum.
+     */
+    void add()
+    {
+        this.append( ADD , null , false , null , false , 0.0 , -1 );
+    }
+    
+    
+    /**
+     * Appends an instruction that replaces the two rows on top of the stack by their difference.
+     */
+    void subtract()
+    {
+        this.append( SUBTRACT , null , false , null , false , 0.0 , -1 );
+    }
+    
+    
+    /**
+     * Appends an instruction that replaces the two rows on top of the stack by their entrywise product.
+     */
+    void multiplyEntrywise()
+    {
+        this.append( MULTIPLY_ENTRYWISE , null , false , null , false , 0.0 , -1 );
+    }
+    
+    
+    /**
+     * Appends an instruction that adds  {@code factor} * {@code leaf}  to the rows on top of the stack.
+     * 
+     * @param leaf  {@link MatrixReal} to be added.
+     * @param transposed    true if {@code leaf} is read transposed.
+     * @param factor    scalar that multiplies {@code leaf}.
+     */
+    void addLeaf( MatrixReal leaf , boolean transposed , double factor )
+    {
+        this.append( ADD_LEAF , leaf , transposed , null , false , factor , 0 );
+    }
+    
+    
+    /**
+     * Appends an instruction that multiplies the rows on top of the stack entry by entry with {@code leaf}.
+     * 
+     * @param leaf  {@link MatrixReal} to be multiplied.
+     * @param transposed    true if {@code leaf} is read transposed.
+     */
+    void multiplyLeaf( MatrixReal leaf , boolean transposed )
+    {
+        this.append( MULTIPLY_LEAF , leaf , transposed , null , false , 1.0 , 0 );
+    }
+    
+    
+    /**
+     * Appends an instruction that pushes the rows of  {@code left} * {@code right}.
+     * 
+     * @param left  left factor.
+     * @param leftTransposed    true if {@code left} is read transposed.
+     * @param right     right factor.
+     * @param rightTransposed   true if {@code right} is read transposed.
+     */
+    void product( MatrixReal left , boolean leftTransposed , MatrixReal right , boolean rightTransposed )
+    {
+        this.append( PRODUCT , left , leftTransposed , right , rightTransposed , 0.0 , 1 );
+        int innerDimension = ( leftTransposed )?  left.rows()  :  left.columns();
+        this.factorRowCapacity = Math.max( this.factorRowCapacity , innerDimension );
+    }
+    
+    
+    /**
+     * Runs the plan row by row, writing each row of the result into {@code destination}.
+     * <p>
+     * Each row is computed completely before it is written, so a leaf can be {@code destination} itself as long as it is read by rows.
+     * 
+     * @param destination   {@link MatrixReal} where the result is stored.
+     */
+    void evaluateInto( MatrixReal destination )
+    {
+        double[][] stack = new double[ this.stackCapacity ][ this.nCols ];
+        double[] factorRow = new double[ this.factorRowCapacity ];
+        int destinationColumn = destination.storageColumnOffset();
+        for( int i=0; i<this.nRows; i++ ) {
+            int top = -1;
+            for( int p=0; p<this.length; p++ ) {
+                switch( this.code[p] ) {
+                    case LOAD:
+                        top++;
+                        this.loadRow( stack[top] , this.first[p] , this.firstTransposed[p] , this.scalar[p] , i );
+                        break;
+                    case LOAD_IDENTITY:
+                        top++;
+                        Arrays.fill( stack[top] , 0.0 );
+                        if( i < this.nCols ) {
+                            stack[top][i] = 1.0;
+                        }
+                        break;
+                    case SCALE:
+                        double[] scaled = stack[top];
+                        double factor = this.scalar[p];
+                        for( int j=0; j<this.nCols; j++ ) {
+                            scaled[j] = factor * scaled[j];
+                        }
+                        break;
+                    case ADD:
+                        top--;
+                        double[] sum = stack[top];
+                        double[] addend = stack[top+1];
+                        for( int j=0; j<this.nCols; j++ ) {
+                            sum[j] += addend[j];
+                        }
+                        break;
+                    case SUBTRACT:
+                        top--;
+                        double[] difference = stack[top];
+                        double[] subtrahend = stack[top+1];
+                        for( int j=0; j<this.nCols; j++ ) {
+                            difference[j] -= subtrahend[j];
+                        }
+                        break;
+                    case MULTIPLY_ENTRYWISE:
+                        top--;
+                        double[] product = stack[top];
+                        double[] multiplier = stack[top+1];
+                        for( int j=0; j<this.nCols; j++ ) {
+                            product[j] *= multiplier[j];
+                        }
+                        break;
+                    case ADD_LEAF:
+                        this.addLeafRow( stack[top] , this.first[p] , this.firstTransposed[p] , this.scalar[p] , i );
+                        break;
+                    case MULTIPLY_LEAF:
+                        this.multiplyLeafRow( stack[top] , this.first[p] , this.firstTransposed[p] , i );
+                        break;
+                    default:
+                        // PRODUCT
+                        top++;
+                        this.productRow( stack[top] , factorRow , this.first[p] , this.firstTransposed[p] , this.second[p] , this.secondTransposed[p] , i );
+                        break;
+                }
+            }
+            System.arraycopy( stack[0] , 0 , destination.storageRow( i ) , destinationColumn , this.nCols );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Appends an instruction.
+     * 
+     * @param instruction   instruction code.
+     * @param left  first {@link MatrixReal} read by the instruction.
+     * @param leftTransposed    true if {@code left} is read transposed.
+     * @param right     second {@link MatrixReal} read by the instruction.
+     * @param rightTransposed   true if {@code right} is read transposed.
+     * @param factor    scalar of the instruction.
+     * @param stackChange   change in the number of rows held by the stack.
+     */
+    private void append( int instruction , MatrixReal left , boolean leftTransposed , MatrixReal right , boolean rightTransposed , double factor , int stackChange )
+    {
+        this.code[ this.length ] = instruction;
+        this.first[ this.length ] = left;
+        this.firstTransposed[ this.length ] = leftTransposed;
+        this.second[ this.length ] = right;
+        this.secondTransposed[ this.length ] = rightTransposed;
+        this.scalar[ this.length ] = factor;
+        this.length++;
+        this.stackSize += stackChange;
+        this.stackCapacity = Math.max( this.stackCapacity , this.stackSize );
+    }
+    
+    
+    /**
+     * Stores  {@code factor} * (i-th row of {@code leaf})  in {@code row}.
+     * 
+     * @param row   row buffer.
+     * @param leaf  {@link MatrixReal} to be read.
+     * @param transposed    true if {@code leaf} is read transposed.
+     * @param factor    scalar that multiplies {@code leaf}.
+     * @param i     row index.
+     */
+    private void loadRow( double[] row , MatrixReal leaf , boolean transposed , double factor , int i )
+    {
+        int column = leaf.storageColumnOffset();
+        if( transposed ) {
+            column += i;
+            for( int j=0; j<this.nCols; j++ ) {
+                row[j] = factor * leaf.storageRow( j )[ column ];
+            }
+        } else {
+            double[] leafRow = leaf.storageRow( i );
+            for( int j=0; j<this.nCols; j++ ) {
+                row[j] = factor * leafRow[ column + j ];
+            }
+        }
+    }
+    
+    
+    /**
+     * Adds  {@code factor} * (i-th row of {@code leaf})  to {@code row}.
+     * 
+     * @param row   row buffer.
+     * @param leaf  {@link MatrixReal} to be read.
+     * @param transposed    true if {@code leaf} is read transposed.
+     * @param factor    scalar that multiplies {@code leaf}.
+     * @param i     row index.
+     */
+    private void addLeafRow( double[] row , MatrixReal leaf , boolean transposed , double factor , int i )
+    {
+        int column = leaf.storageColumnOffset();
+        if( transposed ) {
+            column += i;
+            for( int j=0; j<this.nCols; j++ ) {
+                row[j] += factor * leaf.storageRow( j )[ column ];
+            }
+        } else {
+            double[] leafRow = leaf.storageRow( i );
+            for( int j=0; j<this.nCols; j++ ) {
+                row[j] += factor * leafRow[ column + j ];
+            }
+        }
+    }
+    
+    
+    /**
+     * Multiplies {@code row} entry by entry with the i-th row of {@code leaf}.
+     * 
+     * @param row   row buffer.
+     * @param leaf  {@link MatrixReal} to be read.
+     * @param transposed    true if {@code leaf} is read transposed.
+     * @param i     row index.
+     */
+    private void multiplyLeafRow( double[] row , MatrixReal leaf , boolean transposed , int i )
+    {
+        int column = leaf.storageColumnOffset();
+        if( transposed ) {
+            column += i;
+            for( int j=0; j<this.nCols; j++ ) {
+                row[j] *= leaf.storageRow( j )[ column ];
+            }
+        } else {
+            double[] leafRow = leaf.storageRow( i );
+            for( int j=0; j<this.nCols; j++ ) {
+                row[j] *= leafRow[ column + j ];
+            }
+        }
+    }
+    
+    
+    /**
+     * Stores the i-th row of  {@code left} * {@code right}  in {@code row}.
+     * 
+     * @param row   row buffer.
+     * @param factorRow     buffer where the i-th row of {@code left} is gathered.
+     * @param left  left factor.
+     * @param leftTransposed    true if {@code left} is read transposed.
+     * @param right     right factor.
+     * @param rightTransposed   true if {@code right} is read transposed.
+     * @param i     row index.
+     */
+    private void productRow( double[] row , double[] factorRow , MatrixReal left , boolean leftTransposed , MatrixReal right , boolean rightTransposed , int i )
+    {
+        int innerDimension = ( leftTransposed )?  left.rows()  :  left.columns();
+        int leftColumn = left.storageColumnOffset();
+        if( leftTransposed ) {
+            for( int k=0; k<innerDimension; k++ ) {
+                factorRow[k] = left.storageRow( k )[ leftColumn + i ];
+            }
+        } else {
+            System.arraycopy( left.storageRow( i ) , leftColumn , factorRow , 0 , innerDimension );
+        }
+        int rightColumn = right.storageColumnOffset();
+        if( rightTransposed ) {
+            // Entry j is the dot product with the j-th row of right.
+            for( int j=0; j<this.nCols; j++ ) {
+                double[] rightRow = right.storageRow( j );
+                double sum = 0.0;
+                for( int k=0; k<innerDimension; k++ ) {
+                    sum += factorRow[k] * rightRow[ rightColumn + k ];
+                }
+                row[j] = sum;
+            }
+        } else {
+            // Rows of right are accumulated in order, so memory is read sequentially.
+            Arrays.fill( row , 0.0 );
+            for( int k=0; k<innerDimension; k++ ) {
+                double leftEntry = factorRow[k];
+                double[] rightRow = right.storageRow( k );
+                for( int j=0; j<this.nCols; j++ ) {
+                    row[j] += leftEntry * rightRow[ rightColumn + j ];
+                }
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,433 @@
+package numericalLibrary.types;
+
+
+
+/**
+ * Implements scoped workspaces that recycle the storage of temporary {@link MatrixReal}s.
+ * <p>
+ * A scope is opened with {@link #open()} and hands out temporaries through {@link #matrix(int, int)} and {@link #emptyWithSizeOf(MatrixReal)},
+ * and through counterparts of the allocating methods of {@link MatrixReal}:
+ * <ul>
+ * <li> {@link #copyOf(MatrixReal)} for {@link MatrixReal#copy()},
+ * <li> {@link #transposeOf(MatrixReal)} for {@link MatrixReal#transpose()},
+ * <li> {@link #sum(MatrixReal, MatrixReal)} for {@link MatrixReal#add(MatrixReal)},
+ * <li> {@link #difference(MatrixReal, MatrixReal)} for {@link MatrixReal#subtract(MatrixReal)},
+ * <li> {@link #scaled(MatrixReal, double)} for {@link MatrixReal#scale(double)},
+ * <li> {@link #product(MatrixReal, MatrixReal)} for {@link MatrixReal#multiply(MatrixReal)},
+ * <li> {@link #leftTransposeTimesRight(MatrixReal, MatrixReal)} and {@link #leftTimesRightTranspose(MatrixReal, MatrixReal)} for products with a transposed factor,
+ * <li> {@link #choleskyDecompositionOf(MatrixReal)} for {@link MatrixReal#choleskyDecomposition()},
+ * <li> {@link #submatrixOf(MatrixReal, int, int, int, int)} for {@link MatrixReal#submatrix(int, int, int, int)}.
+ * </ul>
+ * Moving code into a scope changes each allocating call into one call to its counterpart; the rest of the chain, usually made of in-place methods, is unchanged.
+ * The storage of the temporaries is recycled from previous scopes of the same thread, and all of it is given back when the scope is closed:
+ * <pre>
+ * try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+ *     MatrixReal S = workspace.leftTransposeTimesRight( J , J ).addInplace( D );
+ *     result.setTo( workspace.choleskyDecompositionOf( S ) );     // result was created outside the scope
+ * }                                                               // S and its decomposition given back to the workspace
+ * </pre>
+ * After a few iterations, loops that open a scope per iteration do not allocate storage for their temporaries anymore.
+ * <p>
+ * Only the matrices handed out by a workspace are recycled; every other {@link MatrixReal}, including the results of methods that are not in-place,
+ * allocates its own storage as usual, even if it is created while a scope is open.
+ * Matrices handed out by a scope must not be used after the scope is closed, because their storage will be handed out again.
+ * Recycled storage is filled with zeros before being handed out.
+ * <p>
+ * Storage given back by closed scopes stays pooled by the thread until {@link #releasePooledStorage()} is called on it, or until the thread ends.
+ * The pool is bounded: it keeps at most 8 arrays of each size, at most 32 different sizes, and at most 2^22 entries in total,
+ * dropping the least recently used sizes first; storage that does not fit is left to the garbage collector.
+ * Long-lived threads, such as those of a thread pool, should call {@link #releasePooledStorage()} when they are done with a workload.
+ * <p>
+ * Each call to {@link #open()} returns a new scope, confined to the thread that opened it.
+ * Scopes can be nested, but they must be closed in the reverse order of opening, and only the innermost open scope can hand out matrices.
+ * Closing a scope that is already closed does nothing.
+ */
+public class MatrixRealWorkspace
+    implements AutoCloseable
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE STATIC VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Storage pool of each thread.
+     */
+    private static final ThreadLocal<MatrixRealWorkspacePool> POOLS = ThreadLocal.withInitial( MatrixRealWorkspacePool::new );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Storage pool of the thread that opened {@code this}.
+     */
+    private final MatrixRealWorkspacePool pool;
+    
+    /**
+     * Amount of storage handed out by the pool when {@code this} was opened.
+     */
+    private final int mark;
+    
+    /**
+     * True once {@code this} has been closed.
+     */
+    private boolean closed;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link MatrixReal} full of zeros whose storage is recycled when {@code this} is closed.
+     * 
+     * @param numberOfRows  number of rows for the returned matrix.
+     * @param numberOfColumns   number of columns for the returned matrix.
+     * @return  matrix full of zeros with the given size, valid until {@code this} is closed.
+     * 
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     */
+    public MatrixReal matrix( int numberOfRows , int numberOfColumns )
+    {
+        this.assertInnermostOpenScope();
+        return MatrixReal.wrapStorage( this.pool.take( numberOfRows , numberOfColumns ) , numberOfRows , numberOfColumns );
+    }
+    
+    
+    /**
+     * Returns a {@link MatrixReal} full of zeros with the size of {@code other}, whose storage is recycled when {@code this} is closed.
+     * 
+     * @param other     matrix whose size will be copied.
+     * @return  matrix full of zeros with the size of {@code other}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     */
+    public MatrixReal emptyWithSizeOf( MatrixReal other )
+    {
+        return this.matrix( other.rows() , other.columns() );
+    }
+    
+    
+    /**
+     * Returns a copy of {@code other} whose storage is recycled when {@code this} is closed.
+     * 
+     * @param other     matrix to be copied.
+     * @return  copy of {@code other}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#copy()
+     */
+    public MatrixReal copyOf( MatrixReal other )
+    {
+        return this.emptyWithSizeOf( other ).setTo( other );
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code other} in a matrix whose storage is recycled when {@code this} is closed.
+     * 
+     * @param other     matrix to be transposed.
+     * @return  transpose of {@code other}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#transpose()
+     */
+    public MatrixReal transposeOf( MatrixReal other )
+    {
+        return this.matrix( other.columns() , other.rows() ).setToTransposeOf( other );
+    }
+    
+    
+    /**
+     * Returns  {@code left} + {@code right}  in a matrix whose storage is recycled when {@code this} is closed.
+     * 
+     * @param left  first term of the sum.
+     * @param right     second term of the sum.
+     * @return  sum of {@code left} and {@code right}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalArgumentException     if {@code left} and {@code right} do not have the same size.
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#add(MatrixReal)
+     */
+    public MatrixReal sum( MatrixReal left , MatrixReal right )
+    {
+        return this.copyOf( left ).addInplace( right );
+    }
+    
+    
+    /**
+     * Returns  {@code left} - {@code right}  in a matrix whose storage is recycled when {@code this} is closed.
+     * 
+     * @param left  minuend.
+     * @param right     subtrahend.
+     * @return  difference of {@code left} and {@code right}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalArgumentException     if {@code left} and {@code right} do not have the same size.
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#subtract(MatrixReal)
+     */
+    public MatrixReal difference( MatrixReal left , MatrixReal right )
+    {
+        return this.copyOf( left ).subtractInplace( right );
+    }
+    
+    
+    /**
+     * Returns  {@code scalar} * {@code other}  in a matrix whose storage is recycled when {@code this} is closed.
+     * 
+     * @param other     matrix to be scaled.
+     * @param scalar    scale factor.
+     * @return  {@code other} scaled by {@code scalar}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#scale(double)
+     */
+    public MatrixReal scaled( MatrixReal other , double scalar )
+    {
+        return this.copyOf( other ).scaleInplace( scalar );
+    }
+    
+    
+    /**
+     * Returns  {@code left} * {@code right}  in a matrix whose storage is recycled when {@code this} is closed.
+     * 
+     * @param left  left factor of the product.
+     * @param right     right factor of the product.
+     * @return  product of {@code left} and {@code right}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalArgumentException     if {@code right} does not have as many rows as {@code left} columns.
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#multiply(MatrixReal)
+     */
+    public MatrixReal product( MatrixReal left , MatrixReal right )
+    {
+        return this.matrix( left.rows() , right.columns() ).setToLeftTimesRight( left , right );
+    }
+    
+    
+    /**
+     * Returns  {@code left}^T * {@code right}  in a matrix whose storage is recycled when {@code this} is closed.
+     * 
+     * @param left  left factor of the product, to be transposed.
+     * @param right     right factor of the product.
+     * @return  product of the transpose of {@code left} and {@code right}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalArgumentException     if {@code right} does not have as many rows as {@code left}.
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#setToLeftTransposeTimesRight(MatrixReal, MatrixReal)
+     */
+    public MatrixReal leftTransposeTimesRight( MatrixReal left , MatrixReal right )
+    {
+        return this.matrix( left.columns() , right.columns() ).setToLeftTransposeTimesRight( left , right );
+    }
+    
+    
+    /**
+     * Returns  {@code left} * {@code right}^T  in a matrix whose storage is recycled when {@code this} is closed.
+     * 
+     * @param left  left factor of the product.
+     * @param right     right factor of the product, to be transposed.
+     * @return  product of {@code left} and the transpose of {@code right}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalArgumentException     if {@code right} does not have as many columns as {@code left}.
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#setToLeftTimesRightTranspose(MatrixReal, MatrixReal)
+     */
+    public MatrixReal leftTimesRightTranspose( MatrixReal left , MatrixReal right )
+    {
+        return this.matrix( left.rows() , right.rows() ).setToLeftTimesRightTranspose( left , right );
+    }
+    
+    
+    /**
+     * Returns the Cholesky decomposition L of {@code other}, such that  {@code other} = L L^T,  in a matrix whose storage is recycled when {@code this} is closed.
+     * <p>
+     * As in {@link MatrixReal#choleskyDecomposition()}, only the diagonal and the lower triangular part of {@code other} are read.
+     * 
+     * @param other     positive-definite matrix to be decomposed.
+     * @return  lower triangular Cholesky factor of {@code other}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalArgumentException     if {@code other} is not square, not positive-definite, or if NaNs are found.
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#choleskyDecomposition()
+     */
+    public MatrixReal choleskyDecompositionOf( MatrixReal other )
+    {
+        return this.copyOf( other ).choleskyDecompositionInplace();
+    }
+    
+    
+    /**
+     * Returns a copy of a block of {@code other} whose storage is recycled when {@code this} is closed.
+     * 
+     * @param other     matrix from which the block is copied.
+     * @param i     row index of {@code other} where the block starts.
+     * @param j     column index of {@code other} where the block starts.
+     * @param numberOfRows  number of rows of the block.
+     * @param numberOfColumns   number of columns of the block.
+     * @return  copy of the block of {@code other}, valid until {@code this} is closed.
+     * 
+     * @throws IllegalArgumentException     if the block is not inside {@code other}.
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, if {@code this} is closed, or if a nested scope is open.
+     * 
+     * @see MatrixReal#submatrix(int, int, int, int)
+     */
+    public MatrixReal submatrixOf( MatrixReal other , int i , int j , int numberOfRows , int numberOfColumns )
+    {
+        MatrixReal block = other.submatrixView( i , j , numberOfRows , numberOfColumns );
+        return this.matrix( numberOfRows , numberOfColumns ).setTo( block );
+    }
+    
+    
+    /**
+     * Closes {@code this}, giving back the storage handed out since it was opened.
+     * <p>
+     * Closing a scope that is already closed does nothing.
+     * 
+     * @throws IllegalStateException    if it is not called by the thread that opened {@code this}, or if a nested scope is still open.
+     */
+    public void close()
+    {
+        if( this.closed ) {
+            return;
+        }
+        this.assertOwnerThread();
+        if( this.pool.innermostScope() != this ) {
+            throw new IllegalStateException( "Workspace scopes must be closed in the reverse order of opening; a nested scope is still open." );
+        }
+        this.pool.pop( this.mark );
+        this.closed = true;
+    }
+    
+    
+    /**
+     * Returns true if {@code this} has been closed.
+     * 
+     * @return  true if {@code this} has been closed; false otherwise.
+     */
+    public boolean isClosed()
+    {
+        return this.closed;
+    }
+    
+    
+    /**
+     * Returns the number of arrays of storage handed out by {@code this}.
+     * 
+     * @return  number of arrays of storage handed out by {@code this}; 0 once it is closed.
+     */
+    public int lentStorage()
+    {
+        return ( this.closed )?  0  :  this.pool.lentStorage() - this.mark;
+    }
+    
+    
+    /**
+     * Returns the number of arrays of storage available to be handed out by the scopes of the thread that opened {@code this}.
+     * 
+     * @return  number of arrays of storage available to be handed out.
+     */
+    public int pooledStorage()
+    {
+        return this.pool.pooledStorage();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Opens a new workspace scope on the current thread, nested in the scopes already open on it.
+     * <p>
+     * It is meant to be used in a try-with-resources statement.
+     * 
+     * @return  new open workspace scope.
+     */
+    public static MatrixRealWorkspace open()
+    {
+        MatrixRealWorkspacePool pool = POOLS.get();
+        MatrixRealWorkspace scope = new MatrixRealWorkspace( pool , pool.lentStorage() );
+        pool.push( scope );
+        return scope;
+    }
+    
+    
+    /**
+     * Releases the storage pooled by the workspace scopes of the current thread, so that it can be garbage collected.
+     * 
+     * @throws IllegalStateException    if a scope is open on the current thread.
+     */
+    public static void releasePooledStorage()
+    {
+        POOLS.get().releasePooledStorage();
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs an open workspace scope.
+     * 
+     * @param pool  storage pool of the current thread.
+     * @param mark  amount of storage handed out by {@code pool} when the scope is opened.
+     */
+    private MatrixRealWorkspace( MatrixRealWorkspacePool pool , int mark )
+    {
+        this.pool = pool;
+        this.mark = mark;
+        this.closed = false;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Checks that the current thread is the one that opened {@code this}.
+     * 
+     * @throws IllegalStateException    if the current thread did not open {@code this}.
+     */
+    private void assertOwnerThread()
+    {
+        if( Thread.currentThread() != this.pool.owner() ) {
+            throw new IllegalStateException( "Workspace scopes can only be used by the thread that opened them." );
+        }
+    }
+    
+    
+    /**
+     * Checks that {@code this} can hand out matrices.
+     * 
+     * @throws IllegalStateException    if the current thread did not open {@code this}, if {@code this} is closed, or if a nested scope is open.
+     */
+    private void assertInnermostOpenScope()
+    {
+        this.assertOwnerThread();
+        if( this.closed ) {
+            throw new IllegalStateException( "The workspace scope is closed." );
+        }
+        if( this.pool.innermostScope() != this ) {
+            throw new IllegalStateException( "Only the innermost open workspace scope can hand out matrices." );
+        }
+    }
+    
+}
@@ -0,0 +1,317 @@
+package numericalLibrary.types;
+
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+
+
+/**
+ * Implements the storage shared by the {@link MatrixRealWorkspace} scopes of a thread.
+ * <p>
+ * Storage handed out by the open scopes is kept in order, so that closing a scope gives back exactly the storage handed out since it was opened.
+ * Instances are confined to the thread that created them; {@link MatrixRealWorkspace} checks the thread before calling any method.
+ * <p>
+ * Storage given back is pooled by size, and the sizes are kept in access order.
+ * The pool is bounded: it keeps at most {@link #MAXIMUM_POOLED_PER_SIZE} arrays of each size and at most {@link #MAXIMUM_POOLED_SIZES} sizes,
+ * and the pooled arrays hold at most {@link #MAXIMUM_POOLED_ENTRIES} entries in total; the least recently used sizes are dropped first,
+ * and storage that does not fit is left to the garbage collector.
+ * The pool of a thread stays reachable as long as the thread is alive, so the pooled storage of long-lived threads, such as those of a thread pool,
+ * is only released by {@link #releasePooledStorage()} or by eviction.
+ */
+final class MatrixRealWorkspacePool
+{
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Maximum number of pooled arrays of each size.
+     */
+    static final int MAXIMUM_POOLED_PER_SIZE = 8;
+    
+    /**
+     * Maximum number of sizes with pooled arrays.
+     */
+    static final int MAXIMUM_POOLED_SIZES = 32;
+    
+    /**
+     * Maximum number of entries held by the pooled arrays.
+     */
+    static final long MAXIMUM_POOLED_ENTRIES = 1L << 22;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Thread that owns {@code this}.
+     */
+    private final Thread owner;
+    
+    /**
+     * Storage available to be handed out, by size in access order: the eldest size is the least recently used.
+     */
+    private final LinkedHashMap<Long,ArrayDeque<double[][]>> pooled;
+    
+    /**
+     * Number of arrays in {@link #pooled}.
+     */
+    private int nPooled;
+    
+    /**
+     * Number of entries held by the arrays in {@link #pooled}.
+     */
+    private long nPooledEntries;
+    
+    /**
+     * Storage handed out by the open scopes, in order.
+     */
+    private double[][][] lent;
+    
+    /**
+     * Number of arrays in {@link #lent}.
+     */
+    private int nLent;
+    
+    /**
+     * Open scopes, from the outermost to the innermost.
+     */
+    private MatrixRealWorkspace[] scopes;
+    
+    /**
+     * Number of open scopes.
+     */
+    private int depth;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs the pool of the current thread.
+     */
+    MatrixRealWorkspacePool()
+    {
+        this.owner = Thread.currentThread();
+        this.pooled = new LinkedHashMap<Long,ArrayDeque<double[][]>>( 2 * MAXIMUM_POOLED_SIZES , 0.75f , true );
+        this.nPooled = 0;
+        this.nPooledEntries = 0;
+        this.lent = new double[ 16 ][][];
+        this.nLent = 0;
+        this.scopes = new MatrixRealWorkspace[ 4 ];
+        this.depth = 0;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the thread that owns {@code this}.
+     * 
+     * @return  thread that owns {@code this}.
+     */
+    Thread owner()
+    {
+        return this.owner;
+    }
+    
+    
+    /**
+     * Returns the number of arrays of storage available to be handed out.
+     * 
+     * @return  number of arrays of storage available to be handed out.
+     */
+    int pooledStorage()
+    {
+        return this.nPooled;
+    }
+    
+    
+    /**
+     * Returns the number of arrays of storage handed out by the open scopes.
+     * 
+     * @return  number of arrays of storage handed out by the open scopes.
+     */
+    int lentStorage()
+    {
+        return this.nLent;
+    }
+    
+    
+    /**
+     * Returns the innermost open scope.
+     * 
+     * @return  innermost open scope; null if no scope is open.
+     */
+    MatrixRealWorkspace innermostScope()
+    {
+        return ( this.depth == 0 )?  null  :  this.scopes[ this.depth - 1 ];
+    }
+    
+    
+    /**
+     * Registers {@code scope} as the innermost open scope.
+     * 
+     * @param scope     scope that has just been opened.
+     */
+    void push( MatrixRealWorkspace scope )
+    {
+        if( this.depth == this.scopes.length ) {
+            this.scopes = Arrays.copyOf( this.scopes , 2 * this.scopes.length );
+        }
+        this.scopes[ this.depth++ ] = scope;
+    }
+    
+    
+    /**
+     * Unregisters the innermost open scope, giving back the storage handed out since {@code mark}.
+     * <p>
+     * Storage that does not fit in the pool is dropped.
+     * 
+     * @param mark  value of {@link #lentStorage()} when the innermost scope was opened.
+     */
+    void pop( int mark )
+    {
+        for( int k=mark; k<this.nLent; k++ ) {
+            this.give( this.lent[k] );
+            this.lent[k] = null;
+        }
+        this.nLent = mark;
+        this.scopes[ --this.depth ] = null;
+    }
+    
+    
+    /**
+     * Hands out storage of the given size, recycling pooled storage if possible.
+     * 
+     * @param rows  number of rows.
+     * @param columns   number of columns.
+     * @return  storage of the given size, filled with zeros.
+     */
+    double[][] take( int rows , int columns )
+    {
+        double[][] storage = null;
+        if(  rows > 0  &&  columns > 0  ) {
+            Long size = sizeKey( rows , columns );
+            ArrayDeque<double[][]> candidates = this.pooled.get( size );
+            if( candidates != null ) {
+                storage = candidates.pop();
+                if( candidates.isEmpty() ) {
+                    this.pooled.remove( size );
+                }
+                this.nPooled--;
+                this.nPooledEntries -= (long)rows * columns;
+            }
+        }
+        if( storage == null ) {
+            storage = new double[ rows ][ columns ];
+        } else {
+            for( double[] row : storage ) {
+                Arrays.fill( row , 0.0 );
+            }
+        }
+        if( this.nLent == this.lent.length ) {
+            this.lent = Arrays.copyOf( this.lent , 2 * this.lent.length );
+        }
+        this.lent[ this.nLent++ ] = storage;
+        return storage;
+    }
+    
+    
+    /**
+     * Releases the pooled storage, so that it can be garbage collected.
+     * 
+     * @throws IllegalStateException    if a scope is open.
+     */
+    void releasePooledStorage()
+    {
+        if( this.depth > 0 ) {
+            throw new IllegalStateException( "Pooled storage cannot be released while a workspace scope is open." );
+        }
+        this.pooled.clear();
+        this.nPooled = 0;
+        this.nPooledEntries = 0;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Adds storage to the pool, evicting the least recently used sizes if needed.
+     * <p>
+     * Storage is dropped if its size already has {@link #MAXIMUM_POOLED_PER_SIZE} pooled arrays, or if it holds more than {@link #MAXIMUM_POOLED_ENTRIES} entries.
+     * 
+     * @param storage   storage given back by a scope.
+     */
+    private void give( double[][] storage )
+    {
+        if(  storage.length == 0  ||  storage[0].length == 0  ) {
+            return;
+        }
+        long entries = (long)storage.length * storage[0].length;
+        if( entries > MAXIMUM_POOLED_ENTRIES ) {
+            return;
+        }
+        Long size = sizeKey( storage.length , storage[0].length );
+        ArrayDeque<double[][]> arrays = this.pooled.get( size );
+        if( arrays == null ) {
+            arrays = new ArrayDeque<double[][]>();
+        } else if( arrays.size() >= MAXIMUM_POOLED_PER_SIZE ) {
+            return;
+        }
+        // The size is removed while evicting, so that it is not evicted itself.
+        this.pooled.remove( size );
+        Iterator<ArrayDeque<double[][]>> eldest = this.pooled.values().iterator();
+        while(  eldest.hasNext()  &&  ( this.pooled.size() >= MAXIMUM_POOLED_SIZES  ||  this.nPooledEntries + entries > MAXIMUM_POOLED_ENTRIES )  ) {
+            ArrayDeque<double[][]> evicted = eldest.next();
+            double[][] sample = evicted.peek();
+            this.nPooled -= evicted.size();
+            this.nPooledEntries -= (long)evicted.size() * sample.length * sample[0].length;
+            eldest.remove();
+        }
+        if( this.nPooledEntries + entries > MAXIMUM_POOLED_ENTRIES ) {
+            // Only arrays of the same size are left.
+            while(  !arrays.isEmpty()  &&  this.nPooledEntries + entries > MAXIMUM_POOLED_ENTRIES  ) {
+                arrays.pop();
+                this.nPooled--;
+                this.nPooledEntries -= entries;
+            }
+        }
+        arrays.push( storage );
+        this.pooled.put( size , arrays );
+        this.nPooled++;
+        this.nPooledEntries += entries;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the key of a size in the pool.
+     * 
+     * @param rows  number of rows.
+     * @param columns   number of columns.
+     * @return  key of the size in the pool.
+     */
+    private static Long sizeKey( int rows , int columns )
+    {
+        return ( (long)rows << 32 ) | columns;
+    }
+    
+}
@@ -182,6 +182,25 @@ public class Quaternion
     }
     
     
+    /**
+     * Sets the components of {@code this}.
+     * 
+     * @param qr    real part of the {@link Quaternion}.
+     * @param qi    coefficient multiplying the imaginary unit i.
+     * @param qj    coefficient multiplying the imaginary unit j.
+     * @param qk    coefficient multiplying the imaginary unit k.
+     * @return  {@code this} with the new components.
+     */
+    public Quaternion setComponents( double qr , double qi , double qj , double qk )
+    {
+        this.qw = qr;
+        this.qx = qi;
+        this.qy = qj;
+        this.qz = qk;
+        return this;
+    }
+    
+    
     /**
      * {@inheritDoc}
      */
@@ -315,6 +334,30 @@ public class Quaternion
     }
     
     
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Overridden method to make it more efficient.
+     * Any of {@code first} and {@code second} can be {@code this}.
+     */
+    public Quaternion setToProduct( Quaternion first , Quaternion second )
+    {
+        double w1 = first.w();
+        double x1 = first.x();
+        double y1 = first.y();
+        double z1 = first.z();
+        double w2 = second.w();
+        double x2 = second.x();
+        double y2 = second.y();
+        double z2 = second.z();
+        this.qw  =  w1 * w2  - ( x1 * x2  +  y1 * y2  +  z1 * z2 );
+        this.qx  =  w1 * x2  +  w2 * x1  +  ( y1 * z2 - z1 * y2 );
+        this.qy  =  w1 * y2  +  w2 * y1  +  ( z1 * x2 - x1 * z2 );
+        this.qz  =  w1 * z2  +  w2 * z1  +  ( x1 * y2 - y1 * x2 );
+        return this;
+    }
+    
+    
     /**
      * {@inheritDoc}
      */
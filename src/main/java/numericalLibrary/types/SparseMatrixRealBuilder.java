@@ -0,0 +1,216 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+
+
+
+/**
+ * Assembles sparse matrices from lists of ( row , column , value ) triplets.
+ * <p>
+ * Triplets can be added in any order, and triplets with the same row and column are summed,
+ * which is the natural way of assembling Jacobians and graph Laplacians from local contributions.
+ * Building takes O( triplets + rows + columns ) operations: the triplets are bucketed by row, duplicates are summed,
+ * and the result is bucketed by column, which leaves the entries sorted.
+ * <p>
+ * A {@link SparseMatrixRealBuilder} can be reused after {@link #clear()}, keeping the memory allocated for the triplets.
+ * 
+ * @see CompressedSparseRowMatrixReal
+ * @see CompressedSparseColumnMatrixReal
+ */
+public class SparseMatrixRealBuilder
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Initial number of triplets that can be stored without growing the arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of rows of the matrix being assembled.
+     */
+    private final int nRows;
+    
+    /**
+     * Number of columns of the matrix being assembled.
+     */
+    private final int nCols;
+    
+    /**
+     * Row of each triplet.
+     */
+    private int[] tripletRows;
+    
+    /**
+     * Column of each triplet.
+     */
+    private int[] tripletColumns;
+    
+    /**
+     * Value of each triplet.
+     */
+    private double[] tripletValues;
+    
+    /**
+     * Number of triplets added.
+     */
+    private int nTriplets;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link SparseMatrixRealBuilder} for matrices of a given size.
+     * 
+     * @param rows  number of rows of the matrix to be assembled.
+     * @param columns   number of columns of the matrix to be assembled.
+     * 
+     * @throws IllegalArgumentException     if the number of rows or columns is negative.
+     */
+    public SparseMatrixRealBuilder( int rows , int columns )
+    {
+        if(  rows < 0  ||  columns < 0  ) {
+            throw new IllegalArgumentException( "Size must be non-negative; found " + rows + " x " + columns + "." );
+        }
+        this.nRows = rows;
+        this.nCols = columns;
+        this.tripletRows = new int[ INITIAL_CAPACITY ];
+        this.tripletColumns = new int[ INITIAL_CAPACITY ];
+        this.tripletValues = new double[ INITIAL_CAPACITY ];
+        this.nTriplets = 0;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Adds a value to the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry.
+     * @param j     column index of the entry.
+     * @param value     value to be added to the entry.
+     * @return  {@code this}, so that calls can be chained.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public SparseMatrixRealBuilder add( int i , int j , double value )
+    {
+        if(  i < 0  ||  this.nRows <= i  ||  j < 0  ||  this.nCols <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for size " + this.nRows + " x " + this.nCols + "." );
+        }
+        if( this.nTriplets == this.tripletValues.length ) {
+            int capacity = 2 * this.nTriplets;
+            this.tripletRows = Arrays.copyOf( this.tripletRows , capacity );
+            this.tripletColumns = Arrays.copyOf( this.tripletColumns , capacity );
+            this.tripletValues = Arrays.copyOf( this.tripletValues , capacity );
+        }
+        this.tripletRows[ this.nTriplets ] = i;
+        this.tripletColumns[ this.nTriplets ] = j;
+        this.tripletValues[ this.nTriplets ] = value;
+        this.nTriplets++;
+        return this;
+    }
+    
+    
+    /**
+     * Returns the number of triplets added since construction or since the last {@link #clear()}.
+     * 
+     * @return  number of triplets added.
+     */
+    public int triplets()
+    {
+        return this.nTriplets;
+    }
+    
+    
+    /**
+     * Removes all the triplets, keeping the allocated memory.
+     * 
+     * @return  {@code this}, so that calls can be chained.
+     */
+    public SparseMatrixRealBuilder clear()
+    {
+        this.nTriplets = 0;
+        return this;
+    }
+    
+    
+    /**
+     * Builds the assembled matrix in compressed sparse row format.
+     * <p>
+     * Triplets with the same row and column are summed into a single stored entry.
+     * 
+     * @return  new {@link CompressedSparseRowMatrixReal} with the assembled matrix.
+     */
+    public CompressedSparseRowMatrixReal buildCompressedSparseRow()
+    {
+        return this.buildCompressedSparseColumn().toCompressedSparseRow();
+    }
+    
+    
+    /**
+     * Builds the assembled matrix in compressed sparse column format.
+     * <p>
+     * Triplets with the same row and column are summed into a single stored entry.
+     * 
+     * @return  new {@link CompressedSparseColumnMatrixReal} with the assembled matrix.
+     */
+    public CompressedSparseColumnMatrixReal buildCompressedSparseColumn()
+    {
+        // Bucket the triplets by row.
+        int[] rowPointers = new int[ this.nRows + 1 ];
+        for( int t=0; t<this.nTriplets; t++ ) {
+            rowPointers[ this.tripletRows[t] + 1 ]++;
+        }
+        for( int i=0; i<this.nRows; i++ ) {
+            rowPointers[ i + 1 ] += rowPointers[i];
+        }
+        int[] next = Arrays.copyOf( rowPointers , this.nRows );
+        int[] columnIndices = new int[ this.nTriplets ];
+        double[] values = new double[ this.nTriplets ];
+        for( int t=0; t<this.nTriplets; t++ ) {
+            int p = next[ this.tripletRows[t] ]++;
+            columnIndices[p] = this.tripletColumns[t];
+            values[p] = this.tripletValues[t];
+        }
+        // Sum duplicates within each row, compacting the arrays.
+        int[] positionInRow = new int[ this.nCols ];
+        Arrays.fill( positionInRow , -1 );
+        int nnz = 0;
+        for( int i=0; i<this.nRows; i++ ) {
+            int rowStart = nnz;
+            for( int p=rowPointers[i]; p<rowPointers[ i + 1 ]; p++ ) {
+                int j = columnIndices[p];
+                if( positionInRow[j] >= rowStart ) {
+                    values[ positionInRow[j] ] += values[p];
+                } else {
+                    positionInRow[j] = nnz;
+                    columnIndices[ nnz ] = j;
+                    values[ nnz ] = values[p];
+                    nnz++;
+                }
+            }
+            rowPointers[i] = rowStart;
+        }
+        rowPointers[ this.nRows ] = nnz;
+        // Bucketing by column sorts the entries of each column by row.
+        CompressedSparseRowMatrixReal unsorted = new CompressedSparseRowMatrixReal( this.nRows , this.nCols , rowPointers , Arrays.copyOf( columnIndices , nnz ) , Arrays.copyOf( values , nnz ) );
+        return unsorted.toCompressedSparseColumn();
+    }
+    
+}
@@ -0,0 +1,735 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+import java.util.Random;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElement;
+import numericalLibrary.algebraicStructures.MetricSpaceElement;
+import numericalLibrary.algebraicStructures.VectorSpaceElement;
+
+
+
+/**
+ * Implements symmetric square matrices with real entries, storing only their lower triangular part.
+ * <p>
+ * The n x n matrix is stored in a packed array of n(n+1)/2 entries, row after row:
+ * <br>
+ * { a11 , a21 , a22 , a31 , a32 , a33 , ... , an1 , ... , ann }
+ * <br>
+ * so it takes half the memory of the equivalent {@link MatrixReal}, and every operation traverses half the entries.
+ * Entries above the diagonal are obtained by symmetry.
+ * <p>
+ * The Cholesky and LDL^T decompositions are computed in place over the packed storage,
+ * or into new storage with {@link #choleskyDecomposition()};
+ * either way, the factors are returned as a lower triangular {@link TriangularPackedMatrixReal}, which is used to solve systems with
+ * {@link MatrixReal#divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace(TriangularPackedMatrixReal)} and
+ * {@link MatrixReal#divideLeftByPositiveDefiniteUsingItsLDLTDecompositionInplace(TriangularPackedMatrixReal)}.
+ * 
+ * @see MatrixReal
+ */
+public class SymmetricPackedMatrixReal
+    implements
+        AdditiveAbelianGroupElement<SymmetricPackedMatrixReal>,
+        VectorSpaceElement<SymmetricPackedMatrixReal>,
+        MetricSpaceElement<SymmetricPackedMatrixReal>
+{
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Lower triangular entries packed row after row; the entry in row {@code i} and column {@code j <= i} is at {@code i*(i+1)/2 + j}.
+     * It is package-private so that {@link MatrixReal} can solve systems using the packed decompositions.
+     */
+    final double[] x;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of rows and columns.
+     */
+    private final int n;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of rows of {@code this}.
+     * 
+     * @return  number of rows of {@code this}.
+     */
+    public int rows()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Returns the number of columns of {@code this}.
+     * 
+     * @return  number of columns of {@code this}.
+     */
+    public int columns()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Sets the value of the entry at i-th row and j-th column, and by symmetry, of the entry at j-th row and i-th column.
+     * 
+     * @param i     row index of the entry to be set.
+     * @param j     column index of the entry to be set.
+     * @param value     new value for the entry to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        this.assertIndexBounds( i , j );
+        this.x[ SymmetricPackedMatrixReal.packedIndex( i , j ) ] = value;
+    }
+    
+    
+    /**
+     * Gets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to get.
+     * @param j     column index of the entry to get.
+     * @return      value of the entry.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        this.assertIndexBounds( i , j );
+        return this.x[ SymmetricPackedMatrixReal.packedIndex( i , j ) ];
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return this.toMatrixReal().toString();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals( SymmetricPackedMatrixReal other )
+    {
+        return (  this.n == other.n  &&  Arrays.equals( this.x , other.x )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * In particular, it is considered equal if for each component, the absolute error | this_i - other_i | is below one of the thresholds:
+     * <ul>
+     * <li> toleranceAbsolute
+     * <li> toleranceRelative * 0.5 * ( |this_i| + |other_i| )
+     * </ul>
+     */
+    public boolean equalsApproximately( SymmetricPackedMatrixReal other , double toleranceAbsolute , double toleranceRelative )
+    {
+        if( this.n != other.n ) {
+            return false;
+        }
+        for( int k=0; k<this.x.length; k++ ) {
+            double differenceAbsolute = Math.abs( this.x[k] - other.x[k] );
+            boolean withinAbsoluteTolerance = ( differenceAbsolute <= toleranceAbsolute );
+            boolean withinRelativeTolerance = ( differenceAbsolute <= toleranceRelative * 0.5 * ( Math.abs( this.x[k] ) + Math.abs( other.x[k] ) ) );
+            if( !( withinAbsoluteTolerance || withinRelativeTolerance ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isNaN()
+    {
+        for( int k=0; k<this.x.length; k++ ) {
+            if( Double.isNaN( this.x[k] ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public SymmetricPackedMatrixReal copy()
+    {
+        return SymmetricPackedMatrixReal.empty( this.n ).setTo( this );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalArgumentException     if {@code other} has not the same size as {@code this}.
+     */
+    public SymmetricPackedMatrixReal setTo( SymmetricPackedMatrixReal other )
+    {
+        this.assertSameSize( other );
+        System.arraycopy( other.x , 0 , this.x , 0 , this.x.length );
+        return this;
+    }
+    
+    
+    /**
+     * Sets {@code this} to the lower triangular part of {@code other}, mirrored to the upper triangular part.
+     * 
+     * @param other     square {@link MatrixReal} whose lower triangular part will be set.
+     * @return  {@code this}, holding the lower triangular part of {@code other}.
+     * 
+     * @throws IllegalArgumentException     if {@code other} has not the same size as {@code this}.
+     */
+    public SymmetricPackedMatrixReal setToLowerTriangleOf( MatrixReal other )
+    {
+        if(  other.rows() != this.n  ||  other.columns() != this.n  ) {
+            throw new IllegalArgumentException( "Matrix must be " + this.n + " x " + this.n + "; found " + other.size() + "." );
+        }
+        int k = 0;
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<=i; j++ ) {
+                this.x[k++] = other.entry( i , j );
+            }
+        }
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalArgumentException     if {@code other} has not the same size as {@code this}.
+     */
+    public SymmetricPackedMatrixReal add( SymmetricPackedMatrixReal other )
+    {
+        return this.copy().addInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalArgumentException     if {@code other} has not the same size as {@code this}.
+     */
+    public SymmetricPackedMatrixReal addInplace( SymmetricPackedMatrixReal other )
+    {
+        this.assertSameSize( other );
+        for( int k=0; k<this.x.length; k++ ) {
+            this.x[k] += other.x[k];
+        }
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalArgumentException     if {@code other} has not the same size as {@code this}.
+     */
+    public SymmetricPackedMatrixReal subtract( SymmetricPackedMatrixReal other )
+    {
+        return this.copy().subtractInplace( other );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalArgumentException     if {@code other} has not the same size as {@code this}.
+     */
+    public SymmetricPackedMatrixReal subtractInplace( SymmetricPackedMatrixReal other )
+    {
+        this.assertSameSize( other );
+        for( int k=0; k<this.x.length; k++ ) {
+            this.x[k] -= other.x[k];
+        }
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public SymmetricPackedMatrixReal identityAdditive()
+    {
+        return SymmetricPackedMatrixReal.zero( this.n );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public SymmetricPackedMatrixReal setToZero()
+    {
+        Arrays.fill( this.x , 0.0 );
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public SymmetricPackedMatrixReal inverseAdditive()
+    {
+        return this.copy().inverseAdditiveInplace();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public SymmetricPackedMatrixReal inverseAdditiveInplace()
+    {
+        for( int k=0; k<this.x.length; k++ ) {
+            this.x[k] = -this.x[k];
+        }
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public SymmetricPackedMatrixReal scale( double scalar )
+    {
+        return this.copy().scaleInplace( scalar );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public SymmetricPackedMatrixReal scaleInplace( double scalar )
+    {
+        for( int k=0; k<this.x.length; k++ ) {
+            this.x[k] *= scalar;
+        }
+        return this;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The distance is the Frobenius norm of the difference, so off-diagonal entries are counted twice.
+     * 
+     * @throws IllegalArgumentException     if {@code other} has not the same size as {@code this}.
+     */
+    public double distanceFrom( SymmetricPackedMatrixReal other )
+    {
+        this.assertSameSize( other );
+        double distance2 = 0.0;
+        int k = 0;
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<i; j++ ) {
+                double difference = this.x[k] - other.x[k];
+                distance2 += 2.0 * difference * difference;
+                k++;
+            }
+            double difference = this.x[k] - other.x[k];
+            distance2 += difference * difference;
+            k++;
+        }
+        return Math.sqrt( distance2 );
+    }
+    
+    
+    /**
+     * Adds a scalar to each diagonal entry of {@code this}.
+     * <p>
+     * Operation done in-place. It is equivalent to adding  scalar * I , but nothing is allocated.
+     * 
+     * @param scalar    value to be added to each diagonal entry.
+     * @return  {@code this} reference, with the diagonal increased by {@code scalar}.
+     */
+    public SymmetricPackedMatrixReal addToDiagonalInplace( double scalar )
+    {
+        for( int i=0; i<this.n; i++ ) {
+            this.x[ i * ( i + 3 ) / 2 ] += scalar;
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Adds the product of transpose of left {@link MatrixReal} and itself.
+     * <p>
+     * The rank-k update is performed as {@code this += left^T * left}.
+     * 
+     * @param left  {@link MatrixReal} whose number of columns is the dimension of {@code this}.
+     * @return  {@code this} reference to which {@code left^T * left} is added.
+     * 
+     * @throws IllegalArgumentException     if {@code left} does not have as many columns as the dimension of {@code this}.
+     * 
+     * @see #addScaledLeftTransposeTimesLeft(double, MatrixReal)
+     */
+    public SymmetricPackedMatrixReal addLeftTransposeTimesLeft( MatrixReal left )
+    {
+        return this.addScaledLeftTransposeTimesLeft( 1.0 , left );
+    }
+    
+    
+    /**
+     * Adds the product of transpose of left {@link MatrixReal} and itself, scaled by a scalar.
+     * <p>
+     * The rank-k update is performed as {@code this += scalar * left^T * left}.
+     * Only the lower triangular part of the product is computed, traversing {@code left} row by row.
+     * 
+     * @param scalar    factor that scales the product.
+     * @param left  {@link MatrixReal} whose number of columns is the dimension of {@code this}.
+     * @return  {@code this} reference to which {@code scalar * left^T * left} is added.
+     * 
+     * @throws IllegalArgumentException     if {@code left} does not have as many columns as the dimension of {@code this}.
+     */
+    public SymmetricPackedMatrixReal addScaledLeftTransposeTimesLeft( double scalar , MatrixReal left )
+    {
+        if( left.columns() != this.n ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.n + " columns; found " + left.size() + "." );
+        }
+        final double[] row = new double[ this.n ];
+        for( int r=0; r<left.rows(); r++ ) {
+            for( int j=0; j<this.n; j++ ) {
+                row[j] = left.entry( r , j );
+            }
+            int k = 0;
+            for( int i=0; i<this.n; i++ ) {
+                double scaledEntry = scalar * row[i];
+                for( int j=0; j<=i; j++ ) {
+                    this.x[k++] += scaledEntry * row[j];
+                }
+            }
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Adds the product of left {@link MatrixReal} and its transpose, scaled by a scalar.
+     * <p>
+     * The rank-k update is performed as {@code this += scalar * left * left^T}.
+     * Only the lower triangular part of the product is computed.
+     * 
+     * @param scalar    factor that scales the product.
+     * @param left  {@link MatrixReal} whose number of rows is the dimension of {@code this}.
+     * @return  {@code this} reference to which {@code scalar * left * left^T} is added.
+     * 
+     * @throws IllegalArgumentException     if {@code left} does not have as many rows as the dimension of {@code this}.
+     */
+    public SymmetricPackedMatrixReal addScaledLeftTimesLeftTranspose( double scalar , MatrixReal left )
+    {
+        if( left.rows() != this.n ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.n + " rows; found " + left.size() + "." );
+        }
+        final double[] column = new double[ this.n ];
+        for( int c=0; c<left.columns(); c++ ) {
+            for( int i=0; i<this.n; i++ ) {
+                column[i] = left.entry( i , c );
+            }
+            int k = 0;
+            for( int i=0; i<this.n; i++ ) {
+                double scaledEntry = scalar * column[i];
+                for( int j=0; j<=i; j++ ) {
+                    this.x[k++] += scaledEntry * column[j];
+                }
+            }
+        }
+        return this;
+    }
+    
+    
+    /**
+     * Performs a Cholesky decomposition of the form A = L L^T.
+     * <p>
+     * Operation done in-place: after calling this method, the packed storage holds the lower triangular factor L,
+     * so {@code this} no longer represents the symmetric matrix A.
+     * The factor is returned as a lower triangular {@link TriangularPackedMatrixReal} that shares the storage of {@code this}.
+     * 
+     * @return  lower triangular {@link TriangularPackedMatrixReal} sharing the storage of {@code this}, holding the factor L of the Cholesky decomposition.
+     * 
+     * @throws IllegalArgumentException if {@code this} is not positive-definite, or if NaNs are found.
+     * 
+     * @see MatrixReal#divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace(TriangularPackedMatrixReal)
+     * @see #choleskyDecomposition()
+     */
+    public TriangularPackedMatrixReal choleskyDecompositionInplace()
+    {
+        SymmetricPackedMatrixReal.choleskyDecompositionAlgorithm( this.x , this.n );
+        return new TriangularPackedMatrixReal( this.n , true , this.x );
+    }
+    
+    
+    /**
+     * Performs a Cholesky decomposition of the form A = L L^T.
+     * <p>
+     * {@code this} is not modified; the factor L is returned as a lower triangular {@link TriangularPackedMatrixReal}.
+     * 
+     * @return  new {@link TriangularPackedMatrixReal} holding the lower triangular factor L of the Cholesky decomposition.
+     * 
+     * @throws IllegalArgumentException if {@code this} is not positive-definite, or if NaNs are found.
+     */
+    public TriangularPackedMatrixReal choleskyDecomposition()
+    {
+        double[] L = this.x.clone();
+        SymmetricPackedMatrixReal.choleskyDecompositionAlgorithm( L , this.n );
+        return new TriangularPackedMatrixReal( this.n , true , L );
+    }
+    
+    
+    /**
+     * Performs a LDL^T decomposition.
+     * <p>
+     * Operation done in-place: after calling this method, the entries below the diagonal hold the unit lower triangular factor L,
+     * and the diagonal holds the diagonal factor D, following the same layout as {@link MatrixReal#LDLTDecompositionInplace()}.
+     * If a zero pivot is found, the corresponding column of L is set to zero.
+     * The factors are returned as a lower triangular {@link TriangularPackedMatrixReal} that shares the storage of {@code this}.
+     * 
+     * @return  lower triangular {@link TriangularPackedMatrixReal} sharing the storage of {@code this}, holding the factors L and D of the LDL^T decomposition.
+     * 
+     * @see MatrixReal#divideLeftByPositiveDefiniteUsingItsLDLTDecompositionInplace(TriangularPackedMatrixReal)
+     */
+    public TriangularPackedMatrixReal LDLTDecompositionInplace()
+    {
+        for( int i=0; i<this.n; i++ ) {
+            final int rowI = i * ( i + 1 ) / 2;
+            for( int j=0; j<=i; j++ ) {
+                final int rowJ = j * ( j + 1 ) / 2;
+                double sum = this.x[ rowI + j ];
+                for( int k=0; k<j; k++ ) {
+                    sum -= this.x[ rowI + k ] * this.x[ rowJ + k ] * this.x[ k * ( k + 3 ) / 2 ];
+                }
+                if( j < i ) {
+                    final double d = this.x[ rowJ + j ];
+                    this.x[ rowI + j ] = ( d != 0.0 )?  sum / d  :  0.0;
+                } else {
+                    this.x[ rowI + i ] = sum;
+                }
+            }
+        }
+        return new TriangularPackedMatrixReal( this.n , true , this.x );
+    }
+    
+    
+    /**
+     * Returns the equivalent full {@link MatrixReal}, with both triangular parts filled.
+     * 
+     * @return  new {@link MatrixReal} equal to {@code this}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        MatrixReal output = MatrixReal.empty( this.n , this.n );
+        int k = 0;
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<=i; j++ ) {
+                output.setEntry( i , j , this.x[k] );
+                output.setEntry( j , i , this.x[k] );
+                k++;
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link SymmetricPackedMatrixReal} with uninitialized entries.
+     * 
+     * @param dimension     number of rows and columns.
+     * @return  new {@link SymmetricPackedMatrixReal} of the given dimension.
+     */
+    public static SymmetricPackedMatrixReal empty( int dimension )
+    {
+        return new SymmetricPackedMatrixReal( dimension );
+    }
+    
+    
+    /**
+     * Returns a {@link SymmetricPackedMatrixReal} filled with zeros.
+     * 
+     * @param dimension     number of rows and columns.
+     * @return  new zero {@link SymmetricPackedMatrixReal} of the given dimension.
+     */
+    public static SymmetricPackedMatrixReal zero( int dimension )
+    {
+        return new SymmetricPackedMatrixReal( dimension );
+    }
+    
+    
+    /**
+     * Returns the identity {@link SymmetricPackedMatrixReal}.
+     * 
+     * @param dimension     number of rows and columns.
+     * @return  new identity {@link SymmetricPackedMatrixReal} of the given dimension.
+     */
+    public static SymmetricPackedMatrixReal one( int dimension )
+    {
+        return SymmetricPackedMatrixReal.zero( dimension ).addToDiagonalInplace( 1.0 );
+    }
+    
+    
+    /**
+     * Returns a random {@link SymmetricPackedMatrixReal} with entries uniformly distributed in [-1,1).
+     * 
+     * @param dimension     number of rows and columns.
+     * @param randomNumberGenerator     {@link Random} used to generate the entries.
+     * @return  new random {@link SymmetricPackedMatrixReal} of the given dimension.
+     */
+    public static SymmetricPackedMatrixReal random( int dimension , Random randomNumberGenerator )
+    {
+        SymmetricPackedMatrixReal output = SymmetricPackedMatrixReal.empty( dimension );
+        for( int k=0; k<output.x.length; k++ ) {
+            output.x[k] = 2.0 * randomNumberGenerator.nextDouble() - 1.0;
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns a {@link SymmetricPackedMatrixReal} built from the lower triangular part of a square {@link MatrixReal}.
+     * 
+     * @param matrix    square {@link MatrixReal} whose lower triangular part is read.
+     * @return  new {@link SymmetricPackedMatrixReal} holding the lower triangular part of {@code matrix}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not square.
+     */
+    public static SymmetricPackedMatrixReal fromMatrixReal( MatrixReal matrix )
+    {
+        return SymmetricPackedMatrixReal.empty( matrix.rows() ).setToLowerTriangleOf( matrix );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link SymmetricPackedMatrixReal}.
+     * 
+     * @param dimension     number of rows and columns.
+     */
+    private SymmetricPackedMatrixReal( int dimension )
+    {
+        this.n = dimension;
+        this.x = new double[ dimension * ( dimension + 1 ) / 2 ];
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Checks that both indices are in the range 0 , ... , n-1.
+     * 
+     * @param i     row index to check.
+     * @param j     column index to check.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private void assertIndexBounds( int i , int j )
+    {
+        if(  i < 0  ||  this.n <= i  ||  j < 0  ||  this.n <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for dimension " + this.n + "." );
+        }
+    }
+    
+    
+    /**
+     * Checks that {@code other} has the same dimension as {@code this}.
+     * 
+     * @param other     {@link SymmetricPackedMatrixReal} to check.
+     * 
+     * @throws IllegalArgumentException     if {@code other} has a different dimension.
+     */
+    private void assertSameSize( SymmetricPackedMatrixReal other )
+    {
+        if( this.n != other.n ) {
+            throw new IllegalArgumentException( "Dimensions do not match: " + this.n + " and " + other.n + "." );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Overwrites a packed lower triangle with the factor L of its Cholesky decomposition.
+     * <p>
+     * Each entry is computed from two packed rows, which are contiguous in memory.
+     * 
+     * @param a     lower triangular part of a symmetric matrix, packed row after row.
+     * @param n     number of rows and columns of the matrix.
+     * 
+     * @throws IllegalArgumentException if the matrix is not positive-definite, or if NaNs are found.
+     */
+    static void choleskyDecompositionAlgorithm( double[] a , int n )
+    {
+        for( int i=0; i<n; i++ ) {
+            final int rowI = i * ( i + 1 ) / 2;
+            for( int j=0; j<=i; j++ ) {
+                final int rowJ = j * ( j + 1 ) / 2;
+                double sum = a[ rowI + j ];
+                for( int k=0; k<j; k++ ) {
+                    sum -= a[ rowI + k ] * a[ rowJ + k ];
+                }
+                if( j < i ) {
+                    a[ rowI + j ] = sum / a[ rowJ + j ];
+                } else if( sum > 0.0 ) {
+                    a[ rowI + i ] = Math.sqrt( sum );
+                } else {
+                    // By checking if sum > 0, the exception is also thrown in case of finding a NaN.
+                    throw new IllegalArgumentException( "Matrix must be positive-definite." );
+                }
+            }
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the position in the packed storage of the entry in row {@code i} and column {@code j}.
+     * 
+     * @param i     row index.
+     * @param j     column index.
+     * @return  position in the packed storage of the entry, or of its symmetric if it is above the diagonal.
+     */
+    private static int packedIndex( int i , int j )
+    {
+        return ( i >= j )?  i * ( i + 1 ) / 2 + j  :  j * ( j + 1 ) / 2 + i;
+    }
+    
+}
@@ -0,0 +1,386 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+
+
+
+/**
+ * Implements lower and upper triangular square matrices with real entries, storing only their non-zero triangular part.
+ * <p>
+ * A lower triangular matrix L is stored in a packed array of n(n+1)/2 entries, row after row:
+ * <br>
+ * { l11 , l21 , l22 , l31 , l32 , l33 , ... , ln1 , ... , lnn }
+ * <br>
+ * and an upper triangular matrix U is stored as the lower triangular matrix U^T, so {@link #transpose()} shares the storage.
+ * This is the same layout used by {@link SymmetricPackedMatrixReal}.
+ * <p>
+ * {@link TriangularPackedMatrixReal}s are the natural output of the Cholesky decomposition
+ * (see {@link MatrixReal#choleskyDecompositionPacked()} and {@link SymmetricPackedMatrixReal#choleskyDecomposition()}):
+ * they take half the memory of a full {@link MatrixReal}, and the zero triangle is never written.
+ * Triangular products and solves against many right-hand sides are provided by
+ * {@link MatrixReal#multiplyLeftByTriangularInplace(TriangularPackedMatrixReal)},
+ * {@link MatrixReal#multiplyRightByTriangularInplace(TriangularPackedMatrixReal)},
+ * {@link MatrixReal#divideLeftByTriangularInplace(TriangularPackedMatrixReal)}, and
+ * {@link MatrixReal#divideRightByTriangularInplace(TriangularPackedMatrixReal)}.
+ * 
+ * @see SymmetricPackedMatrixReal
+ */
+public class TriangularPackedMatrixReal
+{
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Entries of the lower triangular matrix L, which is {@code this} if {@link #isLower()}, or its transpose otherwise, packed row after row.
+     * It is package-private so that {@link MatrixReal} can apply triangular products and solves.
+     */
+    final double[] x;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of rows and columns.
+     */
+    private final int n;
+    
+    /**
+     * True if {@code this} is lower triangular; false if it is upper triangular.
+     */
+    private final boolean lower;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of rows of {@code this}.
+     * 
+     * @return  number of rows of {@code this}.
+     */
+    public int rows()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Returns the number of columns of {@code this}.
+     * 
+     * @return  number of columns of {@code this}.
+     */
+    public int columns()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Returns true if {@code this} is lower triangular.
+     * 
+     * @return  true if {@code this} is lower triangular; false if it is upper triangular.
+     */
+    public boolean isLower()
+    {
+        return this.lower;
+    }
+    
+    
+    /**
+     * Returns true if {@code this} is upper triangular.
+     * 
+     * @return  true if {@code this} is upper triangular; false if it is lower triangular.
+     */
+    public boolean isUpper()
+    {
+        return !this.lower;
+    }
+    
+    
+    /**
+     * Sets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to be set.
+     * @param j     column index of the entry to be set.
+     * @param value     new value for the entry to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range, or if the entry is outside the triangular part of {@code this}.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        this.assertIndexBounds( i , j );
+        if( !this.isInTriangle( i , j ) ) {
+            throw new IllegalArgumentException( "Entry ( " + i + " , " + j + " ) is outside the triangular part." );
+        }
+        this.x[ this.packedIndex( i , j ) ] = value;
+    }
+    
+    
+    /**
+     * Gets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to get.
+     * @param j     column index of the entry to get.
+     * @return      value of the entry; zero if it is outside the triangular part of {@code this}.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        this.assertIndexBounds( i , j );
+        return ( this.isInTriangle( i , j ) )?  this.x[ this.packedIndex( i , j ) ]  :  0.0;
+    }
+    
+    
+    /**
+     * Returns the transpose of {@code this}.
+     * <p>
+     * The returned {@link TriangularPackedMatrixReal} shares the storage of {@code this}, so no entries are copied.
+     * 
+     * @return  transpose of {@code this}, sharing its storage.
+     */
+    public TriangularPackedMatrixReal transpose()
+    {
+        return new TriangularPackedMatrixReal( this.n , !this.lower , this.x );
+    }
+    
+    
+    /**
+     * Returns the diagonal entries of {@code this}.
+     * 
+     * @return  new array with the diagonal entries of {@code this}.
+     */
+    public double[] diagonalElements()
+    {
+        double[] d = new double[ this.n ];
+        for( int i=0; i<this.n; i++ ) {
+            d[i] = this.x[ i * ( i + 3 ) / 2 ];
+        }
+        return d;
+    }
+    
+    
+    /**
+     * Returns a copy of {@code this}.
+     * 
+     * @return  new {@link TriangularPackedMatrixReal} equal to {@code this}, not sharing its storage.
+     */
+    public TriangularPackedMatrixReal copy()
+    {
+        return new TriangularPackedMatrixReal( this.n , this.lower , this.x.clone() );
+    }
+    
+    
+    /**
+     * Returns true if {@code other} has the same shape and entries as {@code this}.
+     * 
+     * @param other     {@link TriangularPackedMatrixReal} to be compared with {@code this}.
+     * @return  true if {@code other} is equal to {@code this}; false otherwise.
+     */
+    public boolean equals( TriangularPackedMatrixReal other )
+    {
+        return (  this.n == other.n  &&  this.lower == other.lower  &&  Arrays.equals( this.x , other.x )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return this.toMatrixReal().toString();
+    }
+    
+    
+    /**
+     * Returns the equivalent full {@link MatrixReal}, with zeros outside the triangular part.
+     * 
+     * @return  new {@link MatrixReal} equal to {@code this}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        MatrixReal output = MatrixReal.zero( this.n , this.n );
+        int k = 0;
+        for( int i=0; i<this.n; i++ ) {
+            for( int j=0; j<=i; j++ ) {
+                if( this.lower ) {
+                    output.setEntry( i , j , this.x[k++] );
+                } else {
+                    output.setEntry( j , i , this.x[k++] );
+                }
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a lower triangular {@link TriangularPackedMatrixReal} filled with zeros.
+     * 
+     * @param dimension     number of rows and columns.
+     * @return  new zero lower triangular {@link TriangularPackedMatrixReal}.
+     */
+    public static TriangularPackedMatrixReal lowerZero( int dimension )
+    {
+        return new TriangularPackedMatrixReal( dimension , true , new double[ dimension * ( dimension + 1 ) / 2 ] );
+    }
+    
+    
+    /**
+     * Returns an upper triangular {@link TriangularPackedMatrixReal} filled with zeros.
+     * 
+     * @param dimension     number of rows and columns.
+     * @return  new zero upper triangular {@link TriangularPackedMatrixReal}.
+     */
+    public static TriangularPackedMatrixReal upperZero( int dimension )
+    {
+        return new TriangularPackedMatrixReal( dimension , false , new double[ dimension * ( dimension + 1 ) / 2 ] );
+    }
+    
+    
+    /**
+     * Returns a lower triangular {@link TriangularPackedMatrixReal} built from the lower triangular part of a square {@link MatrixReal}.
+     * 
+     * @param matrix    square {@link MatrixReal} whose lower triangular part is read.
+     * @return  new lower triangular {@link TriangularPackedMatrixReal}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not square.
+     */
+    public static TriangularPackedMatrixReal lowerFromMatrixReal( MatrixReal matrix )
+    {
+        return new TriangularPackedMatrixReal( matrix.rows() , true , TriangularPackedMatrixReal.packLowerTriangle( matrix ) );
+    }
+    
+    
+    /**
+     * Returns an upper triangular {@link TriangularPackedMatrixReal} built from the upper triangular part of a square {@link MatrixReal}.
+     * 
+     * @param matrix    square {@link MatrixReal} whose upper triangular part is read.
+     * @return  new upper triangular {@link TriangularPackedMatrixReal}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not square.
+     */
+    public static TriangularPackedMatrixReal upperFromMatrixReal( MatrixReal matrix )
+    {
+        return new TriangularPackedMatrixReal( matrix.rows() , true , TriangularPackedMatrixReal.packLowerTriangle( matrix.transpose() ) ).transpose();
+    }
+    
+    
+    /**
+     * Returns the unit lower triangular factor L of a LDL^T decomposition.
+     * <p>
+     * It is the packed counterpart of {@link MatrixReal#LfromLDLTDecomposition(MatrixReal)}; the diagonal factor D is given by {@link MatrixReal#diagonalElements()}.
+     * 
+     * @param LDLTDecomposition     {@link MatrixReal} holding the LDL^T decomposition obtained with {@link MatrixReal#LDLTDecomposition()}.
+     * @return  new lower triangular {@link TriangularPackedMatrixReal} holding L.
+     * 
+     * @throws IllegalArgumentException     if {@code LDLTDecomposition} is not square.
+     */
+    public static TriangularPackedMatrixReal lowerFromLDLTDecomposition( MatrixReal LDLTDecomposition )
+    {
+        TriangularPackedMatrixReal L = TriangularPackedMatrixReal.lowerFromMatrixReal( LDLTDecomposition );
+        for( int i=0; i<L.n; i++ ) {
+            L.x[ i * ( i + 3 ) / 2 ] = 1.0;
+        }
+        return L;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PACKAGE-PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link TriangularPackedMatrixReal} over an existing packed array, without copying it.
+     * 
+     * @param dimension     number of rows and columns.
+     * @param lower     true for a lower triangular matrix; false for an upper triangular matrix.
+     * @param packedLowerTriangle   lower triangular entries of the matrix, or of its transpose if it is upper triangular, packed row after row.
+     */
+    TriangularPackedMatrixReal( int dimension , boolean lower , double[] packedLowerTriangle )
+    {
+        this.n = dimension;
+        this.lower = lower;
+        this.x = packedLowerTriangle;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns true if the entry in row {@code i} and column {@code j} belongs to the triangular part of {@code this}.
+     * 
+     * @param i     row index.
+     * @param j     column index.
+     * @return  true if the entry can be non-zero; false otherwise.
+     */
+    private boolean isInTriangle( int i , int j )
+    {
+        return ( this.lower )?  ( j <= i )  :  ( i <= j );
+    }
+    
+    
+    /**
+     * Returns the position in the packed storage of an entry in the triangular part of {@code this}.
+     * 
+     * @param i     row index.
+     * @param j     column index.
+     * @return  position in the packed storage of the entry.
+     */
+    private int packedIndex( int i , int j )
+    {
+        return ( this.lower )?  i * ( i + 1 ) / 2 + j  :  j * ( j + 1 ) / 2 + i;
+    }
+    
+    
+    /**
+     * Checks that both indices are in the range 0 , ... , n-1.
+     * 
+     * @param i     row index to check.
+     * @param j     column index to check.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private void assertIndexBounds( int i , int j )
+    {
+        if(  i < 0  ||  this.n <= i  ||  j < 0  ||  this.n <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for dimension " + this.n + "." );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Packs the lower triangular part of a square {@link MatrixReal} row after row.
+     * 
+     * @param matrix    square {@link MatrixReal} whose lower triangular part is read.
+     * @return  new array with the lower triangular part of {@code matrix}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not square.
+     */
+    private static double[] packLowerTriangle( MatrixReal matrix )
+    {
+        return SymmetricPackedMatrixReal.fromMatrixReal( matrix ).x;
+    }
+    
+}
@@ -0,0 +1,433 @@
+package numericalLibrary.types;
+
+
+import java.util.Arrays;
+
+
+
+/**
+ * Implements square tridiagonal matrices with real entries, storing only their three diagonals.
+ * <p>
+ * Systems with a tridiagonal matrix are solved in O(n) operations with the Thomas algorithm, which is Gaussian elimination without pivoting.
+ * It is stable for diagonally dominant and for symmetric positive-definite matrices, which covers the usual spline and smoothing problems;
+ * other tridiagonal matrices can be solved with pivoting through {@link #toBandMatrixReal()} and {@link BandLUDecomposition}.
+ * <p>
+ * Solves do not modify {@code this}, so a {@link TridiagonalMatrixReal} can be shared by threads that only solve with it.
+ * 
+ * @see BandMatrixReal
+ */
+public class TridiagonalMatrixReal
+{
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of rows and columns.
+     */
+    private final int n;
+    
+    /**
+     * Entries below the main diagonal: {@code lower[i]} is the entry ( i+1 , i ).
+     */
+    private final double[] lower;
+    
+    /**
+     * Entries of the main diagonal.
+     */
+    private final double[] diagonal;
+    
+    /**
+     * Entries above the main diagonal: {@code upper[i]} is the entry ( i , i+1 ).
+     */
+    private final double[] upper;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the number of rows of {@code this}.
+     * 
+     * @return  number of rows of {@code this}.
+     */
+    public int rows()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Returns the number of columns of {@code this}.
+     * 
+     * @return  number of columns of {@code this}.
+     */
+    public int columns()
+    {
+        return this.n;
+    }
+    
+    
+    /**
+     * Sets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to be set.
+     * @param j     column index of the entry to be set.
+     * @param value     new value for the entry to be set.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range, or if the entry is outside the three diagonals.
+     */
+    public void setEntry( int i , int j , double value )
+    {
+        this.assertIndexBounds( i , j );
+        if( j == i ) {
+            this.diagonal[i] = value;
+        } else if( j == i - 1 ) {
+            this.lower[j] = value;
+        } else if( j == i + 1 ) {
+            this.upper[i] = value;
+        } else {
+            throw new IllegalArgumentException( "Entry ( " + i + " , " + j + " ) is outside the three diagonals." );
+        }
+    }
+    
+    
+    /**
+     * Gets the value of the entry at i-th row and j-th column.
+     * 
+     * @param i     row index of the entry to get.
+     * @param j     column index of the entry to get.
+     * @return      value of the entry; zero if it is outside the three diagonals.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    public double entry( int i , int j )
+    {
+        this.assertIndexBounds( i , j );
+        if( j == i ) {
+            return this.diagonal[i];
+        } else if( j == i - 1 ) {
+            return this.lower[j];
+        } else if( j == i + 1 ) {
+            return this.upper[i];
+        }
+        return 0.0;
+    }
+    
+    
+    /**
+     * Returns a copy of {@code this}.
+     * 
+     * @return  new {@link TridiagonalMatrixReal} equal to {@code this}, not sharing its storage.
+     */
+    public TridiagonalMatrixReal copy()
+    {
+        return new TridiagonalMatrixReal( this.lower.clone() , this.diagonal.clone() , this.upper.clone() );
+    }
+    
+    
+    /**
+     * Returns true if {@code other} has the same size and entries as {@code this}.
+     * 
+     * @param other     {@link TridiagonalMatrixReal} to be compared with {@code this}.
+     * @return  true if {@code other} is equal to {@code this}; false otherwise.
+     */
+    public boolean equals( TridiagonalMatrixReal other )
+    {
+        return (  Arrays.equals( this.lower , other.lower )  &&  Arrays.equals( this.diagonal , other.diagonal )  &&  Arrays.equals( this.upper , other.upper )  );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String toString()
+    {
+        return this.toMatrixReal().toString();
+    }
+    
+    
+    /**
+     * Returns the equivalent full {@link MatrixReal}, with zeros outside the three diagonals.
+     * 
+     * @return  new {@link MatrixReal} equal to {@code this}.
+     */
+    public MatrixReal toMatrixReal()
+    {
+        return this.toBandMatrixReal().toMatrixReal();
+    }
+    
+    
+    /**
+     * Returns the equivalent {@link BandMatrixReal}, with lower and upper bandwidths equal to 1.
+     * 
+     * @return  new {@link BandMatrixReal} equal to {@code this}.
+     */
+    public BandMatrixReal toBandMatrixReal()
+    {
+        BandMatrixReal output = BandMatrixReal.zero( this.n , 1 , 1 );
+        for( int i=0; i<this.n; i++ ) {
+            output.x[ 3 * i + 1 ] = this.diagonal[i];
+            if( i > 0 ) {
+                output.x[ 3 * i ] = this.lower[ i - 1 ];
+            }
+            if( i < this.n - 1 ) {
+                output.x[ 3 * i + 2 ] = this.upper[i];
+            }
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Returns the product of {@code this} and a vector.
+     * 
+     * @param v     vector to be multiplied.
+     * @return  new array holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} does not match the columns of {@code this}.
+     */
+    public double[] multiply( double[] v )
+    {
+        return this.multiply( v , new double[ this.n ] );
+    }
+    
+    
+    /**
+     * Stores the product of {@code this} and a vector in {@code output}.
+     * 
+     * @param v     vector to be multiplied.
+     * @param output    array where the product is stored; it must be different from {@code v}.
+     * @return  {@code output}, holding  {@code this} * v.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code v} or {@code output} does not match the size of {@code this}, or if {@code output} is {@code v}.
+     */
+    public double[] multiply( double[] v , double[] output )
+    {
+        if(  v.length != this.n  ||  output.length != this.n  ) {
+            throw new IllegalArgumentException( "Vector lengths must be " + this.n + "; found " + v.length + " and " + output.length + "." );
+        }
+        if( v == output ) {
+            throw new IllegalArgumentException( "\"output\" must be different from \"v\"." );
+        }
+        for( int i=0; i<this.n; i++ ) {
+            double sum = this.diagonal[i] * v[i];
+            if( i > 0 ) {
+                sum += this.lower[ i - 1 ] * v[ i - 1 ];
+            }
+            if( i < this.n - 1 ) {
+                sum += this.upper[i] * v[ i + 1 ];
+            }
+            output[i] = sum;
+        }
+        return output;
+    }
+    
+    
+    /**
+     * Solves the equation  {@code this} * x = d  for x with the Thomas algorithm.
+     * <p>
+     * Operation done in-place: {@code d} holds d on input and x on output. {@code this} is not modified.
+     * The modified upper diagonal is stored in a new array; use {@link #solveInplace(double[], double[])} to provide it and avoid the allocation.
+     * 
+     * @param d     right-hand side.
+     * @return  {@code d}, holding the solution x.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code d} does not match the size of {@code this}.
+     * @throws IllegalStateException    if a zero pivot is found.
+     */
+    public double[] solveInplace( double[] d )
+    {
+        return this.solveInplace( d , new double[ Math.max( 0 , this.n - 1 ) ] );
+    }
+    
+    
+    /**
+     * Solves the equation  {@code this} * x = d  for x with the Thomas algorithm, using a caller-provided workspace.
+     * <p>
+     * Operation done in-place: {@code d} holds d on input and x on output. {@code this} is not modified, and no memory is allocated.
+     * Concurrent solves with the same {@link TridiagonalMatrixReal} are safe as long as each one uses its own workspace.
+     * 
+     * @param d     right-hand side.
+     * @param workspace     array of length at least n-1 where the modified upper diagonal is stored.
+     * @return  {@code d}, holding the solution x.
+     * 
+     * @throws IllegalArgumentException     if the length of {@code d} does not match the size of {@code this}, or if {@code workspace} is too short.
+     * @throws IllegalStateException    if a zero pivot is found.
+     */
+    public double[] solveInplace( double[] d , double[] workspace )
+    {
+        if( d.length != this.n ) {
+            throw new IllegalArgumentException( "Vector length must be " + this.n + "; found " + d.length + "." );
+        }
+        if( workspace.length < this.n - 1 ) {
+            throw new IllegalArgumentException( "Workspace length must be at least " + ( this.n - 1 ) + "; found " + workspace.length + "." );
+        }
+        if( this.n == 0 ) {
+            return d;
+        }
+        final double[] c = workspace;
+        double pivot = this.diagonal[0];
+        for( int i=0; i<this.n; i++ ) {
+            if( i > 0 ) {
+                pivot = this.diagonal[i] - this.lower[ i - 1 ] * c[ i - 1 ];
+                d[i] -= this.lower[ i - 1 ] * d[ i - 1 ];
+            }
+            if( pivot == 0.0 ) {
+                throw new IllegalStateException( "Zero pivot found at row " + i + "." );
+            }
+            final double inversePivot = 1.0 / pivot;
+            if( i < this.n - 1 ) {
+                c[i] = this.upper[i] * inversePivot;
+            }
+            d[i] *= inversePivot;
+        }
+        for( int i=this.n-2; i>-1; i-- ) {
+            d[i] -= c[i] * d[ i + 1 ];
+        }
+        return d;
+    }
+    
+    
+    /**
+     * Solves the equation  {@code this} * X = B  for X with the Thomas algorithm.
+     * <p>
+     * Operation done in-place: {@code B} holds B on input and X on output.
+     * 
+     * @param B     {@link MatrixReal} holding the right-hand sides.
+     * @return  {@code B}, holding the solution X.
+     * 
+     * @throws IllegalArgumentException     if {@code B} does not have as many rows as {@code this}.
+     * @throws IllegalStateException    if a zero pivot is found.
+     */
+    public MatrixReal solveInplace( MatrixReal B )
+    {
+        if( B.rows() != this.n ) {
+            throw new IllegalArgumentException( "Matrix must have " + this.n + " rows; found " + B.size() + "." );
+        }
+        double[] column = new double[ this.n ];
+        double[] workspace = new double[ Math.max( 0 , this.n - 1 ) ];
+        for( int j=0; j<B.columns(); j++ ) {
+            for( int i=0; i<this.n; i++ ) {
+                column[i] = B.entry( i , j );
+            }
+            this.solveInplace( column , workspace );
+            for( int i=0; i<this.n; i++ ) {
+                B.setEntry( i , j , column[i] );
+            }
+        }
+        return B;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PUBLIC STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns a {@link TridiagonalMatrixReal} filled with zeros.
+     * 
+     * @param dimension     number of rows and columns.
+     * @return  new zero {@link TridiagonalMatrixReal}.
+     */
+    public static TridiagonalMatrixReal zero( int dimension )
+    {
+        int offDiagonalLength = Math.max( 0 , dimension - 1 );
+        return new TridiagonalMatrixReal( new double[ offDiagonalLength ] , new double[ dimension ] , new double[ offDiagonalLength ] );
+    }
+    
+    
+    /**
+     * Returns a {@link TridiagonalMatrixReal} built from its three diagonals.
+     * <p>
+     * The arrays are copied.
+     * 
+     * @param lower     entries below the main diagonal, from top to bottom.
+     * @param diagonal  entries of the main diagonal.
+     * @param upper     entries above the main diagonal, from top to bottom.
+     * @return  new {@link TridiagonalMatrixReal}.
+     * 
+     * @throws IllegalArgumentException     if the lengths of {@code lower} or {@code upper} are not one less than the length of {@code diagonal}.
+     */
+    public static TridiagonalMatrixReal fromDiagonals( double[] lower , double[] diagonal , double[] upper )
+    {
+        int offDiagonalLength = Math.max( 0 , diagonal.length - 1 );
+        if(  lower.length != offDiagonalLength  ||  upper.length != offDiagonalLength  ) {
+            throw new IllegalArgumentException( "Off-diagonal lengths must be " + offDiagonalLength + "; found " + lower.length + " and " + upper.length + "." );
+        }
+        return new TridiagonalMatrixReal( lower.clone() , diagonal.clone() , upper.clone() );
+    }
+    
+    
+    /**
+     * Returns a {@link TridiagonalMatrixReal} built from the three central diagonals of a square {@link MatrixReal}.
+     * <p>
+     * The entries of {@code matrix} outside the three diagonals are ignored.
+     * 
+     * @param matrix    square {@link MatrixReal} whose three central diagonals are read.
+     * @return  new {@link TridiagonalMatrixReal}.
+     * 
+     * @throws IllegalArgumentException     if {@code matrix} is not square.
+     */
+    public static TridiagonalMatrixReal fromMatrixReal( MatrixReal matrix )
+    {
+        if( matrix.rows() != matrix.columns() ) {
+            throw new IllegalArgumentException( "Square matrix is required: " + matrix.size() + " is not square." );
+        }
+        TridiagonalMatrixReal output = TridiagonalMatrixReal.zero( matrix.rows() );
+        for( int i=0; i<output.n; i++ ) {
+            output.diagonal[i] = matrix.entry( i , i );
+            if( i < output.n - 1 ) {
+                output.lower[i] = matrix.entry( i + 1 , i );
+                output.upper[i] = matrix.entry( i , i + 1 );
+            }
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link TridiagonalMatrixReal} over existing diagonal arrays, without copying them.
+     * 
+     * @param lower     entries below the main diagonal.
+     * @param diagonal  entries of the main diagonal.
+     * @param upper     entries above the main diagonal.
+     */
+    private TridiagonalMatrixReal( double[] lower , double[] diagonal , double[] upper )
+    {
+        this.n = diagonal.length;
+        this.lower = lower;
+        this.diagonal = diagonal;
+        this.upper = upper;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Checks that both indices are in the range 0 , ... , n-1.
+     * 
+     * @param i     row index to check.
+     * @param j     column index to check.
+     * 
+     * @throws IllegalArgumentException     if an index is out of range.
+     */
+    private void assertIndexBounds( int i , int j )
+    {
+        if(  i < 0  ||  this.n <= i  ||  j < 0  ||  this.n <= j  ) {
+            throw new IllegalArgumentException( "Index ( " + i + " , " + j + " ) out of bounds for dimension " + this.n + "." );
+        }
+    }
+    
+}
@@ -2,6 +2,7 @@ package numericalLibrary.types;
 
 
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import numericalLibrary.algebraicStructures.MetricSpaceElement;
 import numericalLibrary.algebraicStructures.MultiplicativeGroupElement;
@@ -20,6 +21,22 @@ public class UnitQuaternion
         MultiplicativeGroupElement<UnitQuaternion>,
         MetricSpaceElement<UnitQuaternion>
 {
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE CONSTANTS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Number of vectors from which the batched rotations split the work among several threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    
+    /**
+     * Number of vectors rotated by each parallel task.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 14;
+    
+    
+    
     ////////////////////////////////////////////////////////////////
     /// PRIVATE VARIABLES
     ////////////////////////////////////////////////////////////////
@@ -148,6 +165,26 @@ public class UnitQuaternion
     }
     
     
+    /**
+     * Sets the components of {@code this} to those of a normalized quaternion.
+     * <p>
+     * The components must define a quaternion with unit norm for this class to work properly; they are not normalized.
+     * 
+     * @param qr    real part.
+     * @param qi    coefficient multiplying the imaginary unit i.
+     * @param qj    coefficient multiplying the imaginary unit j.
+     * @param qk    coefficient multiplying the imaginary unit k.
+     * @return  {@code this} with the new components.
+     * 
+     * @see #fromNormalizedQuaternion(Quaternion)
+     */
+    public UnitQuaternion setToNormalizedComponents( double qr , double qi , double qj , double qk )
+    {
+        this.q.setComponents( qr , qi , qj , qk );
+        return this;
+    }
+    
+    
     public UnitQuaternion opposite()
     {
         return new UnitQuaternion( this.q.inverseAdditive() );
@@ -174,6 +211,20 @@ public class UnitQuaternion
     }
     
     
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each product of {@link UnitQuaternion}s is renormalized so that another {@link UnitQuaternion} is returned.
+     * Any of {@code first} and {@code second} can be {@code this}.
+     */
+    public UnitQuaternion setToProduct( UnitQuaternion first , UnitQuaternion second )
+    {
+        this.q.setToProduct( first.q , second.q );
+        UnitQuaternion.normalizeInplace( this.q );
+        return this;
+    }
+    
+    
     /**
      * {@inheritDoc}
      * <p>
@@ -412,6 +463,146 @@ public class UnitQuaternion
     }
     
     
+    /**
+     * Rotates a batch of vectors stored as separate coordinate arrays (structure of arrays).
+     * <p>
+     * The rotation matrix is computed once and applied to every vector in a single pass through the arrays;
+     * large batches are split among several threads.
+     * The output arrays may be the input arrays.
+     * 
+     * @param xs    x coordinates of the vectors to be rotated.
+     * @param ys    y coordinates of the vectors to be rotated.
+     * @param zs    z coordinates of the vectors to be rotated.
+     * @param xsOut     output array where the x coordinates of the rotated vectors are stored.
+     * @param ysOut     output array where the y coordinates of the rotated vectors are stored.
+     * @param zsOut     output array where the z coordinates of the rotated vectors are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     * 
+     * @see #rotate(Vector3)
+     */
+    public void rotate( double[] xs , double[] ys , double[] zs , double[] xsOut , double[] ysOut , double[] zsOut )
+    {
+        rotateArrays( this.rotationMatrixEntries( false ) , xs , ys , zs , xsOut , ysOut , zsOut );
+    }
+    
+    
+    /**
+     * Rotates in place a batch of vectors stored as separate coordinate arrays (structure of arrays).
+     * 
+     * @param xs    x coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @param ys    y coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @param zs    z coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     * 
+     * @see #rotate(double[], double[], double[], double[], double[], double[])
+     */
+    public void rotateInplace( double[] xs , double[] ys , double[] zs )
+    {
+        this.rotate( xs , ys , zs , xs , ys , zs );
+    }
+    
+    
+    /**
+     * Rotates with the inverse rotation a batch of vectors stored as separate coordinate arrays (structure of arrays).
+     * <p>
+     * The output arrays may be the input arrays.
+     * 
+     * @param xs    x coordinates of the vectors to be rotated.
+     * @param ys    y coordinates of the vectors to be rotated.
+     * @param zs    z coordinates of the vectors to be rotated.
+     * @param xsOut     output array where the x coordinates of the rotated vectors are stored.
+     * @param ysOut     output array where the y coordinates of the rotated vectors are stored.
+     * @param zsOut     output array where the z coordinates of the rotated vectors are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     * 
+     * @see #rotateWithInverse(Vector3)
+     */
+    public void rotateWithInverse( double[] xs , double[] ys , double[] zs , double[] xsOut , double[] ysOut , double[] zsOut )
+    {
+        rotateArrays( this.rotationMatrixEntries( true ) , xs , ys , zs , xsOut , ysOut , zsOut );
+    }
+    
+    
+    /**
+     * Rotates in place with the inverse rotation a batch of vectors stored as separate coordinate arrays (structure of arrays).
+     * 
+     * @param xs    x coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @param ys    y coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @param zs    z coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     * 
+     * @see #rotateWithInverse(double[], double[], double[], double[], double[], double[])
+     */
+    public void rotateWithInverseInplace( double[] xs , double[] ys , double[] zs )
+    {
+        this.rotateWithInverse( xs , ys , zs , xs , ys , zs );
+    }
+    
+    
+    /**
+     * Rotates a batch of vectors stored in an interleaved array  { x0 , y0 , z0 , x1 , y1 , z1 , ... } .
+     * <p>
+     * The rotation matrix is computed once and applied to every vector in a single pass through the array;
+     * large batches are split among several threads.
+     * The output array may be the input array.
+     * 
+     * @param xyz       interleaved coordinates of the vectors to be rotated.
+     * @param xyzOut    output array where the interleaved coordinates of the rotated vectors are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length, or if it is not a multiple of 3.
+     * 
+     * @see #rotate(Vector3)
+     */
+    public void rotateInterleaved( double[] xyz , double[] xyzOut )
+    {
+        rotateInterleavedArray( this.rotationMatrixEntries( false ) , xyz , xyzOut );
+    }
+    
+    
+    /**
+     * Rotates in place a batch of vectors stored in an interleaved array  { x0 , y0 , z0 , x1 , y1 , z1 , ... } .
+     * 
+     * @param xyz   interleaved coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @throws IllegalArgumentException if the array length is not a multiple of 3.
+     * 
+     * @see #rotateInterleaved(double[], double[])
+     */
+    public void rotateInterleavedInplace( double[] xyz )
+    {
+        this.rotateInterleaved( xyz , xyz );
+    }
+    
+    
+    /**
+     * Rotates with the inverse rotation a batch of vectors stored in an interleaved array  { x0 , y0 , z0 , x1 , y1 , z1 , ... } .
+     * <p>
+     * The output array may be the input array.
+     * 
+     * @param xyz       interleaved coordinates of the vectors to be rotated.
+     * @param xyzOut    output array where the interleaved coordinates of the rotated vectors are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length, or if it is not a multiple of 3.
+     * 
+     * @see #rotateWithInverse(Vector3)
+     */
+    public void rotateWithInverseInterleaved( double[] xyz , double[] xyzOut )
+    {
+        rotateInterleavedArray( this.rotationMatrixEntries( true ) , xyz , xyzOut );
+    }
+    
+    
+    /**
+     * Rotates in place with the inverse rotation a batch of vectors stored in an interleaved array  { x0 , y0 , z0 , x1 , y1 , z1 , ... } .
+     * 
+     * @param xyz   interleaved coordinates of the vectors to be rotated; overwritten with the rotated ones.
+     * @throws IllegalArgumentException if the array length is not a multiple of 3.
+     * 
+     * @see #rotateWithInverseInterleaved(double[], double[])
+     */
+    public void rotateWithInverseInterleavedInplace( double[] xyz )
+    {
+        this.rotateWithInverseInterleaved( xyz , xyz );
+    }
+    
+    
     
     ////////////////////////////////////////////////////////////////
     /// PUBLIC STATIC METHODS
@@ -810,10 +1001,168 @@ public class UnitQuaternion
     
     
     
+    ////////////////////////////////////////////////////////////////
+    /// PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the entries of the rotation matrix (or of its transpose), stored by rows in a new array.
+     * 
+     * @param transpose     true to return the entries of the inverse rotation.
+     * @return  entries of the rotation matrix (or of its transpose), stored by rows.
+     * 
+     * @see #toRotationMatrix()
+     */
+    private double[] rotationMatrixEntries( boolean transpose )
+    {
+        double ri = this.w() * this.x();
+        ri += ri;
+        double rj = this.w() * this.y();
+        rj += rj;
+        double rk = this.w() * this.z();
+        rk += rk;
+        double ij = this.x() * this.y();
+        ij += ij;
+        double ik = this.x() * this.z();
+        ik += ik;
+        double jk = this.y() * this.z();
+        jk += jk;
+        double ii = this.x() * this.x();
+        ii += ii;
+        double jj = this.y() * this.y();
+        jj += jj;
+        double kk = this.z() * this.z();
+        kk += kk;
+        if( transpose ) {
+            // Transposing the rotation matrix is the same as flipping the sign of the vector part terms.
+            ri = -ri;
+            rj = -rj;
+            rk = -rk;
+        }
+        return new double[] {
+                1.0 -jj -kk  , ij - rk      , ik + rj ,
+                ij + rk      , 1.0 -ii -kk  , jk - ri ,
+                ik - rj      , jk + ri      , 1.0 -ii -jj };
+    }
+    
+    
+    
     ////////////////////////////////////////////////////////////////
     /// PRIVATE STATIC METHODS
     ////////////////////////////////////////////////////////////////
     
+    /**
+     * Applies a rotation matrix to a batch of vectors stored as separate coordinate arrays, in parallel for large batches.
+     * 
+     * @param r     entries of the rotation matrix stored by rows.
+     * @param xs    x coordinates of the vectors to be rotated.
+     * @param ys    y coordinates of the vectors to be rotated.
+     * @param zs    z coordinates of the vectors to be rotated.
+     * @param xsOut     output array where the x coordinates of the rotated vectors are stored.
+     * @param ysOut     output array where the y coordinates of the rotated vectors are stored.
+     * @param zsOut     output array where the z coordinates of the rotated vectors are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    private static void rotateArrays( double[] r , double[] xs , double[] ys , double[] zs , double[] xsOut , double[] ysOut , double[] zsOut )
+    {
+        final int n = xs.length;
+        if(  ys.length != n  ||  zs.length != n  ||  xsOut.length != n  ||  ysOut.length != n  ||  zsOut.length != n  ) {
+            throw new IllegalArgumentException( "Coordinate arrays must have the same length." );
+        }
+        if( n < UnitQuaternion.PARALLEL_THRESHOLD ) {
+            rotateArraysRange( r , xs , ys , zs , xsOut , ysOut , zsOut , 0 , n );
+        } else {
+            final int nChunks = ( n + UnitQuaternion.PARALLEL_CHUNK_SIZE - 1 ) / UnitQuaternion.PARALLEL_CHUNK_SIZE;
+            IntStream.range( 0 , nChunks ).parallel().forEach( chunk -> {
+                int from = chunk * UnitQuaternion.PARALLEL_CHUNK_SIZE;
+                rotateArraysRange( r , xs , ys , zs , xsOut , ysOut , zsOut , from , Math.min( from + UnitQuaternion.PARALLEL_CHUNK_SIZE , n ) );
+            } );
+        }
+    }
+    
+    
+    /**
+     * Applies a rotation matrix to the vectors in the range  [ from , to )  of separate coordinate arrays.
+     * 
+     * @param r     entries of the rotation matrix stored by rows.
+     * @param xs    x coordinates of the vectors to be rotated.
+     * @param ys    y coordinates of the vectors to be rotated.
+     * @param zs    z coordinates of the vectors to be rotated.
+     * @param xsOut     output array where the x coordinates of the rotated vectors are stored.
+     * @param ysOut     output array where the y coordinates of the rotated vectors are stored.
+     * @param zsOut     output array where the z coordinates of the rotated vectors are stored.
+     * @param from  first index to be rotated.
+     * @param to    index after the last one to be rotated.
+     */
+    private static void rotateArraysRange( double[] r , double[] xs , double[] ys , double[] zs , double[] xsOut , double[] ysOut , double[] zsOut , int from , int to )
+    {
+        // Cache the matrix entries locally.
+        final double r00 = r[0] , r01 = r[1] , r02 = r[2];
+        final double r10 = r[3] , r11 = r[4] , r12 = r[5];
+        final double r20 = r[6] , r21 = r[7] , r22 = r[8];
+        for( int i=from; i<to; i++ ) {
+            final double x = xs[i];
+            final double y = ys[i];
+            final double z = zs[i];
+            xsOut[i] = r00 * x + r01 * y + r02 * z;
+            ysOut[i] = r10 * x + r11 * y + r12 * z;
+            zsOut[i] = r20 * x + r21 * y + r22 * z;
+        }
+    }
+    
+    
+    /**
+     * Applies a rotation matrix to a batch of vectors stored in an interleaved array, in parallel for large batches.
+     * 
+     * @param r     entries of the rotation matrix stored by rows.
+     * @param xyz       interleaved coordinates of the vectors to be rotated.
+     * @param xyzOut    output array where the interleaved coordinates of the rotated vectors are stored.
+     * @throws IllegalArgumentException if the arrays do not have the same length, or if it is not a multiple of 3.
+     */
+    private static void rotateInterleavedArray( double[] r , double[] xyz , double[] xyzOut )
+    {
+        if(  xyz.length % 3 != 0  ||  xyzOut.length != xyz.length  ) {
+            throw new IllegalArgumentException( "Interleaved arrays must have the same length, multiple of 3." );
+        }
+        final int n = xyz.length / 3;
+        if( n < UnitQuaternion.PARALLEL_THRESHOLD ) {
+            rotateInterleavedArrayRange( r , xyz , xyzOut , 0 , n );
+        } else {
+            final int nChunks = ( n + UnitQuaternion.PARALLEL_CHUNK_SIZE - 1 ) / UnitQuaternion.PARALLEL_CHUNK_SIZE;
+            IntStream.range( 0 , nChunks ).parallel().forEach( chunk -> {
+                int from = chunk * UnitQuaternion.PARALLEL_CHUNK_SIZE;
+                rotateInterleavedArrayRange( r , xyz , xyzOut , from , Math.min( from + UnitQuaternion.PARALLEL_CHUNK_SIZE , n ) );
+            } );
+        }
+    }
+    
+    
+    /**
+     * Applies a rotation matrix to the vectors in the range  [ from , to )  of an interleaved array.
+     * 
+     * @param r     entries of the rotation matrix stored by rows.
+     * @param xyz       interleaved coordinates of the vectors to be rotated.
+     * @param xyzOut    output array where the interleaved coordinates of the rotated vectors are stored.
+     * @param from  first vector to be rotated.
+     * @param to    vector after the last one to be rotated.
+     */
+    private static void rotateInterleavedArrayRange( double[] r , double[] xyz , double[] xyzOut , int from , int to )
+    {
+        // Cache the matrix entries locally.
+        final double r00 = r[0] , r01 = r[1] , r02 = r[2];
+        final double r10 = r[3] , r11 = r[4] , r12 = r[5];
+        final double r20 = r[6] , r21 = r[7] , r22 = r[8];
+        for( int i=3*from; i<3*to; i+=3 ) {
+            final double x = xyz[i];
+            final double y = xyz[i+1];
+            final double z = xyz[i+2];
+            xyzOut[i]   = r00 * x + r01 * y + r02 * z;
+            xyzOut[i+1] = r10 * x + r11 * y + r12 * z;
+            xyzOut[i+2] = r20 * x + r21 * y + r22 * z;
+        }
+    }
+    
+    
     /**
      * Normalizes in place a {@link Quaternion} without checking if it has zero norm.
      * <p>
@@ -186,6 +186,23 @@ public class Vector3
     }
     
     
+    /**
+     * Sets the components of {@code this}.
+     * 
+     * @param xComponent    x component of the {@link Vector3}.
+     * @param yComponent    y component of the {@link Vector3}.
+     * @param zComponent    z component of the {@link Vector3}.
+     * @return  {@code this} with the new components.
+     */
+    public Vector3 setComponents( double xComponent , double yComponent , double zComponent )
+    {
+        this.vx = xComponent;
+        this.vy = yComponent;
+        this.vz = zComponent;
+        return this;
+    }
+    
+    
     public Vector3 setToZero()
     {
         this.vx = 0.0;
@@ -359,6 +376,20 @@ public class Vector3
     }
     
     
+    /**
+     * Stores the cross product matrix of {@code this} in {@code output}.
+     * 
+     * @param output    {@link Matrix3} where the result is stored.
+     * @return  {@code output}, holding the matrix  [ this ]_x  such that  [ this ]_x v = this x v .
+     * 
+     * @see #crossProductMatrix()
+     */
+    public Matrix3 crossProductMatrix( Matrix3 output )
+    {
+        return output.setToCrossProductMatrix( this );
+    }
+    
+    
     public MatrixReal outerProduct( Vector3 other )
     {
         return MatrixReal.fromEntries3x3(
@@ -368,6 +399,21 @@ public class Vector3
     }
     
     
+    /**
+     * Stores the outer product  this other^T  in {@code output}.
+     * 
+     * @param other     right factor of the outer product.
+     * @param output    {@link Matrix3} where the result is stored.
+     * @return  {@code output}, holding  this other^T .
+     * 
+     * @see #outerProduct(Vector3)
+     */
+    public Matrix3 outerProduct( Vector3 other , Matrix3 output )
+    {
+        return output.setToOuterProduct( this , other );
+    }
+    
+    
     public MatrixReal toMatrixAsColumn()
     {
         return MatrixReal.fromVector3AsColumn( this );
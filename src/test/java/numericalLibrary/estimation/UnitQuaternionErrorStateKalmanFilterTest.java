@@ -0,0 +1,190 @@
+package numericalLibrary.estimation;
+
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.manifolds.unitQuaternions.atlases.ExponentialMapS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.ModifiedRodriguesParametersS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.OrthographicS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.RodriguesParametersS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.UnitQuaternionDifferentiableAtlas;
+import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * Implements test methods for {@link UnitQuaternionErrorStateKalmanFilter}.
+ */
+class UnitQuaternionErrorStateKalmanFilterTest
+{
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that the prediction step sets the nominal state and propagates the covariance matrix as  F P F^T + Q .
+     */
+    @Test
+    public void predictPropagatesCovariance()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        int m = 4;
+        MatrixReal P = randomPositiveDefinite( 3 + m , randomNumberGenerator );
+        UnitQuaternionErrorStateKalmanFilter filter = new UnitQuaternionErrorStateKalmanFilter( new ExponentialMapS3() , UnitQuaternion.random( randomNumberGenerator ) , MatrixReal.random( m , 1 , randomNumberGenerator ) , P );
+        for( int k=0; k<10; k++ ) {
+            MatrixReal F = MatrixReal.random( 3 + m , 3 + m , randomNumberGenerator );
+            MatrixReal Q = randomPositiveDefinite( 3 + m , randomNumberGenerator );
+            UnitQuaternion q = UnitQuaternion.random( randomNumberGenerator );
+            MatrixReal x = MatrixReal.random( m , 1 , randomNumberGenerator );
+            MatrixReal expected = F.multiply( filter.getCovariance() ).multiply( F.transpose() ).add( Q );
+            filter.predict( q , x , F , Q );
+            assertTrue( filter.getCovariance().equalsApproximately( expected , 1.0e-10 , 1.0e-12 ) );
+            assertTrue( filter.getAttitude().equals( q ) );
+            assertTrue( filter.getEuclideanState().equals( x ) );
+        }
+    }
+    
+    
+    /**
+     * Tests that the update step matches the textbook equations:
+     * Kalman gain, injection of the error state through the chart, Joseph-form covariance update, and reset with the Jacobian of the transition map.
+     */
+    @Test
+    public void updateMatchesReferenceEquations()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        int m = 2;
+        int N = 3 + m;
+        for( UnitQuaternionDifferentiableAtlas atlas : atlasList() ) {
+            for( int r=1; r<=6; r++ ) {
+                UnitQuaternion q = UnitQuaternion.random( randomNumberGenerator );
+                MatrixReal x = MatrixReal.random( m , 1 , randomNumberGenerator );
+                MatrixReal P = randomPositiveDefinite( N , randomNumberGenerator ).scaleInplace( 0.01 );
+                MatrixReal H = MatrixReal.random( r , N , randomNumberGenerator );
+                MatrixReal R = randomPositiveDefinite( r , randomNumberGenerator );
+                MatrixReal y = MatrixReal.random( r , 1 , randomNumberGenerator ).scaleInplace( 0.1 );
+                UnitQuaternionErrorStateKalmanFilter filter = new UnitQuaternionErrorStateKalmanFilter( atlas , q , x , P );
+                filter.update( y , H , R );
+                // Reference computation.
+                MatrixReal S = H.multiply( P ).multiply( H.transpose() ).add( R );
+                MatrixReal K = P.multiply( H.transpose() ).divideRightByPositiveDefiniteUsingItsCholeskyDecomposition( S.choleskyDecomposition() );
+                MatrixReal dx = K.multiply( y );
+                atlas.setChartSelector( q );
+                UnitQuaternion qUpdated = atlas.toManifold( dx.submatrixToVector3( 0 , 0 ) );
+                MatrixReal xUpdated = x.add( dx.submatrix( 3 , 0 , m , 1 ) );
+                MatrixReal A = MatrixReal.one( N ).subtract( K.multiply( H ) );
+                MatrixReal PUpdated = A.multiply( P ).multiply( A.transpose() ).add( K.multiply( R ).multiply( K.transpose() ) );
+                // The Joseph form is equivalent to the standard form  P - K S K^T .
+                assertTrue( PUpdated.equalsApproximately( P.subtract( K.multiply( S ).multiply( K.transpose() ) ) , 1.0e-10 , 1.0e-10 ) );
+                List<MatrixReal> blocks = new ArrayList<MatrixReal>();
+                blocks.add( atlas.jacobianOfTransitionMap( q , qUpdated ) );
+                blocks.add( MatrixReal.one( m ) );
+                MatrixReal G = MatrixReal.blockDiagonal( blocks );
+                MatrixReal PReset = G.multiply( PUpdated ).multiply( G.transpose() );
+                assertTrue( filter.getAttitude().equalsApproximately( qUpdated , 1.0e-12 , 0.0 ) );
+                assertTrue( filter.getEuclideanState().equalsApproximately( xUpdated , 1.0e-12 , 0.0 ) );
+                assertTrue( filter.getCovariance().equalsApproximately( PReset , 1.0e-10 , 1.0e-10 ) );
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the filter estimates a static attitude from noisy measurements of two known directions.
+     */
+    @Test
+    public void staticAttitudeIsEstimatedFromVectorMeasurements()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        Vector3[] references = new Vector3[] { Vector3.k() , Vector3.i() };
+        double sigma = 0.01;
+        for( UnitQuaternionDifferentiableAtlas atlas : atlasList() ) {
+            UnitQuaternion qTrue = UnitQuaternion.random( randomNumberGenerator );
+            UnitQuaternion qInitial = qTrue.multiply( UnitQuaternion.fromRotationVector( Vector3.random( randomNumberGenerator ).normalize().scaleInplace( 0.5 ) ) );
+            UnitQuaternionErrorStateKalmanFilter filter = new UnitQuaternionErrorStateKalmanFilter( atlas , qInitial , MatrixReal.empty( 0 , 1 ) , MatrixReal.one( 3 ).scaleInplace( 0.25 ) );
+            MatrixReal F = MatrixReal.one( 3 );
+            MatrixReal Q = MatrixReal.one( 3 ).scaleInplace( 1.0e-8 );
+            MatrixReal R = MatrixReal.one( 6 ).scaleInplace( sigma * sigma );
+            MatrixReal innovation = MatrixReal.empty( 6 , 1 );
+            MatrixReal H = MatrixReal.empty( 6 , 3 );
+            for( int k=0; k<200; k++ ) {
+                filter.predict( filter.getAttitude() , filter.getEuclideanState() , F , Q );
+                UnitQuaternion q = filter.getAttitude();
+                for( int s=0; s<references.length; s++ ) {
+                    Vector3 measured = qTrue.rotateWithInverse( references[s] ).addInplace( Vector3.random( randomNumberGenerator ).scaleInplace( sigma ) );
+                    Vector3 predicted = q.rotateWithInverse( references[s] );
+                    innovation.setSubmatrix( 3*s , 0 , MatrixReal.fromVector3AsColumn( measured.subtract( predicted ) ) );
+                    // Jacobian of the measurement with respect to the attitude error, by finite differences through the chart.
+                    double h = 1.0e-7;
+                    atlas.setChartSelector( q );
+                    for( int j=0; j<3; j++ ) {
+                        Vector3 e = Vector3.zero();
+                        e.setComponents( ( j == 0 )? h : 0.0 , ( j == 1 )? h : 0.0 , ( j == 2 )? h : 0.0 );
+                        Vector3 derivative = atlas.toManifold( e ).rotateWithInverse( references[s] ).subtractInplace( predicted ).scaleInplace( 1.0/h );
+                        H.setEntry( 3*s , j , derivative.x() );
+                        H.setEntry( 3*s + 1 , j , derivative.y() );
+                        H.setEntry( 3*s + 2 , j , derivative.z() );
+                    }
+                }
+                filter.update( innovation , H , R );
+            }
+            assertTrue( filter.getAttitude().distanceFrom( qTrue ) < 5.0e-3 );
+            assertTrue( filter.getCovariance().trace() < 1.0e-4 );
+        }
+    }
+    
+    
+    /**
+     * Tests that inconsistent sizes and non positive-definite innovation covariance matrices are rejected.
+     */
+    @Test
+    public void invalidInputsAreRejected()
+    {
+        assertThrows( IllegalArgumentException.class , () -> new UnitQuaternionErrorStateKalmanFilter( new ExponentialMapS3() , UnitQuaternion.one() , MatrixReal.zero( 2 , 1 ) , MatrixReal.one( 3 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> new UnitQuaternionErrorStateKalmanFilter( new ExponentialMapS3() , UnitQuaternion.one() , MatrixReal.zero( 2 , 2 ) , MatrixReal.one( 5 ) ) );
+        UnitQuaternionErrorStateKalmanFilter filter = new UnitQuaternionErrorStateKalmanFilter( new ExponentialMapS3() , UnitQuaternion.one() , MatrixReal.zero( 1 , 1 ) , MatrixReal.one( 4 ) );
+        assertThrows( IllegalArgumentException.class , () -> filter.predict( UnitQuaternion.one() , MatrixReal.zero( 1 , 1 ) , MatrixReal.one( 3 ) , MatrixReal.one( 4 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> filter.update( MatrixReal.zero( 2 , 1 ) , MatrixReal.zero( 2 , 3 ) , MatrixReal.one( 2 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> filter.update( MatrixReal.zero( 2 , 1 ) , MatrixReal.zero( 2 , 4 ) , MatrixReal.one( 3 ) ) );
+        assertThrows( IllegalStateException.class , () -> filter.update( MatrixReal.zero( 2 , 1 ) , MatrixReal.zero( 2 , 4 ) , MatrixReal.one( 2 ).scaleInplace( -1.0 ) ) );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the list of {@link UnitQuaternionDifferentiableAtlas}es to be tested.
+     */
+    private static List<UnitQuaternionDifferentiableAtlas> atlasList()
+    {
+        List<UnitQuaternionDifferentiableAtlas> output = new ArrayList<UnitQuaternionDifferentiableAtlas>();
+        output.add( new ExponentialMapS3() );
+        output.add( new ModifiedRodriguesParametersS3() );
+        output.add( new OrthographicS3() );
+        output.add( new RodriguesParametersS3() );
+        return output;
+    }
+    
+    
+    /**
+     * Returns a random positive-definite {@link MatrixReal}.
+     */
+    private static MatrixReal randomPositiveDefinite( int dimension , Random randomNumberGenerator )
+    {
+        MatrixReal A = MatrixReal.random( dimension , dimension , randomNumberGenerator );
+        return A.multiply( A.transpose() ).addInplace( MatrixReal.one( dimension ) );
+    }
+    
+}
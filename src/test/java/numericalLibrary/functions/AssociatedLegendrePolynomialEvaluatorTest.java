@@ -67,4 +67,114 @@ public class AssociatedLegendrePolynomialEvaluatorTest
     	}
     }
     
+    
+    /**
+     * Tests that {@link GeneralizedAssociatedLegendrePolynomialEvaluator#evaluateSeriesByOrder(double, double[], double[])}
+     * matches the direct summation of the polynomials for every order.
+     */
+    @Test
+    void seriesEvaluationByOrderMatchesDirectSummation()
+    {
+    	Random randomNumberGenerator = new Random(42);
+    	for( int lMaximum=1; lMaximum<=20; lMaximum++ ) {
+    		PreNormalizedAssociatedLegendrePolynomialEvaluator evaluator = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
+    		double[] coefficients = new double[ ( ( lMaximum + 1 ) * ( lMaximum + 2 ) ) / 2 ];
+    		double[] series = new double[ lMaximum + 1 ];
+    		for( int i=0; i<20; i++ ) {
+    			double x = 2.0 * randomNumberGenerator.nextDouble() - 1.0;
+    			for( int k=0; k<coefficients.length; k++ ) {
+    				coefficients[k] = randomNumberGenerator.nextGaussian();
+    			}
+    			evaluator.evaluate( x );
+    			evaluator.evaluateSeriesByOrder( x , coefficients , series );
+    			for( int m=0; m<=lMaximum; m++ ) {
+    				double expected = 0.0;
+    				for( int l=m; l<=lMaximum; l++ ) {
+    					expected += coefficients[ ( l * ( l + 1 ) ) / 2 + m ] * evaluator.getPolynomialValue( l , m );
+    				}
+    				assertEquals( expected , series[m] , 1.0e-12 );
+    			}
+    		}
+    	}
+    }
+    
+    
+    /**
+     * Tests that {@link GeneralizedAssociatedLegendrePolynomialEvaluator#evaluateSeriesByOrder(double, double[], double[])}
+     * gives the same series in extended-range mode as in plain mode when nothing underflows.
+     */
+    @Test
+    void extendedRangeSeriesEvaluationByOrderMatchesPlainEvaluation()
+    {
+    	Random randomNumberGenerator = new Random(42);
+    	for( int lMaximum=1; lMaximum<=40; lMaximum++ ) {
+    		PreNormalizedAssociatedLegendrePolynomialEvaluator plain = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
+    		PreNormalizedAssociatedLegendrePolynomialEvaluator extended = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
+    		extended.setExtendedRange( true );
+    		double[] coefficients = new double[ ( ( lMaximum + 1 ) * ( lMaximum + 2 ) ) / 2 ];
+    		double[] expected = new double[ lMaximum + 1 ];
+    		double[] actual = new double[ lMaximum + 1 ];
+    		for( int i=0; i<20; i++ ) {
+    			double x = 2.0 * randomNumberGenerator.nextDouble() - 1.0;
+    			for( int k=0; k<coefficients.length; k++ ) {
+    				coefficients[k] = randomNumberGenerator.nextGaussian();
+    			}
+    			plain.evaluateSeriesByOrder( x , coefficients , expected );
+    			extended.evaluateSeriesByOrder( x , coefficients , actual );
+    			for( int m=0; m<=lMaximum; m++ ) {
+    				assertEquals( expected[m] , actual[m] , 1.0e-12 * ( 1.0 + Math.abs( expected[m] ) ) );
+    			}
+    		}
+    	}
+    }
+    
+    
+    /**
+     * Tests that the extended-range mode gives the same values as the plain mode when nothing underflows.
+     */
+    @Test
+    void extendedRangeMatchesPlainEvaluation()
+    {
+    	int lMaximum = 200;
+    	PreNormalizedAssociatedLegendrePolynomialEvaluator plain = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
+    	PreNormalizedAssociatedLegendrePolynomialEvaluator extended = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
+    	extended.setExtendedRange( true );
+    	Random randomNumberGenerator = new Random(42);
+    	for( int i=0; i<20; i++ ) {
+    		double x = 2.0 * randomNumberGenerator.nextDouble() - 1.0;
+    		plain.evaluate( x );
+    		extended.evaluate( x );
+    		for( int l=0; l<=lMaximum; l++ ) {
+    			for( int m=0; m<=l; m++ ) {
+    				double expected = plain.getPolynomialValue( l , m );
+    				assertEquals( expected , extended.getPolynomialValue( l , m ) , 1.0e-12 * Math.abs( expected ) );
+    			}
+    		}
+    	}
+    }
+    
+    
+    /**
+     * Tests that the extended-range mode keeps the addition theorem  sum_m | Y_l^m |^2 = ( 2 l + 1 ) / ( 4 pi )
+     * at high degrees, where the sectoral terms underflow in the plain mode.
+     */
+    @Test
+    void extendedRangeSatisfiesAdditionTheoremAtHighDegree()
+    {
+    	int lMaximum = 2100;
+    	PreNormalizedAssociatedLegendrePolynomialEvaluator evaluator = new PreNormalizedAssociatedLegendrePolynomialEvaluator( lMaximum );
+    	evaluator.setExtendedRange( true );
+    	// sin( theta ) = 1 / e  is where the underflow of the sectoral terms first reaches the oscillatory region.
+    	double sinTheta = Math.exp( -1.0 );
+    	evaluator.evaluate( Math.sqrt( 1.0 - sinTheta * sinTheta ) );
+    	for( int l=lMaximum-10; l<=lMaximum; l++ ) {
+    		double sum = evaluator.getPolynomialValue( l , 0 ) * evaluator.getPolynomialValue( l , 0 );
+    		for( int m=1; m<=l; m++ ) {
+    			sum += 2.0 * evaluator.getPolynomialValue( l , m ) * evaluator.getPolynomialValue( l , m );
+    		}
+    		double expected = ( 2.0 * l + 1.0 ) / ( 4.0 * Math.PI );
+    		assertEquals( expected , sum , 1.0e-10 * expected );
+    	}
+    }
+    
 }
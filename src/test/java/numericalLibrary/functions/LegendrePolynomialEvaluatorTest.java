@@ -60,4 +60,28 @@ public class LegendrePolynomialEvaluatorTest
     	}
     }
     
+    
+    /**
+     * Tests that {@link LegendrePolynomialEvaluator#evaluateSeries(double, double[])} matches the direct summation of the polynomials.
+     */
+    @Test
+    void seriesEvaluationMatchesDirectSummation()
+    {
+    	LegendrePolynomialEvaluator legendrePolynomialEvaluator = new LegendrePolynomialEvaluator( 30 );
+    	Random randomNumberGenerator = new Random(42);
+    	for( int i=0; i<100; i++ ) {
+    		double x = 2.0 * randomNumberGenerator.nextDouble() - 1.0;
+    		double[] coefficients = new double[ 1 + randomNumberGenerator.nextInt( 31 ) ];
+    		for( int n=0; n<coefficients.length; n++ ) {
+    			coefficients[n] = randomNumberGenerator.nextGaussian();
+    		}
+    		legendrePolynomialEvaluator.evaluate( x );
+    		double expected = 0.0;
+    		for( int n=0; n<coefficients.length; n++ ) {
+    			expected += coefficients[n] * legendrePolynomialEvaluator.getPnValue( n );
+    		}
+    		assertEquals( expected , legendrePolynomialEvaluator.evaluateSeries( x , coefficients ) , 1.0e-12 );
+    	}
+    }
+    
 }
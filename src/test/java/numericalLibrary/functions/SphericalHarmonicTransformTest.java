@@ -0,0 +1,122 @@
+package numericalLibrary.functions;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link SphericalHarmonicTransform}.
+ */
+public class SphericalHarmonicTransformTest
+{
+	////////////////////////////////////////////////////////////////
+	/// TEST METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Tests that the Gauss-Legendre quadrature integrates polynomials up to degree  2 lMaximum + 1  exactly.
+	 */
+	@Test
+	void quadratureIntegratesPolynomialsExactly()
+	{
+		for( int lMaximum=1; lMaximum<20; lMaximum++ ) {
+			SphericalHarmonicTransform transform = new SphericalHarmonicTransform( lMaximum );
+			for( int power=0; power<=2*lMaximum+1; power++ ) {
+				double integral = 0.0;
+				for( int j=0; j<transform.getNumberOfRings(); j++ ) {
+					integral += transform.getRingWeight( j ) * Math.pow( transform.getRingCosTheta( j ) , power );
+				}
+				double expected = ( power % 2 == 0 )?  2.0 / ( power + 1.0 )  :  0.0;
+				assertEquals( expected , integral , 1.0e-13 );
+			}
+		}
+	}
+
+
+	/**
+	 * Tests that {@link SphericalHarmonicTransform#synthesize(double[], double[], double[])} matches the field
+	 * obtained by summing the harmonics given by {@link SphericalHarmonicsEvaluator} at every grid point.
+	 */
+	@Test
+	void synthesisMatchesDirectSummation()
+	{
+		int lMaximum = 12;
+		SphericalHarmonicTransform transform = new SphericalHarmonicTransform( lMaximum );
+		SphericalHarmonicsEvaluator evaluator = new SphericalHarmonicsEvaluator( lMaximum );
+		Random randomNumberGenerator = new Random(42);
+		double[] coefficientsRe = new double[ transform.getNumberOfCoefficients() ];
+		double[] coefficientsIm = new double[ transform.getNumberOfCoefficients() ];
+		fillRandomCoefficients( lMaximum , coefficientsRe , coefficientsIm , randomNumberGenerator );
+		double[] grid = new double[ transform.getNumberOfGridSamples() ];
+		transform.synthesize( coefficientsRe , coefficientsIm , grid );
+		for( int j=0; j<transform.getNumberOfRings(); j++ ) {
+			evaluator.setCosTheta( transform.getRingCosTheta( j ) );
+			for( int k=0; k<transform.getNumberOfSamplesPerRing(); k++ ) {
+				evaluator.setPhi( transform.getPhi( k ) );
+				evaluator.evaluate();
+				double expected = 0.0;
+				for( int l=0; l<=lMaximum; l++ ) {
+					for( int m=0; m<=l; m++ ) {
+						int index = SphericalHarmonicTransform.coefficientIndex( l , m );
+						double realPartOfProduct = coefficientsRe[index] * evaluator.getSphericalHarmonicsRealPart( l , m )
+								- coefficientsIm[index] * evaluator.getSphericalHarmonicsImaginaryPart( l , m );
+						expected += ( m == 0 )?  realPartOfProduct  :  2.0 * realPartOfProduct;
+					}
+				}
+				assertEquals( expected , grid[ j * transform.getNumberOfSamplesPerRing() + k ] , 1.0e-12 );
+			}
+		}
+	}
+
+
+	/**
+	 * Tests that {@link SphericalHarmonicTransform#analyze(double[], double[], double[])} recovers the coefficients
+	 * used by {@link SphericalHarmonicTransform#synthesize(double[], double[], double[])}.
+	 */
+	@Test
+	void analysisInvertsSynthesis()
+	{
+		Random randomNumberGenerator = new Random(42);
+		for( int lMaximum=1; lMaximum<40; lMaximum+=3 ) {
+			SphericalHarmonicTransform transform = new SphericalHarmonicTransform( lMaximum );
+			double[] coefficientsRe = new double[ transform.getNumberOfCoefficients() ];
+			double[] coefficientsIm = new double[ transform.getNumberOfCoefficients() ];
+			fillRandomCoefficients( lMaximum , coefficientsRe , coefficientsIm , randomNumberGenerator );
+			double[] grid = new double[ transform.getNumberOfGridSamples() ];
+			transform.synthesize( coefficientsRe , coefficientsIm , grid );
+			double[] recoveredRe = new double[ transform.getNumberOfCoefficients() ];
+			double[] recoveredIm = new double[ transform.getNumberOfCoefficients() ];
+			transform.analyze( grid , recoveredRe , recoveredIm );
+			for( int i=0; i<coefficientsRe.length; i++ ) {
+				assertEquals( coefficientsRe[i] , recoveredRe[i] , 1.0e-12 );
+				assertEquals( coefficientsIm[i] , recoveredIm[i] , 1.0e-12 );
+			}
+		}
+	}
+
+
+
+	////////////////////////////////////////////////////////////////
+	/// PRIVATE METHODS
+	////////////////////////////////////////////////////////////////
+
+	/**
+	 * Fills the coefficients of a random real field; the  m = 0  coefficients of a real field are real.
+	 */
+	private static void fillRandomCoefficients( int lMaximum , double[] coefficientsRe , double[] coefficientsIm , Random randomNumberGenerator )
+	{
+		for( int l=0; l<=lMaximum; l++ ) {
+			for( int m=0; m<=l; m++ ) {
+				int index = SphericalHarmonicTransform.coefficientIndex( l , m );
+				coefficientsRe[index] = randomNumberGenerator.nextGaussian();
+				coefficientsIm[index] = ( m == 0 )?  0.0  :  randomNumberGenerator.nextGaussian();
+			}
+		}
+	}
+
+}
@@ -2,6 +2,8 @@ package numericalLibrary.functions;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Random;
 
@@ -76,4 +78,136 @@ public class SphericalHarmonicsEvaluatorTest
     	}
     }
     
+    
+    /**
+     * Tests that {@link SphericalHarmonicsEvaluator#evaluateSeries(double[], double[])} matches the direct summation of the harmonics.
+     */
+    @Test
+    void seriesEvaluationMatchesDirectSummation()
+    {
+    	int lMaximum = 15;
+    	SphericalHarmonicsEvaluator sphericalHarmonicsEvaluator = new SphericalHarmonicsEvaluator( lMaximum );
+    	Random randomNumberGenerator = new Random(42);
+    	double[] coefficientsRe = new double[ ( ( lMaximum + 1 ) * ( lMaximum + 2 ) ) / 2 ];
+    	double[] coefficientsIm = new double[ coefficientsRe.length ];
+    	for( int i=0; i<100; i++ ) {
+    		for( int k=0; k<coefficientsRe.length; k++ ) {
+    			coefficientsRe[k] = randomNumberGenerator.nextGaussian();
+    			coefficientsIm[k] = randomNumberGenerator.nextGaussian();
+    		}
+    		sphericalHarmonicsEvaluator.setTheta( Math.PI * randomNumberGenerator.nextDouble() );
+    		sphericalHarmonicsEvaluator.setPhi( 2.0 * Math.PI * randomNumberGenerator.nextDouble() );
+    		double actual = sphericalHarmonicsEvaluator.evaluateSeries( coefficientsRe , coefficientsIm );
+    		sphericalHarmonicsEvaluator.evaluate();
+    		double expected = 0.0;
+    		for( int l=0; l<=lMaximum; l++ ) {
+    			for( int m=0; m<=l; m++ ) {
+    				int index = SphericalHarmonicTransform.coefficientIndex( l , m );
+    				double realPartOfProduct = coefficientsRe[index] * sphericalHarmonicsEvaluator.getSphericalHarmonicsRealPart( l , m )
+    						- coefficientsIm[index] * sphericalHarmonicsEvaluator.getSphericalHarmonicsImaginaryPart( l , m );
+    				expected += ( m == 0 )?  realPartOfProduct  :  2.0 * realPartOfProduct;
+    			}
+    		}
+    		assertEquals( expected , actual , 1.0e-12 );
+    	}
+    }
+    
+    
+    /**
+     * Tests that {@link SphericalHarmonicsEvaluator#evaluateSeries(double[], double[])} in extended-range mode matches the direct summation
+     * at high degrees, where the sectoral terms underflow near the poles and the plain mode loses them.
+     */
+    @Test
+    void extendedRangeSeriesEvaluationMatchesDirectSummationAtHighDegree()
+    {
+    	int lMaximum = 2100;
+    	SphericalHarmonicsEvaluator sphericalHarmonicsEvaluator = new SphericalHarmonicsEvaluator( lMaximum );
+    	sphericalHarmonicsEvaluator.setExtendedRange( true );
+    	Random randomNumberGenerator = new Random(42);
+    	double[] coefficientsRe = new double[ ( ( lMaximum + 1 ) * ( lMaximum + 2 ) ) / 2 ];
+    	double[] coefficientsIm = new double[ coefficientsRe.length ];
+    	for( int k=0; k<coefficientsRe.length; k++ ) {
+    		coefficientsRe[k] = randomNumberGenerator.nextGaussian();
+    		coefficientsIm[k] = randomNumberGenerator.nextGaussian();
+    	}
+    	// sin( theta ) = 1 / e  is where the underflow of the sectoral terms first reaches the oscillatory region (orders above about 700).
+    	sphericalHarmonicsEvaluator.setTheta( Math.asin( Math.exp( -1.0 ) ) );
+    	sphericalHarmonicsEvaluator.setPhi( 2.0 * Math.PI * randomNumberGenerator.nextDouble() );
+    	double actual = sphericalHarmonicsEvaluator.evaluateSeries( coefficientsRe , coefficientsIm );
+    	sphericalHarmonicsEvaluator.evaluate();
+    	double expected = 0.0;
+    	double expectedFromUnderflowingOrders = 0.0;
+    	for( int l=0; l<=lMaximum; l++ ) {
+    		for( int m=0; m<=l; m++ ) {
+    			int index = SphericalHarmonicTransform.coefficientIndex( l , m );
+    			double realPartOfProduct = coefficientsRe[index] * sphericalHarmonicsEvaluator.getSphericalHarmonicsRealPart( l , m )
+    					- coefficientsIm[index] * sphericalHarmonicsEvaluator.getSphericalHarmonicsImaginaryPart( l , m );
+    			expected += ( m == 0 )?  realPartOfProduct  :  2.0 * realPartOfProduct;
+    			if( m > 700 ) {
+    				expectedFromUnderflowingOrders += 2.0 * realPartOfProduct;
+    			}
+    		}
+    	}
+    	assertTrue( Math.abs( expectedFromUnderflowingOrders ) > 1.0 );
+    	assertEquals( expected , actual , 1.0e-9 * Math.sqrt( coefficientsRe.length ) );
+    	sphericalHarmonicsEvaluator.setExtendedRange( false );
+    	double plain = sphericalHarmonicsEvaluator.evaluateSeries( coefficientsRe , coefficientsIm );
+    	assertFalse( Math.abs( expected - plain ) < 1.0 );
+    }
+    
+    
+    /**
+     * Tests that enabling the caches of {@link SphericalHarmonicsEvaluator} does not change the results,
+     * including when entries are evicted, and that revisited directions are counted as hits.
+     */
+    @Test
+    void cachedEvaluationMatchesUncachedEvaluation()
+    {
+    	int lMaximum = 10;
+    	SphericalHarmonicsEvaluator cached = new SphericalHarmonicsEvaluator( lMaximum );
+    	SphericalHarmonicsEvaluator uncached = new SphericalHarmonicsEvaluator( lMaximum );
+    	cached.setCacheCapacities( 4 , 4 );
+    	Random randomNumberGenerator = new Random(42);
+    	// A small set of directions revisited in random order: more than the cache capacity, to force evictions.
+    	double[] thetas = new double[6];
+    	double[] phis = new double[6];
+    	for( int k=0; k<thetas.length; k++ ) {
+    		thetas[k] = Math.PI * randomNumberGenerator.nextDouble();
+    		phis[k] = 2.0 * Math.PI * randomNumberGenerator.nextDouble();
+    	}
+    	for( int i=0; i<1000; i++ ) {
+    		double theta = thetas[ randomNumberGenerator.nextInt( thetas.length ) ];
+    		double phi = phis[ randomNumberGenerator.nextInt( phis.length ) ];
+    		cached.setTheta( theta );
+    		cached.setPhi( phi );
+    		uncached.setTheta( theta );
+    		uncached.setPhi( phi );
+    		boolean withDerivatives = randomNumberGenerator.nextBoolean();
+    		if( withDerivatives ) {
+    			cached.evaluateDerivatives();
+    			uncached.evaluateDerivatives();
+    		} else {
+    			cached.evaluate();
+    			uncached.evaluate();
+    		}
+    		for( int l=0; l<=lMaximum; l++ ) {
+    			for( int m=0; m<=l; m++ ) {
+    				assertEquals( uncached.getSphericalHarmonicsRealPart( l , m ) , cached.getSphericalHarmonicsRealPart( l , m ) , 0.0 );
+    				assertEquals( uncached.getSphericalHarmonicsImaginaryPart( l , m ) , cached.getSphericalHarmonicsImaginaryPart( l , m ) , 0.0 );
+    				if( withDerivatives ) {
+    					assertEquals( uncached.getSphericalHarmonicsDerivativeRealPart( l , m ) , cached.getSphericalHarmonicsDerivativeRealPart( l , m ) , 0.0 );
+    					assertEquals( uncached.getSphericalHarmonicsDerivativeImaginaryPart( l , m ) , cached.getSphericalHarmonicsDerivativeImaginaryPart( l , m ) , 0.0 );
+    				}
+    			}
+    		}
+    	}
+    	assertTrue( cached.getLegendreCacheHits() > 0 );
+    	assertTrue( cached.getLegendreCacheMisses() > 0 );
+    	assertTrue( cached.getExponentialsCacheHits() > 0 );
+    	assertTrue( cached.getExponentialsCacheMisses() > 0 );
+    	cached.clearCache();
+    	assertEquals( 0 , cached.getLegendreCacheHits() );
+    	assertEquals( 0 , cached.getExponentialsCacheMisses() );
+    }
+    
 }
@@ -6,7 +6,7 @@ package numericalLibrary.manifolds.unitComplexNumbers.atlases;
  * Implements tests methods for {@link ExponentialMapS1}.
  */
 class ExponentialMapS1Test
-    extends UnitComplexNumberAtlasTester
+    extends UnitComplexNumberDifferentiableAtlasTester
 {
     ////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
@@ -15,7 +15,7 @@ class ExponentialMapS1Test
     /**
      * {@inheritDoc}
      */
-    public UnitComplexNumberAtlas getAtlas()
+    public UnitComplexNumberDifferentiableAtlas getAtlas()
     {
         return new ExponentialMapS1();
     }
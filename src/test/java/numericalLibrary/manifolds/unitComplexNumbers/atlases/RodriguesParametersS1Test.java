@@ -6,7 +6,7 @@ package numericalLibrary.manifolds.unitComplexNumbers.atlases;
  * Implements tests methods for {@link RodriguesParametersS3}.
  */
 class RodriguesParametersS1Test
-    extends UnitComplexNumberAtlasTester
+    extends UnitComplexNumberDifferentiableAtlasTester
 {
     ////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
@@ -15,7 +15,7 @@ class RodriguesParametersS1Test
     /**
      * {@inheritDoc}
      */
-    public UnitComplexNumberAtlas getAtlas()
+    public UnitComplexNumberDifferentiableAtlas getAtlas()
     {
         return new RodriguesParametersS1();
     }
@@ -2,6 +2,7 @@ package numericalLibrary.manifolds.unitComplexNumbers.atlases;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -182,4 +183,87 @@ abstract class UnitComplexNumberAtlasTester
         }
     }
     
+    
+    /**
+     * Tests that the methods storing the result in an output argument give the same result as the ones returning a new object,
+     * including chart elements that need to be clipped.
+     */
+    @Test
+    public void storingMapsMatchAllocatingMaps()
+    {
+        UnitComplexNumberAtlas atlas = this.getAtlas();
+        List<ComplexNumber> manifoldElementList = this.getManifoldElementList();
+        List<RealNumber> chartElementList = this.getChartElementList();
+        RealNumber eOutput = new RealNumber( 0.0 );
+        ComplexNumber zOutput = ComplexNumber.one();
+        for( int i=0; i<manifoldElementList.size(); i++ ) {
+            ComplexNumber z = manifoldElementList.get( i );
+            atlas.setChartSelector( manifoldElementList.get( ( i + 1 ) % manifoldElementList.size() ) );
+            assertTrue( atlas.toChart( z , eOutput ).distanceFrom( atlas.toChart( z ) ) < 1.0e-12 );
+            for( double scale : new double[] { 1.0 , 1.0e3 } ) {
+                RealNumber e = chartElementList.get( i ).scale( scale );
+                assertTrue( atlas.toManifold( e , zOutput ).distanceFrom( atlas.toManifold( e ) ) < 1.0e-12 );
+                assertTrue( atlas.toManifoldFromChartCenteredAtIdentity( e , zOutput ).distanceFrom( atlas.toManifoldFromChartCenteredAtIdentity( e ) ) < 1.0e-12 );
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the maps over primitive components and over component arrays give the same result as the maps over objects,
+     * with the identity and a generic chart selector, and including chart elements that need to be clipped.
+     */
+    @Test
+    public void primitiveAndBulkMapsMatchObjectMaps()
+    {
+        UnitComplexNumberAtlas atlas = this.getAtlas();
+        List<ComplexNumber> manifoldElementList = this.getManifoldElementList();
+        List<RealNumber> chartElementList = this.getChartElementList();
+        int n = manifoldElementList.size();
+        double[] res = new double[ n ];
+        double[] ims = new double[ n ];
+        double[] es = new double[ n ];
+        ComplexNumber zOutput = ComplexNumber.one();
+        for( ComplexNumber chartSelector : new ComplexNumber[] { ComplexNumber.one() , ComplexNumber.random( new Random( 7 ) ).normalizeInplace() } ) {
+            atlas.setChartSelector( chartSelector );
+            for( int i=0; i<n; i++ ) {
+                ComplexNumber z = manifoldElementList.get( i );
+                res[i] = z.re();
+                ims[i] = z.im();
+                assertEquals( atlas.toChart( z ).toDouble() , atlas.toChart( z.re() , z.im() ) , 1.0e-12 );
+                assertEquals( atlas.toChartCenteredAtIdentity( z ).toDouble() , atlas.toChartCenteredAtIdentity( z.re() , z.im() ) , 1.0e-12 );
+            }
+            atlas.toChart( res , ims , es );
+            for( int i=0; i<n; i++ ) {
+                assertEquals( atlas.toChart( manifoldElementList.get( i ) ).toDouble() , es[i] , 1.0e-12 );
+            }
+            for( int i=0; i<n; i++ ) {
+                RealNumber e = chartElementList.get( i ).scale( ( i % 2 == 0 )? 1.0 : 1.0e3 );
+                es[i] = e.toDouble();
+                assertTrue( atlas.toManifold( e.toDouble() , zOutput ).distanceFrom( atlas.toManifold( e ) ) < 1.0e-12 );
+                assertTrue( atlas.toManifoldFromChartCenteredAtIdentity( e.toDouble() , zOutput ).distanceFrom( atlas.toManifoldFromChartCenteredAtIdentity( e ) ) < 1.0e-12 );
+            }
+            atlas.toManifold( es , res , ims );
+            for( int i=0; i<n; i++ ) {
+                ComplexNumber z = atlas.toManifold( new RealNumber( es[i] ) );
+                assertEquals( z.re() , res[i] , 1.0e-12 );
+                assertEquals( z.im() , ims[i] , 1.0e-12 );
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the bulk maps reject component arrays of different lengths.
+     */
+    @Test
+    public void bulkMapsRejectArraysOfDifferentLength()
+    {
+        UnitComplexNumberAtlas atlas = this.getAtlas();
+        double[] a = new double[ 3 ];
+        double[] b = new double[ 4 ];
+        assertThrows( IllegalArgumentException.class , () -> atlas.toChart( a , a , b ) );
+        assertThrows( IllegalArgumentException.class , () -> atlas.toManifold( a , b , a ) );
+    }
+    
 }
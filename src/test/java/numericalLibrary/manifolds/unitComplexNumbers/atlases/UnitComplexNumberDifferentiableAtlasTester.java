@@ -1,6 +1,8 @@
 package numericalLibrary.manifolds.unitComplexNumbers.atlases;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -9,6 +11,7 @@ import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.RealNumber;
 
 
@@ -78,5 +81,106 @@ abstract class UnitComplexNumberDifferentiableAtlasTester
             assertTrue( distance < dez.norm() );
         }
     }
-
+    
+    
+    /**
+     * Tests that {@link UnitComplexNumberDifferentiableAtlas#jacobianOfChart(ComplexNumber)} and {@link UnitComplexNumberDifferentiableAtlas#jacobianOfChartInverse(RealNumber)}
+     * match their finite difference approximations.
+     */
+    @Test
+    public void jacobiansOfChartMatchFiniteDifferences()
+    {
+        UnitComplexNumberDifferentiableAtlas atlas = this.getAtlas();
+        double h = 1.0e-7;
+        for( ComplexNumber z : this.getManifoldElementList() ) {
+            // We stay away from the borders of the domains, where finite differences are not accurate.
+            if(  !atlas.isContainedInChartCenteredAtIdentityDomain( z )  ||  Math.abs( z.re() ) < 0.1  ||  z.re() < -0.9  ) {
+                continue;
+            }
+            MatrixReal jacobianChart = atlas.jacobianOfChart( z );
+            double e = atlas.toChartCenteredAtIdentity( z ).toDouble();
+            double eRe = atlas.toChartCenteredAtIdentity( z.add( ComplexNumber.fromRealPartAndImaginaryPart( h , 0.0 ) ) ).toDouble();
+            double eIm = atlas.toChartCenteredAtIdentity( z.add( ComplexNumber.fromRealPartAndImaginaryPart( 0.0 , h ) ) ).toDouble();
+            assertEquals( ( eRe - e )/h , jacobianChart.entry( 0 , 0 ) , 1.0e-5 * ( 1.0 + Math.abs( jacobianChart.entry( 0 , 0 ) ) ) );
+            assertEquals( ( eIm - e )/h , jacobianChart.entry( 0 , 1 ) , 1.0e-5 * ( 1.0 + Math.abs( jacobianChart.entry( 0 , 1 ) ) ) );
+        }
+        for( RealNumber e : this.getChartElementList() ) {
+            e.scaleInplace( 0.9 );  // We move a little from the border.
+            MatrixReal jacobianChartInverse = atlas.jacobianOfChartInverse( e );
+            ComplexNumber z = atlas.toManifoldFromChartCenteredAtIdentity( e );
+            ComplexNumber zh = atlas.toManifoldFromChartCenteredAtIdentity( e.add( new RealNumber( h ) ) );
+            assertEquals( ( zh.re() - z.re() )/h , jacobianChartInverse.entry( 0 , 0 ) , 1.0e-5 * ( 1.0 + Math.abs( jacobianChartInverse.entry( 0 , 0 ) ) ) );
+            assertEquals( ( zh.im() - z.im() )/h , jacobianChartInverse.entry( 1 , 0 ) , 1.0e-5 * ( 1.0 + Math.abs( jacobianChartInverse.entry( 1 , 0 ) ) ) );
+        }
+    }
+    
+    
+    /**
+     * Tests that {@link UnitComplexNumberDifferentiableAtlas#jacobianOfTransitionMap(ComplexNumber)} is consistent with
+     * {@link UnitComplexNumberDifferentiableAtlas#jacobianOfChart(ComplexNumber)} and {@link UnitComplexNumberDifferentiableAtlas#jacobianOfChartInverse(RealNumber)}
+     * through the chain rule:
+     * T( delta )  =  d phi / d z ( 1 ) * [ delta^* ]* * d phi^{-1} / d e ( e )
+     * where  delta = phi^{-1}( e ) .
+     */
+    @Test
+    public void transitionMapMatrixIsConsistentWithJacobiansOfChart()
+    {
+        UnitComplexNumberDifferentiableAtlas atlas = this.getAtlas();
+        for( RealNumber e : this.getChartElementList() ) {
+            e.scaleInplace( 0.9 );  // We move a little from the border.
+            ComplexNumber delta = atlas.toManifoldFromChartCenteredAtIdentity( e );
+            MatrixReal deltaConjugateProductMatrix = MatrixReal.fromEntries2x2( delta.re() , delta.im() , -delta.im() , delta.re() );
+            MatrixReal transitionMapMatrixFromJacobians = atlas.jacobianOfChart( ComplexNumber.one() ).multiply( deltaConjugateProductMatrix.multiply( atlas.jacobianOfChartInverse( e ) ) );
+            assertTrue( atlas.jacobianOfTransitionMap( delta ).equalsApproximately( transitionMapMatrixFromJacobians , 1.0e-14 , 0.0 ) );
+        }
+    }
+    
+    
+    /**
+     * Tests that the Jacobians over primitive components and over component arrays match the {@link MatrixReal} Jacobians.
+     */
+    @Test
+    public void primitiveAndBulkJacobiansMatchMatrixJacobians()
+    {
+        UnitComplexNumberDifferentiableAtlas atlas = this.getAtlas();
+        List<ComplexNumber> manifoldElementList = this.getManifoldElementList();
+        List<RealNumber> chartElementList = this.getChartElementList();
+        int n = manifoldElementList.size();
+        double[] res = new double[ n ];
+        double[] ims = new double[ n ];
+        double[] es = new double[ n ];
+        double[] jacobians = new double[ 2 * n ];
+        double[] transitionJacobians = new double[ n ];
+        for( int i=0; i<n; i++ ) {
+            res[i] = manifoldElementList.get( i ).re();
+            ims[i] = manifoldElementList.get( i ).im();
+            es[i] = chartElementList.get( i ).toDouble();
+        }
+        atlas.jacobianOfChart( res , ims , jacobians );
+        for( int i=0; i<n; i++ ) {
+            MatrixReal jacobian = atlas.jacobianOfChart( manifoldElementList.get( i ) );
+            assertEquals( jacobian.entry( 0 , 0 ) , jacobians[ 2*i ] , 1.0e-12 );
+            assertEquals( jacobian.entry( 0 , 1 ) , jacobians[ 2*i + 1 ] , 1.0e-12 );
+        }
+        atlas.jacobianOfChartInverse( es , jacobians );
+        for( int i=0; i<n; i++ ) {
+            MatrixReal jacobian = atlas.jacobianOfChartInverse( chartElementList.get( i ) );
+            assertEquals( jacobian.entry( 0 , 0 ) , jacobians[ 2*i ] , 1.0e-12 );
+            assertEquals( jacobian.entry( 1 , 0 ) , jacobians[ 2*i + 1 ] , 1.0e-12 );
+        }
+        for( int i=0; i<n; i++ ) {
+            ComplexNumber delta = atlas.toManifoldFromChartCenteredAtIdentity( chartElementList.get( i ).scale( 0.9 ) );
+            res[i] = delta.re();
+            ims[i] = delta.im();
+        }
+        atlas.jacobianOfTransitionMap( res , ims , transitionJacobians );
+        for( int i=0; i<n; i++ ) {
+            ComplexNumber delta = ComplexNumber.fromRealPartAndImaginaryPart( res[i] , ims[i] );
+            assertEquals( atlas.jacobianOfTransitionMap( delta ).entry( 0 , 0 ) , transitionJacobians[i] , 1.0e-12 );
+            assertEquals( transitionJacobians[i] , atlas.jacobianOfTransitionMap( res[i] , ims[i] ) , 0.0 );
+        }
+        assertThrows( IllegalArgumentException.class , () -> atlas.jacobianOfChart( res , ims , new double[ n ] ) );
+        assertThrows( IllegalArgumentException.class , () -> atlas.jacobianOfTransitionMap( res , new double[ 1 ] , transitionJacobians ) );
+    }
+    
 }
@@ -0,0 +1,169 @@
+package numericalLibrary.manifolds.unitQuaternions;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * Implements test methods for {@link UnitQuaternionAverager}.
+ */
+class UnitQuaternionAveragerTest
+{
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that the mean of copies of the same rotation, with arbitrary signs, is that rotation.
+     */
+    @Test
+    public void meanOfEqualRotationsIsThatRotation()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( int k=0; k<100; k++ ) {
+            UnitQuaternion q = UnitQuaternion.random( randomNumberGenerator );
+            UnitQuaternionAverager averager = new UnitQuaternionAverager();
+            for( int i=0; i<10; i++ ) {
+                averager.add( ( randomNumberGenerator.nextBoolean() )?  q  :  q.opposite() , randomNumberGenerator.nextDouble() );
+            }
+            assertTrue( Math.abs( averager.mean().dot( q ) ) > 1.0 - 1.0e-12 );
+            assertTrue( averager.mean().w() >= 0.0 );
+        }
+    }
+    
+    
+    /**
+     * Tests that the mean of rotations symmetrically perturbed around a rotation is that rotation.
+     */
+    @Test
+    public void meanOfSymmetricPerturbationsIsCenter()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( int k=0; k<100; k++ ) {
+            UnitQuaternion center = UnitQuaternion.random( randomNumberGenerator );
+            UnitQuaternionAverager averager = new UnitQuaternionAverager();
+            for( int i=0; i<10; i++ ) {
+                Vector3 v = Vector3.random( randomNumberGenerator ).scaleInplace( 0.5 );
+                averager.add( center.multiply( UnitQuaternion.fromRotationVector( v ) ) );
+                averager.add( center.multiply( UnitQuaternion.fromRotationVector( v.scale( -1.0 ) ) ).oppositeInplace() );
+            }
+            assertTrue( Math.abs( averager.mean().dot( center ) ) > 1.0 - 1.0e-12 );
+        }
+    }
+    
+    
+    /**
+     * Tests that the mean maximizes the weighted sum of squared dot products with the accumulated {@link UnitQuaternion}s.
+     */
+    @Test
+    public void meanMaximizesSumOfSquaredDotProducts()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        UnitQuaternion[] qs = new UnitQuaternion[ 20 ];
+        double[] weights = new double[ qs.length ];
+        UnitQuaternionAverager averager = new UnitQuaternionAverager();
+        for( int i=0; i<qs.length; i++ ) {
+            qs[i] = UnitQuaternion.random( randomNumberGenerator );
+            weights[i] = randomNumberGenerator.nextDouble();
+            averager.add( qs[i] , weights[i] );
+        }
+        double objectiveOfMean = objective( averager.mean() , qs , weights );
+        for( int k=0; k<1000; k++ ) {
+            assertTrue( objective( UnitQuaternion.random( randomNumberGenerator ) , qs , weights ) <= objectiveOfMean + 1.0e-12 );
+        }
+    }
+    
+    
+    /**
+     * Tests that merging partial accumulators, and accumulating component arrays sequentially and in parallel,
+     * give the same result as accumulating every {@link UnitQuaternion} in a single {@link UnitQuaternionAverager}.
+     */
+    @Test
+    public void mergedAndBulkAccumulationsMatchSingleAccumulation()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        int n = 100000;
+        double[] ws = new double[ n ];
+        double[] xs = new double[ n ];
+        double[] ys = new double[ n ];
+        double[] zs = new double[ n ];
+        double[] weights = new double[ n ];
+        UnitQuaternion center = UnitQuaternion.random( randomNumberGenerator );
+        UnitQuaternionAverager single = new UnitQuaternionAverager();
+        UnitQuaternionAverager first = new UnitQuaternionAverager();
+        UnitQuaternionAverager second = new UnitQuaternionAverager();
+        for( int i=0; i<n; i++ ) {
+            UnitQuaternion q = center.multiply( UnitQuaternion.fromRotationVector( Vector3.random( randomNumberGenerator ) ) );
+            ws[i] = q.w();  xs[i] = q.x();  ys[i] = q.y();  zs[i] = q.z();
+            weights[i] = randomNumberGenerator.nextDouble();
+            single.add( q , weights[i] );
+            ( ( i < n/3 )?  first  :  second ).add( q , weights[i] );
+        }
+        UnitQuaternion mean = single.mean();
+        UnitQuaternionAverager merged = first.merge( second );
+        assertEquals( n , merged.getCount() );
+        assertEquals( single.getTotalWeight() , merged.getTotalWeight() , 1.0e-8 );
+        assertTrue( merged.mean().dot( mean ) > 1.0 - 1.0e-12 );
+        for( boolean parallel : new boolean[] { false , true } ) {
+            UnitQuaternionAverager weighted = new UnitQuaternionAverager().add( ws , xs , ys , zs , weights , parallel );
+            assertEquals( n , weighted.getCount() );
+            assertTrue( weighted.mean().dot( mean ) > 1.0 - 1.0e-12 );
+            UnitQuaternionAverager unweighted = new UnitQuaternionAverager().add( ws , xs , ys , zs , parallel );
+            assertEquals( n , unweighted.getTotalWeight() , 1.0e-8 );
+            assertTrue( unweighted.mean().dot( center ) > 0.9 );
+        }
+    }
+    
+    
+    /**
+     * Tests that invalid inputs are rejected, and that the mean of an empty {@link UnitQuaternionAverager} is not defined.
+     */
+    @Test
+    public void invalidInputsAreRejected()
+    {
+        UnitQuaternionAverager averager = new UnitQuaternionAverager();
+        assertThrows( IllegalStateException.class , () -> averager.mean() );
+        assertThrows( IllegalArgumentException.class , () -> averager.add( UnitQuaternion.one() , -1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> averager.add( UnitQuaternion.one() , Double.NaN ) );
+        double[] a = new double[] { 1.0 , 1.0 , 1.0 };
+        double[] b = new double[] { 0.0 , 0.0 };
+        assertThrows( IllegalArgumentException.class , () -> averager.add( a , a , a , b , false ) );
+        assertThrows( IllegalArgumentException.class , () -> averager.add( a , a , a , a , new double[] { 1.0 , -1.0 , 1.0 } , false ) );
+        averager.add( UnitQuaternion.one() , 0.0 );
+        assertThrows( IllegalStateException.class , () -> averager.mean() );
+        averager.add( UnitQuaternion.i() );
+        assertTrue( averager.mean().equals( UnitQuaternion.i() ) );
+        averager.reset();
+        assertEquals( 0 , averager.getCount() );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns the weighted sum of squared dot products between a {@link UnitQuaternion} and a set of {@link UnitQuaternion}s.
+     */
+    private static double objective( UnitQuaternion q , UnitQuaternion[] qs , double[] weights )
+    {
+        double sum = 0.0;
+        for( int i=0; i<qs.length; i++ ) {
+            double dot = q.dot( qs[i] );
+            sum += weights[i] * dot * dot;
+        }
+        return sum;
+    }
+    
+}
@@ -0,0 +1,199 @@
+package numericalLibrary.manifolds.unitQuaternions;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * Implements test methods for {@link UnitQuaternionTrajectory}.
+ */
+class UnitQuaternionTrajectoryTest
+{
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that both interpolations go through the keyframes, regardless of their sign.
+     */
+    @Test
+    public void interpolationsGoThroughKeyframes()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( boolean uniform : new boolean[] { true , false } ) {
+            double[] times = randomTimes( 20 , uniform , randomNumberGenerator );
+            UnitQuaternion[] keyframes = randomKeyframes( 20 , randomNumberGenerator );
+            UnitQuaternionTrajectory trajectory = new UnitQuaternionTrajectory( times , keyframes );
+            assertEquals( uniform , trajectory.hasUniformTimeStep() );
+            UnitQuaternion output = UnitQuaternion.one();
+            for( int i=0; i<times.length; i++ ) {
+                assertEquals( 1.0 , Math.abs( trajectory.slerp( times[i] , output ).dot( keyframes[i] ) ) , 1.0e-12 );
+                assertEquals( 1.0 , Math.abs( trajectory.squad( times[i] , output ).dot( keyframes[i] ) ) , 1.0e-12 );
+            }
+            // Times out of range are clamped.
+            assertEquals( 1.0 , Math.abs( trajectory.slerp( times[0] - 1.0 , output ).dot( keyframes[0] ) ) , 1.0e-12 );
+            assertEquals( 1.0 , Math.abs( trajectory.squad( times[times.length-1] + 1.0 , output ).dot( keyframes[times.length-1] ) ) , 1.0e-12 );
+        }
+    }
+    
+    
+    /**
+     * Tests that {@link UnitQuaternionTrajectory#slerp(double, UnitQuaternion)} matches the definition  q_i exp( u log( q_i^{-1} q_{i+1} ) )
+     * along the shortest path.
+     */
+    @Test
+    public void slerpMatchesPowerDefinition()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        double[] times = randomTimes( 10 , false , randomNumberGenerator );
+        UnitQuaternion[] keyframes = randomKeyframes( 10 , randomNumberGenerator );
+        UnitQuaternionTrajectory trajectory = new UnitQuaternionTrajectory( times , keyframes );
+        UnitQuaternion output = UnitQuaternion.one();
+        for( int i=0; i<times.length-1; i++ ) {
+            UnitQuaternion delta = keyframes[i].inverseMultiplicative().multiply( keyframes[i+1] ).positiveScalarPartForm();
+            for( double u=0.05; u<1.0; u+=0.1 ) {
+                UnitQuaternion expected = keyframes[i].multiply( UnitQuaternion.fromRotationVector( delta.toRotationVector().scaleInplace( u ) ) );
+                UnitQuaternion q = trajectory.slerp( times[i] + u * ( times[i+1] - times[i] ) , output );
+                assertEquals( 1.0 , Math.abs( q.dot( expected ) ) , 1.0e-12 );
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the SQUAD interpolation has continuous angular velocity at the keyframes, while SLERP does not.
+     */
+    @Test
+    public void squadHasContinuousAngularVelocity()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        double[] times = randomTimes( 10 , true , randomNumberGenerator );
+        UnitQuaternion[] keyframes = randomKeyframes( 10 , randomNumberGenerator );
+        UnitQuaternionTrajectory trajectory = new UnitQuaternionTrajectory( times , keyframes );
+        double h = 1.0e-6;
+        double maximumSquadJump = 0.0;
+        double maximumSlerpJump = 0.0;
+        for( int i=1; i<times.length-1; i++ ) {
+            UnitQuaternion q = trajectory.squad( times[i] , UnitQuaternion.one() );
+            Vector3 before = trajectory.squad( times[i] - h , UnitQuaternion.one() ).delta( q ).toRotationVector().scaleInplace( 1.0/h );
+            Vector3 after = q.delta( trajectory.squad( times[i] + h , UnitQuaternion.one() ) ).toRotationVector().scaleInplace( 1.0/h );
+            maximumSquadJump = Math.max( maximumSquadJump , before.distanceFrom( after ) );
+            q = trajectory.slerp( times[i] , UnitQuaternion.one() );
+            before = trajectory.slerp( times[i] - h , UnitQuaternion.one() ).delta( q ).toRotationVector().scaleInplace( 1.0/h );
+            after = q.delta( trajectory.slerp( times[i] + h , UnitQuaternion.one() ) ).toRotationVector().scaleInplace( 1.0/h );
+            maximumSlerpJump = Math.max( maximumSlerpJump , before.distanceFrom( after ) );
+        }
+        assertTrue( maximumSquadJump < 1.0e-3 );
+        assertTrue( maximumSlerpJump > 1.0e-1 );
+    }
+    
+    
+    /**
+     * Tests that the bulk sampling methods give the same result as sampling one time at a time,
+     * and that the segment lookup on uniform grids matches the binary search.
+     */
+    @Test
+    public void bulkSamplingMatchesSingleSampling()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( boolean uniform : new boolean[] { true , false } ) {
+            double[] times = randomTimes( 50 , uniform , randomNumberGenerator );
+            UnitQuaternionTrajectory trajectory = new UnitQuaternionTrajectory( times , randomKeyframes( 50 , randomNumberGenerator ) );
+            int n = 1000;
+            double[] ts = new double[ n ];
+            for( int j=0; j<n; j++ ) {
+                ts[j] = times[0] - 1.0 + ( times[ times.length - 1 ] - times[0] + 2.0 ) * randomNumberGenerator.nextDouble();
+            }
+            double[] ws = new double[ n ];
+            double[] xs = new double[ n ];
+            double[] ys = new double[ n ];
+            double[] zs = new double[ n ];
+            for( boolean squad : new boolean[] { false , true } ) {
+                if( squad ) {
+                    trajectory.squad( ts , ws , xs , ys , zs );
+                } else {
+                    trajectory.slerp( ts , ws , xs , ys , zs );
+                }
+                for( int j=0; j<n; j++ ) {
+                    UnitQuaternion q = ( squad )?  trajectory.squad( ts[j] , UnitQuaternion.one() )  :  trajectory.slerp( ts[j] , UnitQuaternion.one() );
+                    assertEquals( q.w() , ws[j] , 0.0 );
+                    assertEquals( q.x() , xs[j] , 0.0 );
+                    assertEquals( q.y() , ys[j] , 0.0 );
+                    assertEquals( q.z() , zs[j] , 0.0 );
+                    int i = trajectory.segmentIndex( ts[j] );
+                    assertTrue(  ts[j] < times[0]  ||  times[i] <= ts[j]  );
+                    assertTrue(  ts[j] >= times[ times.length - 1 ]  ||  ts[j] < times[i+1]  );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that invalid keyframes and output arrays are rejected.
+     */
+    @Test
+    public void invalidInputsAreRejected()
+    {
+        UnitQuaternion[] keyframes = new UnitQuaternion[] { UnitQuaternion.one() , UnitQuaternion.i() , UnitQuaternion.j() };
+        assertThrows( IllegalArgumentException.class , () -> new UnitQuaternionTrajectory( new double[] { 0.0 , 1.0 } , keyframes ) );
+        assertThrows( IllegalArgumentException.class , () -> new UnitQuaternionTrajectory( new double[] { 0.0 } , new UnitQuaternion[] { UnitQuaternion.one() } ) );
+        assertThrows( IllegalArgumentException.class , () -> new UnitQuaternionTrajectory( new double[] { 0.0 , 1.0 , 1.0 } , keyframes ) );
+        UnitQuaternionTrajectory trajectory = new UnitQuaternionTrajectory( new double[] { 0.0 , 1.0 , 2.0 } , keyframes );
+        double[] a = new double[ 3 ];
+        double[] b = new double[ 2 ];
+        assertThrows( IllegalArgumentException.class , () -> trajectory.slerp( a , a , a , b , a ) );
+        assertFalse( new UnitQuaternionTrajectory( new double[] { 0.0 , 1.0 , 3.0 } , keyframes ).hasUniformTimeStep() );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE STATIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns strictly increasing random times, uniformly spaced or not.
+     */
+    private static double[] randomTimes( int n , boolean uniform , Random randomNumberGenerator )
+    {
+        double[] times = new double[ n ];
+        double timeStep = 0.1 + randomNumberGenerator.nextDouble();
+        times[0] = randomNumberGenerator.nextGaussian();
+        for( int i=1; i<n; i++ ) {
+            times[i] = ( uniform )?  times[0] + i * timeStep  :  times[i-1] + 0.1 + randomNumberGenerator.nextDouble();
+        }
+        return times;
+    }
+    
+    
+    /**
+     * Returns random keyframes with moderate rotations between consecutive ones, and random signs.
+     */
+    private static UnitQuaternion[] randomKeyframes( int n , Random randomNumberGenerator )
+    {
+        UnitQuaternion[] keyframes = new UnitQuaternion[ n ];
+        keyframes[0] = UnitQuaternion.random( randomNumberGenerator );
+        for( int i=1; i<n; i++ ) {
+            keyframes[i] = keyframes[i-1].multiply( UnitQuaternion.fromRotationVector( Vector3.random( randomNumberGenerator ) ) );
+        }
+        for( int i=0; i<n; i++ ) {
+            if( randomNumberGenerator.nextBoolean() ) {
+                keyframes[i] = keyframes[i].opposite();
+            }
+        }
+        return keyframes;
+    }
+    
+}
@@ -2,11 +2,13 @@ package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
@@ -206,4 +208,118 @@ abstract class UnitQuaternionAtlasTester
         }
     }
     
+    
+    /**
+     * Tests that the methods returning a new object can be called concurrently on the same atlas while the chart selector is not changed.
+     */
+    @Test
+    public void allocatingMapsCanBeCalledConcurrently()
+    {
+        UnitQuaternionAtlas atlas = this.getAtlas();
+        List<UnitQuaternion> manifoldElementList = this.getManifoldElementList();
+        List<Vector3> chartElementList = this.getChartElementList();
+        atlas.setChartSelector( UnitQuaternion.random( new Random( 7 ) ) );
+        int n = manifoldElementList.size();
+        List<Vector3> expectedCharts = new ArrayList<Vector3>();
+        List<UnitQuaternion> expectedManifolds = new ArrayList<UnitQuaternion>();
+        for( int i=0; i<n; i++ ) {
+            expectedCharts.add( atlas.toChart( manifoldElementList.get( i ) ) );
+            expectedManifolds.add( atlas.toManifold( chartElementList.get( i ) ) );
+        }
+        IntStream.range( 0 , 1000 * n ).parallel().forEach( k -> {
+            int i = k % n;
+            assertTrue( atlas.toChart( manifoldElementList.get( i ) ).equals( expectedCharts.get( i ) ) );
+            assertTrue( atlas.toManifold( chartElementList.get( i ) ).equals( expectedManifolds.get( i ) ) );
+        } );
+    }
+    
+    
+    /**
+     * Tests that the methods storing the result in an output argument give the same result as the ones returning a new object,
+     * including chart elements that need to be clipped.
+     */
+    @Test
+    public void storingMapsMatchAllocatingMaps()
+    {
+        UnitQuaternionAtlas atlas = this.getAtlas();
+        List<UnitQuaternion> manifoldElementList = this.getManifoldElementList();
+        List<Vector3> chartElementList = this.getChartElementList();
+        Vector3 eOutput = Vector3.zero();
+        UnitQuaternion qOutput = UnitQuaternion.one();
+        for( int i=0; i<manifoldElementList.size(); i++ ) {
+            UnitQuaternion q = manifoldElementList.get( i );
+            atlas.setChartSelector( manifoldElementList.get( ( i + 1 ) % manifoldElementList.size() ) );
+            assertTrue( atlas.toChart( q , eOutput ).distanceFrom( atlas.toChart( q ) ) < 1.0e-12 );
+            for( double scale : new double[] { 1.0 , 1.0e3 } ) {
+                Vector3 e = chartElementList.get( i ).scale( scale );
+                assertTrue( atlas.toManifold( e , qOutput ).distanceFrom( atlas.toManifold( e ) ) < 1.0e-7 );
+                assertTrue( atlas.toManifoldFromChartCenteredAtIdentity( e , qOutput ).distanceFrom( atlas.toManifoldFromChartCenteredAtIdentity( e ) ) < 1.0e-7 );
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the bulk maps over component arrays give the same result as the maps over single elements,
+     * sequentially and in parallel, with the identity and a generic chart selector,
+     * and including chart elements that need to be clipped.
+     */
+    @Test
+    public void bulkMapsMatchSingleElementMaps()
+    {
+        UnitQuaternionAtlas atlas = this.getAtlas();
+        Random rng = new Random( 42 );
+        int n = 2 * UnitQuaternionAtlas.BULK_CHUNK_SIZE + 17;
+        UnitQuaternion[] qs = new UnitQuaternion[ n ];
+        Vector3[] es = new Vector3[ n ];
+        double[] ws = new double[ n ];
+        double[] xs = new double[ n ];
+        double[] ys = new double[ n ];
+        double[] zs = new double[ n ];
+        double[] exs = new double[ n ];
+        double[] eys = new double[ n ];
+        double[] ezs = new double[ n ];
+        for( int i=0; i<n; i++ ) {
+            qs[i] = UnitQuaternion.random( rng );
+            es[i] = Vector3.random( rng ).scale( ( i % 2 == 0 )? 1.0 : 1.0e3 );
+        }
+        for( UnitQuaternion chartSelector : new UnitQuaternion[] { UnitQuaternion.one() , UnitQuaternion.random( rng ) } ) {
+            atlas.setChartSelector( chartSelector );
+            for( boolean parallel : new boolean[] { false , true } ) {
+                for( int i=0; i<n; i++ ) {
+                    ws[i] = qs[i].w();  xs[i] = qs[i].x();  ys[i] = qs[i].y();  zs[i] = qs[i].z();
+                }
+                atlas.toChart( ws , xs , ys , zs , exs , eys , ezs , parallel );
+                for( int i=0; i<n; i++ ) {
+                    assertTrue( Vector3.fromComponents( exs[i] , eys[i] , ezs[i] ).distanceFrom( atlas.toChart( qs[i] ) ) < 1.0e-12 );
+                }
+                for( int i=0; i<n; i++ ) {
+                    exs[i] = es[i].x();  eys[i] = es[i].y();  ezs[i] = es[i].z();
+                }
+                atlas.toManifold( exs , eys , ezs , ws , xs , ys , zs , parallel );
+                for( int i=0; i<n; i++ ) {
+                    UnitQuaternion q = atlas.toManifold( es[i] );
+                    assertEquals( q.w() , ws[i] , 1.0e-12 );
+                    assertEquals( q.x() , xs[i] , 1.0e-12 );
+                    assertEquals( q.y() , ys[i] , 1.0e-12 );
+                    assertEquals( q.z() , zs[i] , 1.0e-12 );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the bulk maps reject component arrays of different lengths.
+     */
+    @Test
+    public void bulkMapsRejectArraysOfDifferentLength()
+    {
+        UnitQuaternionAtlas atlas = this.getAtlas();
+        double[] a = new double[ 3 ];
+        double[] b = new double[ 4 ];
+        assertThrows( IllegalArgumentException.class , () -> atlas.toChart( a , a , a , a , a , a , b , false ) );
+        assertThrows( IllegalArgumentException.class , () -> atlas.toManifold( a , a , a , a , b , a , a , false ) );
+    }
+    
 }
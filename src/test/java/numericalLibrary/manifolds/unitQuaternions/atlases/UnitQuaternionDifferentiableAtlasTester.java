@@ -1,14 +1,20 @@
 package numericalLibrary.manifolds.unitQuaternions.atlases;
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
+import numericalLibrary.types.Matrix3;
+import numericalLibrary.types.Matrix3x4;
+import numericalLibrary.types.Matrix4x3;
 import numericalLibrary.types.MatrixReal;
 import numericalLibrary.types.UnitQuaternion;
 import numericalLibrary.types.Vector3;
@@ -220,4 +226,74 @@ abstract class UnitQuaternionDifferentiableAtlasTester
         }
     }*/
     
+    
+    /**
+     * Tests that the Jacobians stored in fixed-size matrices are equal to the ones returned as {@link MatrixReal}s,
+     * regardless of the previous content of the output matrices.
+     */
+    @Test
+    public void storedJacobiansMatchReturnedJacobians()
+    {
+        UnitQuaternionDifferentiableAtlas atlas = this.getAtlas();
+        List<UnitQuaternion> manifoldElementList = this.getManifoldElementList();
+        List<Vector3> chartElementList = this.getChartElementList();
+        Random randomNumberGenerator = new Random( 42 );
+        Matrix3x4 jacobianOfChart = Matrix3x4.random( randomNumberGenerator );
+        Matrix4x3 jacobianOfChartInverse = Matrix4x3.random( randomNumberGenerator );
+        Matrix3 jacobianOfTransitionMap = Matrix3.random( randomNumberGenerator );
+        for( int i=0; i<manifoldElementList.size(); i++ ) {
+            UnitQuaternion q = manifoldElementList.get( i );
+            UnitQuaternion p = manifoldElementList.get( ( i + 1 ) % manifoldElementList.size() );
+            Vector3 e = chartElementList.get( i );
+            assertTrue( atlas.jacobianOfChart( q , jacobianOfChart ).toMatrixReal().distanceFrom( atlas.jacobianOfChart( q ) ) < 1.0e-14 );
+            assertTrue( atlas.jacobianOfChartInverse( e , jacobianOfChartInverse ).toMatrixReal().distanceFrom( atlas.jacobianOfChartInverse( e ) ) < 1.0e-14 );
+            assertTrue( atlas.jacobianOfTransitionMap( q , jacobianOfTransitionMap ).toMatrixReal().distanceFrom( atlas.jacobianOfTransitionMap( q ) ) < 1.0e-14 );
+            assertTrue( atlas.jacobianOfTransitionMap( p , q , jacobianOfTransitionMap ).toMatrixReal().distanceFrom( atlas.jacobianOfTransitionMap( p , q ) ) < 1.0e-14 );
+        }
+    }
+    
+    
+    /**
+     * Tests that the bulk Jacobians over component arrays match the Jacobians of single elements, sequentially and in parallel.
+     */
+    @Test
+    public void bulkJacobiansMatchSingleElementJacobians()
+    {
+        UnitQuaternionDifferentiableAtlas atlas = this.getAtlas();
+        Random rng = new Random( 42 );
+        int n = 2 * UnitQuaternionAtlas.BULK_CHUNK_SIZE + 17;
+        UnitQuaternion[] qs = new UnitQuaternion[ n ];
+        Vector3[] es = new Vector3[ n ];
+        double[] ws = new double[ n ];
+        double[] xs = new double[ n ];
+        double[] ys = new double[ n ];
+        double[] zs = new double[ n ];
+        double[] exs = new double[ n ];
+        double[] eys = new double[ n ];
+        double[] ezs = new double[ n ];
+        for( int i=0; i<n; i++ ) {
+            qs[i] = UnitQuaternion.random( rng );
+            es[i] = Vector3.random( rng );
+            ws[i] = qs[i].w();  xs[i] = qs[i].x();  ys[i] = qs[i].y();  zs[i] = qs[i].z();
+            exs[i] = es[i].x();  eys[i] = es[i].y();  ezs[i] = es[i].z();
+        }
+        double[] jacobiansOfChart = new double[ 12 * n ];
+        double[] jacobiansOfChartInverse = new double[ 12 * n ];
+        double[] jacobiansOfTransitionMap = new double[ 9 * n ];
+        for( boolean parallel : new boolean[] { false , true } ) {
+            atlas.jacobianOfChart( ws , xs , ys , zs , jacobiansOfChart , parallel );
+            atlas.jacobianOfChartInverse( exs , eys , ezs , jacobiansOfChartInverse , parallel );
+            atlas.jacobianOfTransitionMap( ws , xs , ys , zs , jacobiansOfTransitionMap , parallel );
+            for( int i=0; i<n; i++ ) {
+                assertArrayEquals( atlas.jacobianOfChart( qs[i] , Matrix3x4.zero() ).toFlatArray( new double[ 12 ] , 0 ) ,
+                                   Arrays.copyOfRange( jacobiansOfChart , 12 * i , 12 * i + 12 ) , 1.0e-14 );
+                assertArrayEquals( atlas.jacobianOfChartInverse( es[i] , Matrix4x3.zero() ).toFlatArray( new double[ 12 ] , 0 ) ,
+                                   Arrays.copyOfRange( jacobiansOfChartInverse , 12 * i , 12 * i + 12 ) , 1.0e-14 );
+                assertArrayEquals( atlas.jacobianOfTransitionMap( qs[i] , Matrix3.zero() ).toFlatArray( new double[ 9 ] , 0 ) ,
+                                   Arrays.copyOfRange( jacobiansOfTransitionMap , 9 * i , 9 * i + 9 ) , 1.0e-14 );
+            }
+        }
+        assertThrows( IllegalArgumentException.class , () -> atlas.jacobianOfTransitionMap( ws , xs , ys , zs , jacobiansOfChart , false ) );
+    }
+    
 }
@@ -0,0 +1,82 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.manifolds.unitComplexNumbers.atlases.RodriguesParametersS1;
+import numericalLibrary.manifolds.unitQuaternions.atlases.RodriguesParametersS3;
+import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.UnitQuaternion;
+
+
+
+/**
+ * Implements test methods for {@link CompositeParameterBlock}.
+ */
+class CompositeParameterBlockTest
+{
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that each {@link ParameterBlock} receives its slice of the shift vector,
+     * and that the Jacobian of the shift operation is block diagonal.
+     */
+    @Test
+    public void shiftIsDispatchedToEachBlock()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        MatrixReal translation = MatrixReal.random( 2 , 1 , randomNumberGenerator );
+        UnitQuaternion q = UnitQuaternion.random( randomNumberGenerator );
+        ComplexNumber z = ComplexNumber.random( randomNumberGenerator );
+        EuclideanParameterBlock translationBlock = new EuclideanParameterBlock( translation );
+        UnitQuaternionParameterBlock quaternionBlock = new UnitQuaternionParameterBlock( q , new RodriguesParametersS3() );
+        UnitComplexNumberParameterBlock complexBlock = new UnitComplexNumberParameterBlock( z , new RodriguesParametersS1() );
+        UnitQuaternionParameterBlock quaternionReference = new UnitQuaternionParameterBlock( q , new RodriguesParametersS3() );
+        UnitComplexNumberParameterBlock complexReference = new UnitComplexNumberParameterBlock( z , new RodriguesParametersS1() );
+        CompositeParameterBlock composite = new CompositeParameterBlock();
+        assertEquals( 0 , composite.add( translationBlock ) );
+        assertEquals( 2 , composite.add( quaternionBlock ) );
+        assertEquals( 5 , composite.add( complexBlock ) );
+        assertEquals( 3 , composite.numberOfBlocks() );
+        assertEquals( 6 , composite.degreesOfFreedom() );
+        assertEquals( 8 , composite.ambientDimension() );
+        MatrixReal delta = MatrixReal.random( 6 , 1 , randomNumberGenerator );
+        composite.shift( delta );
+        quaternionReference.shift( delta.submatrixFromRows( 2 , 3 ) );
+        complexReference.shift( delta.submatrixFromRows( 5 , 1 ) );
+        assertTrue( translationBlock.getValue().equalsApproximately( translation.add( delta.submatrixFromRows( 0 , 2 ) ) , 1.0e-15 , 0.0 ) );
+        assertTrue( quaternionBlock.getValue().equals( quaternionReference.getValue() ) );
+        assertTrue( complexBlock.getValue().equals( complexReference.getValue() ) );
+        MatrixReal jacobian = composite.jacobianOfShift();
+        assertEquals( 8 , jacobian.rows() );
+        assertEquals( 6 , jacobian.columns() );
+        assertTrue( jacobian.submatrix( 0 , 0 , 2 , 2 ).equals( MatrixReal.one( 2 ) ) );
+        assertTrue( jacobian.submatrix( 2 , 2 , 4 , 3 ).equals( quaternionBlock.jacobianOfShift() ) );
+        assertTrue( jacobian.submatrix( 6 , 5 , 2 , 1 ).equals( complexBlock.jacobianOfShift() ) );
+        assertTrue( jacobian.submatrix( 0 , 2 , 2 , 4 ).equals( MatrixReal.zero( 2 , 4 ) ) );
+    }
+    
+    
+    /**
+     * Tests that {@link CompositeParameterBlock#shift(MatrixReal)} rejects shift vectors of the wrong size.
+     */
+    @Test
+    public void shiftRejectsWrongSize()
+    {
+        CompositeParameterBlock composite = new CompositeParameterBlock();
+        composite.add( new EuclideanParameterBlock( MatrixReal.zero( 2 , 1 ) ) );
+        composite.add( new UnitQuaternionParameterBlock( UnitQuaternion.one() , new RodriguesParametersS3() ) );
+        assertThrows( IllegalArgumentException.class , () -> composite.shift( MatrixReal.zero( 4 , 1 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> new EuclideanParameterBlock( MatrixReal.zero( 2 , 2 ) ) );
+    }
+    
+}
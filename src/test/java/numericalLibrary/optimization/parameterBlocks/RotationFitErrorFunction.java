@@ -0,0 +1,119 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import numericalLibrary.optimization.ErrorFunction;
+import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * {@link ErrorFunction} defined as:
+ * e( (a,b) , q ) = R(q) a - b
+ * where:
+ * - (a,b) is a pair of {@link Vector3}s, given as an array of length 2,
+ * - q is the {@link UnitQuaternion} held by a {@link UnitQuaternionParameterBlock}.
+ * <p>
+ * Function created for testing purposes.
+ */
+public class RotationFitErrorFunction
+    implements ErrorFunction<Vector3[]>
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * {@link UnitQuaternionParameterBlock} holding the rotation.
+     */
+    private final UnitQuaternionParameterBlock block;
+    
+    /**
+     * Current input.
+     */
+    private Vector3[] pair;
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC CONSTRUCTORS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Constructs a {@link RotationFitErrorFunction}.
+     * 
+     * @param block     {@link UnitQuaternionParameterBlock} holding the rotation.
+     */
+    public RotationFitErrorFunction( UnitQuaternionParameterBlock block )
+    {
+        this.block = block;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * {@inheritDoc}
+     */
+    public int degreesOfFreedom()
+    {
+        return this.block.degreesOfFreedom();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void shift( MatrixReal deltaParameters )
+    {
+        this.block.shift( deltaParameters );
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void setInput( Vector3[] x )
+    {
+        this.pair = x;
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     */
+    public MatrixReal getError()
+    {
+        return this.block.getValue().rotate( this.pair[0] ).subtractInplace( this.pair[1] ).toMatrixAsColumn();
+    }
+    
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The Jacobian with respect to the components of q,
+     * d( R(q) a )/dw = 2 w a + 2 v x a ,
+     * d( R(q) a )/dv = 2 v a^T - 2 a v^T + 2 (v.a) I - 2 w [a]x ,
+     * is multiplied by the Jacobian of the shift operation.
+     */
+    public MatrixReal getJacobian()
+    {
+        UnitQuaternion q = this.block.getValue();
+        double w = q.w();
+        Vector3 v = q.vectorPart();
+        Vector3 a = this.pair[0];
+        MatrixReal dRadq = MatrixReal.empty( 3 , 4 );
+        dRadq.setSubmatrix( 0 , 0 , a.scale( 2.0 * w ).addInplace( v.crossProduct( a ).scaleInplace( 2.0 ) ).toMatrixAsColumn() );
+        MatrixReal dRadv = v.outerProduct( a ).subtract( a.outerProduct( v ) )
+                .addInplace( MatrixReal.one( 3 ).scaleInplace( v.dot( a ) ) )
+                .subtractInplace( a.crossProductMatrix().scaleInplace( w ) )
+                .scaleInplace( 2.0 );
+        dRadq.setSubmatrix( 0 , 1 , dRadv );
+        return dRadq.multiply( this.block.jacobianOfShift() );
+    }
+    
+}
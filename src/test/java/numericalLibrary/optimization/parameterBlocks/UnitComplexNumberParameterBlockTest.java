@@ -0,0 +1,86 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.manifolds.unitComplexNumbers.atlases.ExponentialMapS1;
+import numericalLibrary.manifolds.unitComplexNumbers.atlases.ModifiedRodriguesParametersS1;
+import numericalLibrary.manifolds.unitComplexNumbers.atlases.OrthographicS1;
+import numericalLibrary.manifolds.unitComplexNumbers.atlases.RodriguesParametersS1;
+import numericalLibrary.manifolds.unitComplexNumbers.atlases.UnitComplexNumberDifferentiableAtlas;
+import numericalLibrary.types.ComplexNumber;
+import numericalLibrary.types.MatrixReal;
+
+
+
+/**
+ * Implements test methods for {@link UnitComplexNumberParameterBlock}.
+ */
+class UnitComplexNumberParameterBlockTest
+{
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that shifts keep the {@link ComplexNumber} normalized, and that they compose as rotations of the argument for small shifts.
+     */
+    @Test
+    public void shiftKeepsUnitNorm()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( UnitComplexNumberDifferentiableAtlas atlas : UnitComplexNumberParameterBlockTest.atlasList() ) {
+            UnitComplexNumberParameterBlock block = new UnitComplexNumberParameterBlock( ComplexNumber.random( randomNumberGenerator ) , atlas );
+            assertEquals( 1 , block.degreesOfFreedom() );
+            assertEquals( 2 , block.ambientDimension() );
+            assertEquals( 1.0 , block.getValue().norm() , 1.0e-12 );
+            for( int k=0; k<100; k++ ) {
+                block.shift( MatrixReal.random( 1 , 1 , randomNumberGenerator ) );
+                assertEquals( 1.0 , block.getValue().norm() , 1.0e-12 );
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that {@link UnitComplexNumberParameterBlock#jacobianOfShift()} matches its finite difference approximation.
+     */
+    @Test
+    public void jacobianOfShiftMatchesFiniteDifferences()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        double h = 1.0e-7;
+        MatrixReal delta = MatrixReal.zero( 1 , 1 );
+        delta.setEntry( 0 , 0 , h );
+        for( UnitComplexNumberDifferentiableAtlas atlas : UnitComplexNumberParameterBlockTest.atlasList() ) {
+            for( int k=0; k<20; k++ ) {
+                ComplexNumber z = ComplexNumber.random( randomNumberGenerator ).normalizeInplace();
+                UnitComplexNumberParameterBlock block = new UnitComplexNumberParameterBlock( z , atlas );
+                MatrixReal jacobian = block.jacobianOfShift();
+                block.shift( delta );
+                assertEquals( ( block.getValue().re() - z.re() )/h , jacobian.entry( 0 , 0 ) , 1.0e-6 );
+                assertEquals( ( block.getValue().im() - z.im() )/h , jacobian.entry( 1 , 0 ) , 1.0e-6 );
+            }
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns one instance of each {@link UnitComplexNumberDifferentiableAtlas}.
+     */
+    private static List<UnitComplexNumberDifferentiableAtlas> atlasList()
+    {
+        return List.of( new RodriguesParametersS1() , new ModifiedRodriguesParametersS1() , new OrthographicS1() , new ExponentialMapS1() );
+    }
+    
+}
@@ -0,0 +1,127 @@
+package numericalLibrary.optimization.parameterBlocks;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.manifolds.unitQuaternions.atlases.ExponentialMapS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.ModifiedRodriguesParametersS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.OrthographicS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.RodriguesParametersS3;
+import numericalLibrary.manifolds.unitQuaternions.atlases.UnitQuaternionDifferentiableAtlas;
+import numericalLibrary.optimization.algorithms.GaussNewtonAlgorithm;
+import numericalLibrary.optimization.lossFunctions.PlainMeanSquaredError;
+import numericalLibrary.types.MatrixReal;
+import numericalLibrary.types.UnitQuaternion;
+import numericalLibrary.types.Vector3;
+
+
+
+/**
+ * Implements test methods for {@link UnitQuaternionParameterBlock}.
+ */
+class UnitQuaternionParameterBlockTest
+{
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that a zero shift leaves the {@link UnitQuaternion} unchanged, and that shifts keep it normalized.
+     */
+    @Test
+    public void shiftKeepsUnitNorm()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( UnitQuaternionDifferentiableAtlas atlas : UnitQuaternionParameterBlockTest.atlasList() ) {
+            UnitQuaternion q = UnitQuaternion.random( randomNumberGenerator );
+            UnitQuaternionParameterBlock block = new UnitQuaternionParameterBlock( q , atlas );
+            assertEquals( 3 , block.degreesOfFreedom() );
+            assertEquals( 4 , block.ambientDimension() );
+            block.shift( MatrixReal.zero( 3 , 1 ) );
+            assertTrue( block.getValue().dot( q ) > 1.0 - 1.0e-12 );
+            for( int k=0; k<100; k++ ) {
+                block.shift( MatrixReal.random( 3 , 1 , randomNumberGenerator ) );
+                assertEquals( 1.0 , block.getValue().quaternion().norm() , 1.0e-12 );
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that {@link UnitQuaternionParameterBlock#jacobianOfShift()} matches its finite difference approximation.
+     */
+    @Test
+    public void jacobianOfShiftMatchesFiniteDifferences()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        double h = 1.0e-7;
+        for( UnitQuaternionDifferentiableAtlas atlas : UnitQuaternionParameterBlockTest.atlasList() ) {
+            for( int k=0; k<20; k++ ) {
+                UnitQuaternion q = UnitQuaternion.random( randomNumberGenerator );
+                UnitQuaternionParameterBlock block = new UnitQuaternionParameterBlock( q , atlas );
+                MatrixReal jacobian = block.jacobianOfShift();
+                for( int j=0; j<3; j++ ) {
+                    MatrixReal delta = MatrixReal.zero( 3 , 1 );
+                    delta.setEntry( j , 0 , h );
+                    block.setValue( q );
+                    block.shift( delta );
+                    UnitQuaternion shifted = block.getValue();
+                    assertEquals( ( shifted.w() - q.w() )/h , jacobian.entry( 0 , j ) , 1.0e-6 );
+                    assertEquals( ( shifted.x() - q.x() )/h , jacobian.entry( 1 , j ) , 1.0e-6 );
+                    assertEquals( ( shifted.y() - q.y() )/h , jacobian.entry( 2 , j ) , 1.0e-6 );
+                    assertEquals( ( shifted.z() - q.z() )/h , jacobian.entry( 3 , j ) , 1.0e-6 );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the {@link GaussNewtonAlgorithm} recovers a rotation from pairs of rotated vectors through the 3 degrees of freedom of a {@link UnitQuaternionParameterBlock}.
+     */
+    @Test
+    public void gaussNewtonRecoversRotation()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( UnitQuaternionDifferentiableAtlas atlas : UnitQuaternionParameterBlockTest.atlasList() ) {
+            UnitQuaternion qTrue = UnitQuaternion.random( randomNumberGenerator );
+            List<Vector3[]> inputList = new ArrayList<Vector3[]>();
+            for( int i=0; i<20; i++ ) {
+                Vector3 a = Vector3.random( randomNumberGenerator );
+                inputList.add( new Vector3[] { a , qTrue.rotate( a ) } );
+            }
+            UnitQuaternion qInitial = qTrue.multiply( UnitQuaternion.fromRotationVector( Vector3.random( randomNumberGenerator ).normalizeInplace().scaleInplace( 0.5 ) ) );
+            UnitQuaternionParameterBlock block = new UnitQuaternionParameterBlock( qInitial , atlas );
+            PlainMeanSquaredError<Vector3[]> loss = new PlainMeanSquaredError<Vector3[]>( new RotationFitErrorFunction( block ) );
+            loss.setInputList( inputList );
+            assertEquals( 3 , loss.degreesOfFreedom() );
+            GaussNewtonAlgorithm gna = new GaussNewtonAlgorithm();
+            for( int k=0; k<10; k++ ) {
+                gna.step( loss );
+            }
+            assertTrue( Math.abs( block.getValue().dot( qTrue ) ) > 1.0 - 1.0e-12 );
+        }
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Returns one instance of each {@link UnitQuaternionDifferentiableAtlas}.
+     */
+    private static List<UnitQuaternionDifferentiableAtlas> atlasList()
+    {
+        return List.of( new RodriguesParametersS3() , new ModifiedRodriguesParametersS3() , new OrthographicS3() , new ExponentialMapS3() );
+    }
+    
+}
@@ -0,0 +1,170 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link BandMatrixReal} and {@link BandLUDecomposition}.
+ */
+class BandMatrixRealTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void entriesOutsideTheBandAreZero()
+    {
+        MatrixReal M = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+        BandMatrixReal B = BandMatrixReal.fromMatrixReal( M , 2 , 1 );
+        for( int i=0; i<6; i++ ) {
+            for( int j=0; j<6; j++ ) {
+                assertEquals( (  -2 <= j - i  &&  j - i <= 1  )?  M.entry( i , j )  :  0.0 , B.entry( i , j ) );
+            }
+        }
+        assertTrue( BandMatrixReal.fromMatrixReal( B.toMatrixReal() , 2 , 1 ).equals( B ) );
+        assertThrows( IllegalArgumentException.class , () -> B.setEntry( 0 , 2 , 1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> B.setEntry( 3 , 0 , 1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> B.entry( 6 , 0 ) );
+        assertThrows( IllegalArgumentException.class , () -> BandMatrixReal.zero( 3 , -1 , 0 ) );
+    }
+    
+    
+    @Test
+    void productsMatchMatrixRealProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            BandMatrixReal B = this.randomBandMatrix( 9 , 3 , 2 );
+            MatrixReal full = B.toMatrixReal();
+            MatrixReal X = MatrixReal.random( 9 , 4 , this.randomNumberGenerator );
+            assertTrue( B.multiply( X ).equalsApproximately( full.multiply( X ) , 1.0e-12 , 1.0e-12 ) );
+            double[] v = new double[9];
+            for( int k=0; k<9; k++ ) {
+                v[k] = X.entry( k , 0 );
+            }
+            double[] product = B.multiply( v );
+            for( int k=0; k<9; k++ ) {
+                assertEquals( full.multiply( X ).entry( k , 0 ) , product[k] , 1.0e-12 );
+            }
+        }
+        assertThrows( IllegalArgumentException.class , () -> BandMatrixReal.zero( 3 , 1 , 1 ).multiply( new double[2] ) );
+    }
+    
+    
+    @Test
+    void choleskyDecompositionMatchesMatrixReal()
+    {
+        for( int i=0; i<100; i++ ) {
+            BandMatrixReal A = this.randomPositiveDefiniteBandMatrix( 12 , 3 );
+            BandMatrixReal L = A.choleskyDecomposition();
+            assertEquals( 3 , L.lowerBandwidth() );
+            assertEquals( 0 , L.upperBandwidth() );
+            assertTrue( L.toMatrixReal().equalsApproximately( A.toMatrixReal().choleskyDecomposition() , 1.0e-10 , 1.0e-10 ) );
+            MatrixReal B = MatrixReal.random( 12 , 3 , this.randomNumberGenerator );
+            MatrixReal X = B.divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( L );
+            assertTrue( A.multiply( X ).equalsApproximately( B , 1.0e-10 , 1.0e-10 ) );
+        }
+        BandMatrixReal A = BandMatrixReal.zero( 3 , 1 , 1 );
+        A.setEntry( 0 , 0 , 1.0 );
+        assertThrows( IllegalArgumentException.class , () -> A.choleskyDecomposition() );
+        assertThrows( IllegalArgumentException.class , () -> MatrixReal.one( 3 ).divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( A ) );
+    }
+    
+    
+    @Test
+    void LUDecompositionSolvesSystems()
+    {
+        BandLUDecomposition lu = new BandLUDecomposition( 15 , 2 , 3 );
+        for( int i=0; i<100; i++ ) {
+            BandMatrixReal A = this.randomBandMatrix( 15 , 2 , 3 );
+            lu.decompose( A );
+            MatrixReal X = MatrixReal.random( 15 , 3 , this.randomNumberGenerator );
+            MatrixReal B = A.multiply( X );
+            assertTrue( lu.solve( B ).equalsApproximately( X , 1.0e-8 , 1.0e-8 ) );
+            double expected = new LUDecomposition( 15 ).decompose( A.toMatrixReal() ).determinant();
+            assertEquals( expected , lu.determinant() , 1.0e-10 * Math.abs( expected ) );
+        }
+        assertThrows( IllegalArgumentException.class , () -> lu.decompose( BandMatrixReal.zero( 15 , 3 , 2 ) ) );
+        lu.decompose( BandMatrixReal.zero( 15 , 2 , 3 ) );
+        assertTrue( lu.isSingular() );
+        assertThrows( IllegalStateException.class , () -> lu.solveInplace( new double[15] ) );
+    }
+    
+    
+    @Test
+    void largeSmootherIsSolvedInLinearTime()
+    {
+        // Whittaker smoother with second differences: ( I + lambda D^T D ) z = y, which is pentadiagonal.
+        int n = 100000;
+        double lambda = 10.0;
+        double[] stencil = { 1.0 , -4.0 , 6.0 , -4.0 , 1.0 };
+        BandMatrixReal A = BandMatrixReal.zero( n , 2 , 2 );
+        for( int i=0; i<n; i++ ) {
+            for( int j=Math.max( 0 , i - 2 ); j<=Math.min( n - 1 , i + 2 ); j++ ) {
+                A.setEntry( i , j , lambda * stencil[ j - i + 2 ] + ( ( i == j )?  1.0  :  0.0 ) );
+            }
+        }
+        MatrixReal y = MatrixReal.random( n , 1 , this.randomNumberGenerator );
+        MatrixReal z = y.divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( A.choleskyDecomposition() );
+        assertTrue( A.multiply( z ).equalsApproximately( y , 1.0e-8 , 1.0e-8 ) );
+        double[] b = new double[n];
+        for( int i=0; i<n; i++ ) {
+            b[i] = y.entry( i , 0 );
+        }
+        double[] x = new BandLUDecomposition( n , 2 , 2 ).decompose( A ).solveInplace( b.clone() );
+        double[] residual = A.multiply( x );
+        assertArrayEquals( b , residual , 1.0e-8 );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Generates a random {@link BandMatrixReal} with entries in [-1,1].
+     * 
+     * @param dimension     dimension of the {@link BandMatrixReal} to be generated.
+     * @param kl    lower bandwidth.
+     * @param ku    upper bandwidth.
+     * @return  random {@link BandMatrixReal}.
+     */
+    private BandMatrixReal randomBandMatrix( int dimension , int kl , int ku )
+    {
+        return BandMatrixReal.fromMatrixReal( MatrixReal.random( dimension , dimension , this.randomNumberGenerator ) , kl , ku );
+    }
+    
+    
+    /**
+     * Generates a random symmetric positive-definite {@link BandMatrixReal}.
+     * 
+     * @param dimension     dimension of the {@link BandMatrixReal} to be generated.
+     * @param kd    lower and upper bandwidth.
+     * @return  random symmetric positive-definite {@link BandMatrixReal}.
+     */
+    private BandMatrixReal randomPositiveDefiniteBandMatrix( int dimension , int kd )
+    {
+        MatrixReal M = this.randomBandMatrix( dimension , kd , kd ).toMatrixReal();
+        M.addInplace( M.transpose() ).addInplace( MatrixReal.one( dimension ).scaleInplace( 4.0 * kd + 1.0 ) );
+        return BandMatrixReal.fromMatrixReal( M , kd , kd );
+    }
+    
+}
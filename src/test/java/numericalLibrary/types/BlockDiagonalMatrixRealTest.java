@@ -0,0 +1,164 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link BlockDiagonalMatrixReal}.
+ */
+class BlockDiagonalMatrixRealTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void entriesMatchDenseMatrix()
+    {
+        List<MatrixReal> blocks = new ArrayList<MatrixReal>();
+        blocks.add( MatrixReal.random( 2 , 3 , this.randomNumberGenerator ) );
+        blocks.add( MatrixReal.empty( 0 , 0 ) );
+        blocks.add( MatrixReal.random( 3 , 1 , this.randomNumberGenerator ) );
+        blocks.add( MatrixReal.random( 1 , 2 , this.randomNumberGenerator ) );
+        BlockDiagonalMatrixReal A = BlockDiagonalMatrixReal.fromBlocks( blocks );
+        MatrixReal dense = MatrixReal.blockDiagonal( blocks );
+        assertEquals( 6 , A.rows() );
+        assertEquals( 6 , A.columns() );
+        for( int i=0; i<6; i++ ) {
+            for( int j=0; j<6; j++ ) {
+                assertEquals( dense.entry( i , j ) , A.entry( i , j ) );
+            }
+        }
+        assertTrue( A.toMatrixReal().equals( dense ) );
+        assertTrue( A.transpose().toMatrixReal().equals( dense.transpose() ) );
+        assertTrue( A.copy().equals( A ) );
+        assertThrows( IllegalArgumentException.class , () -> A.entry( 6 , 0 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.block( 4 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.choleskyDecomposition() );
+    }
+    
+    
+    @Test
+    void productsMatchDenseProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            BlockDiagonalMatrixReal A = this.randomBlockDiagonalMatrix( 5 , 0.0 );
+            MatrixReal X = MatrixReal.random( A.columns() , 3 , this.randomNumberGenerator );
+            assertTrue( A.multiply( X ).equalsApproximately( A.toMatrixReal().multiply( X ) , 1.0e-12 , 1.0e-12 ) );
+            assertTrue( A.multiply( A ).toMatrixReal().equalsApproximately( A.toMatrixReal().multiply( A.toMatrixReal() ) , 1.0e-12 , 1.0e-12 ) );
+        }
+        BlockDiagonalMatrixReal A = this.randomBlockDiagonalMatrix( 3 , 0.0 );
+        assertThrows( IllegalArgumentException.class , () -> A.multiply( BlockDiagonalMatrixReal.fromBlocks( List.of( MatrixReal.one( A.columns() ) ) ) ) );
+    }
+    
+    
+    @Test
+    void decompositionsAndSolvesMatchDenseOnes()
+    {
+        for( int i=0; i<100; i++ ) {
+            BlockDiagonalMatrixReal A = this.randomBlockDiagonalMatrix( 6 , 1.0 );
+            MatrixReal dense = A.toMatrixReal();
+            BlockDiagonalMatrixReal L = A.choleskyDecomposition();
+            assertTrue( L.toMatrixReal().equalsApproximately( dense.choleskyDecomposition() , 1.0e-10 , 1.0e-10 ) );
+            assertTrue( A.copy().choleskyDecompositionInplace().equals( L ) );
+            MatrixReal B = MatrixReal.random( A.rows() , 2 , this.randomNumberGenerator );
+            MatrixReal expected = B.divideLeft( dense );
+            assertTrue( A.solve( B ).equalsApproximately( expected , 1.0e-10 , 1.0e-10 ) );
+            assertTrue( B.divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( L ).equalsApproximately( expected , 1.0e-10 , 1.0e-10 ) );
+            assertTrue( A.inverse().toMatrixReal().equalsApproximately( dense.inverse() , 1.0e-10 , 1.0e-10 ) );
+            assertTrue( A.copy().inverseInplace().equals( A.inverse() ) );
+            assertEquals( dense.determinant() , A.determinant() , 1.0e-10 * Math.abs( dense.determinant() ) );
+        }
+    }
+    
+    
+    @Test
+    void parallelResultsMatchSequentialResults()
+    {
+        List<MatrixReal> blocks = new ArrayList<MatrixReal>();
+        for( int k=0; k<300; k++ ) {
+            MatrixReal M = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+            blocks.add( M.transpose().multiply( M ).addInplace( MatrixReal.one( 6 ) ) );
+        }
+        BlockDiagonalMatrixReal parallel = BlockDiagonalMatrixReal.fromBlocks( blocks );
+        BlockDiagonalMatrixReal sequential = BlockDiagonalMatrixReal.fromBlocks( blocks ).setParallelThreshold( Long.MAX_VALUE );
+        assertTrue( parallel.isProcessedInParallel() );
+        assertFalse( sequential.isProcessedInParallel() );
+        assertTrue( parallel.multiply( parallel ).isProcessedInParallel() );
+        assertFalse( sequential.multiply( sequential ).isProcessedInParallel() );
+        MatrixReal B = MatrixReal.random( parallel.rows() , 3 , this.randomNumberGenerator );
+        assertTrue( parallel.multiply( parallel ).equals( sequential.multiply( sequential ) ) );
+        assertTrue( parallel.multiply( B ).equals( sequential.multiply( B ) ) );
+        assertTrue( parallel.choleskyDecomposition().equals( sequential.choleskyDecomposition() ) );
+        assertTrue( parallel.inverse().equals( sequential.inverse() ) );
+        assertTrue( parallel.solve( B ).equals( sequential.solve( B ) ) );
+        assertEquals( sequential.determinant() , parallel.determinant() );
+        assertFalse( BlockDiagonalMatrixReal.fromBlocks( blocks.subList( 0 , 100 ) ).isProcessedInParallel() );
+        assertTrue( BlockDiagonalMatrixReal.fromBlocks( blocks.subList( 0 , 100 ) ).setParallelThreshold( 0 ).isProcessedInParallel() );
+        assertThrows( IllegalArgumentException.class , () -> parallel.setParallelThreshold( -1 ) );
+    }
+    
+    
+    @Test
+    void manySmallBlocksAreProcessedInParallel()
+    {
+        // Large enough to exceed the parallel threshold.
+        List<MatrixReal> blocks = new ArrayList<MatrixReal>();
+        for( int k=0; k<2000; k++ ) {
+            MatrixReal M = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+            blocks.add( M.transpose().multiply( M ).addInplace( MatrixReal.one( 6 ) ) );
+        }
+        BlockDiagonalMatrixReal A = BlockDiagonalMatrixReal.fromBlocks( blocks );
+        MatrixReal B = MatrixReal.random( A.rows() , 2 , this.randomNumberGenerator );
+        MatrixReal X = B.divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( A.choleskyDecomposition() );
+        assertTrue( A.multiply( X ).equalsApproximately( B , 1.0e-10 , 1.0e-10 ) );
+        assertTrue( A.solve( B ).equalsApproximately( X , 1.0e-10 , 1.0e-10 ) );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Generates a random {@link BlockDiagonalMatrixReal} with square blocks of random sizes.
+     * 
+     * @param numberOfBlocks    number of diagonal blocks.
+     * @param regularization    value added to the diagonal of  M^T M  to make each block positive-definite; if zero, blocks are just random.
+     * @return  random {@link BlockDiagonalMatrixReal}.
+     */
+    private BlockDiagonalMatrixReal randomBlockDiagonalMatrix( int numberOfBlocks , double regularization )
+    {
+        List<MatrixReal> blocks = new ArrayList<MatrixReal>();
+        for( int k=0; k<numberOfBlocks; k++ ) {
+            int size = 1 + this.randomNumberGenerator.nextInt( 4 );
+            MatrixReal M = MatrixReal.random( size , size , this.randomNumberGenerator );
+            if( regularization > 0.0 ) {
+                M = M.transpose().multiply( M ).addInplace( MatrixReal.one( size ).scaleInplace( regularization ) );
+            }
+            blocks.add( M );
+        }
+        return BlockDiagonalMatrixReal.fromBlocks( blocks );
+    }
+    
+}
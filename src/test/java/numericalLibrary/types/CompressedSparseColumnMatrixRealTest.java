@@ -0,0 +1,103 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link CompressedSparseColumnMatrixReal}.
+ */
+class CompressedSparseColumnMatrixRealTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void entriesMatchMatrixReal()
+    {
+        MatrixReal M = MatrixReal.zero( 4 , 3 );
+        M.setEntry( 3 , 0 , 2.0 );
+        M.setEntry( 1 , 2 , -1.0 );
+        CompressedSparseColumnMatrixReal A = CompressedSparseColumnMatrixReal.fromMatrixReal( M );
+        assertEquals( 4 , A.rows() );
+        assertEquals( 3 , A.columns() );
+        assertEquals( 2 , A.nonZeros() );
+        assertEquals( 2.0 , A.entry( 3 , 0 ) );
+        assertEquals( 0.0 , A.entry( 0 , 0 ) );
+        assertTrue( A.toMatrixReal().equals( M ) );
+        assertTrue( A.toCompressedSparseRow().toCompressedSparseColumn().equals( A ) );
+        A.setEntry( 1 , 2 , 5.0 );
+        assertEquals( 5.0 , A.transpose().entry( 2 , 1 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.setEntry( 0 , 0 , 1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.entry( 0 , 3 ) );
+    }
+    
+    
+    @Test
+    void productsMatchMatrixRealProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal M = MatrixReal.random( 8 , 6 , this.randomNumberGenerator );
+            for( int r=0; r<8; r++ ) {
+                M.setEntry( r , this.randomNumberGenerator.nextInt( 6 ) , 0.0 );
+            }
+            CompressedSparseColumnMatrixReal A = CompressedSparseColumnMatrixReal.fromMatrixReal( M );
+            MatrixReal v = MatrixReal.random( 6 , 1 , this.randomNumberGenerator );
+            assertArrayEquals( M.multiply( v ).toFlatArray() , A.multiply( v.toFlatArray() ) , 1.0e-12 );
+            MatrixReal u = MatrixReal.random( 8 , 1 , this.randomNumberGenerator );
+            assertArrayEquals( M.transpose().multiply( u ).toFlatArray() , A.multiplyTranspose( u.toFlatArray() ) , 1.0e-12 );
+            MatrixReal X = MatrixReal.random( 8 , 3 , this.randomNumberGenerator );
+            assertTrue( A.multiplyTranspose( X ).equalsApproximately( M.transpose().multiply( X ) , 1.0e-12 , 1.0e-12 ) );
+            MatrixReal Y = MatrixReal.random( 6 , 3 , this.randomNumberGenerator );
+            assertTrue( A.multiply( Y ).equalsApproximately( M.multiply( Y ) , 1.0e-12 , 1.0e-12 ) );
+        }
+        CompressedSparseColumnMatrixReal A = CompressedSparseColumnMatrixReal.fromMatrixReal( MatrixReal.one( 3 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.multiply( MatrixReal.one( 2 ) ) );
+    }
+    
+    
+    @Test
+    void parallelProductsMatchSequentialProducts()
+    {
+        // Non-symmetric ring, large enough to be split among several threads.
+        int n = 200000;
+        SparseMatrixRealBuilder builder = new SparseMatrixRealBuilder( n , n );
+        for( int i=0; i<n; i++ ) {
+            builder.add( i , i , 2.0 ).add( i , ( i + 1 ) % n , -1.0 ).add( i , ( i + n - 1 ) % n , 0.5 );
+        }
+        CompressedSparseColumnMatrixReal A = builder.buildCompressedSparseColumn();
+        assertEquals( 3 * n , A.nonZeros() );
+        double[] v = new double[n];
+        for( int i=0; i<n; i++ ) {
+            v[i] = this.randomNumberGenerator.nextGaussian();
+        }
+        double[] Av = A.multiply( v );
+        double[] ATv = A.multiplyTranspose( v );
+        MatrixReal AX = A.multiply( MatrixReal.fromFlatArray( v , n , 1 ) );
+        for( int i=0; i<n; i++ ) {
+            double previous = v[ ( i + n - 1 ) % n ];
+            double next = v[ ( i + 1 ) % n ];
+            assertEquals( 2.0 * v[i] - next + 0.5 * previous , Av[i] , 1.0e-12 );
+            assertEquals( 2.0 * v[i] - previous + 0.5 * next , ATv[i] , 1.0e-12 );
+            assertEquals( Av[i] , AX.entry( i , 0 ) , 1.0e-12 );
+        }
+    }
+    
+}
@@ -0,0 +1,177 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link CompressedSparseRowMatrixReal} and {@link SparseMatrixRealBuilder}.
+ */
+class CompressedSparseRowMatrixRealTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void builderSumsDuplicates()
+    {
+        SparseMatrixRealBuilder builder = new SparseMatrixRealBuilder( 3 , 4 );
+        builder.add( 2 , 3 , 1.0 ).add( 0 , 1 , 2.0 ).add( 2 , 0 , -1.0 ).add( 2 , 3 , 4.0 ).add( 0 , 1 , 0.5 );
+        CompressedSparseRowMatrixReal A = builder.buildCompressedSparseRow();
+        assertEquals( 3 , A.nonZeros() );
+        assertEquals( 2.5 , A.entry( 0 , 1 ) );
+        assertEquals( -1.0 , A.entry( 2 , 0 ) );
+        assertEquals( 5.0 , A.entry( 2 , 3 ) );
+        assertEquals( 0.0 , A.entry( 1 , 1 ) );
+        assertTrue( builder.buildCompressedSparseColumn().toMatrixReal().equals( A.toMatrixReal() ) );
+        MatrixReal expected = MatrixReal.zero( 3 , 4 );
+        expected.setEntry( 1 , 1 , 1.0 );
+        assertTrue( builder.clear().add( 1 , 1 , 1.0 ).buildCompressedSparseRow().toMatrixReal().equals( expected ) );
+        assertThrows( IllegalArgumentException.class , () -> builder.add( 3 , 0 , 1.0 ) );
+    }
+    
+    
+    @Test
+    void conversionsPreserveEntries()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal M = this.randomSparseMatrix( 7 , 5 , 0.3 );
+            CompressedSparseRowMatrixReal A = CompressedSparseRowMatrixReal.fromMatrixReal( M );
+            assertTrue( A.toMatrixReal().equals( M ) );
+            assertTrue( A.toCompressedSparseColumn().toMatrixReal().equals( M ) );
+            assertTrue( A.toCompressedSparseColumn().toCompressedSparseRow().equals( A ) );
+            assertTrue( A.transpose().toMatrixReal().equals( M.transpose() ) );
+            SparseMatrixRealBuilder builder = new SparseMatrixRealBuilder( 7 , 5 );
+            for( int r=6; r>-1; r-- ) {
+                for( int c=4; c>-1; c-- ) {
+                    if( M.entry( r , c ) != 0.0 ) {
+                        builder.add( r , c , M.entry( r , c ) );
+                    }
+                }
+            }
+            assertTrue( builder.buildCompressedSparseRow().equals( A ) );
+        }
+    }
+    
+    
+    @Test
+    void setEntryOnlyModifiesStoredEntries()
+    {
+        CompressedSparseRowMatrixReal A = new SparseMatrixRealBuilder( 3 , 3 ).add( 1 , 2 , 1.0 ).buildCompressedSparseRow();
+        A.setEntry( 1 , 2 , 3.0 );
+        assertEquals( 3.0 , A.entry( 1 , 2 ) );
+        assertEquals( 3.0 , A.transpose().entry( 2 , 1 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.setEntry( 0 , 0 , 1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.entry( 3 , 0 ) );
+    }
+    
+    
+    @Test
+    void productsMatchMatrixRealProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal M = this.randomSparseMatrix( 8 , 6 , 0.3 );
+            CompressedSparseRowMatrixReal A = CompressedSparseRowMatrixReal.fromMatrixReal( M );
+            MatrixReal X = MatrixReal.random( 6 , 3 , this.randomNumberGenerator );
+            assertTrue( A.multiply( X ).equalsApproximately( M.multiply( X ) , 1.0e-12 , 1.0e-12 ) );
+            double[] v = this.randomVector( 6 );
+            assertArrayEquals( M.multiply( MatrixReal.fromFlatArray( v , 6 , 1 ) ).toFlatArray() , A.multiply( v ) , 1.0e-12 );
+            double[] u = this.randomVector( 8 );
+            assertArrayEquals( M.transpose().multiply( MatrixReal.fromFlatArray( u , 8 , 1 ) ).toFlatArray() , A.multiplyTranspose( u ) , 1.0e-12 );
+            MatrixReal Y = MatrixReal.random( 8 , 3 , this.randomNumberGenerator );
+            assertTrue( A.multiplyTranspose( Y ).equalsApproximately( M.transpose().multiply( Y ) , 1.0e-12 , 1.0e-12 ) );
+        }
+        CompressedSparseRowMatrixReal A = CompressedSparseRowMatrixReal.fromMatrixReal( MatrixReal.one( 3 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.multiply( new double[2] ) );
+        double[] v = new double[3];
+        assertThrows( IllegalArgumentException.class , () -> A.multiply( v , v ) );
+        assertThrows( IllegalArgumentException.class , () -> A.multiply( MatrixReal.one( 2 ) ) );
+    }
+    
+    
+    @Test
+    void parallelProductsMatchSequentialProducts()
+    {
+        // Graph Laplacian of a ring, large enough to be split among several threads.
+        int n = 200000;
+        SparseMatrixRealBuilder builder = new SparseMatrixRealBuilder( n , n );
+        for( int i=0; i<n; i++ ) {
+            int j = ( i + 1 ) % n;
+            builder.add( i , i , 1.0 ).add( j , j , 1.0 ).add( i , j , -1.0 ).add( j , i , -1.0 );
+        }
+        CompressedSparseRowMatrixReal L = builder.buildCompressedSparseRow();
+        assertEquals( 3 * n , L.nonZeros() );
+        double[] v = this.randomVector( n );
+        double[] Lv = L.multiply( v );
+        double[] LTv = L.multiplyTranspose( v );
+        for( int i=0; i<n; i++ ) {
+            double expected = 2.0 * v[i] - v[ ( i + 1 ) % n ] - v[ ( i + n - 1 ) % n ];
+            assertEquals( expected , Lv[i] , 1.0e-12 );
+            assertEquals( expected , LTv[i] , 1.0e-12 );
+        }
+        MatrixReal X = MatrixReal.fromFlatArray( v , n , 1 );
+        assertArrayEquals( Lv , L.multiply( X ).toFlatArray() , 1.0e-12 );
+        assertArrayEquals( LTv , L.multiplyTranspose( X ).toFlatArray() , 1.0e-12 );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Generates a random {@link MatrixReal} in which most entries are zero.
+     * 
+     * @param rows  number of rows.
+     * @param columns   number of columns.
+     * @param density   probability of an entry being non-zero.
+     * @return  random sparse {@link MatrixReal}.
+     */
+    private MatrixReal randomSparseMatrix( int rows , int columns , double density )
+    {
+        MatrixReal M = MatrixReal.zero( rows , columns );
+        for( int i=0; i<rows; i++ ) {
+            for( int j=0; j<columns; j++ ) {
+                if( this.randomNumberGenerator.nextDouble() < density ) {
+                    M.setEntry( i , j , this.randomNumberGenerator.nextGaussian() );
+                }
+            }
+        }
+        return M;
+    }
+    
+    
+    /**
+     * Generates a random vector with Gaussian entries.
+     * 
+     * @param length    length of the vector.
+     * @return  random vector.
+     */
+    private double[] randomVector( int length )
+    {
+        double[] v = new double[ length ];
+        for( int i=0; i<length; i++ ) {
+            v[i] = this.randomNumberGenerator.nextGaussian();
+        }
+        return v;
+    }
+    
+}
@@ -0,0 +1,158 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link LUDecomposition}.
+ */
+class LUDecompositionTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void factorsReconstructPermutedMatrix()
+    {
+        // 150 spans several blocks.
+        for( int n : new int[] { 1 , 7 , 150 } ) {
+            MatrixReal A = MatrixReal.random( n , n , this.randomNumberGenerator );
+            LUDecomposition lu = new LUDecomposition( n ).decompose( A );
+            int[] permutation = lu.getPermutation();
+            MatrixReal PA = MatrixReal.empty( n , n );
+            for( int i=0; i<n; i++ ) {
+                for( int j=0; j<n; j++ ) {
+                    PA.setEntry( i , j , A.entry( permutation[i] , j ) );
+                }
+            }
+            MatrixReal LU = lu.getL().toMatrixReal().multiply( lu.getU().toMatrixReal() );
+            assertTrue( LU.equalsApproximately( PA , 1.0e-10 , 1.0e-10 ) );
+            assertFalse( lu.isSingular() );
+        }
+    }
+    
+    
+    @Test
+    void solveInvertsProducts()
+    {
+        for( int n : new int[] { 5 , 130 } ) {
+            LUDecomposition lu = new LUDecomposition( n );
+            // Reuse the same decomposition for several matrices.
+            for( int i=0; i<5; i++ ) {
+                MatrixReal A = MatrixReal.random( n , n , this.randomNumberGenerator );
+                lu.decompose( A );
+                for( int m : new int[] { 1 , 4 , 4 } ) {
+                    MatrixReal X = MatrixReal.random( n , m , this.randomNumberGenerator );
+                    MatrixReal B = A.multiply( X );
+                    assertTrue( lu.solve( B ).equalsApproximately( X , 1.0e-8 , 1.0e-8 ) );
+                    assertTrue( B.divideLeft( A ).equalsApproximately( X , 1.0e-8 , 1.0e-8 ) );
+                    MatrixReal Y = X.transpose();
+                    assertTrue( Y.multiply( A ).divideRightInplace( A ).equalsApproximately( Y , 1.0e-8 , 1.0e-8 ) );
+                }
+            }
+        }
+    }
+    
+    
+    @Test
+    void parallelDecompositionMatchesSequential()
+    {
+        MatrixReal A = MatrixReal.random( 300 , 300 , this.randomNumberGenerator );
+        LUDecomposition sequential = new LUDecomposition( 300 ).decompose( A );
+        LUDecomposition parallel = new LUDecomposition( 300 ).decompose( A , true );
+        assertArrayEquals( sequential.getPermutation() , parallel.getPermutation() );
+        assertTrue( sequential.getL().equals( parallel.getL() ) );
+        assertTrue( sequential.getU().equals( parallel.getU() ) );
+    }
+    
+    
+    @Test
+    void determinantAndInverse()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal M = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+            MatrixReal A = M.transpose().multiply( M ).addInplace( MatrixReal.one( 6 ).scaleInplace( 0.1 ) );
+            double sqrtDeterminant = 1.0;
+            for( double lii : A.choleskyDecomposition().diagonalElements() ) {
+                sqrtDeterminant *= lii;
+            }
+            double expected = sqrtDeterminant * sqrtDeterminant;
+            assertEquals( expected , A.determinant() , 1.0e-10 * Math.abs( expected ) );
+            // Swapping two rows flips the sign.
+            MatrixReal B = M.copy();
+            for( int j=0; j<6; j++ ) {
+                B.setEntry( 0 , j , M.entry( 3 , j ) );
+                B.setEntry( 3 , j , M.entry( 0 , j ) );
+            }
+            assertEquals( -M.determinant() , B.determinant() , 1.0e-10 * ( 1.0 + Math.abs( M.determinant() ) ) );
+            assertTrue( M.inverse().multiply( M ).equalsApproximately( MatrixReal.one( 6 ) , 1.0e-8 , 1.0e-8 ) );
+            assertTrue( M.copy().inverseInplace().equalsApproximately( M.inverse() , 1.0e-12 , 1.0e-12 ) );
+        }
+    }
+    
+    
+    @Test
+    void singularMatricesAreDetected()
+    {
+        LUDecomposition lu = new LUDecomposition( 5 ).decompose( MatrixReal.zero( 5 , 5 ) );
+        assertTrue( lu.isSingular() );
+        assertEquals( 0.0 , lu.determinant() );
+        assertThrows( IllegalStateException.class , () -> lu.solve( MatrixReal.one( 5 ) ) );
+        assertThrows( IllegalStateException.class , () -> MatrixReal.zero( 3 , 3 ).inverse() );
+    }
+    
+    
+    @Test
+    void numericallySingularMatricesAreOnlyDetectedWithATolerance()
+    {
+        // The last row is a combination of the others, which leaves a pivot that is zero up to rounding errors.
+        MatrixReal A = MatrixReal.random( 5 , 5 , new Random( 7 ) );
+        for( int j=0; j<5; j++ ) {
+            A.setEntry( 4 , j , 0.3 * A.entry( 1 , j ) - 1.7 * A.entry( 2 , j ) );
+        }
+        LUDecomposition lu = new LUDecomposition( 5 ).decompose( A );
+        assertEquals( 0.0 , lu.determinant() , 1.0e-12 );
+        // Only exact zero pivots are flagged, so solves go on.
+        assertFalse( lu.isSingular() );
+        lu.solve( MatrixReal.one( 5 ) );
+        assertTrue( lu.isSingular( 5 * Math.ulp( 1.0 ) ) );
+        assertTrue( lu.isSingular( 0.0 ) == lu.isSingular() );
+        // Regular matrices are not flagged.
+        LUDecomposition regular = new LUDecomposition( 5 ).decompose( MatrixReal.random( 5 , 5 , new Random( 7 ) ).addInplace( MatrixReal.one( 5 ).scaleInplace( 5.0 ) ) );
+        assertFalse( regular.isSingular( 5 * Math.ulp( 1.0 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> regular.isSingular( -1.0 ) );
+    }
+    
+    
+    @Test
+    void invalidArgumentsThrowException()
+    {
+        LUDecomposition lu = new LUDecomposition( 3 );
+        assertThrows( IllegalStateException.class , () -> lu.determinant() );
+        assertThrows( IllegalArgumentException.class , () -> lu.decompose( MatrixReal.one( 4 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> lu.decompose( MatrixReal.zero( 3 , 2 ) ) );
+        lu.decompose( MatrixReal.one( 3 ) );
+        assertThrows( IllegalArgumentException.class , () -> lu.solve( MatrixReal.zero( 4 , 2 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> lu.inverse( MatrixReal.zero( 3 , 2 ) ) );
+    }
+    
+}
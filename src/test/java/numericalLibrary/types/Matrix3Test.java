@@ -0,0 +1,111 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElementTester;
+import numericalLibrary.algebraicStructures.MetricSpaceElementTester;
+import numericalLibrary.algebraicStructures.MultiplicativeMagmaElementTester;
+import numericalLibrary.algebraicStructures.VectorSpaceElementTester;
+
+
+
+/**
+ * Implements test methods for {@link Matrix3}.
+ */
+class Matrix3Test
+    implements
+        AdditiveAbelianGroupElementTester<Matrix3>,
+        VectorSpaceElementTester<Matrix3>,
+        MetricSpaceElementTester<Matrix3>,
+        MultiplicativeMagmaElementTester<Matrix3>
+{
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * {@inheritDoc}
+     */
+    public List<Matrix3> getElementList()
+    {
+        List<Matrix3> output = new ArrayList<Matrix3>();
+        output.add( Matrix3.zero() );
+        output.add( Matrix3.one() );
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<100; i++ ) {
+            output.add( Matrix3.random( randomNumberGenerator ) );
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that the product, the transpose and the application to a {@link Vector3} are consistent with {@link MatrixReal}.
+     */
+    @Test
+    void operationsConsistentWithMatrixReal()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<100; i++ ) {
+            Matrix3 a = Matrix3.random( randomNumberGenerator );
+            Matrix3 b = Matrix3.random( randomNumberGenerator );
+            Vector3 v = Vector3.random( randomNumberGenerator );
+            MatrixReal aReal = a.toMatrixReal();
+            MatrixReal bReal = b.toMatrixReal();
+            assertTrue( a.multiply( b ).toMatrixReal().distanceFrom( aReal.multiply( bReal ) ) < 1.0e-14 );
+            assertTrue( a.transpose().toMatrixReal().distanceFrom( aReal.transpose() ) == 0.0 );
+            assertTrue( a.applyToVector3( v ).distanceFrom( aReal.applyToVector3( v ) ) < 1.0e-14 );
+            assertTrue( Matrix3.fromMatrixReal( aReal ).equals( a ) );
+        }
+    }
+    
+    
+    /**
+     * Tests that {@link Matrix3#inverse()} times the original matrix is the identity,
+     * and that the determinant of the product is the product of the determinants.
+     */
+    @Test
+    void inverseAndDeterminantBehavior()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<100; i++ ) {
+            Matrix3 a = Matrix3.random( randomNumberGenerator );
+            Matrix3 b = Matrix3.random( randomNumberGenerator );
+            assertTrue( a.multiply( a.inverse() ).equalsApproximately( Matrix3.one() , 1.0e-10 , 0.0 ) );
+            assertTrue( a.copy().inverseInplace().equals( a.inverse() ) );
+            double determinantOfProduct = a.multiply( b ).determinant();
+            assertTrue( Math.abs( determinantOfProduct - a.determinant() * b.determinant() ) < 1.0e-12 * ( 1.0 + Math.abs( determinantOfProduct ) ) );
+        }
+    }
+    
+    
+    /**
+     * Tests that the {@link Matrix3} versions of {@link Vector3#crossProductMatrix()} and {@link Vector3#outerProduct(Vector3)}
+     * are equal to the {@link MatrixReal} ones.
+     */
+    @Test
+    void crossProductMatrixAndOuterProductConsistentWithMatrixReal()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        Matrix3 output = Matrix3.zero();
+        for( int i=0; i<100; i++ ) {
+            Vector3 a = Vector3.random( randomNumberGenerator );
+            Vector3 b = Vector3.random( randomNumberGenerator );
+            assertTrue( a.crossProductMatrix( output ).toMatrixReal().equals( a.crossProductMatrix() ) );
+            assertTrue( a.outerProduct( b , output ).toMatrixReal().equals( a.outerProduct( b ) ) );
+        }
+    }
+    
+}
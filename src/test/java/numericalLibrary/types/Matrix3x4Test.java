@@ -0,0 +1,74 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElementTester;
+import numericalLibrary.algebraicStructures.MetricSpaceElementTester;
+import numericalLibrary.algebraicStructures.VectorSpaceElementTester;
+
+
+
+/**
+ * Implements test methods for {@link Matrix3x4}.
+ */
+class Matrix3x4Test
+    implements
+        AdditiveAbelianGroupElementTester<Matrix3x4>,
+        VectorSpaceElementTester<Matrix3x4>,
+        MetricSpaceElementTester<Matrix3x4>
+{
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * {@inheritDoc}
+     */
+    public List<Matrix3x4> getElementList()
+    {
+        List<Matrix3x4> output = new ArrayList<Matrix3x4>();
+        output.add( Matrix3x4.zero() );
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<100; i++ ) {
+            output.add( Matrix3x4.random( randomNumberGenerator ) );
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that the transpose, the products and the application to a {@link Quaternion} are consistent with {@link MatrixReal}.
+     */
+    @Test
+    void operationsConsistentWithMatrixReal()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<100; i++ ) {
+            Matrix3x4 a = Matrix3x4.random( randomNumberGenerator );
+            MatrixReal aReal = a.toMatrixReal();
+            assertTrue( Matrix3x4.fromMatrixReal( aReal ).equals( a ) );
+            assertTrue( a.transpose().toMatrixReal().distanceFrom( aReal.transpose() ) == 0.0 );
+            assertTrue( Matrix3x4.zero().setToTransposeOf( a.transpose() ).equals( a ) );
+            Matrix4x3 b = Matrix4x3.random( randomNumberGenerator );
+            Matrix3 c = Matrix3.random( randomNumberGenerator );
+            assertTrue( a.multiply( b ).toMatrixReal().distanceFrom( aReal.multiply( b.toMatrixReal() ) ) < 1.0e-14 );
+            assertTrue( Matrix3x4.zero().setToProduct( c , a ).toMatrixReal().distanceFrom( c.toMatrixReal().multiply( aReal ) ) < 1.0e-14 );
+            Quaternion q = Quaternion.random( randomNumberGenerator );
+            MatrixReal qReal = MatrixReal.fromArrayAsColumn( new double[] { q.w() , q.x() , q.y() , q.z() } );
+            assertTrue( a.applyToQuaternion( q ).toMatrixAsColumn().distanceFrom( aReal.multiply( qReal ) ) < 1.0e-14 );
+        }
+    }
+    
+}
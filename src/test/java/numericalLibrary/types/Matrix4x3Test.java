@@ -0,0 +1,73 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElementTester;
+import numericalLibrary.algebraicStructures.MetricSpaceElementTester;
+import numericalLibrary.algebraicStructures.VectorSpaceElementTester;
+
+
+
+/**
+ * Implements test methods for {@link Matrix4x3}.
+ */
+class Matrix4x3Test
+    implements
+        AdditiveAbelianGroupElementTester<Matrix4x3>,
+        VectorSpaceElementTester<Matrix4x3>,
+        MetricSpaceElementTester<Matrix4x3>
+{
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * {@inheritDoc}
+     */
+    public List<Matrix4x3> getElementList()
+    {
+        List<Matrix4x3> output = new ArrayList<Matrix4x3>();
+        output.add( Matrix4x3.zero() );
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<100; i++ ) {
+            output.add( Matrix4x3.random( randomNumberGenerator ) );
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Tests that the transpose, the product and the application to a {@link Vector3} are consistent with {@link MatrixReal}.
+     */
+    @Test
+    void operationsConsistentWithMatrixReal()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<100; i++ ) {
+            Matrix4x3 a = Matrix4x3.random( randomNumberGenerator );
+            MatrixReal aReal = a.toMatrixReal();
+            assertTrue( Matrix4x3.fromMatrixReal( aReal ).equals( a ) );
+            assertTrue( a.transpose().toMatrixReal().distanceFrom( aReal.transpose() ) == 0.0 );
+            assertTrue( Matrix4x3.zero().setToTransposeOf( a.transpose() ).equals( a ) );
+            Matrix3 c = Matrix3.random( randomNumberGenerator );
+            assertTrue( Matrix4x3.zero().setToProduct( a , c ).toMatrixReal().distanceFrom( aReal.multiply( c.toMatrixReal() ) ) < 1.0e-14 );
+            Vector3 v = Vector3.random( randomNumberGenerator );
+            Quaternion q = a.applyToVector3( v );
+            MatrixReal qReal = MatrixReal.fromArrayAsColumn( new double[] { q.w() , q.x() , q.y() , q.z() } );
+            assertTrue( qReal.distanceFrom( aReal.multiply( v.toMatrixAsColumn() ) ) < 1.0e-14 );
+        }
+    }
+    
+}
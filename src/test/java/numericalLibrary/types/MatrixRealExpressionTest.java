@@ -0,0 +1,139 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link MatrixRealExpression}.
+ */
+class MatrixRealExpressionTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void entrywiseChainsMatchInplaceChains()
+    {
+        for( int i=0; i<100; i++ ) {
+            double a = this.randomNumberGenerator.nextGaussian();
+            double b = this.randomNumberGenerator.nextGaussian();
+            double c = this.randomNumberGenerator.nextGaussian();
+            MatrixReal cross = MatrixReal.random( 3 , 3 , this.randomNumberGenerator );
+            MatrixReal outer = MatrixReal.random( 3 , 3 , this.randomNumberGenerator );
+            MatrixReal crossCopy = cross.copy();
+            MatrixReal outerCopy = outer.copy();
+            MatrixReal lazy = MatrixRealExpression.identity( 3 ).scale( a ).subtract( cross ).scale( b ).add( MatrixRealExpression.of( outer ).scale( c ) ).evaluate();
+            MatrixReal eager = MatrixReal.one( 3 ).scaleInplace( a ).subtractInplace( cross ).scaleInplace( b ).addInplace( outer.copy().scaleInplace( c ) );
+            assertTrue( lazy.equalsApproximately( eager , 1.0e-12 , 1.0e-12 ) );
+            // Leaves are not modified.
+            assertTrue( cross.equals( crossCopy ) );
+            assertTrue( outer.equals( outerCopy ) );
+            MatrixReal hadamard = MatrixRealExpression.of( cross ).multiplyEntrywise( outer ).inverseAdditive().evaluate();
+            for( int r=0; r<3; r++ ) {
+                for( int s=0; s<3; s++ ) {
+                    assertTrue( hadamard.entry( r , s ) == -cross.entry( r , s ) * outer.entry( r , s ) );
+                }
+            }
+        }
+    }
+    
+    
+    @Test
+    void productsAndTransposesMatchMatrixReal()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal A = MatrixReal.random( 4 , 3 , this.randomNumberGenerator );
+            MatrixReal B = MatrixReal.random( 3 , 5 , this.randomNumberGenerator );
+            MatrixReal C = MatrixReal.random( 4 , 5 , this.randomNumberGenerator );
+            MatrixReal expected = A.multiply( B ).scaleInplace( 2.0 ).addInplace( C );
+            assertTrue( MatrixRealExpression.of( A ).multiply( B ).scale( 2.0 ).add( C ).evaluate().equalsApproximately( expected , 1.0e-12 , 1.0e-12 ) );
+            MatrixReal expectedTranspose = B.transpose().multiply( A.transpose().add( A.transpose() ) );
+            MatrixRealExpression AT = MatrixRealExpression.of( A ).transpose();
+            assertTrue( MatrixRealExpression.of( B ).transpose().multiply( AT.add( AT ) ).evaluate().equalsApproximately( expectedTranspose , 1.0e-12 , 1.0e-12 ) );
+            assertTrue( AT.transpose().evaluate().equals( A ) );
+        }
+    }
+    
+    
+    @Test
+    void leafShapesMatchMatrixReal()
+    {
+        for( int i=0; i<100; i++ ) {
+            double a = this.randomNumberGenerator.nextGaussian();
+            double b = this.randomNumberGenerator.nextGaussian();
+            MatrixReal X = MatrixReal.random( 3 , 4 , this.randomNumberGenerator );
+            MatrixReal Y = MatrixReal.random( 3 , 4 , this.randomNumberGenerator );
+            MatrixReal Z = MatrixReal.random( 4 , 3 , this.randomNumberGenerator );
+            // a * X + b * Y
+            MatrixReal expected = X.copy().scaleInplace( a ).addInplace( Y.copy().scaleInplace( b ) );
+            assertTrue( MatrixRealExpression.of( X ).scale( a ).add( MatrixRealExpression.of( Y ).scale( b ) ).evaluate().equals( expected ) );
+            // X o Y - Z^T
+            expected = X.copy();
+            for( int r=0; r<3; r++ ) {
+                for( int s=0; s<4; s++ ) {
+                    expected.setEntry( r , s , X.entry( r , s ) * Y.entry( r , s ) - Z.entry( s , r ) );
+                }
+            }
+            MatrixRealExpression ZT = MatrixRealExpression.of( Z ).transpose();
+            assertTrue( MatrixRealExpression.of( X ).multiplyEntrywise( Y ).subtract( ZT ).evaluate().equals( expected ) );
+            // Transposes of sums and products are pushed down to the leaves.
+            MatrixReal expectedTranspose = X.add( Y ).transpose().addInplace( X.transpose().multiply( Y ).multiply( Z ) ).transpose();
+            MatrixRealExpression XTYZ = MatrixRealExpression.of( X ).transpose().multiply( MatrixRealExpression.of( Y ).multiply( Z ) );
+            assertTrue( MatrixRealExpression.of( X ).add( Y ).transpose().add( XTYZ ).transpose().evaluate().equalsApproximately( expectedTranspose , 1.0e-12 , 1.0e-12 ) );
+            // Products with the identity.
+            assertTrue( MatrixRealExpression.identity( 4 ).multiply( ZT.transpose() ).multiply( MatrixRealExpression.identity( 3 ) ).evaluate().equals( Z ) );
+            assertTrue( MatrixRealExpression.identity( 3 ).multiply( ZT ).transpose().evaluate().equals( Z ) );
+        }
+    }
+    
+    
+    @Test
+    void destinationCanBeALeaf()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal A = MatrixReal.random( 4 , 4 , this.randomNumberGenerator );
+            MatrixReal B = MatrixReal.random( 4 , 4 , this.randomNumberGenerator );
+            MatrixReal expected = A.add( A.transpose() ).addInplace( A.multiply( B ) );
+            MatrixRealExpression.of( A ).add( MatrixRealExpression.of( A ).transpose() ).add( MatrixRealExpression.of( A ).multiply( B ) ).evaluateInto( A );
+            assertTrue( A.equalsApproximately( expected , 1.0e-12 , 1.0e-12 ) );
+            // Leaves read by columns or as factors are copied before the destination is written.
+            MatrixReal expectedProduct = A.transpose().multiply( A ).addInplace( A );
+            MatrixRealExpression.of( A ).transpose().multiply( A ).add( A ).evaluateInto( A );
+            assertTrue( A.equalsApproximately( expectedProduct , 1.0e-12 , 1.0e-12 ) );
+            // Overlapping views of the same storage.
+            MatrixReal M = MatrixReal.random( 5 , 5 , this.randomNumberGenerator );
+            MatrixReal top = M.submatrixView( 0 , 0 , 4 , 5 );
+            MatrixReal bottom = M.submatrixView( 1 , 0 , 4 , 5 );
+            MatrixReal expectedView = bottom.copy().scaleInplace( 3.0 );
+            MatrixRealExpression.of( bottom ).scale( 3.0 ).evaluateInto( top );
+            assertTrue( top.equals( expectedView ) );
+        }
+    }
+    
+    
+    @Test
+    void incompatibleSizesThrowException()
+    {
+        MatrixRealExpression A = MatrixRealExpression.of( MatrixReal.zero( 2 , 3 ) );
+        assertThrows( IllegalArgumentException.class , () -> A.add( MatrixReal.zero( 3 , 2 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> A.multiply( A ) );
+        assertThrows( IllegalArgumentException.class , () -> A.evaluateInto( MatrixReal.zero( 3 , 2 ) ) );
+    }
+    
+}
@@ -2,6 +2,7 @@ package numericalLibrary.types;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -372,6 +373,221 @@ class MatrixRealTest
     }
     
     
+    /**
+     * Tests that the sandwich products match the explicit products, computing only the lower triangular part unless mirrored,
+     * and that the result can overwrite the inner factor.
+     */
+    @Test
+    void sandwichBehavior()
+    {
+        Random randomNumberGenerator = new Random( 42 );
+        for( int k=0; k<100; k++ ) {
+            int m = 1 + randomNumberGenerator.nextInt( 6 );
+            int n = 1 + randomNumberGenerator.nextInt( 6 );
+            MatrixReal A = MatrixReal.random( m , n , randomNumberGenerator );
+            MatrixReal C = MatrixReal.random( n , n , randomNumberGenerator );
+            MatrixReal B = C.add( C.transpose() );
+            MatrixReal BLower = B.copy();
+            for( int i=0; i<n; i++ ) {
+                for( int j=i+1; j<n; j++ ) {
+                    BLower.setEntry( i , j , Double.NaN );
+                }
+            }
+            MatrixReal expected = A.multiply( B ).multiply( A.transpose() );
+            MatrixReal output = MatrixReal.random( m , m , randomNumberGenerator );
+            MatrixReal initial = output.copy();
+            output.setToSandwich( A , BLower , MatrixReal.empty( m , n ) , false );
+            for( int i=0; i<m; i++ ) {
+                for( int j=0; j<m; j++ ) {
+                    assertEquals( ( j <= i )?  expected.entry( i , j )  :  initial.entry( i , j ) , output.entry( i , j ) , 1.0e-12 );
+                }
+            }
+            assertTrue( output.setToSandwich( A , BLower , MatrixReal.empty( m , n ) , true ).equalsApproximately( expected , 1.0e-12 , 0.0 ) );
+            assertTrue( output.addSandwich( A , BLower , MatrixReal.empty( m , n ) , true ).equalsApproximately( expected.scale( 2.0 ) , 1.0e-12 , 0.0 ) );
+            // Transposed sandwich.
+            MatrixReal At = A.transpose();
+            assertTrue( output.setToTransposeSandwich( At , BLower , MatrixReal.empty( n , m ) , true ).equalsApproximately( expected , 1.0e-12 , 0.0 ) );
+            assertTrue( output.addTransposeSandwich( At , BLower , MatrixReal.empty( n , m ) , true ).equalsApproximately( expected.scale( 2.0 ) , 1.0e-12 , 0.0 ) );
+            // The inner factor can be overwritten.
+            MatrixReal F = MatrixReal.random( n , n , randomNumberGenerator );
+            MatrixReal P = B.copy();
+            assertTrue( P.setToSandwich( F , P , MatrixReal.empty( n , n ) , true ).equalsApproximately( F.multiply( B ).multiply( F.transpose() ) , 1.0e-12 , 0.0 ) );
+        }
+    }
+    
+    
+    /**
+     * Tests that the sandwich products reject aliased arguments and inconsistent sizes.
+     */
+    @Test
+    void sandwichRejectsInvalidArguments()
+    {
+        MatrixReal A = MatrixReal.one( 3 );
+        MatrixReal B = MatrixReal.one( 3 );
+        MatrixReal W = MatrixReal.empty( 3 , 3 );
+        MatrixReal output = MatrixReal.empty( 3 , 3 );
+        assertThrows( IllegalArgumentException.class , () -> A.setToSandwich( A , B , W , true ) );
+        assertThrows( IllegalArgumentException.class , () -> output.setToSandwich( A , B , B , true ) );
+        assertThrows( IllegalArgumentException.class , () -> output.setToSandwich( A , B , output , true ) );
+        assertThrows( IllegalArgumentException.class , () -> output.setToSandwich( A , B , MatrixReal.empty( 3 , 2 ) , true ) );
+        assertThrows( IllegalArgumentException.class , () -> output.setToSandwich( MatrixReal.one( 2 ) , B , MatrixReal.empty( 2 , 2 ) , true ) );
+        assertThrows( IllegalArgumentException.class , () -> output.setToTransposeSandwich( MatrixReal.empty( 3 , 2 ) , B , MatrixReal.empty( 3 , 2 ) , true ) );
+        assertThrows( IllegalArgumentException.class , () -> output.addSandwich( A , MatrixReal.empty( 3 , 2 ) , W , true ) );
+    }
+    
+    
+    /**
+     * Tests that the batched squared Mahalanobis distances match the distance of each vector, for columns and packed vectors, both below and above the parallel threshold.
+     */
+    @Test
+    void distanceMahalanobis2BatchBehavior()
+    {
+        int[] dimensions = { 1 , 3 , 7 };
+        int[] numberOfVectors = { 1 , 63 , 65 , 200 , 8000 };
+        for( int d : dimensions ) {
+            MatrixReal L = this.randomPositiveDefiniteMatrix( d ).choleskyDecomposition();
+            for( int n : numberOfVectors ) {
+                MatrixReal X = MatrixReal.random( d , n , this.randomNumberGenerator );
+                double[] packedVectors = new double[ d * n ];
+                for( int k=0; k<n; k++ ) {
+                    for( int i=0; i<d; i++ ) {
+                        packedVectors[ k * d + i ] = X.entry( i , k );
+                    }
+                }
+                double[] fromColumns = X.distanceMahalanobis2OfColumns( L );
+                double[] fromPacked = MatrixReal.distanceMahalanobis2( L , packedVectors , new double[ n ] );
+                for( int k=0; k<n; k++ ) {
+                    double expected = X.submatrixFromColumn( k ).distanceMahalanobis2( L );
+                    assertEquals( expected , fromColumns[k] , 1.0e-10 * ( 1.0 + expected ) );
+                    assertEquals( expected , fromPacked[k] , 1.0e-10 * ( 1.0 + expected ) );
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Tests that the batched squared Mahalanobis distances reject arguments of inconsistent sizes.
+     */
+    @Test
+    void distanceMahalanobis2BatchRejectsInvalidArguments()
+    {
+        MatrixReal L = MatrixReal.one( 3 );
+        assertThrows( IllegalArgumentException.class , () -> MatrixReal.zero( 3 , 5 ).distanceMahalanobis2OfColumns( L , new double[ 4 ] ) );
+        assertThrows( IllegalArgumentException.class , () -> MatrixReal.zero( 2 , 5 ).distanceMahalanobis2OfColumns( L ) );
+        assertThrows( IllegalArgumentException.class , () -> MatrixReal.zero( 3 , 5 ).distanceMahalanobis2OfColumns( MatrixReal.zero( 3 , 2 ) ) );
+        assertThrows( IllegalArgumentException.class , () -> MatrixReal.distanceMahalanobis2( L , new double[ 14 ] , new double[ 5 ] ) );
+    }
+    
+    
+    /**
+     * Tests that submatrix views share the entries of their parent and behave as the equivalent copied submatrices.
+     */
+    @Test
+    void submatrixViewBehavior()
+    {
+        MatrixReal M = MatrixReal.random( 7 , 6 , this.randomNumberGenerator );
+        MatrixReal original = M.copy();
+        // Views see the entries of the parent, including views of views.
+        MatrixReal view = M.submatrixView( 1 , 2 , 4 , 3 );
+        assertTrue( view.equals( M.submatrix( 1 , 2 , 4 , 3 ) ) );
+        assertTrue( view.submatrixViewFromRows( 1 , 2 ).equals( M.submatrix( 2 , 2 , 2 , 3 ) ) );
+        assertTrue( M.submatrixViewFromRow( 3 ).equals( M.submatrixFromRow( 3 ) ) );
+        assertTrue( M.submatrixViewFromColumn( 5 ).equals( M.submatrixFromColumn( 5 ) ) );
+        assertTrue( M.submatrixViewFromColumns( 4 , 2 ).equals( M.submatrixFromColumns( 4 , 2 ) ) );
+        // Modifications of a view are seen by the parent, and only in the block.
+        view.scaleInplace( 2.0 );
+        MatrixReal expected = original.copy().setSubmatrix( 1 , 2 , original.submatrix( 1 , 2 , 4 , 3 ).scale( 2.0 ) );
+        assertTrue( M.equals( expected ) );
+        view.submatrixViewFromColumn( 1 ).setEntry( 2 , 0 , -1.0 );
+        assertEquals( -1.0 , M.entry( 3 , 3 ) );
+        // Products can be accumulated in a panel of a matrix from panels of other matrices.
+        MatrixReal A = MatrixReal.random( 5 , 5 , this.randomNumberGenerator );
+        MatrixReal B = MatrixReal.random( 5 , 5 , this.randomNumberGenerator );
+        MatrixReal C = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+        MatrixReal expectedC = C.copy().addSubmatrix( 2 , 1 , A.submatrix( 0 , 1 , 4 , 3 ).multiply( B.submatrix( 2 , 0 , 3 , 5 ) ) );
+        C.submatrixView( 2 , 1 , 4 , 5 ).addLeftTimesRight( A.submatrixView( 0 , 1 , 4 , 3 ) , B.submatrixView( 2 , 0 , 3 , 5 ) );
+        assertTrue( C.equalsApproximately( expectedC , 1.0e-12 , 1.0e-12 ) );
+        // Decompositions and solves can be applied to diagonal blocks in place.
+        MatrixReal P = MatrixReal.random( 8 , 8 , this.randomNumberGenerator );
+        MatrixReal S = this.randomPositiveDefiniteMatrix( 4 );
+        P.setSubmatrix( 3 , 2 , S );
+        MatrixReal L = S.choleskyDecomposition();
+        MatrixReal X = MatrixReal.random( 8 , 8 , this.randomNumberGenerator );
+        MatrixReal expectedX = X.copy().setSubmatrix( 1 , 4 , X.submatrix( 1 , 4 , 2 , 4 ).divideRightByPositiveDefiniteUsingItsCholeskyDecomposition( L ) );
+        P.submatrixView( 3 , 2 , 4 , 4 ).choleskyDecompositionInplace();
+        assertTrue( P.submatrix( 3 , 2 , 4 , 4 ).equalsApproximately( L , 1.0e-12 , 1.0e-12 ) );
+        X.submatrixView( 1 , 4 , 2 , 4 ).divideRightByPositiveDefiniteUsingItsCholeskyDecompositionInplace( P.submatrixView( 3 , 2 , 4 , 4 ) );
+        assertTrue( X.equalsApproximately( expectedX , 1.0e-10 , 1.0e-10 ) );
+        // Sandwich products and batched distances read views correctly.
+        MatrixReal F = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+        MatrixReal expectedSandwich = F.submatrix( 1 , 1 , 4 , 4 ).multiply( S ).multiply( F.submatrix( 1 , 1 , 4 , 4 ).transpose() );
+        MatrixReal sandwich = MatrixReal.zero( 5 , 5 ).submatrixView( 1 , 1 , 4 , 4 );
+        sandwich.setToSandwich( F.submatrixView( 1 , 1 , 4 , 4 ) , P.submatrixView( 3 , 2 , 4 , 4 ).setTo( S ) , MatrixReal.empty( 6 , 6 ).submatrixView( 2 , 2 , 4 , 4 ) , true );
+        assertTrue( sandwich.equalsApproximately( expectedSandwich , 1.0e-10 , 1.0e-10 ) );
+        double[] distances = X.submatrixView( 0 , 1 , 4 , 5 ).distanceMahalanobis2OfColumns( L );
+        for( int k=0; k<5; k++ ) {
+            assertEquals( X.submatrix( 0 , 1 + k , 4 , 1 ).distanceMahalanobis2( L ) , distances[k] , 1.0e-10 );
+        }
+    }
+    
+    
+    /**
+     * Tests that operations requiring different operands reject overlapping views, and accept disjoint views of the same matrix.
+     */
+    @Test
+    void submatrixViewAliasing()
+    {
+        MatrixReal M = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+        MatrixReal top = M.submatrixViewFromRows( 0 , 3 );
+        MatrixReal bottom = M.submatrixViewFromRows( 3 , 3 );
+        MatrixReal overlapping = M.submatrixView( 2 , 0 , 3 , 3 );
+        MatrixReal right = MatrixReal.random( 6 , 3 , this.randomNumberGenerator );
+        assertThrows( IllegalArgumentException.class , () -> overlapping.setToLeftTimesRight( top , right ) );
+        assertThrows( IllegalArgumentException.class , () -> M.submatrixView( 0 , 0 , 3 , 3 ).addLeftTransposeTimesRight( top , M.submatrixView( 0 , 2 , 3 , 3 ) ) );
+        MatrixReal expected = top.multiply( right );
+        M.submatrixView( 3 , 0 , 3 , 3 ).setToLeftTimesRight( top , right );
+        assertTrue( bottom.submatrixViewFromColumns( 0 , 3 ).equalsApproximately( expected , 1.0e-12 , 1.0e-12 ) );
+    }
+    
+    
+    /**
+     * Tests that indices one past the end of a view are rejected instead of reaching the entries of the parent matrix.
+     */
+    @Test
+    void viewIndicesOnePastTheEndThrowException()
+    {
+        MatrixReal M = MatrixReal.random( 4 , 4 , this.randomNumberGenerator );
+        MatrixReal copy = M.copy();
+        MatrixReal V = M.submatrixView( 0 , 0 , 2 , 2 );
+        assertThrows( IllegalArgumentException.class , () -> V.entry( 2 , 0 ) );
+        assertThrows( IllegalArgumentException.class , () -> V.entry( 0 , 2 ) );
+        assertThrows( IllegalArgumentException.class , () -> V.setEntry( 2 , 2 , 5.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> V.submatrixView( 1 , 1 , 2 , 1 ) );
+        assertThrows( IllegalArgumentException.class , () -> V.submatrix( 0 , 0 , 2 , 3 ) );
+        assertThrows( IllegalArgumentException.class , () -> V.submatrixView( 0 , 0 , -1 , 2 ) );
+        assertThrows( IllegalArgumentException.class , () -> V.setSubmatrix( 1 , 0 , MatrixReal.zero( 2 , 2 ) ) );
+        assertTrue( M.equals( copy ) );
+        // Whole and empty blocks are still accepted.
+        assertTrue( V.submatrixView( 0 , 0 , 2 , 2 ).equals( M.submatrix( 0 , 0 , 2 , 2 ) ) );
+        assertEquals( 0 , V.submatrixViewFromRows( 2 , 0 ).rows() );
+    }
+    
+    
+    /**
+     * Tests that the deprecated setter accepts the current state of the checks, and rejects changing it at run time.
+     */
+    @Test
+    @SuppressWarnings( "deprecation" )
+    void setAssertionsCannotChangeTheChecks()
+    {
+        boolean active = MatrixReal.areAssertionsActive();
+        MatrixReal.setAssertions( active );
+        assertThrows( UnsupportedOperationException.class , () -> MatrixReal.setAssertions( !active ) );
+        assertEquals( active , MatrixReal.areAssertionsActive() );
+    }
+    
+    
     
     ////////////////////////////////////////////////////////////////
     // PRIVATE METHODS
@@ -0,0 +1,233 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link MatrixRealWorkspace}.
+ */
+class MatrixRealWorkspaceTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void storageIsRecycledAcrossScopes()
+    {
+        MatrixReal first;
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            first = workspace.matrix( 4 , 3 ).setTo( MatrixReal.random( 4 , 3 , this.randomNumberGenerator ) );
+            assertEquals( 1 , workspace.lentStorage() );
+        }
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            MatrixReal second = workspace.emptyWithSizeOf( first );
+            assertTrue( second.sharesStorageWith( first ) );
+            assertTrue( second.equals( MatrixReal.zero( 4 , 3 ) ) );
+            MatrixReal other = workspace.matrix( 3 , 4 );
+            assertFalse( other.sharesStorageWith( first ) );
+            assertEquals( 2 , workspace.lentStorage() );
+        }
+        MatrixRealWorkspace.releasePooledStorage();
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            assertFalse( workspace.matrix( 4 , 3 ).sharesStorageWith( first ) );
+        }
+        MatrixRealWorkspace.releasePooledStorage();
+    }
+    
+    
+    @Test
+    void resultsMatchAllocationsOutsideScopes()
+    {
+        MatrixReal A = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+        MatrixReal B = MatrixReal.random( 6 , 6 , this.randomNumberGenerator );
+        MatrixReal expected = A.transpose().multiply( B ).add( A );
+        MatrixReal result = MatrixReal.empty( 6 , 6 );
+        for( int i=0; i<10; i++ ) {
+            try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+                result.setTo( workspace.emptyWithSizeOf( A ).setToLeftTransposeTimesRight( A , B ).addInplace( A ) );
+                assertEquals( 1 , workspace.lentStorage() );
+            }
+            assertTrue( result.equals( expected ) );
+        }
+        MatrixRealWorkspace.releasePooledStorage();
+    }
+    
+    
+    @Test
+    void counterpartsMatchAllocatingMethods()
+    {
+        MatrixReal A = MatrixReal.random( 5 , 3 , this.randomNumberGenerator );
+        MatrixReal B = MatrixReal.random( 5 , 3 , this.randomNumberGenerator );
+        MatrixReal C = MatrixReal.random( 3 , 4 , this.randomNumberGenerator );
+        MatrixReal S = A.transpose().multiply( A ).addInplace( MatrixReal.one( 3 ) );
+        for( int i=0; i<3; i++ ) {
+            try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+                assertTrue( workspace.copyOf( A ).equals( A ) );
+                assertTrue( workspace.transposeOf( A ).equals( A.transpose() ) );
+                assertTrue( workspace.sum( A , B ).equals( A.add( B ) ) );
+                assertTrue( workspace.difference( A , B ).equals( A.subtract( B ) ) );
+                assertTrue( workspace.scaled( A , -2.5 ).equals( A.scale( -2.5 ) ) );
+                assertTrue( workspace.product( A , C ).equalsApproximately( A.multiply( C ) , 1.0e-12 , 1.0e-12 ) );
+                assertTrue( workspace.leftTransposeTimesRight( A , B ).equalsApproximately( A.transpose().multiply( B ) , 1.0e-12 , 1.0e-12 ) );
+                assertTrue( workspace.leftTimesRightTranspose( A , B ).equalsApproximately( A.multiply( B.transpose() ) , 1.0e-12 , 1.0e-12 ) );
+                assertTrue( workspace.choleskyDecompositionOf( S ).equalsApproximately( S.choleskyDecomposition() , 1.0e-12 , 1.0e-12 ) );
+                assertTrue( workspace.submatrixOf( A , 1 , 1 , 3 , 2 ).equals( A.submatrix( 1 , 1 , 3 , 2 ) ) );
+                assertEquals( 10 , workspace.lentStorage() );
+                // Arguments are checked as in the allocating methods.
+                assertThrows( IllegalArgumentException.class , () -> workspace.sum( A , C ) );
+                assertThrows( IllegalArgumentException.class , () -> workspace.product( A , B ) );
+                assertThrows( IllegalArgumentException.class , () -> workspace.choleskyDecompositionOf( A ) );
+                assertThrows( IllegalArgumentException.class , () -> workspace.submatrixOf( A , 3 , 0 , 3 , 3 ) );
+            }
+        }
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            // Storage given back by the scopes above is handed out again.
+            int pooled = workspace.pooledStorage();
+            assertTrue( workspace.transposeOf( A ).equals( A.transpose() ) );
+            assertEquals( pooled - 1 , workspace.pooledStorage() );
+        }
+        MatrixRealWorkspace.releasePooledStorage();
+    }
+    
+    
+    @Test
+    void otherAllocationsAreNotRecycled()
+    {
+        MatrixReal lazilyCreated;
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            lazilyCreated = MatrixReal.one( 3 ).add( MatrixReal.one( 3 ) );
+            assertEquals( 0 , workspace.lentStorage() );
+            workspace.matrix( 3 , 3 );
+        }
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            MatrixReal temporary = workspace.matrix( 3 , 3 );
+            assertFalse( temporary.sharesStorageWith( lazilyCreated ) );
+            assertEquals( 1 , workspace.pooledStorage() + workspace.lentStorage() );
+        }
+        assertTrue( lazilyCreated.equals( MatrixReal.one( 3 ).scaleInplace( 2.0 ) ) );
+        MatrixRealWorkspace.releasePooledStorage();
+    }
+    
+    
+    @Test
+    void pooledStorageIsBounded()
+    {
+        // Arrays of the same size beyond the limit are dropped.
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            for( int i=0; i<2*MatrixRealWorkspacePool.MAXIMUM_POOLED_PER_SIZE; i++ ) {
+                workspace.matrix( 3 , 3 );
+            }
+        }
+        MatrixReal recent;
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            assertEquals( MatrixRealWorkspacePool.MAXIMUM_POOLED_PER_SIZE , workspace.pooledStorage() );
+            recent = workspace.matrix( 3 , 3 );
+        }
+        // The least recently used sizes are dropped.
+        for( int n=1; n<=MatrixRealWorkspacePool.MAXIMUM_POOLED_SIZES; n++ ) {
+            try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+                workspace.matrix( n , 2 * n );
+            }
+        }
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            assertEquals( MatrixRealWorkspacePool.MAXIMUM_POOLED_SIZES , workspace.pooledStorage() );
+            assertFalse( workspace.matrix( 3 , 3 ).sharesStorageWith( recent ) );
+        }
+        // Storage larger than the limit is not pooled.
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            workspace.matrix( 1 , (int)MatrixRealWorkspacePool.MAXIMUM_POOLED_ENTRIES + 1 );
+        }
+        try( MatrixRealWorkspace workspace = MatrixRealWorkspace.open() ) {
+            assertEquals( MatrixRealWorkspacePool.MAXIMUM_POOLED_SIZES , workspace.pooledStorage() );
+        }
+        MatrixRealWorkspace.releasePooledStorage();
+    }
+    
+    
+    @Test
+    void nestedScopesAreDistinctAndClosedInOrder()
+    {
+        MatrixRealWorkspace outer = MatrixRealWorkspace.open();
+        try {
+            MatrixReal A = outer.matrix( 3 , 3 ).setTo( MatrixReal.one( 3 ) );
+            MatrixRealWorkspace inner = MatrixRealWorkspace.open();
+            assertNotSame( outer , inner );
+            MatrixReal B = inner.matrix( 3 , 3 );
+            assertFalse( B.sharesStorageWith( A ) );
+            assertEquals( 1 , inner.lentStorage() );
+            assertEquals( 2 , outer.lentStorage() );
+            // The outer scope cannot be used or closed while the inner one is open.
+            assertThrows( IllegalStateException.class , () -> outer.matrix( 3 , 3 ) );
+            assertThrows( IllegalStateException.class , () -> outer.close() );
+            assertFalse( outer.isClosed() );
+            inner.close();
+            // Closing again a stale handle does not close the outer scope.
+            inner.close();
+            assertTrue( inner.isClosed() );
+            assertFalse( outer.isClosed() );
+            assertThrows( IllegalStateException.class , () -> inner.matrix( 3 , 3 ) );
+            assertEquals( 1 , outer.lentStorage() );
+            MatrixReal C = outer.matrix( 3 , 3 );
+            assertTrue( C.sharesStorageWith( B ) );
+            assertFalse( C.sharesStorageWith( A ) );
+            assertTrue( A.equals( MatrixReal.one( 3 ) ) );
+        } finally {
+            outer.close();
+        }
+        assertTrue( outer.isClosed() );
+        MatrixRealWorkspace.releasePooledStorage();
+    }
+    
+    
+    @Test
+    void workspacesAreConfinedToTheirThread()
+        throws InterruptedException
+    {
+        AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        MatrixRealWorkspace workspace = MatrixRealWorkspace.open();
+        try {
+            workspace.matrix( 2 , 2 );
+            Thread thread = new Thread( () -> {
+                try {
+                    assertThrows( IllegalStateException.class , () -> workspace.matrix( 2 , 2 ) );
+                    assertThrows( IllegalStateException.class , () -> workspace.close() );
+                    assertEquals( 1 , workspace.lentStorage() );
+                    // Scopes of other threads are independent.
+                    try( MatrixRealWorkspace own = MatrixRealWorkspace.open() ) {
+                        assertEquals( 0 , own.lentStorage() );
+                    }
+                } catch( Throwable t ) {
+                    error.set( t );
+                }
+            } );
+            thread.start();
+            thread.join();
+            assertThrows( IllegalStateException.class , () -> MatrixRealWorkspace.releasePooledStorage() );
+        } finally {
+            workspace.close();
+        }
+        assertEquals( null , error.get() );
+        MatrixRealWorkspace.releasePooledStorage();
+    }
+    
+}
@@ -0,0 +1,164 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import numericalLibrary.algebraicStructures.AdditiveAbelianGroupElementTester;
+import numericalLibrary.algebraicStructures.MetricSpaceElementTester;
+import numericalLibrary.algebraicStructures.VectorSpaceElementTester;
+
+
+
+/**
+ * Implements test methods for {@link SymmetricPackedMatrixReal}.
+ */
+class SymmetricPackedMatrixRealTest
+    implements
+        AdditiveAbelianGroupElementTester<SymmetricPackedMatrixReal>,
+        VectorSpaceElementTester<SymmetricPackedMatrixReal>,
+        MetricSpaceElementTester<SymmetricPackedMatrixReal>
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * {@inheritDoc}
+     */
+    public List<SymmetricPackedMatrixReal> getElementList()
+    {
+        List<SymmetricPackedMatrixReal> output = new ArrayList<SymmetricPackedMatrixReal>();
+        output.add( SymmetricPackedMatrixReal.zero( 4 ) );
+        output.add( SymmetricPackedMatrixReal.one( 4 ) );
+        Random randomNumberGenerator = new Random( 42 );
+        for( int i=0; i<1000; i++ ) {
+            output.add( SymmetricPackedMatrixReal.random( 4 , randomNumberGenerator ) );
+        }
+        return output;
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void entriesAreSymmetric()
+    {
+        SymmetricPackedMatrixReal S = SymmetricPackedMatrixReal.zero( 3 );
+        S.setEntry( 0 , 2 , 5.0 );
+        S.setEntry( 2 , 1 , -1.0 );
+        assertEquals( 5.0 , S.entry( 2 , 0 ) );
+        assertEquals( -1.0 , S.entry( 1 , 2 ) );
+        MatrixReal M = S.toMatrixReal();
+        assertTrue( M.equals( M.transpose() ) );
+        assertTrue( SymmetricPackedMatrixReal.fromMatrixReal( M ).equals( S ) );
+        assertThrows( IllegalArgumentException.class , () -> S.entry( 3 , 0 ) );
+        assertThrows( IllegalArgumentException.class , () -> SymmetricPackedMatrixReal.fromMatrixReal( MatrixReal.zero( 3 , 2 ) ) );
+    }
+    
+    
+    @Test
+    void rankKUpdatesMatchMatrixRealProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal J = MatrixReal.random( 3 , 6 , this.randomNumberGenerator );
+            SymmetricPackedMatrixReal S = SymmetricPackedMatrixReal.random( 6 , this.randomNumberGenerator );
+            MatrixReal expected = S.toMatrixReal().addInplace( J.transpose().multiply( J ).scaleInplace( 0.5 ) );
+            assertTrue( S.copy().addScaledLeftTransposeTimesLeft( 0.5 , J ).toMatrixReal().equalsApproximately( expected , 1.0e-12 , 1.0e-12 ) );
+            MatrixReal expectedTranspose = S.toMatrixReal().addInplace( J.transpose().multiply( J ) );
+            assertTrue( S.copy().addScaledLeftTimesLeftTranspose( 1.0 , J.transpose() ).toMatrixReal().equalsApproximately( expectedTranspose , 1.0e-12 , 1.0e-12 ) );
+            MatrixReal expectedDamped = S.toMatrixReal().addInplace( MatrixReal.one( 6 ).scaleInplace( 3.0 ) );
+            assertTrue( S.copy().addToDiagonalInplace( 3.0 ).toMatrixReal().equals( expectedDamped ) );
+        }
+    }
+    
+    
+    @Test
+    void choleskyDecompositionMatchesMatrixReal()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal A = this.randomPositiveDefiniteMatrix( 8 );
+            TriangularPackedMatrixReal L = SymmetricPackedMatrixReal.fromMatrixReal( A ).choleskyDecompositionInplace();
+            MatrixReal expectedL = A.choleskyDecomposition();
+            for( int r=0; r<8; r++ ) {
+                for( int c=0; c<=r; c++ ) {
+                    assertEquals( expectedL.entry( r , c ) , L.entry( r , c ) , 1.0e-10 * ( 1.0 + Math.abs( expectedL.entry( r , c ) ) ) );
+                }
+                for( int c=r+1; c<8; c++ ) {
+                    assertEquals( 0.0 , L.entry( r , c ) );
+                }
+            }
+            MatrixReal B = MatrixReal.random( 8 , 3 , this.randomNumberGenerator );
+            MatrixReal X = B.copy().divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( L );
+            assertTrue( A.multiply( X ).equalsApproximately( B , 1.0e-10 , 1.0e-10 ) );
+        }
+    }
+    
+    
+    @Test
+    void LDLTDecompositionSolvesSystems()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal A = this.randomPositiveDefiniteMatrix( 8 );
+            TriangularPackedMatrixReal LD = SymmetricPackedMatrixReal.fromMatrixReal( A ).LDLTDecompositionInplace();
+            MatrixReal expectedLD = A.LDLTDecomposition();
+            for( int r=0; r<8; r++ ) {
+                for( int c=0; c<=r; c++ ) {
+                    assertEquals( expectedLD.entry( r , c ) , LD.entry( r , c ) , 1.0e-10 * ( 1.0 + Math.abs( expectedLD.entry( r , c ) ) ) );
+                }
+            }
+            MatrixReal B = MatrixReal.random( 8 , 3 , this.randomNumberGenerator );
+            MatrixReal X = B.copy().divideLeftByPositiveDefiniteUsingItsLDLTDecompositionInplace( LD );
+            assertTrue( A.multiply( X ).equalsApproximately( B , 1.0e-10 , 1.0e-10 ) );
+        }
+    }
+    
+    
+    @Test
+    void choleskyDecompositionThrowsExceptionIfNotPositiveDefinite()
+    {
+        SymmetricPackedMatrixReal S = SymmetricPackedMatrixReal.one( 4 );
+        S.setEntry( 2 , 2 , -1.0 );
+        assertThrows( IllegalArgumentException.class , () -> S.choleskyDecompositionInplace() );
+        SymmetricPackedMatrixReal N = SymmetricPackedMatrixReal.one( 4 );
+        N.setEntry( 3 , 1 , Double.NaN );
+        assertThrows( IllegalArgumentException.class , () -> N.choleskyDecompositionInplace() );
+    }
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    /**
+     * Generates a random positive definite {@link MatrixReal}.
+     * 
+     * @param dimension     dimension of the positive definite {@link MatrixReal} to be generated.
+     * @return  random positive definite {@link MatrixReal}.
+     */
+    private MatrixReal randomPositiveDefiniteMatrix( int dimension )
+    {
+        MatrixReal M = MatrixReal.random( dimension , dimension , this.randomNumberGenerator );
+        return M.transpose().multiply( M ).addInplace( MatrixReal.one( dimension ).scaleInplace( 0.1 ) );
+    }
+    
+}
@@ -0,0 +1,126 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link TriangularPackedMatrixReal}.
+ */
+class TriangularPackedMatrixRealTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void entriesOutsideTheTriangleAreZero()
+    {
+        MatrixReal M = MatrixReal.random( 5 , 5 , this.randomNumberGenerator );
+        TriangularPackedMatrixReal L = TriangularPackedMatrixReal.lowerFromMatrixReal( M );
+        TriangularPackedMatrixReal U = TriangularPackedMatrixReal.upperFromMatrixReal( M );
+        for( int i=0; i<5; i++ ) {
+            for( int j=0; j<5; j++ ) {
+                assertEquals( ( j <= i )?  M.entry( i , j )  :  0.0 , L.entry( i , j ) );
+                assertEquals( ( i <= j )?  M.entry( i , j )  :  0.0 , U.entry( i , j ) );
+            }
+        }
+        assertTrue( L.isLower() );
+        assertTrue( U.isUpper() );
+        assertThrows( IllegalArgumentException.class , () -> L.setEntry( 1 , 3 , 1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> U.setEntry( 3 , 1 , 1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> L.entry( 5 , 0 ) );
+    }
+    
+    
+    @Test
+    void transposeSharesStorage()
+    {
+        TriangularPackedMatrixReal L = TriangularPackedMatrixReal.lowerFromMatrixReal( MatrixReal.random( 4 , 4 , this.randomNumberGenerator ) );
+        TriangularPackedMatrixReal U = L.transpose();
+        assertTrue( U.isUpper() );
+        assertTrue( U.toMatrixReal().equals( L.toMatrixReal().transpose() ) );
+        U.setEntry( 1 , 3 , 7.0 );
+        assertEquals( 7.0 , L.entry( 3 , 1 ) );
+    }
+    
+    
+    @Test
+    void productsMatchMatrixRealProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            TriangularPackedMatrixReal L = TriangularPackedMatrixReal.lowerFromMatrixReal( MatrixReal.random( 6 , 6 , this.randomNumberGenerator ) );
+            MatrixReal X = MatrixReal.random( 6 , 3 , this.randomNumberGenerator );
+            MatrixReal Y = MatrixReal.random( 3 , 6 , this.randomNumberGenerator );
+            for( TriangularPackedMatrixReal T : new TriangularPackedMatrixReal[] { L , L.transpose() } ) {
+                MatrixReal full = T.toMatrixReal();
+                assertTrue( X.copy().multiplyLeftByTriangularInplace( T ).equalsApproximately( full.multiply( X ) , 1.0e-12 , 1.0e-12 ) );
+                assertTrue( Y.copy().multiplyRightByTriangularInplace( T ).equalsApproximately( Y.multiply( full ) , 1.0e-12 , 1.0e-12 ) );
+            }
+        }
+    }
+    
+    
+    @Test
+    void solvesInvertProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal M = MatrixReal.random( 6 , 6 , this.randomNumberGenerator ).addInplace( MatrixReal.one( 6 ).scaleInplace( 4.0 ) );
+            TriangularPackedMatrixReal L = TriangularPackedMatrixReal.lowerFromMatrixReal( M );
+            MatrixReal X = MatrixReal.random( 6 , 3 , this.randomNumberGenerator );
+            MatrixReal Y = MatrixReal.random( 3 , 6 , this.randomNumberGenerator );
+            for( TriangularPackedMatrixReal T : new TriangularPackedMatrixReal[] { L , L.transpose() } ) {
+                MatrixReal full = T.toMatrixReal();
+                assertTrue( full.multiply( X ).divideLeftByTriangularInplace( T ).equalsApproximately( X , 1.0e-10 , 1.0e-10 ) );
+                assertTrue( Y.multiply( full ).divideRightByTriangularInplace( T ).equalsApproximately( Y , 1.0e-10 , 1.0e-10 ) );
+            }
+        }
+    }
+    
+    
+    @Test
+    void packedCholeskyDecompositionSolvesLikeMatrixReal()
+    {
+        for( int i=0; i<100; i++ ) {
+            MatrixReal A = MatrixReal.random( 7 , 7 , this.randomNumberGenerator );
+            A = A.transpose().multiply( A ).addInplace( MatrixReal.one( 7 ).scaleInplace( 0.1 ) );
+            TriangularPackedMatrixReal L = A.choleskyDecompositionPacked();
+            MatrixReal fullL = A.choleskyDecomposition();
+            assertTrue( L.toMatrixReal().equalsApproximately( fullL , 1.0e-12 , 1.0e-12 ) );
+            assertTrue( SymmetricPackedMatrixReal.fromMatrixReal( A ).choleskyDecomposition().equals( L ) );
+            MatrixReal B = MatrixReal.random( 7 , 3 , this.randomNumberGenerator );
+            assertTrue( B.divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( L ).equalsApproximately( B.divideLeftByPositiveDefiniteUsingItsCholeskyDecomposition( fullL ) , 1.0e-10 , 1.0e-10 ) );
+            MatrixReal C = MatrixReal.random( 3 , 7 , this.randomNumberGenerator );
+            assertTrue( C.divideRightByPositiveDefiniteUsingItsCholeskyDecomposition( L ).equalsApproximately( C.divideRightByPositiveDefiniteUsingItsCholeskyDecomposition( fullL ) , 1.0e-10 , 1.0e-10 ) );
+        }
+        TriangularPackedMatrixReal U = MatrixReal.one( 3 ).choleskyDecompositionPacked().transpose();
+        assertThrows( IllegalArgumentException.class , () -> MatrixReal.one( 3 ).divideLeftByPositiveDefiniteUsingItsCholeskyDecompositionInplace( U ) );
+        assertThrows( IllegalArgumentException.class , () -> MatrixReal.zero( 3 , 3 ).choleskyDecompositionPacked() );
+    }
+    
+    
+    @Test
+    void lowerFromLDLTDecompositionMatchesMatrixReal()
+    {
+        MatrixReal A = MatrixReal.random( 5 , 5 , this.randomNumberGenerator );
+        A = A.transpose().multiply( A ).addInplace( MatrixReal.one( 5 ) );
+        MatrixReal LD = A.LDLTDecomposition();
+        assertTrue( TriangularPackedMatrixReal.lowerFromLDLTDecomposition( LD ).toMatrixReal().equals( MatrixReal.LfromLDLTDecomposition( LD ) ) );
+    }
+    
+}
@@ -0,0 +1,99 @@
+package numericalLibrary.types;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Implements test methods for {@link TridiagonalMatrixReal}.
+ */
+class TridiagonalMatrixRealTest
+{
+    ////////////////////////////////////////////////////////////////
+    // PRIVATE VARIABLES
+    ////////////////////////////////////////////////////////////////
+    
+    private Random randomNumberGenerator = new Random( 42 );
+    
+    
+    
+    ////////////////////////////////////////////////////////////////
+    // TEST METHODS
+    ////////////////////////////////////////////////////////////////
+    
+    @Test
+    void entriesMatchMatrixReal()
+    {
+        MatrixReal M = MatrixReal.random( 5 , 5 , this.randomNumberGenerator );
+        TridiagonalMatrixReal T = TridiagonalMatrixReal.fromMatrixReal( M );
+        for( int i=0; i<5; i++ ) {
+            for( int j=0; j<5; j++ ) {
+                assertEquals( ( Math.abs( i - j ) <= 1 )?  M.entry( i , j )  :  0.0 , T.entry( i , j ) );
+            }
+        }
+        assertTrue( T.toBandMatrixReal().equals( BandMatrixReal.fromMatrixReal( M , 1 , 1 ) ) );
+        assertTrue( TridiagonalMatrixReal.fromMatrixReal( T.toMatrixReal() ).equals( T ) );
+        assertThrows( IllegalArgumentException.class , () -> T.setEntry( 0 , 2 , 1.0 ) );
+        assertThrows( IllegalArgumentException.class , () -> TridiagonalMatrixReal.fromDiagonals( new double[2] , new double[2] , new double[1] ) );
+    }
+    
+    
+    @Test
+    void thomasAlgorithmInvertsProducts()
+    {
+        for( int i=0; i<100; i++ ) {
+            TridiagonalMatrixReal T = TridiagonalMatrixReal.fromMatrixReal( MatrixReal.random( 20 , 20 , this.randomNumberGenerator ).addInplace( MatrixReal.one( 20 ).scaleInplace( 3.0 ) ) );
+            double[] x = new double[20];
+            for( int k=0; k<20; k++ ) {
+                x[k] = this.randomNumberGenerator.nextGaussian();
+            }
+            double[] solution = T.solveInplace( T.multiply( x ) );
+            for( int k=0; k<20; k++ ) {
+                assertEquals( x[k] , solution[k] , 1.0e-10 );
+            }
+            MatrixReal X = MatrixReal.random( 20 , 3 , this.randomNumberGenerator );
+            assertTrue( T.solveInplace( T.toMatrixReal().multiply( X ) ).equalsApproximately( X , 1.0e-10 , 1.0e-10 ) );
+        }
+    }
+    
+    
+    @Test
+    void concurrentSolvesWithTheSameMatrixAgree()
+    {
+        TridiagonalMatrixReal T = TridiagonalMatrixReal.fromMatrixReal( MatrixReal.random( 50 , 50 , this.randomNumberGenerator ).addInplace( MatrixReal.one( 50 ).scaleInplace( 3.0 ) ) );
+        double[][] rightHandSides = new double[1000][50];
+        for( double[] d : rightHandSides ) {
+            for( int k=0; k<50; k++ ) {
+                d[k] = this.randomNumberGenerator.nextGaussian();
+            }
+        }
+        double[][] expected = new double[ rightHandSides.length ][];
+        double[] workspace = new double[49];
+        for( int i=0; i<rightHandSides.length; i++ ) {
+            expected[i] = T.solveInplace( rightHandSides[i].clone() , workspace );
+        }
+        IntStream.range( 0 , rightHandSides.length ).parallel().forEach( i -> {
+            assertArrayEquals( expected[i] , T.solveInplace( rightHandSides[i].clone() ) );
+        } );
+    }
+    
+    
+    @Test
+    void zeroPivotThrowsException()
+    {
+        TridiagonalMatrixReal T = TridiagonalMatrixReal.zero( 3 );
+        assertThrows( IllegalStateException.class , () -> T.solveInplace( new double[3] ) );
+        assertThrows( IllegalArgumentException.class , () -> T.solveInplace( new double[2] ) );
+        assertThrows( IllegalArgumentException.class , () -> T.solveInplace( new double[3] , new double[1] ) );
+    }
+    
+}
@@ -327,6 +327,55 @@ class UnitQuaternionTest
     }
     
     
+    /**
+     * Tests that the batched rotations of coordinate arrays match {@link UnitQuaternion#rotate(Vector3)} and {@link UnitQuaternion#rotateWithInverse(Vector3)},
+     * both below and above the size from which the work is split among threads.
+     */
+    @Test
+    void batchedRotationCompatibleWithRotate()
+    {
+        for( int n : new int[] { 0 , 1 , 1000 , 200000 } ) {
+            UnitQuaternion q = UnitQuaternion.random( this.randomNumberGenerator );
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            double[] zs = new double[n];
+            double[] xyz = new double[3*n];
+            for( int i=0; i<n; i++ ) {
+                xs[i] = this.randomNumberGenerator.nextGaussian();
+                ys[i] = this.randomNumberGenerator.nextGaussian();
+                zs[i] = this.randomNumberGenerator.nextGaussian();
+                xyz[3*i] = xs[i];
+                xyz[3*i+1] = ys[i];
+                xyz[3*i+2] = zs[i];
+            }
+            double[] xsRotated = new double[n];
+            double[] ysRotated = new double[n];
+            double[] zsRotated = new double[n];
+            q.rotate( xs , ys , zs , xsRotated , ysRotated , zsRotated );
+            double[] xyzRotatedWithInverse = new double[3*n];
+            q.rotateWithInverseInterleaved( xyz , xyzRotatedWithInverse );
+            for( int i=0; i<n; i++ ) {
+                Vector3 v = Vector3.fromComponents( xs[i] , ys[i] , zs[i] );
+                Vector3 rotated = q.rotate( v );
+                assertTrue( rotated.equalsApproximately( Vector3.fromComponents( xsRotated[i] , ysRotated[i] , zsRotated[i] ) , 1.0e-13 , 1.0e-13 ) );
+                Vector3 rotatedWithInverse = q.rotateWithInverse( v );
+                assertTrue( rotatedWithInverse.equalsApproximately( Vector3.fromComponents( xyzRotatedWithInverse[3*i] , xyzRotatedWithInverse[3*i+1] , xyzRotatedWithInverse[3*i+2] ) , 1.0e-13 , 1.0e-13 ) );
+            }
+            // Rotating in place and undoing it recovers the input.
+            q.rotateInterleavedInplace( xyzRotatedWithInverse );
+            q.rotateWithInverseInplace( xsRotated , ysRotated , zsRotated );
+            for( int i=0; i<n; i++ ) {
+                assertEquals( xs[i] , xsRotated[i] , 1.0e-13 );
+                assertEquals( ys[i] , ysRotated[i] , 1.0e-13 );
+                assertEquals( zs[i] , zsRotated[i] , 1.0e-13 );
+                assertEquals( xyz[3*i] , xyzRotatedWithInverse[3*i] , 1.0e-13 );
+                assertEquals( xyz[3*i+1] , xyzRotatedWithInverse[3*i+1] , 1.0e-13 );
+                assertEquals( xyz[3*i+2] , xyzRotatedWithInverse[3*i+2] , 1.0e-13 );
+            }
+        }
+    }
+    
+    
     
     ////////////////////////////////////////////////////////////////
     // PRIVATE METHODS